@@ -0,0 +1,41 @@
+package TechWiz.admin.configs;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class CartConfig {
+
+    @Value("${app.cart.availability.pool-size:1}")
+    private int availabilityPoolSize;
+
+    @Value("${app.cart.availability.queue-capacity:10000}")
+    private int availabilityQueueCapacity;
+
+    /**
+     * Executor for applying product status changes to carts, off the admin's request thread.
+     * When the queue is full, changes are dropped; the availability reconcile job repairs them.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor cartAvailabilityExecutor(MeterRegistry meterRegistry) {
+        LongAdder dropped = new LongAdder();
+        FunctionCounter.builder("cart.availability.dropped", dropped, LongAdder::sum)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(availabilityPoolSize);
+        executor.setMaxPoolSize(availabilityPoolSize);
+        executor.setQueueCapacity(availabilityQueueCapacity);
+        executor.setThreadNamePrefix("cart-availability-");
+        executor.setRejectedExecutionHandler((task, pool) -> dropped.increment());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,139 @@
+package TechWiz.admin.configs;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import TechWiz.auths.configs.JwtPrincipal;
+import TechWiz.auths.configs.JwtUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * STOMP over WebSocket for chat push delivery.
+ *
+ * Clients connect to /ws/chat with an "Authorization: Bearer <jwt>" header on the
+ * STOMP CONNECT frame, then subscribe to /user/queue/messages for direct messages
+ * and /topic/broadcast for broadcasts. Sessions are registered per user id.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class ChatWebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    public static final String USER_QUEUE = "/queue/messages";
+    public static final String BROADCAST_TOPIC = "/topic/broadcast";
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Value("${app.chat.ws.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${app.chat.ws.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.chat.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.chat.push.pool-size:4}")
+    private int pushPoolSize;
+
+    @Value("${app.chat.push.queue-capacity:10000}")
+    private int pushQueueCapacity;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws/chat")
+                .setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic", "/queue");
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Per-connection backpressure: a slow client is disconnected once its
+        // outbound buffer or send time exceeds these limits
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null) {
+                    return message;
+                }
+
+                if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+                    String header = accessor.getFirstNativeHeader("Authorization");
+                    String token = header != null && header.startsWith("Bearer ") ? header.substring(7) : null;
+                    JwtPrincipal principal = jwtUtils.parseJwtToken(token);
+                    if (principal == null || principal.getUserId() == null) {
+                        throw new MessagingException("Unauthorized: a valid JWT is required");
+                    }
+
+                    // The principal name is the user id, so user destinations resolve per user
+                    accessor.setUser(new UsernamePasswordAuthenticationToken(
+                        principal.getUserId().toString(), null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole()))));
+                } else if (StompCommand.SEND.equals(accessor.getCommand())) {
+                    // Messages are sent through the REST API; clients may not publish to broker destinations
+                    String destination = accessor.getDestination();
+                    if (destination == null || !destination.startsWith("/app")) {
+                        throw new MessagingException("Clients may not send to " + destination);
+                    }
+                }
+                return message;
+            }
+        });
+    }
+
+    /**
+     * Executor for chat fan-out, so pushes never run on the request thread.
+     * When the queue is full, pushes are dropped; clients can resync through the REST API.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor chatPushExecutor(MeterRegistry meterRegistry) {
+        LongAdder dropped = new LongAdder();
+        FunctionCounter.builder("chat.push.dropped", dropped, LongAdder::sum)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pushPoolSize);
+        executor.setMaxPoolSize(pushPoolSize);
+        executor.setQueueCapacity(pushQueueCapacity);
+        executor.setThreadNamePrefix("chat-push-");
+        executor.setRejectedExecutionHandler((task, pool) -> dropped.increment());
+        executor.initialize();
+        return executor;
+    }
+}
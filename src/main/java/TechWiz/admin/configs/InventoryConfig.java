@@ -0,0 +1,41 @@
+package TechWiz.admin.configs;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class InventoryConfig {
+
+    @Value("${app.inventory.availability.pool-size:1}")
+    private int availabilityPoolSize;
+
+    @Value("${app.inventory.availability.queue-capacity:10000}")
+    private int availabilityQueueCapacity;
+
+    /**
+     * Executor for flipping isAvailable as products sell out or come back, off the checkout path.
+     * When the queue is full, flips are dropped; the product's next stock change flips it again.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor inventoryExecutor(MeterRegistry meterRegistry) {
+        LongAdder dropped = new LongAdder();
+        FunctionCounter.builder("inventory.availability.dropped", dropped, LongAdder::sum)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(availabilityPoolSize);
+        executor.setMaxPoolSize(availabilityPoolSize);
+        executor.setQueueCapacity(availabilityQueueCapacity);
+        executor.setThreadNamePrefix("inventory-");
+        executor.setRejectedExecutionHandler((task, pool) -> dropped.increment());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -23,6 +23,8 @@ import TechWiz.admin.models.Product;
 import TechWiz.admin.models.ProductCategory;
 import TechWiz.admin.models.dto.CreateProductRequest;
 import TechWiz.admin.models.dto.UpdateProductStatusRequest;
+import TechWiz.admin.models.dto.UpdateProductStockRequest;
+import TechWiz.admin.services.InventoryService;
 import TechWiz.admin.services.ProductService;
 import TechWiz.auths.models.dto.ApiResponse;
 import jakarta.validation.Valid;
@@ -35,6 +37,9 @@ public class AdminProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private InventoryService inventoryService;
+
     @PostMapping(consumes = "application/json", produces = "application/json")
     public ResponseEntity<?> createProduct(@Valid @RequestBody CreateProductRequest request,
                                          @RequestHeader("user-id") Long adminUserId) {
@@ -83,6 +88,29 @@ public class AdminProductController {
         }
     }
 
+    @PutMapping("/{productId}/stock")
+    public ResponseEntity<?> updateProductStock(@PathVariable Long productId,
+                                              @Valid @RequestBody UpdateProductStockRequest request) {
+        try {
+            Integer available = inventoryService.setStock(productId, request.getStockQuantity());
+            return ResponseEntity.ok(new ApiResponse(true, "Product stock updated successfully", available));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Error updating product stock: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{productId}/stock")
+    public ResponseEntity<?> getProductStock(@PathVariable Long productId) {
+        try {
+            Integer available = inventoryService.getAvailableStock(productId);
+            return ResponseEntity.ok(new ApiResponse(true, "Available stock retrieved", available));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Error retrieving product stock: " + e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{productId}")
     public ResponseEntity<?> deleteProduct(@PathVariable Long productId) {
         try {
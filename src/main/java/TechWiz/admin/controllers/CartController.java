@@ -1,5 +1,6 @@
 package TechWiz.admin.controllers;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +12,9 @@ import org.springframework.web.bind.annotation.*;
 import TechWiz.admin.services.CartService;
 import TechWiz.admin.models.dto.AddToCartRequest;
 import TechWiz.admin.models.dto.CartItemResponse;
+import TechWiz.admin.models.dto.CartView;
+import TechWiz.admin.models.dto.MergeCartRequest;
+import TechWiz.admin.services.InventoryService.Reservation;
 import TechWiz.auths.models.dto.ApiResponse;
 
 import jakarta.validation.Valid;
@@ -36,14 +40,24 @@ public class CartController {
         }
     }
 
+    @PostMapping("/merge")
+    public ResponseEntity<?> mergeGuestCart(@Valid @RequestBody MergeCartRequest request,
+                                          @RequestHeader("user-id") Long userId) {
+        try {
+            String result = cartService.mergeGuestCart(userId, request.getItems());
+            return ResponseEntity.ok(new ApiResponse(true, result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Error merging cart: " + e.getMessage()));
+        }
+    }
+
     @GetMapping
     public ResponseEntity<?> getCartItems(@RequestHeader("user-id") Long userId) {
         try {
-            List<CartItemResponse> cartItems = cartService.getCartItems(userId);
-            Double total = cartService.getCartTotal(userId);
-            Integer totalQuantity = cartService.getTotalQuantity(userId);
+            CartView cart = cartService.getCartView(userId);
             
-            CartSummary summary = new CartSummary(cartItems, total, totalQuantity, cartItems.size());
+            CartSummary summary = new CartSummary(cart.getItems(), cart.getTotal(), cart.getTotalQuantity(), cart.getItemCount());
             return ResponseEntity.ok(new ApiResponse(true, "Cart items retrieved", summary));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -92,11 +106,9 @@ public class CartController {
     @GetMapping("/summary")
     public ResponseEntity<?> getCartSummary(@RequestHeader("user-id") Long userId) {
         try {
-            Double total = cartService.getCartTotal(userId);
-            Integer totalQuantity = cartService.getTotalQuantity(userId);
-            Long itemCount = cartService.getCartItemCount(userId);
+            CartView cart = cartService.getCartView(userId);
             
-            CartSummaryInfo summaryInfo = new CartSummaryInfo(total, totalQuantity, itemCount.intValue());
+            CartSummaryInfo summaryInfo = new CartSummaryInfo(cart.getTotal(), cart.getTotalQuantity(), cart.getItemCount());
             return ResponseEntity.ok(new ApiResponse(true, "Cart summary retrieved", summaryInfo));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -107,12 +119,13 @@ public class CartController {
     @PostMapping("/validate")
     public ResponseEntity<?> validateCart(@RequestHeader("user-id") Long userId) {
         try {
-            String validation = cartService.validateCart(userId);
+            CartView cart = cartService.getCartView(userId);
+            String validation = cartService.validateCart(cart);
             boolean isValid = "Cart is valid".equals(validation);
             
             if (!isValid) {
                 // Clean up unavailable items
-                List<String> removedItems = cartService.cleanupUnavailableItems(userId);
+                List<String> removedItems = cartService.cleanupUnavailableItems(userId, cart);
                 if (!removedItems.isEmpty()) {
                     return ResponseEntity.ok(new ApiResponse(false, 
                         validation + ". Removed unavailable items: " + String.join(", ", removedItems)));
@@ -126,14 +139,51 @@ public class CartController {
         }
     }
 
+    @PostMapping("/reserve")
+    public ResponseEntity<?> reserveCart(@RequestHeader("user-id") Long userId) {
+        try {
+            Reservation reservation = cartService.reserveCart(userId);
+            return ResponseEntity.ok(new ApiResponse(true, "Stock reserved", reservation));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Error reserving stock: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/reserve/{reservationId}")
+    public ResponseEntity<?> releaseReservation(@PathVariable String reservationId,
+                                              @RequestHeader("user-id") Long userId) {
+        try {
+            boolean released = cartService.releaseReservation(userId, reservationId);
+            return ResponseEntity.ok(new ApiResponse(released,
+                released ? "Reservation released" : "Reservation not found or already expired"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Error releasing reservation: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/checkout/{reservationId}")
+    public ResponseEntity<?> checkout(@PathVariable String reservationId,
+                                    @RequestHeader("user-id") Long userId) {
+        try {
+            boolean completed = cartService.processCartForOrder(userId, reservationId);
+            return ResponseEntity.ok(new ApiResponse(completed,
+                completed ? "Checkout completed" : "Reservation expired, please reserve again"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Error completing checkout: " + e.getMessage()));
+        }
+    }
+
     // Inner classes for response structure
     public static class CartSummary {
         public List<CartItemResponse> items;
-        public Double total;
+        public BigDecimal total;
         public Integer totalQuantity;
         public Integer itemCount;
 
-        public CartSummary(List<CartItemResponse> items, Double total, Integer totalQuantity, Integer itemCount) {
+        public CartSummary(List<CartItemResponse> items, BigDecimal total, Integer totalQuantity, Integer itemCount) {
             this.items = items;
             this.total = total;
             this.totalQuantity = totalQuantity;
@@ -142,11 +192,11 @@ public class CartController {
     }
 
     public static class CartSummaryInfo {
-        public Double total;
+        public BigDecimal total;
         public Integer totalQuantity;
         public Integer itemCount;
 
-        public CartSummaryInfo(Double total, Integer totalQuantity, Integer itemCount) {
+        public CartSummaryInfo(BigDecimal total, Integer totalQuantity, Integer itemCount) {
             this.total = total;
             this.totalQuantity = totalQuantity;
             this.itemCount = itemCount;
@@ -43,6 +43,19 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/conversation/{userId}/history")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> getConversationHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            HttpServletRequest httpRequest) {
+        
+        Long currentUserId = (Long) httpRequest.getAttribute("userId");
+        ApiResponse response = chatService.getConversationPage(currentUserId, userId, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/messages")
     @PreAuthorize("hasAnyRole('ADMIN', 'PET_OWNER', 'VETERINARIAN', 'SHELTER')")
     public ResponseEntity<ApiResponse> getMessagesForUser(
@@ -55,6 +68,18 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/messages/feed")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PET_OWNER', 'VETERINARIAN', 'SHELTER')")
+    public ResponseEntity<ApiResponse> getMessageFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest httpRequest) {
+        
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        ApiResponse response = chatService.getMessagesForUserPage(userId, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/broadcast")
     public ResponseEntity<ApiResponse> getBroadcastMessages() {
         ApiResponse response = chatService.getBroadcastMessages();
@@ -77,6 +102,14 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/unread/count/by-sender")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PET_OWNER', 'VETERINARIAN', 'SHELTER')")
+    public ResponseEntity<ApiResponse> getUnreadCountsBySender(HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        ApiResponse response = chatService.getUnreadCountsBySender(userId);
+        return ResponseEntity.ok(response);
+    }
+    
     @PutMapping("/read/{senderId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PET_OWNER', 'VETERINARIAN', 'SHELTER')")
     public ResponseEntity<ApiResponse> markMessagesAsRead(
@@ -98,6 +131,16 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/role/{role}/feed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> getMessageFeedByRole(
+            @PathVariable SenderRole role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        ApiResponse response = chatService.getMessagesByRolePage(role, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+    
     @PostMapping("/send-to-user")
     @PreAuthorize("hasAnyRole('ADMIN', 'PET_OWNER', 'VETERINARIAN', 'SHELTER')")
     public ResponseEntity<ApiResponse> sendMessageToUser(
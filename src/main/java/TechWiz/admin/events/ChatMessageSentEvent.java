@@ -0,0 +1,19 @@
+package TechWiz.admin.events;
+
+import TechWiz.admin.models.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by ChatService once a message has been persisted
+ */
+@Getter
+@AllArgsConstructor
+public class ChatMessageSentEvent {
+
+    private final ChatMessage message;
+
+    public boolean isBroadcast() {
+        return message.getReceiverId() == null;
+    }
+}
@@ -0,0 +1,16 @@
+package TechWiz.admin.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by ChatService after a receiver marks a sender's messages as read
+ */
+@Getter
+@AllArgsConstructor
+public class ChatMessagesReadEvent {
+
+    private final Long receiverId;
+
+    private final Long senderId;
+}
@@ -0,0 +1,14 @@
+package TechWiz.admin.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by ProductService when a product's price changes
+ */
+@Getter
+@AllArgsConstructor
+public class ProductPriceChangedEvent {
+
+    private final Long productId;
+}
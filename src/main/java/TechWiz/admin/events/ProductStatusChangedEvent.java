@@ -0,0 +1,18 @@
+package TechWiz.admin.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by ProductService when a product becomes sellable or stops being sellable,
+ * including when it is deleted
+ */
+@Getter
+@AllArgsConstructor
+public class ProductStatusChangedEvent {
+
+    private final Long productId;
+
+    // Active and available after the change
+    private final boolean available;
+}
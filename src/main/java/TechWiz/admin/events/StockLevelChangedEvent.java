@@ -0,0 +1,14 @@
+package TechWiz.admin.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by InventoryService when a product sells out, comes back in stock or is restocked
+ */
+@Getter
+@AllArgsConstructor
+public class StockLevelChangedEvent {
+
+    private final Long productId;
+}
@@ -8,7 +8,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_cart_user_product", columnNames = {"user_id", "product_id"})
+}, indexes = {
+    @Index(name = "idx_cart_product", columnList = "product_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +35,10 @@ public class CartItem {
     @Column(nullable = false)
     private Integer quantity;
     
+    // Kept in step with the product by CartAvailabilityService, so checkout never joins products
+    @Column(name = "product_available", nullable = false, columnDefinition = "BIT(1) NOT NULL DEFAULT 1")
+    private boolean productAvailable = true;
+    
     @Column(name = "added_at", nullable = false)
     private LocalDateTime addedAt;
     
@@ -39,7 +47,10 @@ public class CartItem {
     
     @PrePersist
     protected void onCreate() {
-        addedAt = LocalDateTime.now();
+        // Rows written behind from Redis keep the time the product was actually added
+        if (addedAt == null) {
+            addedAt = LocalDateTime.now();
+        }
         updatedAt = LocalDateTime.now();
     }
     
@@ -9,6 +9,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -16,7 +17,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+    // Keyset pagination seeks on (created_at, id) within each access path
+    @Index(name = "idx_chat_sender_receiver_created", columnList = "sender_id, receiver_id, created_at, id"),
+    @Index(name = "idx_chat_sender_created", columnList = "sender_id, created_at, id"),
+    @Index(name = "idx_chat_receiver_created", columnList = "receiver_id, created_at, id"),
+    @Index(name = "idx_chat_role_created", columnList = "sender_role, created_at, id"),
+    // Unread counter rebuilds group by sender within one receiver's unread range
+    @Index(name = "idx_chat_receiver_unread_sender", columnList = "receiver_id, is_read, sender_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
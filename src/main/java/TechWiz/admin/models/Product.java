@@ -6,6 +6,8 @@ import java.time.LocalDateTime;
 import org.hibernate.annotations.DynamicInsert;
 import org.hibernate.annotations.DynamicUpdate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -58,6 +60,21 @@ public class Product {
     @Column(nullable = false)
     private Boolean isAvailable = true;
     
+    // True while isAvailable is off only because tracked stock ran out; a restock switches the
+    // product back on, a product the admin switched off stays off
+    @Column(name = "sold_out", nullable = false, columnDefinition = "BIT(1) NOT NULL DEFAULT 0")
+    private Boolean soldOut = false;
+    
+    // Units on hand as of the last inventory reconcile; null when stock is not tracked.
+    // The live count, net of holds and recent sales, is in Redis (see InventoryService)
+    @Column(name = "stock_quantity")
+    private Integer stockQuantity;
+    
+    // Last inventory reconcile batch applied to stockQuantity, so a retried batch is not applied twice
+    @JsonIgnore
+    @Column(name = "stock_synced_seq", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long stockSyncedSeq = 0L;
+    
     @Column(name = "created_by", nullable = false)
     private Long createdBy;
     
@@ -1,5 +1,6 @@
 package TechWiz.admin.models.dto;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -7,10 +8,14 @@ import lombok.Data;
 @Data
 public class AddToCartRequest {
     
+    // Most units of one product a cart line can hold
+    public static final int MAX_QUANTITY = 99;
+    
     @NotNull(message = "Product ID is required")
     private Long productId;
     
     @NotNull(message = "Quantity is required")
     @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = MAX_QUANTITY, message = "Quantity must be at most " + MAX_QUANTITY)
     private Integer quantity;
 }
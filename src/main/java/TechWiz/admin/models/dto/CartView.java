@@ -0,0 +1,26 @@
+package TechWiz.admin.models.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A cart's items, totals and unavailable lines, built from one cart read
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartView {
+    
+    private List<CartItemResponse> items;
+    private BigDecimal total;
+    private Integer totalQuantity;
+    private Integer itemCount;
+    // Lines whose product is inactive, unavailable or deleted
+    private List<Long> unavailableProductIds;
+    // Names of the unavailable products that still exist
+    private List<String> unavailableProductNames;
+}
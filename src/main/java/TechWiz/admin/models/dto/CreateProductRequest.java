@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 
 import TechWiz.admin.models.ProductCategory;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -26,4 +27,8 @@ public class CreateProductRequest {
     private String brand;
     private String imageUrl;
     private Boolean isActive;
+    
+    // Leave empty for products whose stock is not tracked; only applied on create
+    @Min(value = 0, message = "Stock quantity cannot be negative")
+    private Integer stockQuantity;
 }
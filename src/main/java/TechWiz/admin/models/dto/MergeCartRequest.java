@@ -0,0 +1,16 @@
+package TechWiz.admin.models.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class MergeCartRequest {
+    
+    @NotEmpty(message = "Items are required")
+    @Size(max = 100, message = "At most 100 items can be merged at once")
+    private List<@Valid AddToCartRequest> items;
+}
@@ -0,0 +1,12 @@
+package TechWiz.admin.models.dto;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class UpdateProductStockRequest {
+    
+    // Units on hand; empty to stop tracking stock for the product
+    @Min(value = 0, message = "Stock quantity cannot be negative")
+    private Integer stockQuantity;
+}
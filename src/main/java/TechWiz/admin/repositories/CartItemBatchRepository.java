@@ -0,0 +1,22 @@
+package TechWiz.admin.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import TechWiz.admin.models.CartItem;
+
+/**
+ * Set-based cart_items writes that derived queries cannot express, each one statement per chunk
+ */
+public interface CartItemBatchRepository {
+
+    /**
+     * Insert each (userId, productId) line or overwrite its quantity; relies on uk_cart_user_product
+     */
+    int upsertQuantities(List<CartItem> items);
+
+    /**
+     * Delete every line of the given users that is not in keep
+     */
+    int deleteLinesNotIn(Collection<Long> userIds, List<CartItem> keep);
+}
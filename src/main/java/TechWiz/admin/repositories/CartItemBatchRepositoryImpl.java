@@ -0,0 +1,96 @@
+package TechWiz.admin.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import TechWiz.admin.models.CartItem;
+
+public class CartItemBatchRepositoryImpl implements CartItemBatchRepository {
+
+    // Keeps each statement well under max_allowed_packet
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int upsertQuantities(List<CartItem> items) {
+        int affected = 0;
+        for (int from = 0; from < items.size(); from += ROWS_PER_STATEMENT) {
+            List<CartItem> chunk = items.subList(from, Math.min(from + ROWS_PER_STATEMENT, items.size()));
+            StringBuilder values = new StringBuilder();
+            List<Object> args = new ArrayList<>(chunk.size() * 5);
+            for (CartItem item : chunk) {
+                values.append(values.length() == 0 ? "(?,?,?,?,?,NOW())" : ",(?,?,?,?,?,NOW())");
+                args.add(item.getUserId());
+                args.add(item.getProductId());
+                args.add(item.getQuantity());
+                args.add(item.isProductAvailable());
+                args.add(Timestamp.valueOf(item.getAddedAt() != null ? item.getAddedAt() : LocalDateTime.now()));
+            }
+            // updated_at is assigned first so it still compares against the old quantity. An existing
+            // row keeps its product_available flag, which only the availability job changes
+            affected += jdbcTemplate.update(
+                "INSERT INTO cart_items (user_id, product_id, quantity, product_available, added_at, updated_at) VALUES " + values +
+                " ON DUPLICATE KEY UPDATE updated_at = IF(quantity = VALUES(quantity), updated_at, VALUES(updated_at)), " +
+                "quantity = VALUES(quantity)",
+                args.toArray());
+        }
+        return affected;
+    }
+
+    @Override
+    public int deleteLinesNotIn(Collection<Long> userIds, List<CartItem> keep) {
+        Map<Long, List<CartItem>> keepByUser = new HashMap<>();
+        for (CartItem item : keep) {
+            keepByUser.computeIfAbsent(item.getUserId(), id -> new ArrayList<>()).add(item);
+        }
+        // Users are grouped so that each statement binds about ROWS_PER_STATEMENT users plus kept
+        // lines. A user's lines never span statements, or one chunk would delete what another keeps
+        int deleted = 0;
+        List<Long> chunkUsers = new ArrayList<>();
+        List<CartItem> chunkKeep = new ArrayList<>();
+        for (Long userId : userIds) {
+            List<CartItem> userKeep = keepByUser.getOrDefault(userId, List.of());
+            if (!chunkUsers.isEmpty() && chunkUsers.size() + chunkKeep.size() + 1 + userKeep.size() > ROWS_PER_STATEMENT) {
+                deleted += deleteChunk(chunkUsers, chunkKeep);
+                chunkUsers.clear();
+                chunkKeep.clear();
+            }
+            chunkUsers.add(userId);
+            chunkKeep.addAll(userKeep);
+        }
+        if (!chunkUsers.isEmpty()) {
+            deleted += deleteChunk(chunkUsers, chunkKeep);
+        }
+        return deleted;
+    }
+
+    private int deleteChunk(List<Long> userIds, List<CartItem> keep) {
+        StringBuilder sql = new StringBuilder("DELETE FROM cart_items WHERE user_id IN (");
+        List<Object> args = new ArrayList<>(userIds.size() + keep.size() * 2);
+        for (Long userId : userIds) {
+            sql.append(args.isEmpty() ? "?" : ",?");
+            args.add(userId);
+        }
+        sql.append(")");
+        if (!keep.isEmpty()) {
+            sql.append(" AND (user_id, product_id) NOT IN (");
+            for (int i = 0; i < keep.size(); i++) {
+                sql.append(i == 0 ? "(?,?)" : ",(?,?)");
+                args.add(keep.get(i).getUserId());
+                args.add(keep.get(i).getProductId());
+            }
+            sql.append(")");
+        }
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+}
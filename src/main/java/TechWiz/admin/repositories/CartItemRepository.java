@@ -1,6 +1,7 @@
 package TechWiz.admin.repositories;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,11 +14,21 @@ import org.springframework.transaction.annotation.Transactional;
 import TechWiz.admin.models.CartItem;
 
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemBatchRepository {
     
     // Find cart items by user
     List<CartItem> findByUserIdOrderByAddedAtDesc(Long userId);
     
+    // Cart lines of products that still exist, rows are [productId, quantity, addedAt, productAvailable];
+    // loads a cart into CartStore
+    @Query("SELECT c.productId, c.quantity, c.addedAt, c.productAvailable FROM CartItem c JOIN c.product p " +
+           "WHERE c.userId = :userId ORDER BY c.addedAt DESC")
+    List<Object[]> findCartLinesByUserId(@Param("userId") Long userId);
+    
+    // Which of the given products still have a cart line
+    @Query("SELECT DISTINCT c.productId FROM CartItem c WHERE c.productId IN :productIds")
+    List<Long> findReferencedProductIds(@Param("productIds") Collection<Long> productIds);
+    
     // Find specific cart item by user and product
     CartItem findByUserIdAndProductId(Long userId, Long productId);
     
@@ -27,14 +38,6 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // Count items in user's cart
     Long countByUserId(Long userId);
     
-    // Calculate total cart value for user
-    @Query("SELECT SUM(c.quantity * c.product.price) FROM CartItem c WHERE c.userId = :userId")
-    Double calculateCartTotal(@Param("userId") Long userId);
-    
-    // Count total quantity in user's cart
-    @Query("SELECT SUM(c.quantity) FROM CartItem c WHERE c.userId = :userId")
-    Integer calculateTotalQuantity(@Param("userId") Long userId);
-    
     // Remove old cart items (cleanup utility)
     @Modifying
     @Transactional
@@ -57,14 +60,23 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Transactional
     void deleteByUserIdAndProductId(Long userId, Long productId);
     
+    // Flag every line of one product in a single statement, found through idx_cart_product
+    @Modifying
+    @Transactional
+    @Query("UPDATE CartItem c SET c.productAvailable = :available " +
+           "WHERE c.productId = :productId AND c.productAvailable <> :available")
+    int updateProductAvailability(@Param("productId") Long productId, @Param("available") boolean available);
+    
+    // Re-derive the flag of every line whose product status drifted from it
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE cart_items c JOIN products p ON p.id = c.product_id " +
+                   "SET c.product_available = (p.is_active AND p.is_available) " +
+                   "WHERE c.product_available <> (p.is_active AND p.is_available)", nativeQuery = true)
+    int reconcileProductAvailability();
+    
     // Delete all cart items for user
     @Modifying
     @Transactional
     void deleteByUserId(Long userId);
-    
-    // Find cart items for products that are inactive or unavailable
-    @Query("SELECT c FROM CartItem c JOIN c.product p WHERE " +
-           "(p.isActive = false OR p.isAvailable = false) " +
-           "AND c.userId = :userId")
-    List<CartItem> findUnavailableCartItems(@Param("userId") Long userId);
 }
@@ -1,5 +1,7 @@
 package TechWiz.admin.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -45,6 +47,67 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     @Query("SELECT COUNT(c) FROM ChatMessage c WHERE c.receiverId = :userId AND c.isRead = false")
     Long countUnreadMessagesForUser(@Param("userId") Long userId);
     
+    // Unread counts per sender for one receiver, rows are [senderId, count]
+    @Query("SELECT c.senderId, COUNT(c) FROM ChatMessage c WHERE c.receiverId = :userId AND c.isRead = false " +
+           "GROUP BY c.senderId")
+    List<Object[]> countUnreadBySender(@Param("userId") Long userId);
+    
+    // Unread counts per sender for a batch of receivers, rows are [receiverId, senderId, count]
+    @Query("SELECT c.receiverId, c.senderId, COUNT(c) FROM ChatMessage c " +
+           "WHERE c.receiverId IN :userIds AND c.isRead = false GROUP BY c.receiverId, c.senderId")
+    List<Object[]> countUnreadBySenderForUsers(@Param("userIds") Collection<Long> userIds);
+    
     // Find messages by sender role
     Page<ChatMessage> findBySenderRoleOrderByCreatedAtDesc(SenderRole senderRole, Pageable pageable);
+    
+    // Keyset pages, newest first. The "After" variants seek past the last (createdAt, id) seen,
+    // so deep pages cost the same as the first one. Pass PageRequest.of(0, limit) for the limit.
+    // Each query has a single equality prefix matching one index, so MySQL reads it in index order
+    // and stops at the limit; ChatService merges two of them where a page spans both directions.
+    
+    // One direction of a conversation, read from idx_chat_sender_receiver_created
+    @Query("SELECT c FROM ChatMessage c WHERE c.senderId = :senderId AND c.receiverId = :receiverId " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChatMessage> findSentToPage(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId,
+                                     Pageable pageable);
+    
+    @Query("SELECT c FROM ChatMessage c WHERE c.senderId = :senderId AND c.receiverId = :receiverId AND " +
+           "(c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChatMessage> findSentToPageAfter(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId,
+                                          @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                          Pageable pageable);
+    
+    // Everything a user sent, read from idx_chat_sender_created
+    @Query("SELECT c FROM ChatMessage c WHERE c.senderId = :senderId ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChatMessage> findSentByPage(@Param("senderId") Long senderId, Pageable pageable);
+    
+    @Query("SELECT c FROM ChatMessage c WHERE c.senderId = :senderId AND " +
+           "(c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChatMessage> findSentByPageAfter(@Param("senderId") Long senderId,
+                                          @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                          Pageable pageable);
+    
+    // Everything a user received, read from idx_chat_receiver_created
+    @Query("SELECT c FROM ChatMessage c WHERE c.receiverId = :receiverId ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChatMessage> findReceivedByPage(@Param("receiverId") Long receiverId, Pageable pageable);
+    
+    @Query("SELECT c FROM ChatMessage c WHERE c.receiverId = :receiverId AND " +
+           "(c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChatMessage> findReceivedByPageAfter(@Param("receiverId") Long receiverId,
+                                              @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                              Pageable pageable);
+    
+    @Query("SELECT c FROM ChatMessage c WHERE c.senderRole = :senderRole " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChatMessage> findBySenderRolePage(@Param("senderRole") SenderRole senderRole, Pageable pageable);
+    
+    @Query("SELECT c FROM ChatMessage c WHERE c.senderRole = :senderRole AND " +
+           "(c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChatMessage> findBySenderRolePageAfter(@Param("senderRole") SenderRole senderRole,
+                                                @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                Pageable pageable);
 }
@@ -1,11 +1,16 @@
 package TechWiz.admin.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import TechWiz.admin.models.Product;
 import TechWiz.admin.models.ProductCategory;
@@ -43,4 +48,31 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     // Count products by category
     Long countByCategoryAndIsActiveTrueAndIsAvailableTrue(ProductCategory category);
+    
+    // Which of the given ids still exist
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    // Products that cannot be checked out
+    @Query("SELECT p.id FROM Product p WHERE p.isActive = false OR p.isAvailable = false")
+    List<Long> findUnavailableIds();
+    
+    // Rows are [id, stockQuantity, stockSyncedSeq]; seeds InventoryService's live counts
+    @Query("SELECT p.id, p.stockQuantity, p.stockSyncedSeq FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockLevels(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT COALESCE(MAX(p.stockSyncedSeq), 0) FROM Product p")
+    long findMaxStockSyncedSeq();
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.stockQuantity = :stockQuantity, p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int updateStockQuantity(@Param("id") Long id, @Param("stockQuantity") Integer stockQuantity);
+    
+    // Deduct one reconcile batch's sales; a no-op if the batch was already applied
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.stockQuantity = CASE WHEN p.stockQuantity > :sold THEN p.stockQuantity - :sold ELSE 0 END, " +
+           "p.stockSyncedSeq = :seq WHERE p.id = :id AND p.stockQuantity IS NOT NULL AND p.stockSyncedSeq < :seq")
+    int applySoldStock(@Param("id") Long id, @Param("sold") int sold, @Param("seq") long seq);
 }
@@ -0,0 +1,117 @@
+package TechWiz.admin.services;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import TechWiz.admin.events.ProductStatusChangedEvent;
+import TechWiz.admin.models.Product;
+import TechWiz.admin.repositories.CartItemRepository;
+import TechWiz.admin.repositories.ProductRepository;
+
+/**
+ * Keeps cart lines' availability flags in step with their products.
+ *
+ * A product status change is applied off the request thread: one UPDATE over cart_items by
+ * product_id, one write to CartStore's unavailable-products set and an eviction of CartService's
+ * product snapshot. The job re-reads the product rather than trusting the event, so events
+ * applied out of order still settle on the committed status. A periodic reconcile rebuilds both
+ * sides from the products table to repair anything a dropped event or a Redis outage missed.
+ */
+@Service
+public class CartAvailabilityService {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Non-null while reconcile runs; products changed meanwhile are re-applied after the swap
+    private volatile Set<Long> changedDuringReconcile;
+
+    @Async("cartAvailabilityExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductStatusChanged(ProductStatusChangedEvent event) {
+        Set<Long> changed = changedDuringReconcile;
+        if (changed != null) {
+            changed.add(event.getProductId());
+        }
+        apply(event.getProductId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * Rebuild the unavailable-products set and repair drifted cart_items flags
+     */
+    @Scheduled(fixedDelayString = "${app.cart.availability-reconcile-interval-ms:600000}",
+               initialDelayString = "${app.cart.availability-reconcile-interval-ms:600000}")
+    public synchronized void reconcile() {
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringReconcile = changed;
+        try {
+            Set<Long> unavailable = new HashSet<>(productRepository.findUnavailableIds());
+            // Deleted products are not in the table any more but their lines stay flagged, until no
+            // cart line refers to them; otherwise the set would keep every id ever deleted
+            Set<Long> flagged = cartStore.getUnavailableProducts();
+            if (!flagged.isEmpty()) {
+                flagged.removeAll(productRepository.findExistingIds(flagged));
+                if (!flagged.isEmpty()) {
+                    unavailable.addAll(cartItemRepository.findReferencedProductIds(flagged));
+                }
+            }
+            cartStore.replaceUnavailableProducts(unavailable);
+
+            int drifted = cartItemRepository.reconcileProductAvailability();
+            if (drifted > 0) {
+                System.out.println("Cart availability reconcile fixed " + drifted + " cart line(s)");
+            }
+        } catch (Exception e) {
+            System.err.println("Cart availability reconcile failed: " + e.getMessage());
+        } finally {
+            changedDuringReconcile = null;
+        }
+        changed.forEach(this::apply);
+    }
+
+    private void apply(Long productId) {
+        boolean available = productRepository.findById(productId)
+            .map(CartAvailabilityService::isSellable)
+            .orElse(false);
+        cartService.evictProduct(productId);
+        try {
+            cartStore.markProductAvailability(productId, available);
+        } catch (Exception e) {
+            // The reconcile job rebuilds the set once Redis is reachable again
+            System.err.println("Failed to flag cart lines of product " + productId + " in Redis: " + e.getMessage());
+        }
+        try {
+            cartItemRepository.updateProductAvailability(productId, available);
+        } catch (Exception e) {
+            System.err.println("Failed to flag cart_items of product " + productId + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isSellable(Product product) {
+        return Boolean.TRUE.equals(product.getIsActive()) && Boolean.TRUE.equals(product.getIsAvailable());
+    }
+}
@@ -1,158 +1,231 @@
 package TechWiz.admin.services;
 
-import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import TechWiz.admin.models.CartItem;
+import TechWiz.admin.events.ProductPriceChangedEvent;
 import TechWiz.admin.models.Product;
 import TechWiz.admin.models.dto.AddToCartRequest;
 import TechWiz.admin.models.dto.CartItemResponse;
-import TechWiz.admin.repositories.CartItemRepository;
+import TechWiz.admin.models.dto.CartView;
 import TechWiz.admin.repositories.ProductRepository;
+import TechWiz.admin.services.CartStore.CartLine;
+import TechWiz.admin.services.InventoryService.Reservation;
+import TechWiz.common.cache.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 
+/**
+ * Shopping cart operations over CartStore. Product availability and prices are read through a
+ * short-lived in-process snapshot cache so adding to the cart does not hit MySQL every time.
+ * Carts are always priced at the current product price: a price change evicts the snapshot on
+ * this node and reaches the others within app.cart.product-cache-ttl-seconds.
+ * Whether a line can be checked out comes from the flag CartStore reads with the cart, which
+ * CartAvailabilityService keeps current as products change status.
+ * Not transactional: cart reads and writes go to Redis and must not hold a database connection.
+ */
 @Service
-@Transactional
 public class CartService {
 
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private CartStore cartStore;
     
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cart.product-cache-max-entries:10000}")
+    private int productCacheMaxEntries;
+
+    @Value("${app.cart.product-cache-ttl-seconds:30}")
+    private long productCacheTtlSeconds;
+
+    private BoundedTtlCache<Long, ProductSnapshot> productCache;
+
+    @PostConstruct
+    public void init() {
+        productCache = new BoundedTtlCache<>(productCacheMaxEntries);
+        productCache.bindTo(meterRegistry, "cart.product.cache");
+    }
+
     public String addToCart(AddToCartRequest request, Long userId) {
         // Check if product exists and is available
-        Optional<Product> productOpt = productRepository.findById(request.getProductId());
-        if (productOpt.isEmpty()) {
+        ProductSnapshot product = findProduct(request.getProductId());
+        if (product == null) {
             return "Product not found";
         }
-
-        Product product = productOpt.get();
-        if (!product.getIsActive() || !product.getIsAvailable()) {
+        if (!product.available()) {
             return "Product is not available";
         }
 
-        // Check if item already exists in cart
-        CartItem existingItem = cartItemRepository.findByUserIdAndProductId(userId, request.getProductId());
-        
-        if (existingItem != null) {
-            // Update existing cart item
-            int newQuantity = existingItem.getQuantity() + request.getQuantity();
-            
-            existingItem.setQuantity(newQuantity);
-            existingItem.setUpdatedAt(LocalDateTime.now());
-            cartItemRepository.save(existingItem);
-            return "Cart updated successfully";
-        } else {
-            // Create new cart item
-            CartItem cartItem = new CartItem();
-            cartItem.setUserId(userId);
-            cartItem.setProductId(request.getProductId());
-            cartItem.setProduct(product);
-            cartItem.setQuantity(request.getQuantity());
-            cartItem.setAddedAt(LocalDateTime.now());
-            cartItem.setUpdatedAt(LocalDateTime.now());
-            cartItemRepository.save(cartItem);
-            return "Product added to cart successfully";
+        long quantity = cartStore.add(userId, product.id(), request.getQuantity());
+        if (quantity == CartStore.OVER_LIMIT) {
+            return "At most " + AddToCartRequest.MAX_QUANTITY + " of a product can be in the cart";
+        }
+        return quantity > request.getQuantity() ? "Cart updated successfully" : "Product added to cart successfully";
+    }
+
+    /**
+     * Add a guest cart to the user's cart in one atomic step, skipping products that are gone or unavailable
+     */
+    public String mergeGuestCart(Long userId, List<AddToCartRequest> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (AddToCartRequest item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        Map<Long, ProductSnapshot> products = findProducts(quantities.keySet());
+
+        List<CartLine> lines = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            ProductSnapshot product = products.get(productId);
+            if (product != null && product.available()) {
+                lines.add(new CartLine(productId, quantity, null, true));
+            } else if (product != null) {
+                skipped.add(product.name());
+            }
+        });
+
+        int merged = cartStore.merge(userId, lines);
+        String result = "Merged " + merged + " item(s) into cart";
+        if (!skipped.isEmpty()) {
+            result += ". Skipped unavailable items: " + String.join(", ", skipped);
         }
+        return result;
     }
 
     public String updateCartItem(Long userId, Long productId, Integer quantity) {
         if (quantity <= 0) {
             return removeFromCart(userId, productId);
         }
-
-        CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, productId);
-        if (cartItem == null) {
-            return "Item not found in cart";
+        if (quantity > AddToCartRequest.MAX_QUANTITY) {
+            return "At most " + AddToCartRequest.MAX_QUANTITY + " of a product can be in the cart";
         }
 
         // Check product availability
-        Optional<Product> productOpt = productRepository.findById(productId);
-        if (productOpt.isEmpty() || !productOpt.get().getIsActive() || !productOpt.get().getIsAvailable()) {
+        ProductSnapshot product = findProduct(productId);
+        if (product == null || !product.available()) {
             return "Product is no longer available";
         }
 
-        cartItem.setQuantity(quantity);
-        cartItem.setUpdatedAt(LocalDateTime.now());
-        cartItemRepository.save(cartItem);
+        if (!cartStore.setQuantity(userId, productId, quantity)) {
+            return "Item not found in cart";
+        }
         return "Cart updated successfully";
     }
 
     public String removeFromCart(Long userId, Long productId) {
-        CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, productId);
-        if (cartItem != null) {
-            cartItemRepository.delete(cartItem);
+        if (cartStore.remove(userId, List.of(productId)) > 0) {
             return "Item removed from cart";
         }
         return "Item not found in cart";
     }
 
     public void clearCart(Long userId) {
-        cartItemRepository.deleteByUserId(userId);
+        cartStore.clear(userId);
     }
 
-    public List<CartItemResponse> getCartItems(Long userId) {
-        List<CartItem> cartItems = cartItemRepository.findByUserIdOrderByAddedAtDesc(userId);
-        
-        return cartItems.stream().map(this::convertToResponse).collect(Collectors.toList());
-    }
+    /**
+     * Items, totals and unavailable lines from one cart read and at most one product query
+     */
+    public CartView getCartView(Long userId) {
+        List<CartLine> lines = cartStore.getLines(userId);
+        Map<Long, ProductSnapshot> products = findProducts(lines);
 
-    public Double getCartTotal(Long userId) {
-        Double total = cartItemRepository.calculateCartTotal(userId);
-        return total != null ? total : 0.0;
+        List<CartItemResponse> items = new ArrayList<>(lines.size());
+        List<Long> unavailableIds = new ArrayList<>();
+        List<String> unavailableNames = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        int totalQuantity = 0;
+        for (CartLine line : lines) {
+            ProductSnapshot product = products.get(line.productId());
+            if (product == null) {
+                // Deleted since it was added: not shown, but still cleaned up
+                unavailableIds.add(line.productId());
+                continue;
+            }
+            CartItemResponse item = convertToResponse(line, product);
+            items.add(item);
+            total = total.add(item.getSubtotal());
+            totalQuantity += line.quantity();
+            if (!line.available()) {
+                unavailableIds.add(line.productId());
+                unavailableNames.add(product.name());
+            }
+        }
+        return new CartView(items, total, totalQuantity, items.size(), unavailableIds, unavailableNames);
     }
 
-    public Integer getTotalQuantity(Long userId) {
-        Integer total = cartItemRepository.calculateTotalQuantity(userId);
-        return total != null ? total : 0;
+    public List<CartItemResponse> getCartItems(Long userId) {
+        return getCartView(userId).getItems();
     }
 
-    public Long getCartItemCount(Long userId) {
-        return cartItemRepository.countByUserId(userId);
+    // Validate cart before checkout; a flag check on each line, products are only read to name a failure
+    public String validateCart(Long userId) {
+        return validateLines(cartStore.getLines(userId));
     }
 
-    // Validate cart before checkout
-    public String validateCart(Long userId) {
-        List<CartItem> cartItems = cartItemRepository.findByUserIdOrderByAddedAtDesc(userId);
-        
-        if (cartItems.isEmpty()) {
+    public String validateCart(CartView cart) {
+        if (cart.getItems().isEmpty() && cart.getUnavailableProductIds().isEmpty()) {
             return "Cart is empty";
         }
-
-        for (CartItem item : cartItems) {
-            Product product = item.getProduct();
-            
-            if (!product.getIsActive() || !product.getIsAvailable()) {
-                return "Product '" + product.getName() + "' is no longer available";
-            }
+        if (!cart.getUnavailableProductNames().isEmpty()) {
+            return "Product '" + cart.getUnavailableProductNames().get(0) + "' is no longer available";
+        }
+        if (!cart.getUnavailableProductIds().isEmpty()) {
+            return "A product in your cart no longer exists";
         }
-        
         return "Cart is valid";
     }
 
     // Clean up unavailable items from cart
     public List<String> cleanupUnavailableItems(Long userId) {
-        List<CartItem> unavailableItems = cartItemRepository.findUnavailableCartItems(userId);
-        List<String> removedItems = unavailableItems.stream()
-            .map(item -> item.getProduct().getName())
-            .collect(Collectors.toList());
-            
-        cartItemRepository.deleteAll(unavailableItems);
-        return removedItems;
-    }
-
-    // For order processing - no stock reduction needed with simplified model  
-    public boolean processCartForOrder(Long userId) {
-        // First validate all items are still available
-        String validation = validateCart(userId);
+        return cleanupUnavailableItems(userId, getCartView(userId));
+    }
+
+    public List<String> cleanupUnavailableItems(Long userId, CartView cart) {
+        cartStore.remove(userId, cart.getUnavailableProductIds());
+        return cart.getUnavailableProductNames();
+    }
+
+    /**
+     * Hold stock for every line of a valid cart, all or nothing, ahead of payment
+     */
+    public Reservation reserveCart(Long userId) {
+        List<CartLine> lines = cartStore.getLines(userId);
+        String validation = validateLines(lines);
         if (!"Cart is valid".equals(validation)) {
+            throw new RuntimeException(validation);
+        }
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        lines.forEach(line -> quantities.put(line.productId(), line.quantity()));
+        return inventoryService.reserve(userId, quantities);
+    }
+
+    public boolean releaseReservation(Long userId, String reservationId) {
+        return inventoryService.release(userId, reservationId);
+    }
+
+    // For order processing: stock was taken by the reservation, committing it makes the sale
+    public boolean processCartForOrder(Long userId, String reservationId) {
+        if (!inventoryService.commit(userId, reservationId)) {
             return false;
         }
 
@@ -161,17 +234,85 @@ public class CartService {
         return true;
     }
 
-    private CartItemResponse convertToResponse(CartItem cartItem) {
+    /**
+     * Drop a product's cached snapshot so the next cart operation reads its current status
+     */
+    public void evictProduct(Long productId) {
+        productCache.invalidate(productId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductPriceChanged(ProductPriceChangedEvent event) {
+        evictProduct(event.getProductId());
+    }
+
+    private String validateLines(List<CartLine> lines) {
+        if (lines.isEmpty()) {
+            return "Cart is empty";
+        }
+        for (CartLine line : lines) {
+            if (!line.available()) {
+                ProductSnapshot product = findProduct(line.productId());
+                return product != null
+                    ? "Product '" + product.name() + "' is no longer available"
+                    : "A product in your cart no longer exists";
+            }
+        }
+        return "Cart is valid";
+    }
+
+    private ProductSnapshot findProduct(Long productId) {
+        return productCache.get(productId,
+            id -> productRepository.findById(id).map(ProductSnapshot::of).orElse(null),
+            Duration.ofSeconds(productCacheTtlSeconds));
+    }
+
+    private Map<Long, ProductSnapshot> findProducts(List<CartLine> lines) {
+        return findProducts(lines.stream().map(CartLine::productId).toList());
+    }
+
+    // Cached snapshots plus one query for the misses
+    private Map<Long, ProductSnapshot> findProducts(Collection<Long> productIds) {
+        Map<Long, ProductSnapshot> products = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            ProductSnapshot product = productCache.get(productId);
+            if (product != null) {
+                products.put(productId, product);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Duration ttl = Duration.ofSeconds(productCacheTtlSeconds);
+            for (Product product : productRepository.findAllById(missing)) {
+                ProductSnapshot snapshot = ProductSnapshot.of(product);
+                productCache.put(product.getId(), snapshot, ttl);
+                products.put(product.getId(), snapshot);
+            }
+        }
+        return products;
+    }
+
+    // Priced from the product snapshot; getCartView sums these subtotals so lines and total agree
+    private CartItemResponse convertToResponse(CartLine line, ProductSnapshot product) {
         CartItemResponse response = new CartItemResponse();
-        response.setId(cartItem.getId());
-        response.setProductId(cartItem.getProductId());
-        response.setProductName(cartItem.getProduct().getName());
-        response.setProductImage(cartItem.getProduct().getImageUrl());
-        response.setPrice(cartItem.getProduct().getPrice());
-        response.setQuantity(cartItem.getQuantity());
-        response.setSubtotal(cartItem.getProduct().getPrice().multiply(java.math.BigDecimal.valueOf(cartItem.getQuantity())));
-        response.setAddedAt(cartItem.getAddedAt());
-        response.setIsAvailable(cartItem.getProduct().getIsActive() && cartItem.getProduct().getIsAvailable());
+        response.setProductId(line.productId());
+        response.setProductName(product.name());
+        response.setProductImage(product.imageUrl());
+        response.setPrice(product.price());
+        response.setQuantity(line.quantity());
+        response.setSubtotal(product.price().multiply(BigDecimal.valueOf(line.quantity())));
+        response.setAddedAt(line.addedAt());
+        response.setIsAvailable(line.available());
         return response;
     }
+
+    private record ProductSnapshot(Long id, String name, String imageUrl, BigDecimal price, boolean available) {
+
+        static ProductSnapshot of(Product product) {
+            return new ProductSnapshot(product.getId(), product.getName(), product.getImageUrl(), product.getPrice(),
+                product.getIsActive() && product.getIsAvailable());
+        }
+    }
 }
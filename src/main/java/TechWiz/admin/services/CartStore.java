@@ -0,0 +1,493 @@
+package TechWiz.admin.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import TechWiz.admin.models.CartItem;
+import TechWiz.admin.models.dto.AddToCartRequest;
+import TechWiz.admin.repositories.CartItemRepository;
+import TechWiz.admin.repositories.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Live shopping carts kept in Redis, written behind to cart_items.
+ *
+ * cart:{userId} is one hash holding q:{productId} -> quantity and t:{productId} -> added-at millis,
+ * plus a "_" marker so an emptied cart is told apart from one that was never loaded. Lines hold no
+ * price: CartService prices every read at the product's current price, so a cart totals the same
+ * whether it came from Redis or was just loaded from cart_items. Every mutation is a single Lua script that also adds the
+ * user to cart:dirty; a scheduled flush pops dirty users in batches and writes each batch with one
+ * delete and one upsert. A cart missing from Redis is loaded from cart_items with one projection
+ * query on first use.
+ *
+ * cart:unavailable-products holds the ids of inactive or unavailable products. Reading a cart
+ * flags its lines against that set in the same script, so callers never look products up to
+ * decide whether a line can be checked out.
+ */
+@Service
+public class CartStore {
+
+    private static final String CART_KEY_PREFIX = "cart:";
+    private static final String DIRTY_KEY = "cart:dirty";
+    private static final String UNAVAILABLE_KEY = "cart:unavailable-products";
+    private static final String LOADED_FIELD = "_";
+    private static final String QUANTITY_PREFIX = "q:";
+    private static final String ADDED_AT_PREFIX = "t:";
+    private static final String UNAVAILABLE_PREFIX = "u:";
+
+    // add() result when the line would go over AddToCartRequest.MAX_QUANTITY
+    static final long OVER_LIMIT = -2;
+
+    // ARGV: ttlSeconds, then productId/quantity/addedAt groups. Never overwrites a cart already loaded
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+        "redis.call('HSET', KEYS[1], '_', '1') " +
+        "for i = 2, #ARGV, 3 do " +
+        "  redis.call('HSET', KEYS[1], 'q:' .. ARGV[i], ARGV[i + 1], 't:' .. ARGV[i], ARGV[i + 2]) " +
+        "end " +
+        "redis.call('EXPIRE', KEYS[1], ARGV[1]) " +
+        "return 1", Long.class);
+
+    // ARGV: userId, productId, quantity, nowMillis, ttlSeconds, maxQuantity. Returns the new quantity,
+    // -1 if not loaded, -2 if the line would go over maxQuantity
+    private static final RedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+        "local current = tonumber(redis.call('HGET', KEYS[1], 'q:' .. ARGV[2]) or '0') " +
+        "if current + tonumber(ARGV[3]) > tonumber(ARGV[6]) then return -2 end " +
+        "local q = redis.call('HINCRBY', KEYS[1], 'q:' .. ARGV[2], ARGV[3]) " +
+        "redis.call('HSETNX', KEYS[1], 't:' .. ARGV[2], ARGV[4]) " +
+        "redis.call('EXPIRE', KEYS[1], ARGV[5]) " +
+        "redis.call('SADD', KEYS[2], ARGV[1]) " +
+        "return q", Long.class);
+
+    // ARGV: userId, nowMillis, ttlSeconds, maxQuantity, then productId/quantity pairs. Lines are capped
+    // at maxQuantity. Returns lines merged, -1 if not loaded
+    private static final RedisScript<Long> MERGE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+        "local merged = 0 " +
+        "for i = 5, #ARGV, 2 do " +
+        "  if redis.call('HINCRBY', KEYS[1], 'q:' .. ARGV[i], ARGV[i + 1]) > tonumber(ARGV[4]) then " +
+        "    redis.call('HSET', KEYS[1], 'q:' .. ARGV[i], ARGV[4]) " +
+        "  end " +
+        "  redis.call('HSETNX', KEYS[1], 't:' .. ARGV[i], ARGV[2]) " +
+        "  merged = merged + 1 " +
+        "end " +
+        "redis.call('EXPIRE', KEYS[1], ARGV[3]) " +
+        "redis.call('SADD', KEYS[2], ARGV[1]) " +
+        "return merged", Long.class);
+
+    // ARGV: userId, productId, quantity, ttlSeconds. Returns 1, 0 if the product is not in the cart, -1 if not loaded
+    private static final RedisScript<Long> SET_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+        "if redis.call('HEXISTS', KEYS[1], 'q:' .. ARGV[2]) == 0 then return 0 end " +
+        "redis.call('HSET', KEYS[1], 'q:' .. ARGV[2], ARGV[3]) " +
+        "redis.call('EXPIRE', KEYS[1], ARGV[4]) " +
+        "redis.call('SADD', KEYS[2], ARGV[1]) " +
+        "return 1", Long.class);
+
+    // ARGV: userId, ttlSeconds, productIds... Returns the number of lines removed, -1 if not loaded
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+        "local removed = 0 " +
+        "for i = 3, #ARGV do " +
+        "  removed = removed + redis.call('HDEL', KEYS[1], 'q:' .. ARGV[i]) " +
+        "  redis.call('HDEL', KEYS[1], 't:' .. ARGV[i]) " +
+        "end " +
+        "if removed > 0 then " +
+        "  redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+        "  redis.call('SADD', KEYS[2], ARGV[1]) " +
+        "end " +
+        "return removed", Long.class);
+
+    // ARGV: userId, ttlSeconds. Leaves only the marker so the flush deletes the persisted rows
+    private static final RedisScript<Long> CLEAR_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('DEL', KEYS[1]) " +
+        "redis.call('HSET', KEYS[1], '_', '1') " +
+        "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+        "redis.call('SADD', KEYS[2], ARGV[1]) " +
+        "return 1", Long.class);
+
+    // The cart hash followed by a u:{productId} pair for every line whose product is unavailable
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_SCRIPT = new DefaultRedisScript<>(
+        "local flat = redis.call('HGETALL', KEYS[1]) " +
+        "local n = #flat " +
+        "for i = 1, n, 2 do " +
+        "  local field = flat[i] " +
+        "  if string.sub(field, 1, 2) == 'q:' then " +
+        "    local productId = string.sub(field, 3) " +
+        "    if redis.call('SISMEMBER', KEYS[2], productId) == 1 then " +
+        "      flat[#flat + 1] = 'u:' .. productId " +
+        "      flat[#flat + 1] = '1' " +
+        "    end " +
+        "  end " +
+        "end " +
+        "return flat", List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> UNAVAILABLE_MEMBERS_SCRIPT = new DefaultRedisScript<>(
+        "return redis.call('SMEMBERS', KEYS[1])", List.class);
+
+    // ARGV: productId, 1 to mark it available or 0 to mark it unavailable
+    private static final RedisScript<Long> MARK_PRODUCT_SCRIPT = new DefaultRedisScript<>(
+        "if ARGV[2] == '1' then return redis.call('SREM', KEYS[1], ARGV[1]) end " +
+        "return redis.call('SADD', KEYS[1], ARGV[1])", Long.class);
+
+    // KEYS: staging set, live set. ARGV: productIds, possibly none. Swaps the whole set in at once
+    private static final RedisScript<Long> REPLACE_UNAVAILABLE_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('DEL', KEYS[1]) " +
+        "for i = 1, #ARGV, 1000 do " +
+        "  redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV))) " +
+        "end " +
+        "if #ARGV == 0 then redis.call('DEL', KEYS[2]) else redis.call('RENAME', KEYS[1], KEYS[2]) end " +
+        "return #ARGV", Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> POP_DIRTY_SCRIPT = new DefaultRedisScript<>(
+        "return redis.call('SPOP', KEYS[1], ARGV[1])", List.class);
+
+    // ARGV: userIds
+    private static final RedisScript<Long> REQUEUE_SCRIPT = new DefaultRedisScript<>(
+        "return redis.call('SADD', KEYS[1], unpack(ARGV))", Long.class);
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${app.cart.ttl-days:30}")
+    private long ttlDays;
+
+    @Value("${app.cart.flush-batch-size:200}")
+    private int flushBatchSize;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Counter loadCounter;
+    private final Counter fallbackCounter;
+    private final Counter flushedCounter;
+    private final Counter flushFailures;
+
+    public CartStore(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loadCounter = meterRegistry.counter("cart.store.loads");
+        this.fallbackCounter = meterRegistry.counter("cart.store.fallback");
+        this.flushedCounter = meterRegistry.counter("cart.store.flushed.carts");
+        this.flushFailures = meterRegistry.counter("cart.store.flush.failures");
+    }
+
+    /**
+     * Lines of a user's cart, newest first; reads cart_items if Redis is unavailable
+     */
+    public List<CartLine> getLines(Long userId) {
+        try {
+            Map<String, String> hash = readHash(userId);
+            if (hash.isEmpty()) {
+                ensureLoaded(userId);
+                hash = readHash(userId);
+            }
+            return toLines(hash);
+        } catch (Exception e) {
+            System.err.println("Cart read failed for user " + userId + ", reading cart_items: " + e.getMessage());
+            fallbackCounter.increment();
+            return loadFromDatabase(userId);
+        }
+    }
+
+    /**
+     * Add quantity of a product; returns the new line quantity, or OVER_LIMIT if the line would
+     * hold more than AddToCartRequest.MAX_QUANTITY
+     */
+    public long add(Long userId, Long productId, int quantity) {
+        return withLoadedCart(userId, () -> runScript(ADD_SCRIPT, userId,
+            userId.toString(), productId.toString(), String.valueOf(quantity),
+            String.valueOf(System.currentTimeMillis()), String.valueOf(ttlSeconds()),
+            String.valueOf(AddToCartRequest.MAX_QUANTITY)));
+    }
+
+    /**
+     * Add several lines at once, all or nothing, each capped at AddToCartRequest.MAX_QUANTITY;
+     * the lines' addedAt is ignored
+     */
+    public int merge(Long userId, List<CartLine> lines) {
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        List<String> args = new ArrayList<>(4 + lines.size() * 2);
+        args.add(userId.toString());
+        args.add(String.valueOf(System.currentTimeMillis()));
+        args.add(String.valueOf(ttlSeconds()));
+        args.add(String.valueOf(AddToCartRequest.MAX_QUANTITY));
+        for (CartLine line : lines) {
+            args.add(line.productId().toString());
+            args.add(line.quantity().toString());
+        }
+        return (int) withLoadedCart(userId, () -> runScript(MERGE_SCRIPT, userId, args.toArray()));
+    }
+
+    /**
+     * Set the quantity of a product already in the cart; false if it is not there
+     */
+    public boolean setQuantity(Long userId, Long productId, int quantity) {
+        return withLoadedCart(userId, () -> runScript(SET_SCRIPT, userId,
+            userId.toString(), productId.toString(), String.valueOf(quantity),
+            String.valueOf(ttlSeconds()))) == 1;
+    }
+
+    /**
+     * Remove products from the cart; returns how many lines were there
+     */
+    public int remove(Long userId, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        List<String> args = new ArrayList<>(productIds.size() + 2);
+        args.add(userId.toString());
+        args.add(String.valueOf(ttlSeconds()));
+        productIds.forEach(productId -> args.add(productId.toString()));
+        return (int) withLoadedCart(userId, () -> runScript(REMOVE_SCRIPT, userId, args.toArray()));
+    }
+
+    public void clear(Long userId) {
+        runScript(CLEAR_SCRIPT, userId, userId.toString(), String.valueOf(ttlSeconds()));
+    }
+
+    /**
+     * Flag or unflag a product's lines in every cart; takes effect on each cart's next read
+     */
+    public void markProductAvailability(Long productId, boolean available) {
+        redisTemplate.execute(MARK_PRODUCT_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+            List.of(UNAVAILABLE_KEY), productId.toString(), available ? "1" : "0");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Set<Long> getUnavailableProducts() {
+        List<String> members = redisTemplate.execute(UNAVAILABLE_MEMBERS_SCRIPT, RedisSerializer.string(),
+            (RedisSerializer) RedisSerializer.string(), List.of(UNAVAILABLE_KEY));
+        Set<Long> productIds = new HashSet<>();
+        if (members != null) {
+            members.forEach(productId -> productIds.add(Long.valueOf(productId)));
+        }
+        return productIds;
+    }
+
+    /**
+     * Replace the whole set of unavailable products, as rebuilt from the products table
+     */
+    public void replaceUnavailableProducts(Collection<Long> productIds) {
+        redisTemplate.execute(REPLACE_UNAVAILABLE_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+            List.of(UNAVAILABLE_KEY + ":staging", UNAVAILABLE_KEY), productIds.stream().map(String::valueOf).toArray());
+    }
+
+    /**
+     * Persist carts changed since the last flush, one batch of users per transaction
+     */
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:5000}")
+    public void flush() {
+        while (true) {
+            List<Long> userIds;
+            try {
+                userIds = popDirty();
+            } catch (Exception e) {
+                System.err.println("Cart flush could not read dirty carts: " + e.getMessage());
+                return;
+            }
+            if (userIds.isEmpty()) {
+                return;
+            }
+
+            try {
+                Map<Long, List<CartLine>> carts = new HashMap<>();
+                for (Long userId : userIds) {
+                    Map<String, String> hash = readHash(userId);
+                    // An expired or evicted cart has nothing newer than its rows; leave them alone
+                    if (!hash.isEmpty()) {
+                        carts.put(userId, toLines(hash));
+                    }
+                }
+                transactionTemplate.executeWithoutResult(status -> persist(carts));
+                flushedCounter.increment(carts.size());
+            } catch (Exception e) {
+                flushFailures.increment();
+                System.err.println("Cart flush failed, re-queueing " + userIds.size() + " cart(s): " + e.getMessage());
+                requeue(userIds);
+                return;
+            }
+            if (userIds.size() < flushBatchSize) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Quantities are written as absolute values, so re-flushing a cart is harmless
+    private void persist(Map<Long, List<CartLine>> carts) {
+        if (carts.isEmpty()) {
+            return;
+        }
+        Set<Long> productIds = new HashSet<>();
+        carts.values().forEach(lines -> lines.forEach(line -> productIds.add(line.productId())));
+        // Skip products deleted since they were added
+        Set<Long> existingProducts = productIds.isEmpty()
+            ? Set.of()
+            : new HashSet<>(productRepository.findExistingIds(productIds));
+
+        List<CartItem> rows = new ArrayList<>();
+        carts.forEach((userId, lines) -> lines.forEach(line -> {
+            if (existingProducts.contains(line.productId())) {
+                CartItem item = new CartItem();
+                item.setUserId(userId);
+                item.setProductId(line.productId());
+                item.setQuantity(line.quantity());
+                item.setAddedAt(line.addedAt());
+                item.setProductAvailable(line.available());
+                rows.add(item);
+            }
+        }));
+
+        cartItemRepository.deleteLinesNotIn(carts.keySet(), rows);
+        cartItemRepository.upsertQuantities(rows);
+    }
+
+    // A mutation on a cart that is not in Redis yet loads it from cart_items and runs again
+    private long withLoadedCart(Long userId, LongSupplier mutation) {
+        long result = mutation.getAsLong();
+        if (result == -1) {
+            ensureLoaded(userId);
+            result = mutation.getAsLong();
+        }
+        return result;
+    }
+
+    private void ensureLoaded(Long userId) {
+        List<CartLine> lines = loadFromDatabase(userId);
+        List<String> args = new ArrayList<>(1 + lines.size() * 3);
+        args.add(String.valueOf(ttlSeconds()));
+        for (CartLine line : lines) {
+            args.add(line.productId().toString());
+            args.add(line.quantity().toString());
+            args.add(String.valueOf(line.addedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+        redisTemplate.execute(LOAD_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+            List.of(cartKey(userId)), args.toArray());
+        loadCounter.increment();
+    }
+
+    private List<CartLine> loadFromDatabase(Long userId) {
+        List<CartLine> lines = new ArrayList<>();
+        for (Object[] row : cartItemRepository.findCartLinesByUserId(userId)) {
+            lines.add(new CartLine((Long) row[0], (Integer) row[1], (LocalDateTime) row[2], (Boolean) row[3]));
+        }
+        return lines;
+    }
+
+    private List<CartLine> toLines(Map<String, String> hash) {
+        Map<Long, CartLine> lines = new LinkedHashMap<>();
+        hash.forEach((field, value) -> {
+            if (field.startsWith(QUANTITY_PREFIX)) {
+                String productId = field.substring(QUANTITY_PREFIX.length());
+                String addedAt = hash.get(ADDED_AT_PREFIX + productId);
+                lines.put(Long.valueOf(productId), new CartLine(Long.valueOf(productId), Integer.valueOf(value),
+                    addedAt != null
+                        ? LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(addedAt)), ZoneId.systemDefault())
+                        : LocalDateTime.now(),
+                    !hash.containsKey(UNAVAILABLE_PREFIX + productId)));
+            }
+        });
+        List<CartLine> sorted = new ArrayList<>(lines.values());
+        sorted.sort(Comparator.comparing(CartLine::addedAt).reversed());
+        return sorted;
+    }
+
+    // Empty when the cart is not in Redis; a loaded cart always has the marker field
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Map<String, String> readHash(Long userId) {
+        List<String> flat = redisTemplate.execute(READ_SCRIPT, RedisSerializer.string(), (RedisSerializer) RedisSerializer.string(),
+            List.of(cartKey(userId), UNAVAILABLE_KEY));
+        Map<String, String> hash = new HashMap<>();
+        if (flat != null) {
+            for (int i = 0; i + 1 < flat.size(); i += 2) {
+                hash.put(flat.get(i), flat.get(i + 1));
+            }
+        }
+        if (!hash.containsKey(LOADED_FIELD)) {
+            hash.clear();
+        }
+        return hash;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Long> popDirty() {
+        List<String> popped = redisTemplate.execute(POP_DIRTY_SCRIPT, RedisSerializer.string(), (RedisSerializer) RedisSerializer.string(),
+            List.of(DIRTY_KEY), String.valueOf(flushBatchSize));
+        List<Long> userIds = new ArrayList<>();
+        if (popped != null) {
+            popped.forEach(userId -> userIds.add(Long.valueOf(userId)));
+        }
+        return userIds;
+    }
+
+    private void requeue(List<Long> userIds) {
+        try {
+            redisTemplate.execute(REQUEUE_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+                List.of(DIRTY_KEY), userIds.stream().map(String::valueOf).toArray());
+        } catch (Exception e) {
+            System.err.println("Failed to re-queue dirty carts, they flush on their next change: " + e.getMessage());
+        }
+    }
+
+    // Script arguments go over the wire as plain strings so Lua can do arithmetic on them
+    private long runScript(RedisScript<Long> script, Long userId, Object... args) {
+        Long result = redisTemplate.execute(script, RedisSerializer.string(), LONG_SERIALIZER,
+            List.of(cartKey(userId), DIRTY_KEY), args);
+        return result != null ? result : 0L;
+    }
+
+    private long ttlSeconds() {
+        return ttlDays * 86400;
+    }
+
+    private String cartKey(Long userId) {
+        return CART_KEY_PREFIX + userId;
+    }
+
+    /**
+     * One product in a cart; available is false once the product has been deactivated or marked unavailable
+     */
+    public record CartLine(Long productId, Integer quantity, LocalDateTime addedAt, boolean available) {
+    }
+}
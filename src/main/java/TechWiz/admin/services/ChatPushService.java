@@ -0,0 +1,51 @@
+package TechWiz.admin.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import TechWiz.admin.configs.ChatWebSocketConfig;
+import TechWiz.admin.events.ChatMessageSentEvent;
+import TechWiz.admin.models.ChatMessage;
+
+/**
+ * Pushes persisted chat messages to open WebSocket sessions
+ */
+@Service
+public class ChatPushService {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    /**
+     * Fan out after commit, on the push executor, so a rolled back message is never delivered
+     * and the request thread does not wait on slow sockets
+     */
+    @Async("chatPushExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageSent(ChatMessageSentEvent event) {
+        ChatMessage message = event.getMessage();
+
+        try {
+            if (event.isBroadcast()) {
+                messagingTemplate.convertAndSend(ChatWebSocketConfig.BROADCAST_TOPIC, message);
+                return;
+            }
+
+            String receiver = message.getReceiverId().toString();
+            // Skip serialization entirely when the receiver has no open session
+            if (userRegistry.getUser(receiver) != null) {
+                messagingTemplate.convertAndSendToUser(receiver, ChatWebSocketConfig.USER_QUEUE, message);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to push chat message " + message.getId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,47 +1,67 @@
 package TechWiz.admin.services;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import TechWiz.admin.events.ChatMessageSentEvent;
+import TechWiz.admin.events.ChatMessagesReadEvent;
 import TechWiz.admin.models.ChatMessage;
 import TechWiz.admin.models.SenderRole;
 import TechWiz.admin.models.dto.SendMessageRequest;
 import TechWiz.admin.repositories.ChatMessageRepository;
-import TechWiz.auths.models.User;
 import TechWiz.auths.models.dto.ApiResponse;
-import TechWiz.auths.repositories.UserRepository;
+import TechWiz.auths.models.dto.UserSnapshot;
+import TechWiz.auths.services.UserCache;
+import TechWiz.common.pagination.CursorCodec;
+import TechWiz.common.pagination.CursorPage;
 
 @Service
 @Transactional
 public class ChatService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private static final Comparator<ChatMessage> NEWEST_FIRST = Comparator
+        .comparing(ChatMessage::getCreatedAt).thenComparing(ChatMessage::getId).reversed();
+    
     @Autowired
     private ChatMessageRepository chatMessageRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private UserCache userCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private UnreadCounterService unreadCounterService;
     
     public ApiResponse sendMessage(SendMessageRequest request, Long senderId) {
         try {
-            Optional<User> senderOptional = userRepository.findById(senderId);
+            Optional<UserSnapshot> senderOptional = userCache.getById(senderId);
             
             if (senderOptional.isEmpty()) {
                 return ApiResponse.error("Sender not found!");
             }
             
-            User sender = senderOptional.get();
+            UserSnapshot sender = senderOptional.get();
             
             // Check if receiver exists (if not broadcast message)
             if (request.getReceiverId() != null) {
-                Optional<User> receiverOptional = userRepository.findById(request.getReceiverId());
+                Optional<UserSnapshot> receiverOptional = userCache.getById(request.getReceiverId());
                 if (receiverOptional.isEmpty()) {
                     return ApiResponse.error("Receiver not found!");
                 }
@@ -58,6 +78,9 @@ public class ChatService {
             
             ChatMessage savedMessage = chatMessageRepository.save(message);
             
+            // Delivered to open WebSocket sessions and counted as unread after commit
+            eventPublisher.publishEvent(new ChatMessageSentEvent(savedMessage));
+            
             String messageType = request.getReceiverId() != null ? "Message" : "Broadcast message";
             return ApiResponse.success(messageType + " sent successfully!", savedMessage);
             
@@ -115,6 +138,9 @@ public class ChatService {
         try {
             chatMessageRepository.markMessagesAsRead(userId, senderId);
             
+            // Unread counter for this sender is reset after commit
+            eventPublisher.publishEvent(new ChatMessagesReadEvent(userId, senderId));
+            
             return ApiResponse.success("Messages marked as read!");
             
         } catch (Exception e) {
@@ -124,7 +150,7 @@ public class ChatService {
     
     public ApiResponse getUnreadCount(Long userId) {
         try {
-            Long count = chatMessageRepository.countUnreadMessagesForUser(userId);
+            long count = unreadCounterService.getUnreadCount(userId);
             
             return ApiResponse.success("Unread count retrieved successfully", count);
             
@@ -133,6 +159,17 @@ public class ChatService {
         }
     }
     
+    public ApiResponse getUnreadCountsBySender(Long userId) {
+        try {
+            Map<Long, Long> counts = unreadCounterService.getUnreadCountsBySender(userId);
+            
+            return ApiResponse.success("Unread counts retrieved successfully", counts);
+            
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to get unread counts: " + e.getMessage());
+        }
+    }
+    
     public ApiResponse getMessagesByRole(SenderRole role, int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -144,4 +181,122 @@ public class ChatService {
             return ApiResponse.error("Failed to retrieve messages by role: " + e.getMessage());
         }
     }
+    
+    // Keyset (cursor) pagination - pages are newest first; pass the returned nextCursor to continue
+    
+    public ApiResponse getConversationPage(Long userId1, Long userId2, String cursor, int size) {
+        try {
+            int limit = clampPageSize(size);
+            Pageable pageable = PageRequest.of(0, limit + 1);
+            
+            List<ChatMessage> rows;
+            if (cursor == null || cursor.isBlank()) {
+                rows = mergeNewestFirst(
+                    chatMessageRepository.findSentToPage(userId1, userId2, pageable),
+                    chatMessageRepository.findSentToPage(userId2, userId1, pageable), limit + 1);
+            } else {
+                String[] position = CursorCodec.decode(cursor, 2);
+                LocalDateTime createdAt = LocalDateTime.parse(position[0]);
+                Long id = Long.valueOf(position[1]);
+                rows = mergeNewestFirst(
+                    chatMessageRepository.findSentToPageAfter(userId1, userId2, createdAt, id, pageable),
+                    chatMessageRepository.findSentToPageAfter(userId2, userId1, createdAt, id, pageable), limit + 1);
+            }
+            
+            return ApiResponse.success("Conversation retrieved successfully", toCursorPage(rows, limit));
+            
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ApiResponse.error("Invalid cursor");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to retrieve conversation: " + e.getMessage());
+        }
+    }
+    
+    public ApiResponse getMessagesForUserPage(Long userId, String cursor, int size) {
+        try {
+            int limit = clampPageSize(size);
+            Pageable pageable = PageRequest.of(0, limit + 1);
+            
+            List<ChatMessage> rows;
+            if (cursor == null || cursor.isBlank()) {
+                rows = mergeNewestFirst(
+                    chatMessageRepository.findSentByPage(userId, pageable),
+                    chatMessageRepository.findReceivedByPage(userId, pageable), limit + 1);
+            } else {
+                String[] position = CursorCodec.decode(cursor, 2);
+                LocalDateTime createdAt = LocalDateTime.parse(position[0]);
+                Long id = Long.valueOf(position[1]);
+                rows = mergeNewestFirst(
+                    chatMessageRepository.findSentByPageAfter(userId, createdAt, id, pageable),
+                    chatMessageRepository.findReceivedByPageAfter(userId, createdAt, id, pageable), limit + 1);
+            }
+            
+            return ApiResponse.success("Messages retrieved successfully", toCursorPage(rows, limit));
+            
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ApiResponse.error("Invalid cursor");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to retrieve messages: " + e.getMessage());
+        }
+    }
+    
+    public ApiResponse getMessagesByRolePage(SenderRole role, String cursor, int size) {
+        try {
+            int limit = clampPageSize(size);
+            Pageable pageable = PageRequest.of(0, limit + 1);
+            
+            List<ChatMessage> rows;
+            if (cursor == null || cursor.isBlank()) {
+                rows = chatMessageRepository.findBySenderRolePage(role, pageable);
+            } else {
+                String[] position = CursorCodec.decode(cursor, 2);
+                rows = chatMessageRepository.findBySenderRolePageAfter(
+                    role, LocalDateTime.parse(position[0]), Long.valueOf(position[1]), pageable);
+            }
+            
+            return ApiResponse.success("Messages by role retrieved successfully", toCursorPage(rows, limit));
+            
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ApiResponse.error("Invalid cursor");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to retrieve messages by role: " + e.getMessage());
+        }
+    }
+    
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+    
+    // Merge two pages that are each newest first into the newest max rows; a message a user sent to
+    // themselves is in both and kept once
+    static List<ChatMessage> mergeNewestFirst(List<ChatMessage> a, List<ChatMessage> b, int max) {
+        List<ChatMessage> merged = new ArrayList<>(Math.min(max, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < max && (i < a.size() || j < b.size())) {
+            ChatMessage next;
+            if (j >= b.size() || (i < a.size() && NEWEST_FIRST.compare(a.get(i), b.get(j)) <= 0)) {
+                next = a.get(i++);
+            } else {
+                next = b.get(j++);
+            }
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).getId().equals(next.getId())) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+    
+    // Rows are fetched with limit + 1 so the extra row tells us whether another page exists
+    private CursorPage<ChatMessage> toCursorPage(List<ChatMessage> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<ChatMessage> items = hasMore ? rows.subList(0, limit) : rows;
+        
+        String nextCursor = null;
+        if (hasMore) {
+            ChatMessage last = items.get(items.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
 }
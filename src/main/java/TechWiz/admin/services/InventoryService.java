@@ -0,0 +1,528 @@
+package TechWiz.admin.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import TechWiz.admin.events.StockLevelChangedEvent;
+import TechWiz.admin.models.dto.AddToCartRequest;
+import TechWiz.admin.repositories.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Product stock under concurrent checkout, kept in Redis and changed only by Lua scripts.
+ *
+ * stock:{productId} is the number of units that can still be reserved, or -1 for a product whose
+ * stock is not tracked. A reservation takes units from every product in a cart at once or from
+ * none, and holds them in stock:hold:{reservationId} until it is committed, released or expires;
+ * stock:hold-expiry orders holds by deadline for the sweeper and stock:held totals the units
+ * held per product. stock:user-hold:{userId} names a user's one live hold, so starting checkout
+ * again swaps the old hold for the new one instead of stacking them. Committing moves a hold's
+ * units into stock:sold, which the reconcile job claims in numbered batches and deducts from
+ * products.stock_quantity.
+ *
+ * A live count missing from Redis is rebuilt as stock_quantity minus held, unreconciled and
+ * in-flight sold units, so it can be reloaded at any time. stock:reconciled-seq names the last
+ * batch finished; a rebuild whose row was read before that batch finished is refused and re-read.
+ *
+ * Products sell out in Redis first; the product is marked sold out off the request thread, and
+ * switched back on by a restock only if selling out is what switched it off.
+ */
+@Service
+public class InventoryService {
+
+    private static final String STOCK_KEY_PREFIX = "stock:";
+    private static final String HELD_KEY = "stock:held";
+    private static final String EXPIRY_KEY = "stock:hold-expiry";
+    private static final String SOLD_KEY = "stock:sold";
+    private static final String RECONCILING_KEY = "stock:sold:reconciling";
+    private static final String SEQ_KEY = "stock:reconcile-seq";
+    private static final String RECONCILED_KEY = "stock:reconciled-seq";
+    private static final String USER_HOLD_KEY_PREFIX = "stock:user-hold:";
+    private static final long UNTRACKED = -1;
+    private static final long RETRY = -3;
+    private static final int MAX_LOAD_ATTEMPTS = 5;
+
+    // Shared by the scripts that end a hold. Drops stock:user-hold:{userId} if it still names the hold
+    private static final String FORGET_FUNCTION =
+        "local function forget(rid, user) " +
+        "  if user and redis.call('GET', 'stock:user-hold:' .. user) == rid then " +
+        "    redis.call('DEL', 'stock:user-hold:' .. user) " +
+        "  end " +
+        "end ";
+
+    // Shared by the scripts that give a hold back. KEYS[1] is stock:held, KEYS[2] stock:hold-expiry;
+    // appends products that were sold out before the release to restocked
+    private static final String RELEASE_FUNCTION =
+        FORGET_FUNCTION +
+        "local function release(rid, restocked) " +
+        "  local holdKey = 'stock:hold:' .. rid " +
+        "  local hold = redis.call('HGETALL', holdKey) " +
+        "  for i = 1, #hold, 2 do " +
+        "    if hold[i] == '_user' then " +
+        "      forget(rid, hold[i + 1]) " +
+        "    else " +
+        "      local key = 'stock:' .. hold[i] " +
+        "      local stock = redis.call('GET', key) " +
+        // A count missing from Redis is rebuilt net of holds, so units only go back to a live count
+        "      if stock and tonumber(stock) >= 0 then " +
+        "        if redis.call('INCRBY', key, hold[i + 1]) == tonumber(hold[i + 1]) then " +
+        "          restocked[#restocked + 1] = hold[i] " +
+        "        end " +
+        "      end " +
+        "      if redis.call('HINCRBY', KEYS[1], hold[i], -tonumber(hold[i + 1])) <= 0 then " +
+        "        redis.call('HDEL', KEYS[1], hold[i]) " +
+        "      end " +
+        "    end " +
+        "  end " +
+        "  redis.call('DEL', holdKey) " +
+        "  redis.call('ZREM', KEYS[2], rid) " +
+        "end ";
+
+    // KEYS[3] is stock:user-hold:{userId}. ARGV: reservationId, userId, expiresAtMillis, then
+    // productId/quantity pairs. A user has at most one hold: the previous one counts as available and
+    // is released in the same step. Returns OK and the products whose level crossed zero either way,
+    // MISSING and the products to load, or SHORT, productId, units left
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>(
+        RELEASE_FUNCTION +
+        "local holdKey = 'stock:hold:' .. ARGV[1] " +
+        "if redis.call('EXISTS', holdKey) == 1 then return {'DUPLICATE'} end " +
+        "local missing = {'MISSING'} " +
+        "for i = 4, #ARGV, 2 do " +
+        "  if redis.call('EXISTS', 'stock:' .. ARGV[i]) == 0 then missing[#missing + 1] = ARGV[i] end " +
+        "end " +
+        "if #missing > 1 then return missing end " +
+        "local previous = redis.call('GET', KEYS[3]) " +
+        "if previous and redis.call('EXISTS', 'stock:hold:' .. previous) == 0 then previous = nil end " +
+        "for i = 4, #ARGV, 2 do " +
+        "  local stock = tonumber(redis.call('GET', 'stock:' .. ARGV[i])) " +
+        "  if stock >= 0 then " +
+        "    if previous then " +
+        "      stock = stock + tonumber(redis.call('HGET', 'stock:hold:' .. previous, ARGV[i]) or '0') " +
+        "    end " +
+        "    if stock < tonumber(ARGV[i + 1]) then return {'SHORT', ARGV[i], tostring(stock)} end " +
+        "  end " +
+        "end " +
+        "local changed = {'OK'} " +
+        "if previous then release(previous, changed) end " +
+        "redis.call('HSET', holdKey, '_user', ARGV[2]) " +
+        "for i = 4, #ARGV, 2 do " +
+        "  local key = 'stock:' .. ARGV[i] " +
+        "  if tonumber(redis.call('GET', key)) >= 0 then " +
+        "    if redis.call('DECRBY', key, ARGV[i + 1]) == 0 then changed[#changed + 1] = ARGV[i] end " +
+        "    redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) " +
+        "    redis.call('HSET', holdKey, ARGV[i], ARGV[i + 1]) " +
+        "  end " +
+        "end " +
+        "redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1]) " +
+        "redis.call('SET', KEYS[3], ARGV[1]) " +
+        "return changed", List.class);
+
+    // KEYS[3] is stock:sold. ARGV: reservationId, userId, nowMillis. Returns OK, NONE if the hold is
+    // gone, EXPIRED and the products back in stock once its units are given back, or FORBIDDEN
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> COMMIT_SCRIPT = new DefaultRedisScript<>(
+        RELEASE_FUNCTION +
+        "local holdKey = 'stock:hold:' .. ARGV[1] " +
+        "local owner = redis.call('HGET', holdKey, '_user') " +
+        "if not owner then return {'NONE'} end " +
+        "if owner ~= ARGV[2] then return {'FORBIDDEN'} end " +
+        "local deadline = redis.call('ZSCORE', KEYS[2], ARGV[1]) " +
+        "if deadline and tonumber(deadline) < tonumber(ARGV[3]) then " +
+        "  local restocked = {'EXPIRED'} " +
+        "  release(ARGV[1], restocked) " +
+        "  return restocked " +
+        "end " +
+        "local hold = redis.call('HGETALL', holdKey) " +
+        "for i = 1, #hold, 2 do " +
+        "  if hold[i] ~= '_user' then " +
+        "    if redis.call('HINCRBY', KEYS[1], hold[i], -tonumber(hold[i + 1])) <= 0 then " +
+        "      redis.call('HDEL', KEYS[1], hold[i]) " +
+        "    end " +
+        "    redis.call('HINCRBY', KEYS[3], hold[i], hold[i + 1]) " +
+        "  end " +
+        "end " +
+        "forget(ARGV[1], owner) " +
+        "redis.call('DEL', holdKey) " +
+        "redis.call('ZREM', KEYS[2], ARGV[1]) " +
+        "return {'OK'}", List.class);
+
+    // ARGV: reservationId, userId. Returns OK and the products back in stock, NONE, or FORBIDDEN
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        RELEASE_FUNCTION +
+        "local owner = redis.call('HGET', 'stock:hold:' .. ARGV[1], '_user') " +
+        "if not owner then return {'NONE'} end " +
+        "if owner ~= ARGV[2] then return {'FORBIDDEN'} end " +
+        "local restocked = {'OK'} " +
+        "release(ARGV[1], restocked) " +
+        "return restocked", List.class);
+
+    // ARGV: nowMillis, limit. Returns the number of holds released, then the products back in stock
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SWEEP_SCRIPT = new DefaultRedisScript<>(
+        RELEASE_FUNCTION +
+        "local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+        "local restocked = {tostring(#expired)} " +
+        "for _, rid in ipairs(expired) do release(rid, restocked) end " +
+        "return restocked", List.class);
+
+    // KEYS: stock:held, stock:sold, stock:sold:reconciling, stock:reconciled-seq. ARGV: productId,
+    // stockQuantity or -1, stockSyncedSeq, 1 to overwrite a live count, stock:reconciled-seq as read
+    // before the row. Returns the live count, or -3 if a batch finished since and the row may be stale
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+        "local key = 'stock:' .. ARGV[1] " +
+        "if ARGV[4] == '0' and redis.call('EXISTS', key) == 1 then return tonumber(redis.call('GET', key)) end " +
+        // Once FINISH drops the reconciling batch, only a row read after it reflects those units
+        "if (redis.call('GET', KEYS[4]) or '0') ~= ARGV[5] then return -3 end " +
+        "local stock = tonumber(ARGV[2]) " +
+        "if stock >= 0 then " +
+        "  stock = stock - tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') " +
+        "    - tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0') " +
+        // A batch being reconciled is only already in stock_quantity if the row recorded its number
+        "  local seq = redis.call('HGET', KEYS[3], '_seq') " +
+        "  if seq and tonumber(seq) > tonumber(ARGV[3]) then " +
+        "    stock = stock - tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or '0') " +
+        "  end " +
+        "  if stock < 0 then stock = 0 end " +
+        "end " +
+        "redis.call('SET', key, stock) " +
+        "return stock", Long.class);
+
+    // Returns the live count, or -2 if it is not in Redis
+    private static final RedisScript<Long> READ_SCRIPT = new DefaultRedisScript<>(
+        "local stock = redis.call('GET', KEYS[1]) " +
+        "if not stock then return -2 end " +
+        "return tonumber(stock)", Long.class);
+
+    // KEYS: stock:sold, stock:sold:reconciling, stock:reconcile-seq. ARGV: highest batch number in MySQL.
+    // Claims the sold counts as a new numbered batch, or returns the batch a failed run left behind
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SOLD_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[2]) == 0 then " +
+        "  if redis.call('EXISTS', KEYS[1]) == 0 then return {} end " +
+        "  local seq = redis.call('INCR', KEYS[3]) " +
+        // The counter may have been lost with Redis; batch numbers must keep rising past MySQL's
+        "  if seq <= tonumber(ARGV[1]) then " +
+        "    seq = tonumber(ARGV[1]) + 1 " +
+        "    redis.call('SET', KEYS[3], seq) " +
+        "  end " +
+        "  redis.call('RENAME', KEYS[1], KEYS[2]) " +
+        "  redis.call('HSET', KEYS[2], '_seq', seq) " +
+        "end " +
+        "return redis.call('HGETALL', KEYS[2])", List.class);
+
+    // KEYS: stock:sold:reconciling, stock:reconciled-seq. ARGV: batch number
+    private static final RedisScript<Long> FINISH_SOLD_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('HGET', KEYS[1], '_seq') == ARGV[1] then " +
+        "  redis.call('SET', KEYS[2], ARGV[1]) " +
+        "  return redis.call('DEL', KEYS[1]) " +
+        "end " +
+        "return 0", Long.class);
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.inventory.hold-ttl-seconds:600}")
+    private long holdTtlSeconds;
+
+    @Value("${app.inventory.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Counter reservedCounter;
+    private final Counter rejectedCounter;
+    private final Counter committedCounter;
+    private final Counter expiredCounter;
+    private final Counter reconcileFailures;
+
+    public InventoryService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservedCounter = meterRegistry.counter("inventory.reservations.created");
+        this.rejectedCounter = meterRegistry.counter("inventory.reservations.rejected");
+        this.committedCounter = meterRegistry.counter("inventory.reservations.committed");
+        this.expiredCounter = meterRegistry.counter("inventory.reservations.expired");
+        this.reconcileFailures = meterRegistry.counter("inventory.reconcile.failures");
+    }
+
+    /**
+     * Hold quantities of several products for a user, all or none, until the hold is committed,
+     * released or app.inventory.hold-ttl-seconds passes. Replaces the user's previous hold, if any
+     */
+    public Reservation reserve(Long userId, Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            throw new RuntimeException("Nothing to reserve");
+        }
+        String reservationId = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + holdTtlSeconds * 1000;
+        List<String> args = new ArrayList<>(3 + quantities.size() * 2);
+        args.add(reservationId);
+        args.add(userId.toString());
+        args.add(String.valueOf(expiresAt));
+        quantities.forEach((productId, quantity) -> {
+            if (quantity == null || quantity <= 0 || quantity > AddToCartRequest.MAX_QUANTITY) {
+                throw new RuntimeException("Invalid quantity for product " + productId);
+            }
+            args.add(productId.toString());
+            args.add(quantity.toString());
+        });
+
+        List<String> keys = List.of(HELD_KEY, EXPIRY_KEY, USER_HOLD_KEY_PREFIX + userId);
+        List<String> result = runListScript(RESERVE_SCRIPT, keys, args);
+        if ("MISSING".equals(result.get(0))) {
+            load(toProductIds(result), false);
+            result = runListScript(RESERVE_SCRIPT, keys, args);
+        }
+
+        switch (result.get(0)) {
+            case "OK" -> {
+                reservedCounter.increment();
+                toProductIds(result).forEach(this::publishStockLevelChanged);
+                return new Reservation(reservationId,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()));
+            }
+            case "SHORT" -> {
+                rejectedCounter.increment();
+                throw new RuntimeException("Insufficient stock for product " + result.get(1)
+                    + ": " + result.get(2) + " left");
+            }
+            default -> throw new RuntimeException("Could not reserve stock, please try again");
+        }
+    }
+
+    /**
+     * Turn a user's hold into a sale; false if it has expired or does not exist
+     */
+    public boolean commit(Long userId, String reservationId) {
+        List<String> result = runListScript(COMMIT_SCRIPT, List.of(HELD_KEY, EXPIRY_KEY, SOLD_KEY),
+            List.of(reservationId, userId.toString(), String.valueOf(System.currentTimeMillis())));
+        switch (result.isEmpty() ? "NONE" : result.get(0)) {
+            case "FORBIDDEN" -> throw new RuntimeException("Reservation " + reservationId + " does not belong to this user");
+            case "OK" -> {
+                committedCounter.increment();
+                return true;
+            }
+            case "EXPIRED" -> {
+                expiredCounter.increment();
+                toProductIds(result).forEach(this::publishStockLevelChanged);
+                return false;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Give a user's held units back; false if the hold does not exist any more
+     */
+    public boolean release(Long userId, String reservationId) {
+        List<String> result = runListScript(RELEASE_SCRIPT, List.of(HELD_KEY, EXPIRY_KEY),
+            List.of(reservationId, userId.toString()));
+        if ("FORBIDDEN".equals(result.get(0))) {
+            throw new RuntimeException("Reservation " + reservationId + " does not belong to this user");
+        }
+        if (!"OK".equals(result.get(0))) {
+            return false;
+        }
+        toProductIds(result).forEach(this::publishStockLevelChanged);
+        return true;
+    }
+
+    /**
+     * Units that can still be reserved, or null when the product's stock is not tracked
+     */
+    public Integer getAvailableStock(Long productId) {
+        Long stock = redisTemplate.execute(READ_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+            List.of(STOCK_KEY_PREFIX + productId));
+        if (stock == null || stock == -2) {
+            stock = load(List.of(productId), false).get(productId);
+        }
+        return stock == null || stock == UNTRACKED ? null : stock.intValue();
+    }
+
+    /**
+     * Set the units on hand, or stop tracking stock with null. Sales not yet reconciled and
+     * units currently held are still deducted from the new figure
+     */
+    public Integer setStock(Long productId, Integer stockQuantity) {
+        if (productRepository.updateStockQuantity(productId, stockQuantity) == 0) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        Long stock = load(List.of(productId), true).get(productId);
+        publishStockLevelChanged(productId);
+        return stock == null || stock == UNTRACKED ? null : stock.intValue();
+    }
+
+    /**
+     * Give back the units of holds past their deadline
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.sweep-interval-ms:5000}")
+    public void releaseExpired() {
+        try {
+            while (true) {
+                List<String> result = runListScript(SWEEP_SCRIPT, List.of(HELD_KEY, EXPIRY_KEY),
+                    List.of(String.valueOf(System.currentTimeMillis()), String.valueOf(sweepBatchSize)));
+                int released = Integer.parseInt(result.get(0));
+                expiredCounter.increment(released);
+                toProductIds(result).forEach(this::publishStockLevelChanged);
+                if (released < sweepBatchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Inventory hold sweep failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deduct committed sales from products.stock_quantity, one claimed batch per run
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.reconcile-interval-ms:5000}")
+    public synchronized void reconcile() {
+        try {
+            List<String> flat = runListScript(CLAIM_SOLD_SCRIPT, List.of(SOLD_KEY, RECONCILING_KEY, SEQ_KEY),
+                List.of(String.valueOf(productRepository.findMaxStockSyncedSeq())));
+            if (flat.isEmpty()) {
+                return;
+            }
+            Map<Long, Integer> sold = new HashMap<>();
+            String seq = null;
+            for (int i = 0; i + 1 < flat.size(); i += 2) {
+                if ("_seq".equals(flat.get(i))) {
+                    seq = flat.get(i + 1);
+                } else {
+                    sold.put(Long.valueOf(flat.get(i)), Integer.valueOf(flat.get(i + 1)));
+                }
+            }
+            long batch = Long.parseLong(seq);
+            transactionTemplate.executeWithoutResult(status -> sold.forEach((productId, units) -> {
+                if (units > 0) {
+                    productRepository.applySoldStock(productId, units, batch);
+                }
+            }));
+            redisTemplate.execute(FINISH_SOLD_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+                List.of(RECONCILING_KEY, RECONCILED_KEY), seq);
+        } catch (Exception e) {
+            // The claimed batch stays in Redis and is retried on the next run
+            reconcileFailures.increment();
+            System.err.println("Inventory reconcile failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mark the product sold out or back in stock from the live count; reads the count again so late
+     * events are harmless
+     */
+    @Async("inventoryExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        try {
+            Integer stock = getAvailableStock(event.getProductId());
+            productService.applyStockAvailability(event.getProductId(), stock == null || stock > 0);
+        } catch (Exception e) {
+            System.err.println("Failed to update availability of product " + event.getProductId()
+                + " from stock: " + e.getMessage());
+        }
+    }
+
+    // Seeds live counts from MySQL; products that no longer exist are left out. A row read while a
+    // reconcile batch finished may or may not include that batch, so such products are read again
+    private Map<Long, Long> load(Collection<Long> productIds, boolean overwrite) {
+        Map<Long, Long> stocks = new LinkedHashMap<>();
+        Collection<Long> pending = productIds;
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            if (attempt > MAX_LOAD_ATTEMPTS) {
+                throw new RuntimeException("Stock is being updated, please try again");
+            }
+            Long fence = redisTemplate.execute(READ_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+                List.of(RECONCILED_KEY));
+            String reconciledSeq = String.valueOf(fence == null || fence == -2 ? 0L : fence);
+            List<Long> stale = new ArrayList<>();
+            for (Object[] row : productRepository.findStockLevels(pending)) {
+                Long productId = (Long) row[0];
+                Integer stockQuantity = (Integer) row[1];
+                Long syncedSeq = (Long) row[2];
+                Long stock = redisTemplate.execute(LOAD_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+                    List.of(HELD_KEY, SOLD_KEY, RECONCILING_KEY, RECONCILED_KEY), productId.toString(),
+                    String.valueOf(stockQuantity != null ? stockQuantity : UNTRACKED),
+                    String.valueOf(syncedSeq != null ? syncedSeq : 0L), overwrite ? "1" : "0", reconciledSeq);
+                if (stock != null && stock == RETRY) {
+                    stale.add(productId);
+                } else {
+                    stocks.put(productId, stock);
+                }
+            }
+            pending = stale;
+        }
+        for (Long productId : productIds) {
+            if (!stocks.containsKey(productId)) {
+                throw new RuntimeException("Product not found with id: " + productId);
+            }
+        }
+        return stocks;
+    }
+
+    private void publishStockLevelChanged(Long productId) {
+        eventPublisher.publishEvent(new StockLevelChangedEvent(productId));
+    }
+
+    // Everything after a script's status element
+    private List<Long> toProductIds(List<String> result) {
+        List<Long> productIds = new ArrayList<>(result.size());
+        for (int i = 1; i < result.size(); i++) {
+            productIds.add(Long.valueOf(result.get(i)));
+        }
+        return productIds;
+    }
+
+    // Script arguments and replies go over the wire as plain strings so Lua can do arithmetic on them
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<String> runListScript(RedisScript<List> script, List<String> keys, List<String> args) {
+        List<String> result = redisTemplate.execute(script, RedisSerializer.string(),
+            (RedisSerializer) RedisSerializer.string(), keys, args.toArray());
+        return result != null ? result : List.of();
+    }
+
+    /**
+     * Units held for a checkout until expiresAt
+     */
+    public record Reservation(String reservationId, LocalDateTime expiresAt) {
+    }
+}
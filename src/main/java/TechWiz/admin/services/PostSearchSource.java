@@ -0,0 +1,61 @@
+package TechWiz.admin.services;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import TechWiz.admin.models.Post;
+import TechWiz.admin.repositories.PostRepository;
+import TechWiz.common.search.SearchDocument;
+import TechWiz.common.search.SearchDocumentSource;
+
+/**
+ * Published posts in the full-text index
+ */
+@Component
+public class PostSearchSource implements SearchDocumentSource {
+
+    public static final String TYPE = "post";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public Optional<SearchDocument> load(Long id) {
+        return postRepository.findById(id)
+            .filter(post -> Boolean.TRUE.equals(post.getIsPublished()))
+            .map(this::toDocument);
+    }
+
+    @Override
+    public void forEachDocument(Consumer<SearchDocument> consumer) {
+        Page<Post> page;
+        int pageNumber = 0;
+        do {
+            page = postRepository.findAll(PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            page.getContent().stream()
+                .filter(post -> Boolean.TRUE.equals(post.getIsPublished()))
+                .map(this::toDocument)
+                .forEach(consumer);
+        } while (page.hasNext());
+    }
+
+    private SearchDocument toDocument(Post post) {
+        return new SearchDocument(TYPE, post.getId(), post.getTitle(),
+            SearchDocument.joinText(post.getContent(),
+                post.getCategory() != null ? post.getCategory().name() : null,
+                post.getAuthorName()));
+    }
+}
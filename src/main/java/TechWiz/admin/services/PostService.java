@@ -1,10 +1,16 @@
 package TechWiz.admin.services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,9 +21,12 @@ import TechWiz.admin.models.Post;
 import TechWiz.admin.models.PostCategory;
 import TechWiz.admin.models.dto.CreatePostRequest;
 import TechWiz.admin.repositories.PostRepository;
-import TechWiz.auths.models.User;
 import TechWiz.auths.models.dto.ApiResponse;
-import TechWiz.auths.repositories.UserRepository;
+import TechWiz.auths.models.dto.UserSnapshot;
+import TechWiz.auths.services.UserCache;
+import TechWiz.common.search.SearchIndexEvent;
+import TechWiz.common.search.SearchIndexService;
+import TechWiz.common.search.SearchResult;
 
 @Service
 @Transactional
@@ -27,17 +36,23 @@ public class PostService {
     private PostRepository postRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private UserCache userCache;
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     public ApiResponse createPost(CreatePostRequest request, Long authorId) {
         try {
-            Optional<User> userOptional = userRepository.findById(authorId);
+            Optional<UserSnapshot> userOptional = userCache.getById(authorId);
             
             if (userOptional.isEmpty()) {
                 return ApiResponse.error("Author not found!");
             }
             
-            User author = userOptional.get();
+            UserSnapshot author = userOptional.get();
             
             Post post = new Post();
             post.setTitle(request.getTitle());
@@ -51,6 +66,7 @@ public class PostService {
             post.setUpdatedAt(LocalDateTime.now());
             
             Post savedPost = postRepository.save(post);
+            publishIndexEvent(savedPost.getId());
             
             return ApiResponse.success("Post created successfully!", savedPost);
             
@@ -70,12 +86,12 @@ public class PostService {
             Post post = postOptional.get();
             
             // Check if user is the author or admin
-            Optional<User> userOptional = userRepository.findById(authorId);
+            Optional<UserSnapshot> userOptional = userCache.getById(authorId);
             if (userOptional.isEmpty()) {
                 return ApiResponse.error("User not found!");
             }
             
-            User user = userOptional.get();
+            UserSnapshot user = userOptional.get();
             if (!post.getAuthorId().equals(authorId) && !user.getRole().name().equals("ADMIN")) {
                 return ApiResponse.error("You can only edit your own posts!");
             }
@@ -88,6 +104,7 @@ public class PostService {
             post.setUpdatedAt(LocalDateTime.now());
             
             Post updatedPost = postRepository.save(post);
+            publishIndexEvent(postId);
             
             return ApiResponse.success("Post updated successfully!", updatedPost);
             
@@ -107,17 +124,18 @@ public class PostService {
             Post post = postOptional.get();
             
             // Check if user is the author or admin
-            Optional<User> userOptional = userRepository.findById(userId);
+            Optional<UserSnapshot> userOptional = userCache.getById(userId);
             if (userOptional.isEmpty()) {
                 return ApiResponse.error("User not found!");
             }
             
-            User user = userOptional.get();
+            UserSnapshot user = userOptional.get();
             if (!post.getAuthorId().equals(userId) && !user.getRole().name().equals("ADMIN")) {
                 return ApiResponse.error("You can only delete your own posts!");
             }
             
             postRepository.deleteById(postId);
+            publishIndexEvent(postId);
             
             return ApiResponse.success("Post deleted successfully!");
             
@@ -180,12 +198,31 @@ public class PostService {
     public ApiResponse searchPosts(String keyword, int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Post> posts = postRepository.searchPublishedPosts(keyword, pageable);
+            if (!searchIndexService.isReady()) {
+                Page<Post> posts = postRepository.searchPublishedPosts(keyword, pageable);
+                return ApiResponse.success("Search completed successfully", posts.getContent());
+            }
             
-            return ApiResponse.success("Search completed successfully", posts.getContent());
+            // Ranked by relevance in the search index, then loaded by primary key in that order
+            SearchResult result = searchIndexService.search(keyword, Set.of(PostSearchSource.TYPE), pageable.getOffset(), size);
+            Map<Long, Post> postsById = postRepository.findAllById(result.getIds()).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+            List<Post> posts = new ArrayList<>();
+            for (Long id : result.getIds()) {
+                Post post = postsById.get(id);
+                if (post != null) {
+                    posts.add(post);
+                }
+            }
+            
+            return ApiResponse.success("Search completed successfully", posts);
             
         } catch (Exception e) {
             return ApiResponse.error("Failed to search posts: " + e.getMessage());
         }
     }
+    
+    private void publishIndexEvent(Long postId) {
+        eventPublisher.publishEvent(new SearchIndexEvent(PostSearchSource.TYPE, postId));
+    }
 }
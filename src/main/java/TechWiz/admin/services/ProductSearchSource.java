@@ -0,0 +1,102 @@
+package TechWiz.admin.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import TechWiz.admin.models.Product;
+import TechWiz.admin.repositories.ProductRepository;
+import TechWiz.common.search.AutocompleteSource;
+import TechWiz.common.search.SearchDocument;
+import TechWiz.common.search.SearchDocumentSource;
+
+/**
+ * Active, available products in the full-text index and in name/brand autocomplete
+ */
+@Component
+public class ProductSearchSource implements SearchDocumentSource, AutocompleteSource {
+
+    public static final String TYPE = "product";
+    public static final String NAME_FIELD = "product";
+    public static final String BRAND_FIELD = "brand";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public Optional<SearchDocument> load(Long id) {
+        return productRepository.findById(id)
+            .filter(this::isSearchable)
+            .map(this::toDocument);
+    }
+
+    @Override
+    public void forEachDocument(Consumer<SearchDocument> consumer) {
+        Page<Product> page;
+        int pageNumber = 0;
+        do {
+            page = productRepository.findAll(PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            page.getContent().stream()
+                .filter(this::isSearchable)
+                .map(this::toDocument)
+                .forEach(consumer);
+        } while (page.hasNext());
+    }
+
+    @Override
+    public Map<String, String> loadTerms(Long id) {
+        return productRepository.findById(id)
+            .filter(this::isSearchable)
+            .map(this::toTerms)
+            .orElse(Map.of());
+    }
+
+    @Override
+    public void forEachTerms(BiConsumer<Long, Map<String, String>> consumer) {
+        Page<Product> page;
+        int pageNumber = 0;
+        do {
+            page = productRepository.findAll(PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            page.getContent().stream()
+                .filter(this::isSearchable)
+                .forEach(product -> consumer.accept(product.getId(), toTerms(product)));
+        } while (page.hasNext());
+    }
+
+    private Map<String, String> toTerms(Product product) {
+        Map<String, String> terms = new HashMap<>();
+        if (product.getName() != null) {
+            terms.put(NAME_FIELD, product.getName());
+        }
+        if (product.getBrand() != null) {
+            terms.put(BRAND_FIELD, product.getBrand());
+        }
+        return terms;
+    }
+
+    private boolean isSearchable(Product product) {
+        return Boolean.TRUE.equals(product.getIsActive()) && Boolean.TRUE.equals(product.getIsAvailable());
+    }
+
+    private SearchDocument toDocument(Product product) {
+        return new SearchDocument(TYPE, product.getId(), product.getName(),
+            SearchDocument.joinText(product.getBrand(),
+                product.getCategory() != null ? product.getCategory().name() : null,
+                product.getDescription()));
+    }
+}
@@ -1,20 +1,33 @@
 package TechWiz.admin.services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import TechWiz.admin.events.ProductPriceChangedEvent;
+import TechWiz.admin.events.ProductStatusChangedEvent;
 import TechWiz.admin.models.Product;
 import TechWiz.admin.models.ProductCategory;
 import TechWiz.admin.models.dto.CreateProductRequest;
 import TechWiz.admin.models.dto.UpdateProductStatusRequest;
 import TechWiz.admin.repositories.ProductRepository;
+import TechWiz.common.search.SearchIndexEvent;
+import TechWiz.common.search.SearchIndexService;
+import TechWiz.common.search.SearchResult;
 
 @Service
 @Transactional
@@ -23,6 +36,12 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Admin methods
     public Product createProduct(CreateProductRequest request, Long adminUserId) {
         Product product = new Product();
@@ -36,15 +55,23 @@ public class ProductService {
         product.setCreatedAt(LocalDateTime.now());
         product.setUpdatedAt(LocalDateTime.now());
         product.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
-        product.setIsAvailable(true); // Default to available
-
-        return productRepository.save(product);
+        product.setStockQuantity(request.getStockQuantity());
+        // Default to available, unless it is created with no stock
+        boolean inStock = request.getStockQuantity() == null || request.getStockQuantity() > 0;
+        product.setIsAvailable(inStock);
+        product.setSoldOut(!inStock);
+
+        Product savedProduct = productRepository.save(product);
+        publishIndexEvent(savedProduct.getId());
+        return savedProduct;
     }
 
     public Optional<Product> updateProduct(Long productId, CreateProductRequest request, Long adminUserId) {
         Optional<Product> optionalProduct = productRepository.findById(productId);
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
+            boolean wasAvailable = isSellable(product);
+            boolean priceChanged = product.getPrice().compareTo(request.getPrice()) != 0;
             product.setName(request.getName());
             product.setDescription(request.getDescription());
             product.setBrand(request.getBrand());
@@ -59,7 +86,13 @@ public class ProductService {
                 product.setIsActive(request.getIsActive());
             }
 
-            return Optional.of(productRepository.save(product));
+            Product updatedProduct = productRepository.save(product);
+            publishIndexEvent(productId);
+            publishStatusEventIfChanged(productId, wasAvailable, isSellable(updatedProduct));
+            if (priceChanged) {
+                eventPublisher.publishEvent(new ProductPriceChangedEvent(productId));
+            }
+            return Optional.of(updatedProduct);
         }
         return Optional.empty();
     }
@@ -68,23 +101,53 @@ public class ProductService {
         Optional<Product> optionalProduct = productRepository.findById(productId);
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
+            boolean wasAvailable = isSellable(product);
             if (request.getIsActive() != null) {
                 product.setIsActive(request.getIsActive());
             }
             if (request.getIsAvailable() != null) {
+                // The admin's choice stands until they change it, restocks included
                 product.setIsAvailable(request.getIsAvailable());
+                product.setSoldOut(false);
             }
             product.setUpdatedBy(adminUserId);
             product.setUpdatedAt(LocalDateTime.now());
             productRepository.save(product);
+            publishIndexEvent(productId);
+            publishStatusEventIfChanged(productId, wasAvailable, isSellable(product));
             return true;
         }
         return false;
     }
 
+    /**
+     * Mark a product sold out, or back on if it was only off because it sold out. inStock is true
+     * for a product whose stock is not tracked
+     */
+    public void applyStockAvailability(Long productId, boolean inStock) {
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product == null) {
+            return;
+        }
+        boolean soldOut = Boolean.TRUE.equals(product.getSoldOut());
+        if (inStock ? !soldOut : !Boolean.TRUE.equals(product.getIsAvailable())) {
+            // Nothing stock switched off to bring back, or already off
+            return;
+        }
+        boolean wasAvailable = isSellable(product);
+        product.setIsAvailable(inStock);
+        product.setSoldOut(!inStock);
+        product.setUpdatedAt(LocalDateTime.now());
+        productRepository.save(product);
+        publishIndexEvent(productId);
+        publishStatusEventIfChanged(productId, wasAvailable, isSellable(product));
+    }
+
     public boolean deleteProduct(Long productId) {
         if (productRepository.existsById(productId)) {
             productRepository.deleteById(productId);
+            publishIndexEvent(productId);
+            eventPublisher.publishEvent(new ProductStatusChangedEvent(productId, false));
             return true;
         }
         return false;
@@ -103,7 +166,23 @@ public class ProductService {
 
     public Page<Product> searchProducts(String keyword, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return productRepository.searchActiveProducts(keyword, pageable);
+        if (!searchIndexService.isReady()) {
+            return productRepository.searchActiveProducts(keyword, pageable);
+        }
+
+        // Ranked by relevance in the search index, then loaded by primary key in that order
+        SearchResult result = searchIndexService.search(keyword, Set.of(ProductSearchSource.TYPE),
+            pageable.getOffset(), size);
+        Map<Long, Product> productsById = productRepository.findAllById(result.getIds()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> products = new ArrayList<>();
+        for (Long id : result.getIds()) {
+            Product product = productsById.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return new PageImpl<>(products, pageable, result.getTotalHits());
     }
 
     public Optional<Product> getProductById(Long productId) {
@@ -131,6 +210,20 @@ public class ProductService {
         return productRepository.countByCategoryAndIsActiveTrueAndIsAvailableTrue(category);
     }
 
+    private void publishIndexEvent(Long productId) {
+        eventPublisher.publishEvent(new SearchIndexEvent(ProductSearchSource.TYPE, productId));
+    }
+
+    private void publishStatusEventIfChanged(Long productId, boolean wasAvailable, boolean available) {
+        if (wasAvailable != available) {
+            eventPublisher.publishEvent(new ProductStatusChangedEvent(productId, available));
+        }
+    }
+
+    private static boolean isSellable(Product product) {
+        return Boolean.TRUE.equals(product.getIsActive()) && Boolean.TRUE.equals(product.getIsAvailable());
+    }
+
     // Utility methods
     public boolean isProductAvailable(Long productId) {
         Optional<Product> product = productRepository.findById(productId);
@@ -0,0 +1,270 @@
+package TechWiz.admin.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import TechWiz.admin.events.ChatMessageSentEvent;
+import TechWiz.admin.events.ChatMessagesReadEvent;
+import TechWiz.admin.models.ChatMessage;
+import TechWiz.admin.repositories.ChatMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-user unread chat counters kept in Redis.
+ *
+ * chat:unread:total:{userId} holds the total and chat:unread:by_sender:{userId} holds
+ * senderId -> count. Counters are loaded from MySQL on first read, kept current after commit,
+ * and a periodic reconcile drops any pair that has drifted so the next read rebuilds it.
+ */
+@Service
+public class UnreadCounterService {
+
+    private static final String TOTAL_KEY_PREFIX = "chat:unread:total:";
+    private static final String BY_SENDER_KEY_PREFIX = "chat:unread:by_sender:";
+
+    // Only count when the pair is already loaded, otherwise the next read rebuilds it from MySQL
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+        "  redis.call('INCR', KEYS[1]) " +
+        "  redis.call('HINCRBY', KEYS[2], ARGV[1], 1) " +
+        "  redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+        "  redis.call('EXPIRE', KEYS[2], ARGV[2]) " +
+        "  return 1 " +
+        "end " +
+        "return 0", Long.class);
+
+    // Remove one sender's share from the total; a negative total means drift, so force a rebuild
+    private static final RedisScript<Long> RESET_SENDER_SCRIPT = new DefaultRedisScript<>(
+        "local n = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0') " +
+        "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+        "if n > 0 and redis.call('EXISTS', KEYS[1]) == 1 then " +
+        "  if redis.call('DECRBY', KEYS[1], n) < 0 then " +
+        "    redis.call('DEL', KEYS[1], KEYS[2]) " +
+        "  end " +
+        "end " +
+        "return n", Long.class);
+
+    // ARGV: ttlSeconds, total, then senderId/count pairs
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('DEL', KEYS[2]) " +
+        "redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[1]) " +
+        "for i = 3, #ARGV, 2 do " +
+        "  redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1]) " +
+        "end " +
+        "redis.call('EXPIRE', KEYS[2], ARGV[1]) " +
+        "return 1", Long.class);
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Value("${app.chat.unread.ttl-hours:168}")
+    private long ttlHours;
+
+    @Value("${app.chat.unread.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    private final Counter rebuildCounter;
+    private final Counter driftCounter;
+    private final Counter fallbackCounter;
+
+    public UnreadCounterService(MeterRegistry meterRegistry) {
+        this.rebuildCounter = meterRegistry.counter("chat.unread.rebuilds");
+        this.driftCounter = meterRegistry.counter("chat.unread.drift");
+        this.fallbackCounter = meterRegistry.counter("chat.unread.fallback");
+    }
+
+    /**
+     * Total unread messages for a user, falling back to MySQL when Redis is unavailable
+     */
+    public long getUnreadCount(Long userId) {
+        try {
+            Object total = redisTemplate.opsForValue().get(totalKey(userId));
+            if (total != null) {
+                return toLong(total);
+            }
+            return rebuild(userId).values().stream().mapToLong(Long::longValue).sum();
+        } catch (Exception e) {
+            System.err.println("Unread counter read failed for user " + userId + ": " + e.getMessage());
+            fallbackCounter.increment();
+            Long count = chatMessageRepository.countUnreadMessagesForUser(userId);
+            return count != null ? count : 0L;
+        }
+    }
+
+    /**
+     * Unread messages per sender for a user
+     */
+    public Map<Long, Long> getUnreadCountsBySender(Long userId) {
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(totalKey(userId)))) {
+                Map<Object, Object> entries = redisTemplate.opsForHash().entries(bySenderKey(userId));
+                Map<Long, Long> counts = new HashMap<>();
+                entries.forEach((sender, count) -> counts.put(Long.valueOf(sender.toString()), toLong(count)));
+                return counts;
+            }
+            return rebuild(userId);
+        } catch (Exception e) {
+            System.err.println("Unread counter read failed for user " + userId + ": " + e.getMessage());
+            fallbackCounter.increment();
+            return loadFromDatabase(userId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageSent(ChatMessageSentEvent event) {
+        if (event.isBroadcast()) {
+            return;
+        }
+
+        ChatMessage message = event.getMessage();
+        try {
+            runScript(INCREMENT_SCRIPT,
+                List.of(totalKey(message.getReceiverId()), bySenderKey(message.getReceiverId())),
+                message.getSenderId().toString(), String.valueOf(ttlSeconds()));
+        } catch (Exception e) {
+            // The reconcile job repairs the counter once Redis is reachable again
+            System.err.println("Failed to increment unread counter for user " + message.getReceiverId() + ": " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessagesRead(ChatMessagesReadEvent event) {
+        try {
+            runScript(RESET_SENDER_SCRIPT,
+                List.of(totalKey(event.getReceiverId()), bySenderKey(event.getReceiverId())),
+                event.getSenderId().toString());
+        } catch (Exception e) {
+            System.err.println("Failed to reset unread counter for user " + event.getReceiverId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compare loaded counters against MySQL in batches and drop any that drifted
+     */
+    @Scheduled(fixedDelayString = "${app.chat.unread.reconcile-interval-ms:900000}",
+               initialDelayString = "${app.chat.unread.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        ScanOptions options = ScanOptions.scanOptions().match(TOTAL_KEY_PREFIX + "*").count(reconcileBatchSize).build();
+        List<Long> batch = new ArrayList<>(reconcileBatchSize);
+        int drifted = 0;
+
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(Long.valueOf(cursor.next().substring(TOTAL_KEY_PREFIX.length())));
+                if (batch.size() >= reconcileBatchSize) {
+                    drifted += reconcileBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                drifted += reconcileBatch(batch);
+            }
+        } catch (Exception e) {
+            System.err.println("Unread counter reconcile failed: " + e.getMessage());
+            return;
+        }
+
+        if (drifted > 0) {
+            System.out.println("Unread counter reconcile dropped " + drifted + " drifted counter(s)");
+        }
+    }
+
+    private int reconcileBatch(List<Long> userIds) {
+        Map<Long, Map<Long, Long>> expected = new HashMap<>();
+        for (Object[] row : chatMessageRepository.countUnreadBySenderForUsers(userIds)) {
+            expected.computeIfAbsent((Long) row[0], id -> new HashMap<>()).put((Long) row[1], (Long) row[2]);
+        }
+
+        int drifted = 0;
+        for (Long userId : userIds) {
+            Map<Long, Long> actual = new HashMap<>();
+            redisTemplate.opsForHash().entries(bySenderKey(userId))
+                .forEach((sender, count) -> {
+                    long value = toLong(count);
+                    if (value != 0) {
+                        actual.put(Long.valueOf(sender.toString()), value);
+                    }
+                });
+            Object total = redisTemplate.opsForValue().get(totalKey(userId));
+            Map<Long, Long> wanted = expected.getOrDefault(userId, Map.of());
+            long wantedTotal = wanted.values().stream().mapToLong(Long::longValue).sum();
+
+            // A message committed between the query and the read shows up as drift too; dropping is still safe
+            if (total == null || toLong(total) != wantedTotal || !actual.equals(wanted)) {
+                redisTemplate.delete(List.of(totalKey(userId), bySenderKey(userId)));
+                driftCounter.increment();
+                drifted++;
+            }
+        }
+        return drifted;
+    }
+
+    private Map<Long, Long> rebuild(Long userId) {
+        Map<Long, Long> counts = loadFromDatabase(userId);
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+
+        List<String> args = new ArrayList<>(2 + counts.size() * 2);
+        args.add(String.valueOf(ttlSeconds()));
+        args.add(String.valueOf(total));
+        counts.forEach((sender, count) -> {
+            args.add(sender.toString());
+            args.add(count.toString());
+        });
+
+        runScript(LOAD_SCRIPT,
+            List.of(totalKey(userId), bySenderKey(userId)), args.toArray());
+        rebuildCounter.increment();
+        return counts;
+    }
+
+    private Map<Long, Long> loadFromDatabase(Long userId) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : chatMessageRepository.countUnreadBySender(userId)) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    // Script arguments go over the wire as plain strings, not JSON, so Lua can do arithmetic on them
+    private Long runScript(RedisScript<Long> script, List<String> keys, Object... args) {
+        return redisTemplate.execute(script, RedisSerializer.string(), LONG_SERIALIZER, keys, args);
+    }
+
+    private long ttlSeconds() {
+        return ttlHours * 3600;
+    }
+
+    private long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    private String totalKey(Long userId) {
+        return TOTAL_KEY_PREFIX + userId;
+    }
+
+    private String bySenderKey(Long userId) {
+        return BY_SENDER_KEY_PREFIX + userId;
+    }
+}
@@ -17,6 +17,7 @@ import TechWiz.auths.models.Role;
 import TechWiz.auths.models.User;
 import TechWiz.auths.models.dto.ApiResponse;
 import TechWiz.auths.repositories.UserRepository;
+import TechWiz.auths.services.UserCache;
 
 @Service
 @Transactional
@@ -25,6 +26,9 @@ public class UserManagementService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserCache userCache;
+    
     public ApiResponse getAllUsers(int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -74,6 +78,7 @@ public class UserManagementService {
             
             user.setIsActive(request.getIsActive());
             userRepository.save(user);
+            userCache.evict(user);
             
             String action = request.getIsActive() ? "activated" : "deactivated";
             return ApiResponse.success("User " + action + " successfully!");
@@ -101,6 +106,8 @@ public class UserManagementService {
     
     public ApiResponse searchUsers(String keyword, int page, int size) {
         try {
+            // Not in the search index on purpose: /api/public/search spans every indexed type, so user
+            // emails and phone numbers would become public, and admins search them by substring anyway
             Pageable pageable = PageRequest.of(page, size);
             Page<User> userPage = userRepository.searchUsers(keyword, pageable);
             
@@ -0,0 +1,66 @@
+package TechWiz.auths.configs;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import TechWiz.auths.models.dto.ApiResponse;
+import TechWiz.auths.services.AuthRateLimitService;
+import TechWiz.common.ratelimit.RateLimitDecision;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per client IP token bucket in front of the auth endpoints that cost BCrypt, Redis or SMTP work.
+ * Rejections are answered with 429 before the request reaches a controller.
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of(
+        "/api/auth/register",
+        "/api/auth/login",
+        "/api/auth/verify-otp",
+        "/api/auth/resend-otp",
+        "/api/auth/forgot-password",
+        "/api/auth/reset-password"
+    );
+
+    @Autowired
+    private AuthRateLimitService authRateLimitService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Remote address only; X-Forwarded-For is client controlled unless a trusted proxy rewrites it
+        RateLimitDecision decision = authRateLimitService.checkClientIp(request.getRemoteAddr());
+
+        if (!decision.isAllowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(decision.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many requests. Please try again in " + decision.getRetryAfterSeconds() + " seconds."));
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
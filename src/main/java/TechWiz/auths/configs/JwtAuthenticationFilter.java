@@ -27,10 +27,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String email = jwtUtils.getEmailFromJwtToken(jwt);
-                String role = jwtUtils.getRoleFromJwtToken(jwt);
-                Long userId = jwtUtils.getUserIdFromJwtToken(jwt);
+            // Single parse; repeat requests with the same token are served from the claims cache
+            JwtPrincipal principal = jwt != null ? jwtUtils.parseJwtToken(jwt) : null;
+            if (principal != null) {
+                String email = principal.getEmail();
+                String role = principal.getRole();
+                Long userId = principal.getUserId();
 
                 List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
 
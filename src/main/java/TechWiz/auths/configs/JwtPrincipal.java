@@ -0,0 +1,23 @@
+package TechWiz.auths.configs;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Claims of a verified JWT, parsed once and cached by JwtUtils
+ */
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal {
+
+    private final String email;
+    private final Long userId;
+    private final String role;
+    private final Instant expiresAt;
+
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -1,18 +1,29 @@
 package TechWiz.auths.configs;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import TechWiz.common.cache.BoundedTtlCache;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtUtils {
@@ -23,8 +34,31 @@ public class JwtUtils {
     @Value("${app.jwt.expiration-ms}")
     private int jwtExpirationMs;
 
+    @Value("${app.jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // The key and parser are immutable and thread-safe, so build them once
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Verified principals keyed by a hash of the raw token; entries expire with the token
+    private BoundedTtlCache<String, JwtPrincipal> principalCache;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        principalCache = new BoundedTtlCache<>(cacheMaxEntries);
+        principalCache.bindTo(meterRegistry, "jwt.principal.cache");
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     public String generateJwtToken(String email, Long userId, String role) {
@@ -38,51 +72,95 @@ public class JwtUtils {
                 .compact();
     }
 
+    /**
+     * Verify a token and return its claims, or null if the token is invalid or expired.
+     * Repeat calls with the same token are served from cache without re-checking the signature.
+     */
+    public JwtPrincipal parseJwtToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        String cacheKey = hashToken(token);
+        JwtPrincipal cached = principalCache.get(cacheKey);
+        if (cached != null) {
+            return cached.isExpired() ? null : cached;
+        }
+
+        JwtPrincipal principal = verify(token);
+        if (principal != null && principal.getExpiresAt() != null) {
+            principalCache.put(cacheKey, principal, principal.getExpiresAt().toEpochMilli());
+        }
+        return principal;
+    }
+
     public String getEmailFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return requirePrincipal(token).getEmail();
     }
 
     public Long getUserIdFromJwtToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return Long.valueOf(claims.get("userId").toString());
+        return requirePrincipal(token).getUserId();
     }
 
     public String getRoleFromJwtToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.get("role").toString();
+        return requirePrincipal(token).getRole();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseJwtToken(authToken) != null;
+    }
+
+    public long getCacheHitCount() {
+        return principalCache.hitCount();
+    }
+
+    public long getCacheMissCount() {
+        return principalCache.missCount();
+    }
+
+    private JwtPrincipal requirePrincipal(String token) {
+        JwtPrincipal principal = parseJwtToken(token);
+        if (principal == null) {
+            throw new MalformedJwtException("Invalid JWT token");
+        }
+        return principal;
+    }
+
+    private JwtPrincipal verify(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(authToken);
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+
+            Object userId = claims.get("userId");
+            Object role = claims.get("role");
+            Date expiration = claims.getExpiration();
+
+            return new JwtPrincipal(
+                claims.getSubject(),
+                userId != null ? Long.valueOf(userId.toString()) : null,
+                role != null ? role.toString() : null,
+                expiration != null ? expiration.toInstant() : Instant.now()
+            );
         } catch (MalformedJwtException e) {
             // Invalid JWT token - log only in debug mode
         } catch (ExpiredJwtException e) {
-            // JWT token is expired - log only in debug mode  
+            // JWT token is expired - log only in debug mode
         } catch (UnsupportedJwtException e) {
             // JWT token is unsupported - log only in debug mode
+        } catch (SignatureException e) {
+            // JWT signature does not match - log only in debug mode
         } catch (IllegalArgumentException e) {
             // JWT claims string is empty - log only in debug mode
         }
-        return false;
+        return null;
+    }
+
+    private String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
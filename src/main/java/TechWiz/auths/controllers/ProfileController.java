@@ -1,24 +1,34 @@
 package TechWiz.auths.controllers;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import TechWiz.auths.models.dto.ApiResponse;
+import TechWiz.auths.models.dto.NearbyVeterinarianResponse;
 import TechWiz.auths.models.dto.UpdatePetOwnerProfileRequest;
 import TechWiz.auths.models.dto.UpdateShelterProfileRequest;
 import TechWiz.auths.models.dto.UpdateVeterinarianProfileRequest;
 import TechWiz.auths.models.dto.UserProfileResponse;
 import TechWiz.auths.services.ProfileService;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 
 @RestController
 @RequestMapping("/api/profile")
+@Validated
 @CrossOrigin(origins = "http://localhost:3000")
 public class ProfileController {
 
@@ -94,6 +104,17 @@ public class ProfileController {
         }
     }
 
+    @GetMapping("/veterinarians/nearby")
+    public ResponseEntity<ApiResponse> getNearbyVeterinarians(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @RequestParam(defaultValue = "10") @Positive @Max(50) int limit,
+            @RequestParam(defaultValue = "100") @Positive @DecimalMax("2000") double maxRadiusKm) {
+        List<NearbyVeterinarianResponse> veterinarians =
+                profileService.findNearbyVeterinarians(lat, lon, limit, maxRadiusKm);
+        return ResponseEntity.ok(ApiResponse.success("Nearby veterinarians retrieved", veterinarians));
+    }
+
     @GetMapping("/shelter")
     public ResponseEntity<ApiResponse> getShelterProfile(@AuthenticationPrincipal String email) {
         System.out.println("DEBUG: getShelterProfile called for email: " + email);
@@ -48,6 +48,19 @@ public class RedisTestController {
         }
     }
 
+    @GetMapping("/otp-status")
+    public ApiResponse getOtpStatus(@RequestParam String email) {
+        try {
+            // TTL per purpose in one pipelined round trip; -2 means no OTP for that purpose
+            return ApiResponse.success("OTP status retrieved", otpService.getOtpTtls(email,
+                OtpService.Purpose.REGISTRATION,
+                OtpService.Purpose.LOGIN_VERIFICATION,
+                OtpService.Purpose.PASSWORD_RESET));
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to get OTP status: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/delete-otp")
     public ApiResponse deleteOtp(@RequestParam String email, @RequestParam String purpose) {
         try {
@@ -73,6 +73,13 @@ public class ShelterProfile {
     @Column
     private String operatingHours;
 
+    // Optional WGS84 position used by nearby pet search
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
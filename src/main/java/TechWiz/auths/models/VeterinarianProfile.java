@@ -76,6 +76,13 @@ public class VeterinarianProfile {
     @Column(nullable = false)
     private Boolean isProfileComplete = false;
 
+    // Clinic position (WGS84 degrees), optional
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,20 @@
+package TechWiz.auths.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyVeterinarianResponse {
+    private Long profileId;
+    private String fullName;
+    private String clinicName;
+    private String clinicAddress;
+    private Double consultationFee;
+    private Boolean isAvailableForEmergency;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+}
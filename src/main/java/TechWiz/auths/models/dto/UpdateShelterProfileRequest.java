@@ -21,4 +21,8 @@ public class UpdateShelterProfileRequest {
     private Boolean acceptsDonations = false;
     private String operatingHours;
     private String profileImageUrl;
+    
+    // Send both or neither
+    private Double latitude;
+    private Double longitude;
 }
\ No newline at end of file
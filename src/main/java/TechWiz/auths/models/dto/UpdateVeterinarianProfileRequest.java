@@ -26,4 +26,8 @@ public class UpdateVeterinarianProfileRequest {
     private String bio;
     private Double consultationFee;
     private Boolean isAvailableForEmergency = false;
+    
+    // Send both or neither
+    private Double latitude;
+    private Double longitude;
 }
\ No newline at end of file
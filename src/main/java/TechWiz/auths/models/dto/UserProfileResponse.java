@@ -63,6 +63,8 @@ public class UserProfileResponse {
         private Boolean isProfileComplete;
         private LocalDateTime createdAt;
         private LocalDateTime updatedAt;
+        private Double latitude;
+        private Double longitude;
     }
     
     @Data
@@ -85,5 +87,7 @@ public class UserProfileResponse {
         private String operatingHours;
         private LocalDateTime createdAt;
         private LocalDateTime updatedAt;
+        private Double latitude;
+        private Double longitude;
     }
 }
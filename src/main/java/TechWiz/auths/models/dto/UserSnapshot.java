@@ -0,0 +1,52 @@
+package TechWiz.auths.models.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import TechWiz.auths.models.Role;
+import TechWiz.auths.models.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable, cacheable view of the User fields that read paths need.
+ * Anything security sensitive (password) or frequently written (lastLogin) is left out.
+ */
+@Getter
+@AllArgsConstructor
+public final class UserSnapshot {
+
+    private final Long id;
+    private final String email;
+    private final Role role;
+    private final String fullName;
+    private final Boolean isActive;
+    private final String profileImageUrl;
+
+    public static UserSnapshot from(User user) {
+        return new UserSnapshot(user.getId(), user.getEmail(), user.getRole(), user.getFullName(),
+            user.getIsActive(), user.getProfileImageUrl());
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("email", email);
+        map.put("role", role.name());
+        map.put("fullName", fullName);
+        map.put("isActive", isActive);
+        map.put("profileImageUrl", profileImageUrl);
+        return map;
+    }
+
+    public static UserSnapshot fromMap(Map<?, ?> map) {
+        return new UserSnapshot(
+            ((Number) map.get("id")).longValue(),
+            (String) map.get("email"),
+            Role.valueOf((String) map.get("role")),
+            (String) map.get("fullName"),
+            (Boolean) map.get("isActive"),
+            (String) map.get("profileImageUrl")
+        );
+    }
+}
@@ -1,10 +1,14 @@
 package TechWiz.auths.repositories;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import TechWiz.auths.models.VeterinarianProfile;
 import TechWiz.auths.models.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,4 +26,10 @@ public interface AuthVeterinarianProfileRepository extends JpaRepository<Veterin
     List<VeterinarianProfile> findByIsAvailableForEmergencyTrue();
     
     List<VeterinarianProfile> findBySpecializationsContaining(String specialization);
+    
+    List<VeterinarianProfile> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+    
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT v FROM VeterinarianProfile v WHERE v.id IN :ids")
+    List<VeterinarianProfile> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,10 +1,14 @@
 package TechWiz.auths.repositories;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import TechWiz.auths.models.ShelterProfile;
 import TechWiz.auths.models.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,4 +26,10 @@ public interface ShelterProfileRepository extends JpaRepository<ShelterProfile,
     List<ShelterProfile> findByAcceptsDonationsTrue();
     
     Optional<ShelterProfile> findByShelterName(String shelterName);
+    
+    List<ShelterProfile> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+    
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT s FROM ShelterProfile s WHERE s.id IN :ids")
+    List<ShelterProfile> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,61 @@
+package TechWiz.auths.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import TechWiz.common.ratelimit.RateLimitDecision;
+import TechWiz.common.ratelimit.RedisTokenBucketRateLimiter;
+
+/**
+ * Rate limit policies for the public auth endpoints
+ */
+@Service
+public class AuthRateLimitService {
+
+    @Autowired
+    private RedisTokenBucketRateLimiter rateLimiter;
+
+    @Value("${app.ratelimit.auth-ip.capacity:30}")
+    private int ipCapacity;
+
+    @Value("${app.ratelimit.auth-ip.refill-per-minute:30}")
+    private double ipRefillPerMinute;
+
+    @Value("${app.ratelimit.auth-email.capacity:5}")
+    private int emailCapacity;
+
+    @Value("${app.ratelimit.auth-email.refill-per-minute:5}")
+    private double emailRefillPerMinute;
+
+    @Value("${app.ratelimit.otp.capacity:3}")
+    private int otpCapacity;
+
+    @Value("${app.ratelimit.otp.refill-per-minute:1}")
+    private double otpRefillPerMinute;
+
+    /**
+     * Any auth endpoint call from one client IP
+     */
+    public RateLimitDecision checkClientIp(String ip) {
+        return rateLimiter.tryAcquire("auth-ip", ip, ipCapacity, ipRefillPerMinute);
+    }
+
+    /**
+     * Login / resend / forgot-password attempts for one account, checked before any DB or BCrypt work
+     */
+    public RateLimitDecision checkEmailAttempt(String email) {
+        return rateLimiter.tryAcquire("auth-email", normalize(email), emailCapacity, emailRefillPerMinute);
+    }
+
+    /**
+     * OTP codes issued (and mailed) for one account
+     */
+    public RateLimitDecision checkOtpIssuance(String email) {
+        return rateLimiter.tryAcquire("otp", normalize(email), otpCapacity, otpRefillPerMinute);
+    }
+
+    private String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase();
+    }
+}
@@ -23,6 +23,7 @@ import TechWiz.auths.repositories.AuthVeterinarianProfileRepository;
 import TechWiz.auths.repositories.PetOwnerProfileRepository;
 import TechWiz.auths.repositories.ShelterProfileRepository;
 import TechWiz.auths.repositories.UserRepository;
+import TechWiz.common.ratelimit.RateLimitDecision;
 
 @Service
 @Transactional
@@ -52,6 +53,12 @@ public class AuthService {
     @Autowired
     private OtpService otpService;
 
+    @Autowired
+    private AuthRateLimitService authRateLimitService;
+
+    @Autowired
+    private UserCache userCache;
+
     public ApiResponse register(RegisterRequest request) {
         try {
             // Check if user already exists
@@ -68,15 +75,15 @@ public class AuthService {
                 request.getRole()
             );
 
-            // Save user first
-            User savedUser = userRepository.save(user);
-
-            // Generate and store OTP in Redis
+            // Issue the OTP before saving: a rate-limited request must not leave an account behind
             String otpCode = otpService.generateAndStoreOtp(
                 request.getEmail(), 
                 OtpService.Purpose.REGISTRATION
             );
             System.out.println("Generated OTP: " + otpCode); // For debugging purposes only
+
+            User savedUser = userRepository.save(user);
+
             // Create role-specific profile
             createRoleSpecificProfile(savedUser, request);
 
@@ -92,6 +99,11 @@ public class AuthService {
 
     public ApiResponse login(LoginRequest request) {
         try {
+            RateLimitDecision decision = authRateLimitService.checkEmailAttempt(request.getEmail());
+            if (!decision.isAllowed()) {
+                return tooManyAttempts(decision);
+            }
+
             Optional<User> userOptional = userRepository.findByEmail(request.getEmail());
             
             if (userOptional.isEmpty()) {
@@ -126,6 +138,18 @@ public class AuthService {
 
     public ApiResponse verifyOtp(VerifyOtpRequest request) {
         try {
+            // One atomic Redis call checks both purposes and consumes the match
+            String purpose = otpService.verifyOtpForAnyPurpose(
+                request.getEmail(),
+                request.getOtpCode(),
+                OtpService.Purpose.REGISTRATION,
+                OtpService.Purpose.LOGIN_VERIFICATION
+            );
+
+            if (purpose == null) {
+                return ApiResponse.error("Invalid or expired OTP!");
+            }
+
             // Find user by email
             Optional<User> userOptional = userRepository.findByEmail(request.getEmail());
             
@@ -134,31 +158,14 @@ public class AuthService {
             }
 
             User user = userOptional.get();
-
-            // Try to verify OTP with different purposes
-            boolean isValidOtp = false;
-            boolean isRegistrationOtp = false;
-            
-            // Check if it's a registration OTP
-            if (otpService.verifyOtp(request.getEmail(), request.getOtpCode(), OtpService.Purpose.REGISTRATION)) {
-                isValidOtp = true;
-                isRegistrationOtp = true;
-            }
-            // Check if it's a login verification OTP
-            else if (otpService.verifyOtp(request.getEmail(), request.getOtpCode(), OtpService.Purpose.LOGIN_VERIFICATION)) {
-                isValidOtp = true;
-                isRegistrationOtp = false;
-            }
-
-            if (!isValidOtp) {
-                return ApiResponse.error("Invalid or expired OTP!");
-            }
+            boolean isRegistrationOtp = OtpService.Purpose.REGISTRATION.equals(purpose);
 
             // If this is registration OTP verification
             if (isRegistrationOtp) {
                 user.setIsEmailVerified(true);
                 user.setIsActive(true);
                 userRepository.save(user);
+                userCache.evict(user);
                 
                 // Send welcome email
                 emailService.sendWelcomeEmail(user.getEmail(), user.getFullName(), user.getRole().name());
@@ -190,6 +197,11 @@ public class AuthService {
 
     public ApiResponse resendOtp(String email) {
         try {
+            RateLimitDecision decision = authRateLimitService.checkEmailAttempt(email);
+            if (!decision.isAllowed()) {
+                return tooManyAttempts(decision);
+            }
+
             Optional<User> userOptional = userRepository.findByEmail(email);
             
             if (userOptional.isEmpty()) {
@@ -226,6 +238,11 @@ public class AuthService {
 
     public ApiResponse forgotPassword(ForgotPasswordRequest request) {
         try {
+            RateLimitDecision decision = authRateLimitService.checkEmailAttempt(request.getEmail());
+            if (!decision.isAllowed()) {
+                return tooManyAttempts(decision);
+            }
+
             Optional<User> userOptional = userRepository.findByEmail(request.getEmail());
             
             if (userOptional.isEmpty()) {
@@ -283,6 +300,10 @@ public class AuthService {
         }
     }
 
+    private ApiResponse tooManyAttempts(RateLimitDecision decision) {
+        return ApiResponse.error("Too many attempts. Please try again in " + decision.getRetryAfterSeconds() + " seconds.");
+    }
+
     private void createRoleSpecificProfile(User user, RegisterRequest _request) {
         switch (user.getRole()) {
             case PET_OWNER:
@@ -375,6 +396,8 @@ public class AuthService {
 
         User user = userOptional.get();
         user.setProfileImageUrl(profileImageUrl);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userCache.evict(savedUser);
+        return savedUser;
     }
 }
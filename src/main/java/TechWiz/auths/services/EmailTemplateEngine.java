@@ -0,0 +1,176 @@
+package TechWiz.auths.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Renders the HTML mail templates under classpath:mail-templates.
+ *
+ * Templates are parsed once at startup into literal segments that are already UTF-8 encoded,
+ * with {{name}} placeholders between them. Rendering writes segments and HTML-escaped values into
+ * a per-thread buffer, so the output is the finished message body in bytes.
+ */
+@Component
+public class EmailTemplateEngine {
+
+    public static final String OTP = "otp";
+    public static final String PASSWORD_RESET = "password-reset";
+    public static final String WELCOME = "welcome";
+
+    private static final String TEMPLATE_DIR = "mail-templates/";
+
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    // Templates with recipient-independent placeholders already filled in, e.g. welcome per role
+    private final Map<String, CompiledTemplate> boundTemplates = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<ByteArrayOutputStream> BUFFER =
+        ThreadLocal.withInitial(() -> new ByteArrayOutputStream(8192));
+
+    @PostConstruct
+    public void init() {
+        for (String name : List.of(OTP, PASSWORD_RESET, WELCOME)) {
+            templates.put(name, compile(load(name)));
+        }
+    }
+
+    /**
+     * Render a template to UTF-8 bytes; missing values render as empty strings
+     */
+    public byte[] render(String templateName, Map<String, String> values) {
+        return getTemplate(templateName).render(values);
+    }
+
+    /**
+     * Same template with one placeholder fixed, cached per value
+     */
+    public CompiledTemplate bind(String templateName, String placeholder, String value) {
+        String cacheKey = templateName + '|' + placeholder + '|' + value;
+        return boundTemplates.computeIfAbsent(cacheKey,
+            key -> getTemplate(templateName).bind(placeholder, value));
+    }
+
+    private CompiledTemplate getTemplate(String templateName) {
+        CompiledTemplate template = templates.get(templateName);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown email template: " + templateName);
+        }
+        return template;
+    }
+
+    private String load(String name) {
+        try (InputStream in = new ClassPathResource(TEMPLATE_DIR + name + ".html").getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load email template " + name, e);
+        }
+    }
+
+    static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            int close = open < 0 ? -1 : source.indexOf("}}", open + 2);
+            if (close < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            literals.add(source.substring(position, open));
+            placeholders.add(source.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        return new CompiledTemplate(literals, placeholders);
+    }
+
+    static String escapeHtml(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            String replacement = switch (value.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(value.charAt(i));
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    /**
+     * Literal segments interleaved with placeholders: literal[0] ph[0] literal[1] ... literal[n]
+     */
+    public static final class CompiledTemplate {
+
+        private final List<String> literalText;
+        private final byte[][] literals;
+        private final String[] placeholders;
+
+        private CompiledTemplate(List<String> literalText, List<String> placeholders) {
+            this.literalText = List.copyOf(literalText);
+            this.placeholders = placeholders.toArray(new String[0]);
+            this.literals = new byte[literalText.size()][];
+            for (int i = 0; i < literals.length; i++) {
+                literals[i] = literalText.get(i).getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        public byte[] render(Map<String, String> values) {
+            ByteArrayOutputStream buffer = BUFFER.get();
+            buffer.reset();
+
+            buffer.writeBytes(literals[0]);
+            for (int i = 0; i < placeholders.length; i++) {
+                String value = values.get(placeholders[i]);
+                if (value != null && !value.isEmpty()) {
+                    buffer.writeBytes(escapeHtml(value).getBytes(StandardCharsets.UTF_8));
+                }
+                buffer.writeBytes(literals[i + 1]);
+            }
+            return buffer.toByteArray();
+        }
+
+        private CompiledTemplate bind(String placeholder, String value) {
+            List<String> mergedLiterals = new ArrayList<>();
+            List<String> remaining = new ArrayList<>();
+            String escaped = value != null ? escapeHtml(value) : "";
+
+            StringBuilder current = new StringBuilder(literalText.get(0));
+            for (int i = 0; i < placeholders.length; i++) {
+                if (placeholders[i].equals(placeholder)) {
+                    current.append(escaped).append(literalText.get(i + 1));
+                } else {
+                    mergedLiterals.add(current.toString());
+                    remaining.add(placeholders[i]);
+                    current = new StringBuilder(literalText.get(i + 1));
+                }
+            }
+            mergedLiterals.add(current.toString());
+            return new CompiledTemplate(mergedLiterals, remaining);
+        }
+    }
+}
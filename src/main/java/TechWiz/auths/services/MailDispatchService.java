@@ -0,0 +1,281 @@
+package TechWiz.auths.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.activation.DataHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.ByteArrayDataSource;
+
+/**
+ * Outbound mail queue drained by a small pool of workers.
+ *
+ * Each worker collects up to batch-size mails and hands them to a single
+ * JavaMailSender.send(MimeMessage...) call, which opens one SMTP connection for the whole batch.
+ * Failed messages are retried with exponential backoff until max-attempts is reached.
+ */
+@Service
+public class MailDispatchService {
+
+    private static final String HTML_CONTENT_TYPE = "text/html; charset=UTF-8";
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.mail.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.mail.workers:2}")
+    private int workerCount;
+
+    @Value("${app.mail.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.linger-ms:50}")
+    private long lingerMs;
+
+    @Value("${app.mail.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.backoff-initial-ms:1000}")
+    private long backoffInitialMs;
+
+    @Value("${app.mail.backoff-max-ms:60000}")
+    private long backoffMaxMs;
+
+    private BlockingQueue<OutboundMail> queue;
+    private ScheduledExecutorService retryScheduler;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger pendingRetries = new AtomicInteger();
+    private volatile boolean running;
+
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter failedCounter;
+    private Counter rejectedCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mail-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("mail.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("mail.retry.pending", pendingRetries, AtomicInteger::get).register(meterRegistry);
+        sentCounter = meterRegistry.counter("mail.dispatch", "status", "sent");
+        retriedCounter = meterRegistry.counter("mail.dispatch", "status", "retried");
+        failedCounter = meterRegistry.counter("mail.dispatch", "status", "failed");
+        rejectedCounter = meterRegistry.counter("mail.dispatch", "status", "rejected");
+        batchTimer = meterRegistry.timer("mail.batch.send");
+
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "mail-dispatch-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        retryScheduler.shutdownNow();
+        workers.forEach(Thread::interrupt);
+
+        // Best effort: send whatever is still queued before the context goes away
+        List<OutboundMail> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            sendBatch(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+    }
+
+    /**
+     * Queue an HTML mail. Inside a transaction the mail is queued only after commit, so a
+     * rolled back registration never sends an OTP.
+     */
+    public void enqueue(String to, String subject, String htmlBody) {
+        enqueue(to, subject, htmlBody.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Queue an HTML mail whose body is already UTF-8 encoded, e.g. from EmailTemplateEngine
+     */
+    public void enqueue(String to, String subject, byte[] htmlBody) {
+        OutboundMail mail = new OutboundMail(to, subject, htmlBody);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(mail);
+                }
+            });
+        } else {
+            offer(mail);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void offer(OutboundMail mail) {
+        if (!queue.offer(mail)) {
+            // Queue full: push back on the caller rather than dropping an OTP
+            rejectedCounter.increment();
+            sendBatch(List.of(mail));
+        }
+    }
+
+    private void runWorker() {
+        List<OutboundMail> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                OutboundMail first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Give a burst a moment to fill the batch so it shares one connection
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    OutboundMail next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Mail worker error: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<OutboundMail> batch) {
+        Map<MimeMessage, OutboundMail> messages = new IdentityHashMap<>();
+        for (OutboundMail mail : batch) {
+            try {
+                messages.put(toMimeMessage(mail), mail);
+            } catch (MessagingException e) {
+                // A message that cannot be built will not get better on retry
+                failedCounter.increment();
+                System.err.println("Failed to build mail to " + mail.to + ": " + e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            sentCounter.increment(messages.size());
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                // Connection level failure: nothing in the batch went out
+                messages.values().forEach(mail -> scheduleRetry(mail, e));
+            } else {
+                sentCounter.increment(messages.size() - failed.size());
+                failed.forEach((message, cause) -> {
+                    OutboundMail mail = messages.get(message);
+                    if (mail != null) {
+                        scheduleRetry(mail, cause);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            messages.values().forEach(mail -> scheduleRetry(mail, e));
+        } finally {
+            sample.stop(batchTimer);
+        }
+    }
+
+    private void scheduleRetry(OutboundMail mail, Exception cause) {
+        mail.attempts++;
+        if (mail.attempts >= maxAttempts || !running) {
+            failedCounter.increment();
+            System.err.println("Giving up on mail to " + mail.to + " after " + mail.attempts + " attempt(s): " + cause.getMessage());
+            return;
+        }
+
+        long delay = Math.min(backoffMaxMs, backoffInitialMs << (mail.attempts - 1));
+        retriedCounter.increment();
+        pendingRetries.incrementAndGet();
+        retryScheduler.schedule(() -> {
+            pendingRetries.decrementAndGet();
+            offer(mail);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private MimeMessage toMimeMessage(OutboundMail mail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+
+        helper.setFrom(fromEmail);
+        helper.setTo(mail.to);
+        helper.setSubject(mail.subject);
+        // Single-part body straight from the encoded bytes, no re-encoding of the HTML string
+        message.setDataHandler(new DataHandler(new ByteArrayDataSource(mail.htmlBody, HTML_CONTENT_TYPE)));
+        return message;
+    }
+
+    private static final class OutboundMail {
+        private final String to;
+        private final String subject;
+        private final byte[] htmlBody;
+        private int attempts;
+
+        private OutboundMail(String to, String subject, byte[] htmlBody) {
+            this.to = to;
+            this.subject = subject;
+            this.htmlBody = htmlBody;
+        }
+    }
+}
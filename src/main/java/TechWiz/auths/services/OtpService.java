@@ -1,9 +1,20 @@
 package TechWiz.auths.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import TechWiz.common.ratelimit.RateLimitDecision;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
@@ -13,14 +24,34 @@ public class OtpService {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private AuthRateLimitService authRateLimitService;
+
     // OTP expiry time in minutes
     private static final int OTP_EXPIRY_MINUTES = 10;
     private static final int RESET_TOKEN_EXPIRY_HOURS = 1;
 
+    // GET + DEL per candidate key inside one script: a code can only ever be consumed once
+    private static final RedisScript<Long> COMPARE_AND_DELETE_SCRIPT = new DefaultRedisScript<>(
+        "for i, key in ipairs(KEYS) do " +
+        "  if redis.call('GET', key) == ARGV[1] then " +
+        "    redis.call('DEL', key) " +
+        "    return i " +
+        "  end " +
+        "end " +
+        "return 0", Long.class);
+
     /**
      * Generate and store OTP for registration/login verification
      */
     public String generateAndStoreOtp(String email, String purpose) {
+        // Every OTP ends up as an email, so issuance is capped per account
+        RateLimitDecision decision = authRateLimitService.checkOtpIssuance(email);
+        if (!decision.isAllowed()) {
+            throw new RuntimeException("Too many OTP requests. Please try again in "
+                + decision.getRetryAfterSeconds() + " seconds.");
+        }
+
         String otpCode = generateOTP();
         String key = getOtpKey(email, purpose);
         
@@ -34,15 +65,21 @@ public class OtpService {
      * Verify OTP code
      */
     public boolean verifyOtp(String email, String otpCode, String purpose) {
-        String key = getOtpKey(email, purpose);
-        String storedOtp = (String) redisTemplate.opsForValue().get(key);
-        
-        if (storedOtp != null && storedOtp.equals(otpCode)) {
-            // Delete OTP after successful verification
-            redisTemplate.delete(key);
-            return true;
+        return verifyOtpForAnyPurpose(email, otpCode, purpose) != null;
+    }
+
+    /**
+     * Verify an OTP against several purposes in one atomic round trip.
+     * The matching OTP is deleted; returns the purpose that matched, or null.
+     */
+    public String verifyOtpForAnyPurpose(String email, String otpCode, String... purposes) {
+        List<String> keys = new ArrayList<>(purposes.length);
+        for (String purpose : purposes) {
+            keys.add(getOtpKey(email, purpose));
         }
-        return false;
+
+        Long matched = compareAndDelete(keys, otpCode);
+        return matched != null && matched > 0 ? purposes[matched.intValue() - 1] : null;
     }
 
     /**
@@ -78,15 +115,8 @@ public class OtpService {
      * Verify reset password token
      */
     public boolean verifyResetToken(String email, String resetToken) {
-        String key = getResetTokenKey(email);
-        String storedToken = (String) redisTemplate.opsForValue().get(key);
-        
-        if (storedToken != null && storedToken.equals(resetToken)) {
-            // Delete token after successful verification
-            redisTemplate.delete(key);
-            return true;
-        }
-        return false;
+        Long matched = compareAndDelete(List.of(getResetTokenKey(email)), resetToken);
+        return matched != null && matched > 0;
     }
 
     /**
@@ -97,8 +127,40 @@ public class OtpService {
         return redisTemplate.getExpire(key, TimeUnit.SECONDS);
     }
 
+    /**
+     * Remaining TTL in seconds for each purpose, fetched in one pipelined round trip.
+     * -2 means no OTP exists for that purpose.
+     */
+    public Map<String, Long> getOtpTtls(String email, String... purposes) {
+        List<Object> ttls = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String purpose : purposes) {
+                connection.keyCommands().ttl(getOtpKey(email, purpose).getBytes(StandardCharsets.UTF_8), TimeUnit.SECONDS);
+            }
+            return null;
+        }, RedisSerializer.string());
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < purposes.length; i++) {
+            Object ttl = ttls.get(i);
+            result.put(purposes[i], ttl instanceof Number number ? number.longValue() : -2L);
+        }
+        return result;
+    }
+
     // Private helper methods
 
+    /**
+     * Deletes the first key whose value equals the candidate and returns its 1-based index, else 0.
+     * The candidate goes through the template's value serializer, so it compares byte-for-byte
+     * with what generateAndStore* wrote.
+     */
+    private Long compareAndDelete(List<String> keys, String candidate) {
+        if (candidate == null) {
+            return 0L;
+        }
+        return redisTemplate.execute(COMPARE_AND_DELETE_SCRIPT, keys, candidate);
+    }
+
     private String generateOTP() {
         Random random = new Random();
         int otp = 100000 + random.nextInt(900000);
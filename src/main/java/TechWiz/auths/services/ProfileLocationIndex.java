@@ -0,0 +1,181 @@
+package TechWiz.auths.services;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import TechWiz.auths.models.ShelterProfile;
+import TechWiz.auths.models.VeterinarianProfile;
+import TechWiz.auths.repositories.AuthVeterinarianProfileRepository;
+import TechWiz.auths.repositories.ShelterProfileRepository;
+import TechWiz.common.geo.GeoGridIndex;
+import TechWiz.common.geo.GeoGridIndex.Neighbor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Grid indexes of shelter and veterinarian profile positions, keyed by profile id.
+ *
+ * ProfileService pushes coordinate changes as they are saved; a periodic rebuild from the
+ * database picks up writes made on other nodes.
+ */
+@Service
+public class ProfileLocationIndex {
+
+    @Autowired
+    private ShelterProfileRepository shelterProfileRepository;
+
+    @Autowired
+    private AuthVeterinarianProfileRepository veterinarianProfileRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.geo.cell-degrees:0.5}")
+    private double cellDegrees;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> sheltersChangedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final Set<Long> veterinariansChangedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    // Guarded by lock
+    private GeoGridIndex<Long> shelters;
+    private GeoGridIndex<Long> veterinarians;
+
+    private volatile boolean rebuilding;
+
+    @PostConstruct
+    public void init() {
+        shelters = new GeoGridIndex<>(cellDegrees);
+        veterinarians = new GeoGridIndex<>(cellDegrees);
+        Gauge.builder("geo.index.size", this, i -> i.size(true)).tag("kind", "shelter").register(meterRegistry);
+        Gauge.builder("geo.index.size", this, i -> i.size(false)).tag("kind", "veterinarian").register(meterRegistry);
+    }
+
+    /**
+     * Shelters within radiusKm, nearest first
+     */
+    public List<Neighbor<Long>> findSheltersWithin(double latitude, double longitude, double radiusKm) {
+        lock.readLock().lock();
+        try {
+            return shelters.withinRadius(latitude, longitude, radiusKm);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Neighbor<Long>> findNearestShelters(double latitude, double longitude, int k, double maxRadiusKm) {
+        lock.readLock().lock();
+        try {
+            return shelters.nearest(latitude, longitude, k, maxRadiusKm);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Neighbor<Long>> findNearestVeterinarians(double latitude, double longitude, int k, double maxRadiusKm) {
+        lock.readLock().lock();
+        try {
+            return veterinarians.nearest(latitude, longitude, k, maxRadiusKm);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Move a shelter; null coordinates take it out of the index
+     */
+    public void updateShelter(Long shelterProfileId, Double latitude, Double longitude) {
+        if (rebuilding) {
+            sheltersChangedDuringRebuild.add(shelterProfileId);
+        }
+        lock.writeLock().lock();
+        try {
+            put(shelters, shelterProfileId, latitude, longitude);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateVeterinarian(Long veterinarianProfileId, Double latitude, Double longitude) {
+        if (rebuilding) {
+            veterinariansChangedDuringRebuild.add(veterinarianProfileId);
+        }
+        lock.writeLock().lock();
+        try {
+            put(veterinarians, veterinarianProfileId, latitude, longitude);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.geo.rebuild-interval-ms:600000}", initialDelayString = "${app.geo.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        rebuilding = true;
+        sheltersChangedDuringRebuild.clear();
+        veterinariansChangedDuringRebuild.clear();
+        try {
+            GeoGridIndex<Long> freshShelters = new GeoGridIndex<>(cellDegrees);
+            for (ShelterProfile profile : shelterProfileRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull()) {
+                put(freshShelters, profile.getId(), profile.getLatitude(), profile.getLongitude());
+            }
+            GeoGridIndex<Long> freshVeterinarians = new GeoGridIndex<>(cellDegrees);
+            for (VeterinarianProfile profile : veterinarianProfileRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull()) {
+                put(freshVeterinarians, profile.getId(), profile.getLatitude(), profile.getLongitude());
+            }
+
+            lock.writeLock().lock();
+            try {
+                shelters = freshShelters;
+                veterinarians = freshVeterinarians;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            System.err.println("Profile location index rebuild failed, keeping previous index: " + e.getMessage());
+        } finally {
+            rebuilding = false;
+        }
+
+        // Coordinates saved while the snapshot was loading may be missing from it
+        for (Long id : sheltersChangedDuringRebuild) {
+            shelterProfileRepository.findById(id).ifPresentOrElse(
+                p -> updateShelter(id, p.getLatitude(), p.getLongitude()),
+                () -> updateShelter(id, null, null));
+        }
+        for (Long id : veterinariansChangedDuringRebuild) {
+            veterinarianProfileRepository.findById(id).ifPresentOrElse(
+                p -> updateVeterinarian(id, p.getLatitude(), p.getLongitude()),
+                () -> updateVeterinarian(id, null, null));
+        }
+        sheltersChangedDuringRebuild.clear();
+        veterinariansChangedDuringRebuild.clear();
+    }
+
+    private static void put(GeoGridIndex<Long> index, Long id, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null || !GeoGridIndex.isValid(latitude, longitude)) {
+            index.remove(id);
+        } else {
+            index.put(id, latitude, longitude);
+        }
+    }
+
+    private int size(boolean shelterIndex) {
+        lock.readLock().lock();
+        try {
+            return shelterIndex ? shelters.size() : veterinarians.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package TechWiz.auths.services;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import TechWiz.auths.models.PetOwnerProfile;
+import TechWiz.auths.models.Role;
 import TechWiz.auths.models.ShelterProfile;
 import TechWiz.auths.models.User;
 import TechWiz.auths.models.VeterinarianProfile;
+import TechWiz.auths.models.dto.NearbyVeterinarianResponse;
 import TechWiz.auths.models.dto.UserProfileResponse;
+import TechWiz.auths.models.dto.UserSnapshot;
 import TechWiz.auths.repositories.AuthVeterinarianProfileRepository;
 import TechWiz.auths.repositories.PetOwnerProfileRepository;
 import TechWiz.auths.repositories.ShelterProfileRepository;
 import TechWiz.auths.repositories.UserRepository;
+import TechWiz.common.geo.GeoGridIndex;
+import TechWiz.common.geo.GeoGridIndex.Neighbor;
 
 @Service
 public class ProfileService {
@@ -21,6 +30,9 @@ public class ProfileService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
     @Autowired
     private PetOwnerProfileRepository petOwnerProfileRepository;
 
@@ -30,6 +42,9 @@ public class ProfileService {
     @Autowired
     private ShelterProfileRepository shelterProfileRepository;
 
+    @Autowired
+    private ProfileLocationIndex profileLocationIndex;
+
     public UserProfileResponse getUserProfileWithRoleData(Long userId) {
         Optional<User> userOptional = userRepository.findById(userId);
         
@@ -52,20 +67,20 @@ public class ProfileService {
         response.setCreatedAt(user.getCreatedAt());
         
         // Set role-specific profile data
-        Object profileData = getRoleSpecificProfileData(user);
+        Object profileData = getRoleSpecificProfileData(user.getRole(), user.getId(), user.getProfileImageUrl());
         response.setProfile(profileData);
         
         return response;
     }
 
-    private Object getRoleSpecificProfileData(User user) {
-        switch (user.getRole()) {
+    private Object getRoleSpecificProfileData(Role role, Long userId, String profileImageUrl) {
+        switch (role) {
             case PET_OWNER:
-                return getPetOwnerProfileData(user);
+                return getPetOwnerProfileData(userId, profileImageUrl);
             case VETERINARIAN:
-                return getVeterinarianProfileData(user);
+                return getVeterinarianProfileData(userId, profileImageUrl);
             case SHELTER:
-                return getShelterProfileData(user);
+                return getShelterProfileData(userId, profileImageUrl);
             case ADMIN:
                 return null; // Admin doesn't have profile
             default:
@@ -73,8 +88,8 @@ public class ProfileService {
         }
     }
 
-    private UserProfileResponse.PetOwnerProfileData getPetOwnerProfileData(User user) {
-        Optional<PetOwnerProfile> profileOptional = petOwnerProfileRepository.findByUser(user);
+    private UserProfileResponse.PetOwnerProfileData getPetOwnerProfileData(Long userId, String profileImageUrl) {
+        Optional<PetOwnerProfile> profileOptional = petOwnerProfileRepository.findByUserId(userId);
         
         if (profileOptional.isEmpty()) {
             return null;
@@ -86,7 +101,7 @@ public class ProfileService {
             profile.getAddress(),
             profile.getEmergencyContactName(),
             profile.getEmergencyContactPhone(),
-            user.getProfileImageUrl(),
+            profileImageUrl,
             profile.getBio(),
             profile.getAllowAccountSharing(),
             profile.getCreatedAt(),
@@ -94,8 +109,8 @@ public class ProfileService {
         );
     }
 
-    private UserProfileResponse.VeterinarianProfileData getVeterinarianProfileData(User user) {
-        Optional<VeterinarianProfile> profileOptional = veterinarianProfileRepository.findByUser(user);
+    private UserProfileResponse.VeterinarianProfileData getVeterinarianProfileData(Long userId, String profileImageUrl) {
+        Optional<VeterinarianProfile> profileOptional = veterinarianProfileRepository.findByUserId(userId);
         
         if (profileOptional.isEmpty()) {
             return null;
@@ -113,18 +128,20 @@ public class ProfileService {
             profile.getAvailableFromTime(),
             profile.getAvailableToTime(),
             profile.getAvailableDaysList(),
-            user.getProfileImageUrl(),
+            profileImageUrl,
             profile.getBio(),
             profile.getConsultationFee(),
             profile.getIsAvailableForEmergency(),
             profile.getIsProfileComplete(),
             profile.getCreatedAt(),
-            profile.getUpdatedAt()
+            profile.getUpdatedAt(),
+            profile.getLatitude(),
+            profile.getLongitude()
         );
     }
 
-    private UserProfileResponse.ShelterProfileData getShelterProfileData(User user) {
-        Optional<ShelterProfile> profileOptional = shelterProfileRepository.findByUser(user);
+    private UserProfileResponse.ShelterProfileData getShelterProfileData(Long userId, String profileImageUrl) {
+        Optional<ShelterProfile> profileOptional = shelterProfileRepository.findByUserId(userId);
         
         if (profileOptional.isEmpty()) {
             return null;
@@ -141,31 +158,33 @@ public class ProfileService {
             profile.getDescription(),
             profile.getCapacity(),
             profile.getCurrentOccupancy(),
-            user.getProfileImageUrl(),
+            profileImageUrl,
             profile.getImages(),
             profile.getIsVerified(),
             profile.getAcceptsDonations(),
             profile.getOperatingHours(),
             profile.getCreatedAt(),
-            profile.getUpdatedAt()
+            profile.getUpdatedAt(),
+            profile.getLatitude(),
+            profile.getLongitude()
         );
     }
 
     // Update profile methods
     public UserProfileResponse.PetOwnerProfileData updatePetOwnerProfile(String email, TechWiz.auths.models.dto.UpdatePetOwnerProfileRequest request) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
+        Optional<UserSnapshot> userOptional = userCache.getByEmail(email);
         if (userOptional.isEmpty()) {
             return null;
         }
 
-        User user = userOptional.get();
-        Optional<PetOwnerProfile> profileOptional = petOwnerProfileRepository.findByUser(user);
+        UserSnapshot user = userOptional.get();
+        Optional<PetOwnerProfile> profileOptional = petOwnerProfileRepository.findByUserId(user.getId());
         
         PetOwnerProfile profile;
         if (profileOptional.isEmpty()) {
             // Create new profile if doesn't exist
             profile = new PetOwnerProfile();
-            profile.setUser(user);
+            profile.setUser(userRepository.getReferenceById(user.getId()));
             profile.setAddress("");
             profile.setEmergencyContactName("");
             profile.setEmergencyContactPhone("");
@@ -180,31 +199,31 @@ public class ProfileService {
         if (request.getEmergencyContactName() != null) profile.setEmergencyContactName(request.getEmergencyContactName());
         if (request.getEmergencyContactPhone() != null) profile.setEmergencyContactPhone(request.getEmergencyContactPhone());
         if (request.getProfileImageUrl() != null) {
-            user.setProfileImageUrl(request.getProfileImageUrl());
-            userRepository.save(user);
+            updateProfileImage(user.getId(), request.getProfileImageUrl());
         }
         if (request.getBio() != null) profile.setBio(request.getBio());
         if (request.getAllowAccountSharing() != null) profile.setAllowAccountSharing(request.getAllowAccountSharing());
 
         petOwnerProfileRepository.save(profile);
 
-        return getPetOwnerProfileData(user);
+        String profileImageUrl = request.getProfileImageUrl() != null ? request.getProfileImageUrl() : user.getProfileImageUrl();
+        return getPetOwnerProfileData(user.getId(), profileImageUrl);
     }
 
     public UserProfileResponse.VeterinarianProfileData updateVeterinarianProfile(String email, TechWiz.auths.models.dto.UpdateVeterinarianProfileRequest request) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
+        Optional<UserSnapshot> userOptional = userCache.getByEmail(email);
         if (userOptional.isEmpty()) {
             return null;
         }
 
-        User user = userOptional.get();
-        Optional<VeterinarianProfile> profileOptional = veterinarianProfileRepository.findByUser(user);
+        UserSnapshot user = userOptional.get();
+        Optional<VeterinarianProfile> profileOptional = veterinarianProfileRepository.findByUserId(user.getId());
         
         VeterinarianProfile profile;
         if (profileOptional.isEmpty()) {
             // Create new profile if doesn't exist
             profile = new VeterinarianProfile();
-            profile.setUser(user);
+            profile.setUser(userRepository.getReferenceById(user.getId()));
             profile.setAddress("");
             profile.setLicenseNumber("");
             profile.setSpecializations("");
@@ -217,8 +236,15 @@ public class ProfileService {
             profile = profileOptional.get();
         }
         
+        boolean moved = hasCoordinates(request.getLatitude(), request.getLongitude())
+                && (!request.getLatitude().equals(profile.getLatitude()) || !request.getLongitude().equals(profile.getLongitude()));
+
         // Update fields if provided
         if (request.getAddress() != null) profile.setAddress(request.getAddress());
+        if (moved) {
+            profile.setLatitude(request.getLatitude());
+            profile.setLongitude(request.getLongitude());
+        }
         if (request.getLicenseNumber() != null) profile.setLicenseNumber(request.getLicenseNumber());
         if (request.getExperienceYears() != null) profile.setExperienceYears(request.getExperienceYears());
         if (request.getSpecializations() != null) profile.setSpecializationsList(request.getSpecializations());
@@ -228,8 +254,7 @@ public class ProfileService {
         if (request.getAvailableToTime() != null) profile.setAvailableToTime(request.getAvailableToTime());
         if (request.getAvailableDays() != null) profile.setAvailableDaysList(request.getAvailableDays());
         if (request.getProfileImageUrl() != null) {
-            user.setProfileImageUrl(request.getProfileImageUrl());
-            userRepository.save(user);
+            updateProfileImage(user.getId(), request.getProfileImageUrl());
         }
         if (request.getBio() != null) profile.setBio(request.getBio());
         if (request.getConsultationFee() != null) profile.setConsultationFee(request.getConsultationFee());
@@ -243,24 +268,28 @@ public class ProfileService {
         profile.setIsProfileComplete(isComplete);
 
         veterinarianProfileRepository.save(profile);
+        if (moved) {
+            profileLocationIndex.updateVeterinarian(profile.getId(), profile.getLatitude(), profile.getLongitude());
+        }
 
-        return getVeterinarianProfileData(user);
+        String profileImageUrl = request.getProfileImageUrl() != null ? request.getProfileImageUrl() : user.getProfileImageUrl();
+        return getVeterinarianProfileData(user.getId(), profileImageUrl);
     }
 
     public UserProfileResponse.ShelterProfileData updateShelterProfile(String email, TechWiz.auths.models.dto.UpdateShelterProfileRequest request) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
+        Optional<UserSnapshot> userOptional = userCache.getByEmail(email);
         if (userOptional.isEmpty()) {
             return null;
         }
 
-        User user = userOptional.get();
-        Optional<ShelterProfile> profileOptional = shelterProfileRepository.findByUser(user);
+        UserSnapshot user = userOptional.get();
+        Optional<ShelterProfile> profileOptional = shelterProfileRepository.findByUserId(user.getId());
         
         ShelterProfile profile;
         if (profileOptional.isEmpty()) {
             // Create new profile if doesn't exist
             profile = new ShelterProfile();
-            profile.setUser(user);
+            profile.setUser(userRepository.getReferenceById(user.getId()));
             profile.setShelterName("");
             profile.setAddress("");
             profile.setContactPersonName("");
@@ -271,8 +300,15 @@ public class ProfileService {
             profile = profileOptional.get();
         }
         
+        boolean moved = hasCoordinates(request.getLatitude(), request.getLongitude())
+                && (!request.getLatitude().equals(profile.getLatitude()) || !request.getLongitude().equals(profile.getLongitude()));
+
         // Update fields if provided
         if (request.getAddress() != null) profile.setAddress(request.getAddress());
+        if (moved) {
+            profile.setLatitude(request.getLatitude());
+            profile.setLongitude(request.getLongitude());
+        }
         if (request.getShelterName() != null) profile.setShelterName(request.getShelterName());
         if (request.getContactPersonName() != null) profile.setContactPersonName(request.getContactPersonName());
         if (request.getRegistrationNumber() != null) profile.setRegistrationNumber(request.getRegistrationNumber());
@@ -284,29 +320,32 @@ public class ProfileService {
         if (request.getAcceptsDonations() != null) profile.setAcceptsDonations(request.getAcceptsDonations());
         if (request.getOperatingHours() != null) profile.setOperatingHours(request.getOperatingHours());
         if (request.getProfileImageUrl() != null) {
-            user.setProfileImageUrl(request.getProfileImageUrl());
-            userRepository.save(user);
+            updateProfileImage(user.getId(), request.getProfileImageUrl());
         }
 
         shelterProfileRepository.save(profile);
+        if (moved) {
+            profileLocationIndex.updateShelter(profile.getId(), profile.getLatitude(), profile.getLongitude());
+        }
 
-        return getShelterProfileData(user);
+        String profileImageUrl = request.getProfileImageUrl() != null ? request.getProfileImageUrl() : user.getProfileImageUrl();
+        return getShelterProfileData(user.getId(), profileImageUrl);
     }
 
     public UserProfileResponse.PetOwnerProfileData getPetOwnerProfile(String email) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
+        Optional<UserSnapshot> userOptional = userCache.getByEmail(email);
         if (userOptional.isEmpty()) {
             return null;
         }
 
-        User user = userOptional.get();
-        Optional<PetOwnerProfile> profileOptional = petOwnerProfileRepository.findByUser(user);
+        UserSnapshot user = userOptional.get();
+        Optional<PetOwnerProfile> profileOptional = petOwnerProfileRepository.findByUserId(user.getId());
         
         PetOwnerProfile profile;
         if (profileOptional.isEmpty()) {
             // Create new profile if doesn't exist
             profile = new PetOwnerProfile();
-            profile.setUser(user);
+            profile.setUser(userRepository.getReferenceById(user.getId()));
             profile.setAddress("");
             profile.setEmergencyContactName("");
             profile.setEmergencyContactPhone("");
@@ -332,19 +371,19 @@ public class ProfileService {
     }
 
     public UserProfileResponse.VeterinarianProfileData getVeterinarianProfile(String email) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
+        Optional<UserSnapshot> userOptional = userCache.getByEmail(email);
         if (userOptional.isEmpty()) {
             return null;
         }
 
-        User user = userOptional.get();
-        Optional<VeterinarianProfile> profileOptional = veterinarianProfileRepository.findByUser(user);
+        UserSnapshot user = userOptional.get();
+        Optional<VeterinarianProfile> profileOptional = veterinarianProfileRepository.findByUserId(user.getId());
         
         VeterinarianProfile profile;
         if (profileOptional.isEmpty()) {
             // Create new profile if doesn't exist
             profile = new VeterinarianProfile();
-            profile.setUser(user);
+            profile.setUser(userRepository.getReferenceById(user.getId()));
             profile.setAddress("");
             profile.setLicenseNumber("");
             profile.setSpecializations("");
@@ -376,24 +415,26 @@ public class ProfileService {
         data.setIsProfileComplete(profile.getIsProfileComplete());
         data.setCreatedAt(profile.getCreatedAt());
         data.setUpdatedAt(profile.getUpdatedAt());
+        data.setLatitude(profile.getLatitude());
+        data.setLongitude(profile.getLongitude());
 
         return data;
     }
 
     public UserProfileResponse.ShelterProfileData getShelterProfile(String email) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
+        Optional<UserSnapshot> userOptional = userCache.getByEmail(email);
         if (userOptional.isEmpty()) {
             return null;
         }
 
-        User user = userOptional.get();
-        Optional<ShelterProfile> profileOptional = shelterProfileRepository.findByUser(user);
+        UserSnapshot user = userOptional.get();
+        Optional<ShelterProfile> profileOptional = shelterProfileRepository.findByUserId(user.getId());
         
         ShelterProfile profile;
         if (profileOptional.isEmpty()) {
             // Create new profile if doesn't exist
             profile = new ShelterProfile();
-            profile.setUser(user);
+            profile.setUser(userRepository.getReferenceById(user.getId()));
             profile.setShelterName("");
             profile.setAddress("");
             profile.setContactPersonName("");
@@ -422,7 +463,64 @@ public class ProfileService {
         data.setOperatingHours(profile.getOperatingHours());
         data.setCreatedAt(profile.getCreatedAt());
         data.setUpdatedAt(profile.getUpdatedAt());
+        data.setLatitude(profile.getLatitude());
+        data.setLongitude(profile.getLongitude());
 
         return data;
     }
+
+    /**
+     * The veterinarians nearest to a point, nearest first
+     */
+    public List<NearbyVeterinarianResponse> findNearbyVeterinarians(double latitude, double longitude, int limit, double maxRadiusKm) {
+        List<Neighbor<Long>> nearest = profileLocationIndex.findNearestVeterinarians(latitude, longitude, limit, maxRadiusKm);
+        List<NearbyVeterinarianResponse> results = new ArrayList<>(nearest.size());
+        if (nearest.isEmpty()) {
+            return results;
+        }
+
+        Map<Long, VeterinarianProfile> profilesById = new HashMap<>();
+        for (VeterinarianProfile profile : veterinarianProfileRepository.findWithUserByIdIn(
+                nearest.stream().map(Neighbor::key).toList())) {
+            profilesById.put(profile.getId(), profile);
+        }
+        for (Neighbor<Long> neighbor : nearest) {
+            VeterinarianProfile profile = profilesById.get(neighbor.key());
+            if (profile != null) {
+                results.add(new NearbyVeterinarianResponse(
+                    profile.getId(),
+                    profile.getUser().getFullName(),
+                    profile.getClinicName(),
+                    profile.getClinicAddress(),
+                    profile.getConsultationFee(),
+                    profile.getIsAvailableForEmergency(),
+                    profile.getLatitude(),
+                    profile.getLongitude(),
+                    Math.round(neighbor.distanceKm() * 100) / 100.0
+                ));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Coordinates are optional but must come as a valid pair
+     */
+    private static boolean hasCoordinates(Double latitude, Double longitude) {
+        if (latitude == null && longitude == null) {
+            return false;
+        }
+        if (latitude == null || longitude == null || !GeoGridIndex.isValid(latitude, longitude)) {
+            throw new RuntimeException("Latitude (-90..90) and longitude (-180..180) must be supplied together");
+        }
+        return true;
+    }
+
+    private void updateProfileImage(Long userId, String profileImageUrl) {
+        userRepository.findById(userId).ifPresent(user -> {
+            user.setProfileImageUrl(profileImageUrl);
+            userRepository.save(user);
+            userCache.evict(user);
+        });
+    }
 }
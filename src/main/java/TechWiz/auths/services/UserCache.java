@@ -0,0 +1,198 @@
+package TechWiz.auths.services;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import TechWiz.auths.models.User;
+import TechWiz.auths.models.dto.UserSnapshot;
+import TechWiz.auths.repositories.UserRepository;
+import TechWiz.common.cache.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Read-through cache of UserSnapshot by id and by email.
+ *
+ * L1 is a bounded in-process cache with a short TTL, L2 is Redis shared by all nodes.
+ * Writers call evict(...) after changing a cached field; the eviction is repeated after commit
+ * so a concurrent reader cannot re-cache the pre-commit row.
+ */
+@Service
+public class UserCache {
+
+    private static final String ID_KEY_PREFIX = "user:snapshot:";
+    private static final String EMAIL_KEY_PREFIX = "user:email:";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.user-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.user-cache.local-ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    @Value("${app.user-cache.redis-ttl-seconds:600}")
+    private long redisTtlSeconds;
+
+    private BoundedTtlCache<Long, UserSnapshot> byId;
+    private BoundedTtlCache<String, Long> idByEmail;
+    private Counter redisHits;
+    private Counter redisMisses;
+
+    @PostConstruct
+    public void init() {
+        byId = new BoundedTtlCache<>(maxEntries);
+        idByEmail = new BoundedTtlCache<>(maxEntries);
+        byId.bindTo(meterRegistry, "user.cache.local");
+        idByEmail.bindTo(meterRegistry, "user.cache.local.email");
+        redisHits = meterRegistry.counter("user.cache.redis.requests", "result", "hit");
+        redisMisses = meterRegistry.counter("user.cache.redis.requests", "result", "miss");
+    }
+
+    public Optional<UserSnapshot> getById(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byId.get(userId, this::loadById, localTtl()));
+    }
+
+    public Optional<UserSnapshot> getByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        String normalized = normalize(email);
+        Long userId = idByEmail.get(normalized, this::loadIdByEmail, localTtl());
+        if (userId == null) {
+            return Optional.empty();
+        }
+
+        Optional<UserSnapshot> snapshot = getById(userId);
+        // Email changed under us: drop the stale mapping and report not found
+        if (snapshot.isPresent() && !normalize(snapshot.get().getEmail()).equals(normalized)) {
+            idByEmail.invalidate(normalized);
+            return Optional.empty();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drop a user from both cache levels, now and again after the current transaction commits
+     */
+    public void evict(User user) {
+        evict(user.getId(), user.getEmail());
+    }
+
+    public void evict(Long userId, String email) {
+        evictNow(userId, email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId, email);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long userId, String email) {
+        if (userId != null) {
+            byId.invalidate(userId);
+        }
+        if (email != null) {
+            idByEmail.invalidate(normalize(email));
+        }
+        try {
+            if (userId != null) {
+                redisTemplate.delete(ID_KEY_PREFIX + userId);
+            }
+            if (email != null) {
+                redisTemplate.delete(EMAIL_KEY_PREFIX + normalize(email));
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to evict user " + userId + " from Redis: " + e.getMessage());
+        }
+    }
+
+    private UserSnapshot loadById(Long userId) {
+        try {
+            Object cached = redisTemplate.opsForValue().get(ID_KEY_PREFIX + userId);
+            if (cached instanceof Map<?, ?> map) {
+                redisHits.increment();
+                return UserSnapshot.fromMap(map);
+            }
+            redisMisses.increment();
+        } catch (Exception e) {
+            System.err.println("User cache Redis read failed: " + e.getMessage());
+        }
+
+        Optional<User> user = userRepository.findById(userId);
+        if (user.isEmpty()) {
+            return null;
+        }
+
+        UserSnapshot snapshot = UserSnapshot.from(user.get());
+        store(snapshot);
+        return snapshot;
+    }
+
+    private Long loadIdByEmail(String email) {
+        try {
+            Object cached = redisTemplate.opsForValue().get(EMAIL_KEY_PREFIX + email);
+            if (cached instanceof Number id) {
+                redisHits.increment();
+                return id.longValue();
+            }
+            redisMisses.increment();
+        } catch (Exception e) {
+            System.err.println("User cache Redis read failed: " + e.getMessage());
+        }
+
+        Optional<User> user = userRepository.findByEmail(email);
+        if (user.isEmpty()) {
+            return null;
+        }
+
+        // Warm the id level too, the caller needs the snapshot next
+        UserSnapshot snapshot = UserSnapshot.from(user.get());
+        byId.put(snapshot.getId(), snapshot, localTtl());
+        store(snapshot);
+        return snapshot.getId();
+    }
+
+    private void store(UserSnapshot snapshot) {
+        try {
+            redisTemplate.opsForValue().set(ID_KEY_PREFIX + snapshot.getId(), snapshot.toMap(),
+                redisTtlSeconds, TimeUnit.SECONDS);
+            redisTemplate.opsForValue().set(EMAIL_KEY_PREFIX + normalize(snapshot.getEmail()), snapshot.getId(),
+                redisTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("User cache Redis write failed: " + e.getMessage());
+        }
+    }
+
+    private Duration localTtl() {
+        return Duration.ofSeconds(localTtlSeconds);
+    }
+
+    private String normalize(String email) {
+        return email.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,154 @@
+package TechWiz.common.cache;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Small bounded in-process cache with per-entry expiry and hit/miss counters.
+ * When the cache is full, expired entries are purged first and then the
+ * entries closest to expiry are dropped.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get a live entry, or null if absent or expired
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Get a live entry, loading and caching it on a miss. Null results are not cached.
+     */
+    public V get(K key, Function<K, V> loader, Duration ttl) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value, ttl);
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Publish size, hit/miss/eviction counters and hit ratio under the given metric name
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        FunctionCounter.builder(name + ".requests", hits, LongAdder::sum)
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder(name + ".requests", misses, LongAdder::sum)
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder(name + ".evictions", evictions, LongAdder::sum)
+            .register(registry);
+        Gauge.builder(name + ".size", entries, Map::size)
+            .register(registry);
+        Gauge.builder(name + ".hit.ratio", this, BoundedTtlCache::hitRatio)
+            .register(registry);
+    }
+
+    private synchronized void evict() {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        int before = entries.size();
+        entries.entrySet().removeIf(e -> e.getValue().expiresAtMillis <= now);
+
+        if (entries.size() >= maxEntries) {
+            // Still full - drop roughly a tenth of the entries, soonest to expire first
+            int toDrop = Math.max(1, maxEntries / 10);
+            List<K> victims = entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().expiresAtMillis))
+                .limit(toDrop)
+                .map(Map.Entry::getKey)
+                .toList();
+            victims.forEach(entries::remove);
+        }
+        evictions.add(Math.max(0, before - entries.size()));
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtMillis;
+
+        private Entry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
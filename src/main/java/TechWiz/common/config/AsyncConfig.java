@@ -0,0 +1,13 @@
+package TechWiz.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables @Async. Each feature declares its own bounded executor and
+ * references it by name, e.g. @Async("chatPushExecutor").
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,12 @@
+package TechWiz.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled for background maintenance jobs
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
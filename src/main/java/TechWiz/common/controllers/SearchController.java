@@ -0,0 +1,99 @@
+package TechWiz.common.controllers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import TechWiz.auths.models.dto.ApiResponse;
+import TechWiz.common.search.AutocompleteService;
+import TechWiz.common.search.SearchIndexService;
+import TechWiz.common.search.SearchResult;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    /**
+     * Ranked, highlighted search over products, posts and pets; types is a comma separated filter
+     */
+    @GetMapping("/public/search")
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(required = false) String types,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "10") int size) {
+        if (!searchIndexService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error("Search index is still being built, please try again shortly"));
+        }
+        try {
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            List<String> typeFilter = types == null ? List.of() : Arrays.stream(types.split(","))
+                    .map(String::trim)
+                    .filter(type -> !type.isEmpty())
+                    .collect(Collectors.toList());
+
+            SearchResult result = searchIndexService.search(q, typeFilter, (long) Math.max(page, 0) * pageSize, pageSize);
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("hits", result.getHits());
+            data.put("totalHits", result.getTotalHits());
+            data.put("page", page);
+            data.put("size", pageSize);
+            return ResponseEntity.ok(ApiResponse.success("Search results retrieved", data));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error searching: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Popularity-ranked completions for one field: breed, product or brand
+     */
+    @GetMapping("/public/autocomplete")
+    public ResponseEntity<?> autocomplete(@RequestParam String field,
+                                          @RequestParam String prefix,
+                                          @RequestParam(defaultValue = "8") int limit) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Suggestions retrieved",
+                    autocompleteService.complete(field, prefix, limit)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving suggestions: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/admin/search/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildIndex() {
+        try {
+            searchIndexService.rebuild();
+            autocompleteService.rebuild();
+            return ResponseEntity.ok(ApiResponse.success("Search index rebuilt"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error rebuilding search index: " + e.getMessage()));
+        }
+    }
+}
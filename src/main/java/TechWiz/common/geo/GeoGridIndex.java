@@ -0,0 +1,167 @@
+package TechWiz.common.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory spatial index of keyed points on a fixed latitude/longitude grid.
+ *
+ * Points are bucketed by cell; a radius query only scans the cells overlapping the query's
+ * bounding box (wrapping across the antimeridian and widening to every longitude near a pole) and
+ * then filters by great-circle distance. k-nearest doubles the search radius from one cell until
+ * at least k points are inside it, which is exact because everything outside is farther away.
+ * Not thread-safe.
+ */
+public class GeoGridIndex<K> {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final double MAX_DISTANCE_KM = Math.PI * EARTH_RADIUS_KM;
+
+    private final double cellDegrees;
+    private final int latCells;
+    private final int lonCells;
+    private final Map<Long, Map<K, Point>> cells = new HashMap<>();
+    private final Map<K, Point> points = new HashMap<>();
+
+    public GeoGridIndex(double cellDegrees) {
+        double rows = 180 / cellDegrees;
+        // Columns must tile the full circle so wrapped column indexes line up with real longitudes
+        if (!(cellDegrees > 0 && cellDegrees <= 90) || Math.abs(rows - Math.rint(rows)) > 1e-9) {
+            throw new IllegalArgumentException("Cell size must divide 180 degrees evenly: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.latCells = (int) Math.rint(rows);
+        this.lonCells = 2 * latCells;
+    }
+
+    public static boolean isValid(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * Great-circle distance in kilometres (haversine)
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Insert or move a key
+     */
+    public void put(K key, double latitude, double longitude) {
+        if (!isValid(latitude, longitude)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        remove(key);
+        Point point = new Point(latitude, longitude, cellOf(latitude, longitude));
+        points.put(key, point);
+        cells.computeIfAbsent(point.cell(), c -> new HashMap<>()).put(key, point);
+    }
+
+    public void remove(K key) {
+        Point point = points.remove(key);
+        if (point == null) {
+            return;
+        }
+        Map<K, Point> cell = cells.get(point.cell());
+        cell.remove(key);
+        if (cell.isEmpty()) {
+            cells.remove(point.cell());
+        }
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Every key within radiusKm of the given point, nearest first
+     */
+    public List<Neighbor<K>> withinRadius(double latitude, double longitude, double radiusKm) {
+        List<Neighbor<K>> results = new ArrayList<>();
+        if (!isValid(latitude, longitude) || !(radiusKm >= 0) || points.isEmpty()) {
+            return results;
+        }
+        double radius = Math.min(radiusKm, MAX_DISTANCE_KM);
+        double dLat = radius / KM_PER_DEGREE;
+        double minLat = latitude - dLat;
+        double maxLat = latitude + dLat;
+
+        int firstCol = 0;
+        int lastCol = lonCells - 1;
+        if (minLat > -90 && maxLat < 90) {
+            // Longitude half-width of the circle's bounding box; undefined (all longitudes) only at a pole
+            double ratio = Math.sin(radius / EARTH_RADIUS_KM) / Math.cos(Math.toRadians(latitude));
+            if (ratio < 1) {
+                double dLon = Math.toDegrees(Math.asin(ratio));
+                firstCol = (int) Math.floor((longitude - dLon + 180) / cellDegrees);
+                lastCol = (int) Math.floor((longitude + dLon + 180) / cellDegrees);
+                if (lastCol - firstCol + 1 >= lonCells) {
+                    firstCol = 0;
+                    lastCol = lonCells - 1;
+                }
+            }
+        }
+        int firstRow = row(Math.max(minLat, -90));
+        int lastRow = row(Math.min(maxLat, 90));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Map<K, Point> cell = cells.get((long) row * lonCells + Math.floorMod(col, lonCells));
+                if (cell == null) {
+                    continue;
+                }
+                cell.forEach((key, point) -> {
+                    double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+                    if (distance <= radius) {
+                        results.add(new Neighbor<>(key, distance));
+                    }
+                });
+            }
+        }
+        results.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return results;
+    }
+
+    /**
+     * The k keys nearest to the given point and no farther than maxRadiusKm, nearest first
+     */
+    public List<Neighbor<K>> nearest(double latitude, double longitude, int k, double maxRadiusKm) {
+        if (k <= 0 || !(maxRadiusKm >= 0)) {
+            return new ArrayList<>();
+        }
+        double limit = Math.min(maxRadiusKm, MAX_DISTANCE_KM);
+        double radius = Math.min(cellDegrees * KM_PER_DEGREE, limit);
+        while (true) {
+            List<Neighbor<K>> results = withinRadius(latitude, longitude, radius);
+            if (results.size() >= k || radius >= limit) {
+                return results.size() > k ? new ArrayList<>(results.subList(0, k)) : results;
+            }
+            radius = Math.min(radius * 2, limit);
+        }
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        int col = Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), lonCells);
+        return (long) row(latitude) * lonCells + col;
+    }
+
+    private int row(double latitude) {
+        return Math.min((int) Math.floor((latitude + 90) / cellDegrees), latCells - 1);
+    }
+
+    public record Neighbor<K>(K key, double distanceKm) {
+    }
+
+    private record Point(double latitude, double longitude, long cell) {
+    }
+}
@@ -0,0 +1,22 @@
+package TechWiz.common.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a token bucket check; retryAfterMs is 0 when the request was allowed
+ */
+@Getter
+@AllArgsConstructor
+public class RateLimitDecision {
+
+    public static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0);
+
+    private final boolean allowed;
+
+    private final long retryAfterMs;
+
+    public long getRetryAfterSeconds() {
+        return (retryAfterMs + 999) / 1000;
+    }
+}
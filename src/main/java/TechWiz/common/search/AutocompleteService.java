@@ -0,0 +1,159 @@
+package TechWiz.common.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import TechWiz.common.search.WeightedTernarySearchTree.Completion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * In-memory typeahead over short fields (breeds, product names, brands).
+ *
+ * One WeightedTernarySearchTree per field; a term's weight is the number of live entities
+ * carrying it, so common breeds and brands rank first. Entities are re-read on SearchIndexEvent
+ * after commit and their previous terms are subtracted, so the trees track writes incrementally.
+ */
+@Service
+public class AutocompleteService {
+
+    public static final int MAX_LIMIT = 20;
+
+    @Autowired
+    private ObjectProvider<AutocompleteSource> sourceProvider;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer lookupTimer;
+
+    // Guarded by lock
+    private Map<String, WeightedTernarySearchTree> trees = new HashMap<>();
+    // type -> entity id -> field -> term, to undo an entity's previous contribution
+    private Map<String, Map<Long, Map<String, String>>> termsByEntity = new HashMap<>();
+
+    private final Set<SearchIndexEvent> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    public AutocompleteService(MeterRegistry meterRegistry) {
+        this.lookupTimer = meterRegistry.timer("autocomplete.lookups");
+    }
+
+    public List<Completion> complete(String field, String prefix, int limit) {
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return lookupTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                WeightedTernarySearchTree tree = trees.get(field);
+                return tree == null ? List.<Completion>of() : tree.complete(prefix, k);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onIndexEvent(SearchIndexEvent event) {
+        reindex(event.getType(), event.getId());
+    }
+
+    /**
+     * Re-read one entity from its source and replace its terms
+     */
+    public void reindex(String type, Long id) {
+        if (rebuilding) {
+            changedDuringRebuild.add(new SearchIndexEvent(type, id));
+        }
+        AutocompleteSource source = findSource(type);
+        if (source == null) {
+            return;
+        }
+        try {
+            Map<String, String> terms = source.loadTerms(id);
+
+            lock.writeLock().lock();
+            try {
+                Map<Long, Map<String, String>> entities = termsByEntity.computeIfAbsent(source.getType(), t -> new HashMap<>());
+                Map<String, String> previous = entities.remove(id);
+                apply(trees, previous, -1);
+                if (!terms.isEmpty()) {
+                    entities.put(id, terms);
+                    apply(trees, terms, 1);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            // The next rebuild repairs the terms
+            System.err.println("Failed to update autocomplete for " + type + " " + id + ": " + e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.search.rebuild-cron:0 0 3 * * *}")
+    public synchronized void rebuild() {
+        Map<String, WeightedTernarySearchTree> freshTrees = new HashMap<>();
+        Map<String, Map<Long, Map<String, String>>> freshTerms = new HashMap<>();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            sourceProvider.orderedStream().forEach(source -> {
+                Map<Long, Map<String, String>> entities = new HashMap<>();
+                source.forEachTerms((id, terms) -> {
+                    if (!terms.isEmpty()) {
+                        entities.put(id, terms);
+                        apply(freshTrees, terms, 1);
+                    }
+                });
+                freshTerms.put(source.getType(), entities);
+            });
+
+            lock.writeLock().lock();
+            try {
+                trees = freshTrees;
+                termsByEntity = freshTerms;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            System.err.println("Autocomplete rebuild failed, keeping previous terms: " + e.getMessage());
+        } finally {
+            rebuilding = false;
+        }
+
+        // Writes committed while the snapshot was loading may be missing from it
+        for (SearchIndexEvent event : changedDuringRebuild) {
+            reindex(event.getType(), event.getId());
+        }
+        changedDuringRebuild.clear();
+    }
+
+    private void apply(Map<String, WeightedTernarySearchTree> target, Map<String, String> terms, long delta) {
+        if (terms == null) {
+            return;
+        }
+        terms.forEach((field, term) -> {
+            if (term != null && !term.isBlank()) {
+                target.computeIfAbsent(field, f -> new WeightedTernarySearchTree()).add(term, delta);
+            }
+        });
+    }
+
+    private AutocompleteSource findSource(String type) {
+        return sourceProvider.orderedStream()
+            .filter(source -> source.getType().equals(type))
+            .findFirst()
+            .orElse(null);
+    }
+}
@@ -0,0 +1,26 @@
+package TechWiz.common.search;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Supplies autocomplete terms for one entity type, keyed by field (e.g. "breed" -> "Labrador").
+ * Implementations are Spring beans and are picked up by AutocompleteService automatically.
+ */
+public interface AutocompleteSource {
+
+    /**
+     * Same type name the entity uses in SearchIndexEvent
+     */
+    String getType();
+
+    /**
+     * Current terms of one entity; empty when it is deleted or should not be suggested
+     */
+    Map<String, String> loadTerms(Long id);
+
+    /**
+     * Every suggestable entity with its terms, used by rebuilds
+     */
+    void forEachTerms(BiConsumer<Long, Map<String, String>> consumer);
+}
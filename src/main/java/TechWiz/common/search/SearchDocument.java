@@ -0,0 +1,33 @@
+package TechWiz.common.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What one entity contributes to the full-text index. Title matches rank above body matches.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchDocument {
+
+    private final String type;
+    private final Long id;
+    private final String title;
+    private final String body;
+
+    /**
+     * Join the non-blank parts with spaces, for building title/body text from several columns
+     */
+    public static String joinText(String... parts) {
+        StringBuilder text = new StringBuilder();
+        for (String part : parts) {
+            if (part != null && !part.isBlank()) {
+                if (text.length() > 0) {
+                    text.append(' ');
+                }
+                text.append(part);
+            }
+        }
+        return text.toString();
+    }
+}
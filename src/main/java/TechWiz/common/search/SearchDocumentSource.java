@@ -0,0 +1,23 @@
+package TechWiz.common.search;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Supplies index documents for one entity type. Implementations are Spring beans and are
+ * picked up by SearchIndexService automatically.
+ */
+public interface SearchDocumentSource {
+
+    String getType();
+
+    /**
+     * Current document for an entity, or empty when it is deleted or should not be searchable
+     */
+    Optional<SearchDocument> load(Long id);
+
+    /**
+     * Stream every searchable entity, used by rebuilds
+     */
+    void forEachDocument(Consumer<SearchDocument> consumer);
+}
@@ -0,0 +1,18 @@
+package TechWiz.common.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One ranked match; highlight is an HTML-escaped fragment with matches wrapped in mark tags
+ */
+@Getter
+@AllArgsConstructor
+public class SearchHit {
+
+    private final String type;
+    private final Long id;
+    private final float score;
+    private final String title;
+    private final String highlight;
+}
@@ -0,0 +1,18 @@
+package TechWiz.common.search;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Published after an indexed entity is written; the index re-reads it after commit
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class SearchIndexEvent {
+
+    private final String type;
+
+    private final Long id;
+}
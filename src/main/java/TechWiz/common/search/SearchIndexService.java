@@ -0,0 +1,367 @@
+package TechWiz.common.search;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.SimpleSpanFragmenter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Embedded Lucene index shared by every SearchDocumentSource (products, posts, pets, ...).
+ *
+ * Text is analyzed with the English analyzer and ranked with BM25; title matches are boosted,
+ * misspelt terms match through bounded-edit fuzzy queries and the last term also matches as a
+ * prefix. Writes are near-real-time through a SearcherManager and committed to disk on a timer.
+ * The index is local to each node: a nightly rebuild (app.search.rebuild-cron) re-syncs writes
+ * made elsewhere, and rebuild() can be triggered by an admin.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final String KEY = "key";
+    private static final String TYPE = "type";
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String BODY = "body";
+    private static final String GENERATION = "gen";
+
+    private static final int FRAGMENT_SIZE = 160;
+
+    // Resolved lazily: sources may themselves depend on this service
+    @Autowired
+    private ObjectProvider<SearchDocumentSource> sourceProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.search.index-dir:search-index}")
+    private String indexDir;
+
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+
+    private volatile Map<String, SearchDocumentSource> sourcesByType;
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile boolean ready;
+
+    private Timer queryTimer;
+    private Counter indexErrors;
+
+    @PostConstruct
+    public void open() throws IOException {
+        open(FSDirectory.open(Paths.get(indexDir)));
+    }
+
+    void open(Directory directory) throws IOException {
+        this.directory = directory;
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        ready = writer.getDocStats().numDocs > 0;
+
+        queryTimer = meterRegistry.timer("search.queries");
+        indexErrors = meterRegistry.counter("search.index.errors");
+        Gauge.builder("search.index.docs", writer, w -> w.getDocStats().numDocs).register(meterRegistry);
+    }
+
+    /**
+     * False until the index has been built once; callers fall back to their SQL search
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfEmpty() {
+        if (!ready) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onIndexEvent(SearchIndexEvent event) {
+        reindex(event.getType(), event.getId());
+    }
+
+    /**
+     * Re-read one entity from its source and update or remove its document
+     */
+    public void reindex(String type, Long id) {
+        SearchDocumentSource source = sources().get(type);
+        if (source == null) {
+            return;
+        }
+        try {
+            Optional<SearchDocument> document = source.load(id);
+            if (document.isPresent()) {
+                writer.updateDocument(keyTerm(type, id), toLucene(document.get(), generation.get()));
+            } else {
+                writer.deleteDocuments(keyTerm(type, id));
+            }
+            searcherManager.maybeRefresh();
+        } catch (Exception e) {
+            // The next rebuild repairs the document
+            indexErrors.increment();
+            System.err.println("Failed to index " + type + " " + id + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-index every source from the database. Documents are replaced in place and stale ones are
+     * dropped at the end, so searches keep working while this runs.
+     */
+    @Scheduled(cron = "${app.search.rebuild-cron:0 0 3 * * *}")
+    public synchronized void rebuild() {
+        long gen = generation.incrementAndGet();
+        for (SearchDocumentSource source : sources().values()) {
+            try {
+                source.forEachDocument(document -> {
+                    try {
+                        writer.updateDocument(keyTerm(document.getType(), document.getId()), toLucene(document, gen));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+
+                // Anything not touched by this pass (or by a live update since it started) is gone
+                BooleanQuery stale = new BooleanQuery.Builder()
+                    .add(new TermQuery(new Term(TYPE, source.getType())), BooleanClause.Occur.MUST)
+                    .add(LongPoint.newRangeQuery(GENERATION, gen, Long.MAX_VALUE), BooleanClause.Occur.MUST_NOT)
+                    .build();
+                writer.deleteDocuments(stale);
+            } catch (Exception e) {
+                indexErrors.increment();
+                System.err.println("Search index rebuild failed for " + source.getType() + ": " + e.getMessage());
+            }
+        }
+        try {
+            writer.commit();
+            searcherManager.maybeRefresh();
+            ready = true;
+        } catch (IOException e) {
+            indexErrors.increment();
+            System.err.println("Failed to commit search index rebuild: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.commit-interval-ms:30000}")
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            indexErrors.increment();
+            System.err.println("Failed to commit search index: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Ranked, highlighted search across the given document types (all types when empty)
+     */
+    public SearchResult search(String text, Collection<String> types, long offset, int limit) {
+        return queryTimer.record(() -> {
+            try {
+                return doSearch(text, types, offset, limit);
+            } catch (IOException e) {
+                throw new RuntimeException("Search failed: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private SearchResult doSearch(String text, Collection<String> types, long offset, int limit) throws IOException {
+        Query query = buildQuery(text, types);
+        if (query == null || limit <= 0 || offset < 0) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            long total = searcher.count(query);
+            // Past the last hit (or past what an int-sized top-N can hold): an empty page, still with the total
+            if (offset >= total || offset + limit > Integer.MAX_VALUE) {
+                return new SearchResult(List.of(), total);
+            }
+            TopDocs topDocs = searcher.search(query, (int) offset + limit);
+
+            // The fragmenter must share the highlighter's scorer, which is initialized per field
+            QueryScorer scorer = new QueryScorer(query);
+            Highlighter highlighter = new Highlighter(
+                new SimpleHTMLFormatter("<mark>", "</mark>"), new SimpleHTMLEncoder(), scorer);
+            highlighter.setTextFragmenter(new SimpleSpanFragmenter(scorer, FRAGMENT_SIZE));
+
+            List<SearchHit> hits = new ArrayList<>();
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = (int) offset; i < scoreDocs.length; i++) {
+                Document document = searcher.storedFields().document(scoreDocs[i].doc);
+                hits.add(new SearchHit(document.get(TYPE), Long.valueOf(document.get(ID)), scoreDocs[i].score,
+                    document.get(TITLE), highlight(highlighter, document)));
+            }
+            return new SearchResult(hits, total);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query buildQuery(String text, Collection<String> types) throws IOException {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder()
+                .add(new BoostQuery(new TermQuery(new Term(TITLE, term)), 3f), BooleanClause.Occur.SHOULD)
+                .add(new TermQuery(new Term(BODY, term)), BooleanClause.Occur.SHOULD);
+
+            // Typo tolerance: one edit from 4 characters, two from 8; the first character must match
+            int maxEdits = term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+            if (maxEdits > 0) {
+                anyField.add(new BoostQuery(new FuzzyQuery(new Term(TITLE, term), maxEdits, 1), 1.5f), BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new FuzzyQuery(new Term(BODY, term), maxEdits, 1), 0.5f), BooleanClause.Occur.SHOULD);
+            }
+            // The user may still be typing the last word
+            if (i == terms.size() - 1 && term.length() >= 2) {
+                anyField.add(new BoostQuery(new PrefixQuery(new Term(TITLE, term)), 2f), BooleanClause.Occur.SHOULD);
+            }
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+
+        if (types != null && !types.isEmpty()) {
+            BooleanQuery.Builder typeFilter = new BooleanQuery.Builder();
+            for (String type : types) {
+                typeFilter.add(new TermQuery(new Term(TYPE, type)), BooleanClause.Occur.SHOULD);
+            }
+            query.add(typeFilter.build(), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream(BODY, text)) {
+            CharTermAttribute attribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(attribute.toString());
+            }
+            stream.end();
+        }
+        return terms;
+    }
+
+    private String highlight(Highlighter highlighter, Document document) {
+        try {
+            for (String field : new String[] { BODY, TITLE }) {
+                String value = document.get(field);
+                if (value != null) {
+                    String fragment = highlighter.getBestFragment(analyzer, field, value);
+                    if (fragment != null) {
+                        return fragment;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to highlight search hit: " + e.getMessage());
+        }
+
+        String body = document.get(BODY);
+        if (body == null) {
+            return null;
+        }
+        return new SimpleHTMLEncoder().encodeText(body.length() <= FRAGMENT_SIZE ? body : body.substring(0, FRAGMENT_SIZE));
+    }
+
+    private Document toLucene(SearchDocument source, long gen) {
+        Document document = new Document();
+        document.add(new StringField(KEY, key(source.getType(), source.getId()), Field.Store.NO));
+        document.add(new StringField(TYPE, source.getType(), Field.Store.YES));
+        document.add(new StringField(ID, source.getId().toString(), Field.Store.YES));
+        document.add(new TextField(TITLE, source.getTitle() != null ? source.getTitle() : "", Field.Store.YES));
+        document.add(new TextField(BODY, source.getBody() != null ? source.getBody() : "", Field.Store.YES));
+        document.add(new LongPoint(GENERATION, gen));
+        return document;
+    }
+
+    private Map<String, SearchDocumentSource> sources() {
+        if (sourcesByType == null) {
+            sourcesByType = sourceProvider.orderedStream()
+                .collect(Collectors.toMap(SearchDocumentSource::getType, Function.identity()));
+        }
+        return sourcesByType;
+    }
+
+    private Term keyTerm(String type, Long id) {
+        return new Term(KEY, key(type, id));
+    }
+
+    private String key(String type, Long id) {
+        return type + ":" + id;
+    }
+}
@@ -0,0 +1,19 @@
+package TechWiz.common.search;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SearchResult {
+
+    private final List<SearchHit> hits;
+    private final long totalHits;
+
+    public List<Long> getIds() {
+        return hits.stream().map(SearchHit::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,198 @@
+package TechWiz.common.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ternary search tree of weighted terms with top-K prefix completion.
+ *
+ * Every node keeps the largest weight found in its subtree, so a best-first walk from the
+ * prefix node can stop as soon as k completions outrank everything left in the queue; a
+ * lookup touches roughly prefix length + k paths regardless of how many terms share the prefix.
+ * Keys are matched case-insensitively; the display text keeps the casing last written.
+ * Nodes left without a term or a continuation are unlinked as soon as a weight reaches zero.
+ * Not thread-safe.
+ */
+public class WeightedTernarySearchTree {
+
+    private Node root;
+    private int size;
+
+    /**
+     * Add delta to a term's weight; a term whose weight drops to zero or below is removed
+     */
+    public void add(String text, long delta) {
+        String key = normalize(text);
+        if (key.isEmpty() || delta == 0) {
+            return;
+        }
+        root = add(root, key, 0, text.trim(), delta);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The k heaviest terms starting with prefix, heaviest first
+     */
+    public List<Completion> complete(String prefix, int k) {
+        List<Completion> results = new ArrayList<>(Math.max(k, 0));
+        String key = normalize(prefix);
+        if (key.isEmpty() || k <= 0) {
+            return results;
+        }
+
+        Node node = find(root, key, 0);
+        if (node == null || node.maxWeight <= 0) {
+            return results;
+        }
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        if (node.weight > 0) {
+            queue.add(new Candidate(null, node.text, node.weight, key));
+        }
+        offer(queue, node.eq, key);
+
+        while (!queue.isEmpty() && results.size() < k) {
+            Candidate candidate = queue.poll();
+            if (candidate.node == null) {
+                results.add(new Completion(candidate.text, candidate.weight));
+                continue;
+            }
+            Node current = candidate.node;
+            String parentPath = candidate.key.substring(0, candidate.key.length() - 1);
+            if (current.weight > 0) {
+                queue.add(new Candidate(null, current.text, current.weight, candidate.key));
+            }
+            offer(queue, current.lo, parentPath);
+            offer(queue, current.eq, candidate.key);
+            offer(queue, current.hi, parentPath);
+        }
+        return results;
+    }
+
+    // A subtree's key is its path to the subtree root; queued subtrees cover disjoint key ranges,
+    // so ordering ties by that key emits equal weights alphabetically
+    private static void offer(PriorityQueue<Candidate> queue, Node child, String prefix) {
+        if (child != null && child.maxWeight > 0) {
+            queue.add(new Candidate(child, null, child.maxWeight, prefix + child.c));
+        }
+    }
+
+    private Node add(Node node, String key, int index, String text, long delta) {
+        char c = key.charAt(index);
+        if (node == null) {
+            if (delta < 0) {
+                return null;
+            }
+            node = new Node(c);
+        }
+
+        if (c < node.c) {
+            node.lo = add(node.lo, key, index, text, delta);
+        } else if (c > node.c) {
+            node.hi = add(node.hi, key, index, text, delta);
+        } else if (index < key.length() - 1) {
+            node.eq = add(node.eq, key, index + 1, text, delta);
+        } else {
+            boolean existed = node.weight > 0;
+            node.weight = Math.max(0, node.weight + delta);
+            if (node.weight > 0) {
+                node.text = text;
+                size += existed ? 0 : 1;
+            } else {
+                node.text = null;
+                size -= existed ? 1 : 0;
+            }
+        }
+
+        // A node that ends no term and continues no term is unlinked, so removed terms free their nodes
+        if (node.weight == 0 && node.eq == null) {
+            return merge(node.lo, node.hi);
+        }
+        updateMaxWeight(node);
+        return node;
+    }
+
+    // Siblings at one character position: everything in lo sorts before everything in hi
+    private Node merge(Node lo, Node hi) {
+        if (lo == null) {
+            return hi;
+        }
+        if (hi != null) {
+            lo.hi = merge(lo.hi, hi);
+            updateMaxWeight(lo);
+        }
+        return lo;
+    }
+
+    private static void updateMaxWeight(Node node) {
+        node.maxWeight = Math.max(node.weight,
+            Math.max(maxWeight(node.lo), Math.max(maxWeight(node.eq), maxWeight(node.hi))));
+    }
+
+    // Nodes currently allocated, for tests
+    int nodeCount() {
+        return nodeCount(root);
+    }
+
+    private static int nodeCount(Node node) {
+        return node == null ? 0 : 1 + nodeCount(node.lo) + nodeCount(node.eq) + nodeCount(node.hi);
+    }
+
+    private Node find(Node node, String key, int index) {
+        while (node != null) {
+            char c = key.charAt(index);
+            if (c < node.c) {
+                node = node.lo;
+            } else if (c > node.c) {
+                node = node.hi;
+            } else if (index < key.length() - 1) {
+                node = node.eq;
+                index++;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static long maxWeight(Node node) {
+        return node == null ? 0 : node.maxWeight;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase();
+    }
+
+    public record Completion(String text, long weight) {
+    }
+
+    private static final class Node {
+        private final char c;
+        private Node lo;
+        private Node eq;
+        private Node hi;
+        private long weight;
+        private long maxWeight;
+        private String text;
+
+        Node(char c) {
+            this.c = c;
+        }
+    }
+
+    private record Candidate(Node node, String text, long weight, String key) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byWeight = Long.compare(other.weight, weight);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            return key.compareTo(other.key);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 
+import TechWiz.common.pagination.CursorPage;
 import TechWiz.shelter.models.AdoptionInquiry;
 import TechWiz.shelter.services.AdoptionInquiryService;
 import TechWiz.shelter.dto.*;
@@ -105,6 +106,60 @@ public class AdoptionInquiryController {
         }
     }
     
+    @GetMapping("/{shelterId}/adoption-inquiries/queue")
+    public ResponseEntity<?> getReviewQueue(
+            @PathVariable @Positive Long shelterId,
+            @RequestParam(required = false) Long petId,
+            @RequestParam(defaultValue = "NEW") AdoptionInquiry.InquiryStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            CursorPage<AdoptionInquiryResponseDto> queue = adoptionInquiryService.getReviewQueue(
+                shelterId, petId, status, cursor, size);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", queue);
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Invalid cursor");
+            
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    @GetMapping("/{shelterId}/adoption-inquiries/queue/next")
+    public ResponseEntity<?> getNextInQueue(
+            @PathVariable @Positive Long shelterId,
+            @RequestParam(required = false) Long petId,
+            @RequestParam(defaultValue = "NEW") AdoptionInquiry.InquiryStatus status) {
+        try {
+            List<AdoptionInquiryResponseDto> next = adoptionInquiryService.getReviewQueue(
+                shelterId, petId, status, null, 1).getItems();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", next.isEmpty() ? null : next.get(0));
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     @GetMapping("/pets/{petId}/adoption-inquiries")
     public ResponseEntity<?> getInquiriesByPetId(@PathVariable @Positive Long petId) {
         try {
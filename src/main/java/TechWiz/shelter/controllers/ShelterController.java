@@ -26,10 +26,15 @@ import org.springframework.web.bind.annotation.RestController;
 
 import TechWiz.auths.models.ShelterProfile;
 import TechWiz.auths.repositories.ShelterProfileRepository;
+import TechWiz.auths.services.ProfileLocationIndex;
 import TechWiz.auths.services.ProfileService;
+import TechWiz.common.geo.GeoGridIndex.Neighbor;
 import TechWiz.shelter.dto.ShelterRegistrationRequestDto;
 import TechWiz.shelter.dto.ShelterResponseDto;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 
 @RestController
@@ -44,6 +49,9 @@ public class ShelterController {
     @Autowired
     private ShelterProfileRepository shelterProfileRepository;
     
+    @Autowired
+    private ProfileLocationIndex profileLocationIndex;
+    
     @PostMapping("/register")
     public ResponseEntity<?> registerShelter(@Valid @RequestBody ShelterRegistrationRequestDto requestDto) {
         try {
@@ -153,6 +161,48 @@ public class ShelterController {
         }
     }
     
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyShelters(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @RequestParam(defaultValue = "10") @Positive @Max(50) int limit,
+            @RequestParam(defaultValue = "100") @Positive @DecimalMax("2000") double maxRadiusKm) {
+        try {
+            List<Neighbor<Long>> nearest = profileLocationIndex.findNearestShelters(lat, lon, limit, maxRadiusKm);
+            
+            Map<Long, ShelterProfile> profilesById = new HashMap<>();
+            if (!nearest.isEmpty()) {
+                for (ShelterProfile profile : shelterProfileRepository.findWithUserByIdIn(
+                        nearest.stream().map(Neighbor::key).toList())) {
+                    profilesById.put(profile.getId(), profile);
+                }
+            }
+            
+            // Nearest first
+            List<ShelterResponseDto> shelters = new java.util.ArrayList<>();
+            for (Neighbor<Long> neighbor : nearest) {
+                ShelterProfile profile = profilesById.get(neighbor.key());
+                if (profile != null) {
+                    ShelterResponseDto dto = convertToShelterResponseDto(profile);
+                    dto.setDistanceKm(Math.round(neighbor.distanceKm() * 100) / 100.0);
+                    shelters.add(dto);
+                }
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", shelters);
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     @GetMapping("/all")
     public ResponseEntity<?> getAllShelters(
             @RequestParam(required = false) String shelterName,
@@ -306,6 +356,8 @@ public class ShelterController {
         dto.setEmail(shelterProfile.getUser().getEmail());
         dto.setPhoneNumber(shelterProfile.getUser().getPhoneNumber());
         dto.setAddress(shelterProfile.getAddress());
+        dto.setLatitude(shelterProfile.getLatitude());
+        dto.setLongitude(shelterProfile.getLongitude());
         dto.setDescription(shelterProfile.getDescription());
         dto.setWebsite(shelterProfile.getWebsite());
         dto.setImageUrl(shelterProfile.getUser().getProfileImageUrl());
@@ -1,16 +1,20 @@
 package TechWiz.shelter.controllers;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,11 +27,22 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import TechWiz.shelter.dto.AdopterProfile;
+import TechWiz.shelter.dto.AvailablePetPage;
 import TechWiz.shelter.dto.PetRequestDto;
 import TechWiz.shelter.dto.PetResponseDto;
+import TechWiz.shelter.dto.PetSearchCriteria;
+import TechWiz.shelter.dto.ShelterStatsDto;
 import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.services.AdoptionInquiryService;
+import TechWiz.shelter.services.PetMatchingService;
 import TechWiz.shelter.services.ShelterPetService;
+import TechWiz.shelter.services.ShelterStatsService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 
 @RestController
@@ -39,6 +54,12 @@ public class ShelterPetController {
     @Autowired
     private ShelterPetService petService;
     
+    @Autowired
+    private ShelterStatsService shelterStatsService;
+    
+    @Autowired
+    private AdoptionInquiryService adoptionInquiryService;
+    
     @PostMapping("/{shelterId}/pets")
     public ResponseEntity<?> createPet(@PathVariable @Positive Long shelterId, // Now using shelter profile ID
                                       @Valid @RequestBody PetRequestDto requestDto) {
@@ -149,6 +170,14 @@ public class ShelterPetController {
             @RequestParam(required = false) String breed,
             @RequestParam(required = false) ShelterPet.Gender gender,
             @RequestParam(required = false) ShelterPet.Size size,
+            @RequestParam(required = false) ShelterPet.EnergyLevel energyLevel,
+            @RequestParam(required = false) Boolean vaccinated,
+            @RequestParam(required = false) Boolean goodWithKids,
+            @RequestParam(required = false) Boolean goodWithPets,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) BigDecimal minFee,
+            @RequestParam(required = false) BigDecimal maxFee,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int pageSize,
             @RequestParam(defaultValue = "createdAt") String sortBy,
@@ -158,8 +187,130 @@ public class ShelterPetController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, pageSize, sort);
             
-            Page<PetResponseDto> pets = petService.getAvailablePetsForAdoption(
-                type, breed, gender, size, pageable);
+            PetSearchCriteria criteria = new PetSearchCriteria();
+            criteria.setType(type);
+            criteria.setBreed(breed);
+            criteria.setGender(gender);
+            criteria.setSize(size);
+            criteria.setEnergyLevel(energyLevel);
+            criteria.setVaccinated(vaccinated);
+            criteria.setGoodWithKids(goodWithKids);
+            criteria.setGoodWithPets(goodWithPets);
+            criteria.setMinAgeInMonths(minAge);
+            criteria.setMaxAgeInMonths(maxAge);
+            criteria.setMinAdoptionFee(minFee);
+            criteria.setMaxAdoptionFee(maxFee);
+            
+            AvailablePetPage result = petService.getAvailablePetsForAdoption(criteria, pageable);
+            Page<PetResponseDto> pets = result.getPage();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", pets.getContent());
+            response.put("currentPage", pets.getNumber());
+            response.put("totalPages", pets.getTotalPages());
+            response.put("totalElements", pets.getTotalElements());
+            response.put("size", pets.getSize());
+            if (result.getFacets() != null) {
+                response.put("facets", result.getFacets());
+            }
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    @GetMapping("/pets/available/nearby")
+    public ResponseEntity<?> getAvailablePetsNearby(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @RequestParam(defaultValue = "25") @Positive @DecimalMax("500") double radiusKm,
+            @RequestParam(required = false) ShelterPet.PetType type,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) ShelterPet.Gender gender,
+            @RequestParam(required = false) ShelterPet.Size size,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int pageSize) {
+        try {
+            PetSearchCriteria criteria = new PetSearchCriteria();
+            criteria.setType(type);
+            criteria.setBreed(breed);
+            criteria.setGender(gender);
+            criteria.setSize(size);
+            
+            AvailablePetPage result = petService.getAvailablePetsNear(lat, lon, radiusKm, criteria, PageRequest.of(page, pageSize));
+            Page<PetResponseDto> pets = result.getPage();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", pets.getContent());
+            response.put("currentPage", pets.getNumber());
+            response.put("totalPages", pets.getTotalPages());
+            response.put("totalElements", pets.getTotalElements());
+            response.put("size", pets.getSize());
+            if (result.getFacets() != null) {
+                response.put("facets", result.getFacets());
+            }
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    /**
+     * Match feed. Household answers come from the query when any is given, otherwise from the
+     * caller's latest adoption inquiry.
+     */
+    @GetMapping("/pets/matches")
+    public ResponseEntity<?> getBestMatches(
+            @AuthenticationPrincipal String email,
+            @RequestParam(required = false) Boolean hasYard,
+            @RequestParam(required = false) Boolean hasChildren,
+            @RequestParam(required = false) Boolean hasOtherPets,
+            @RequestParam(required = false) String livingSituation,
+            @RequestParam(defaultValue = "20") @Positive @Max(PetMatchingService.MAX_LIMIT) int limit) {
+        try {
+            AdopterProfile profile;
+            if (hasYard != null || hasChildren != null || hasOtherPets != null || livingSituation != null) {
+                profile = new AdopterProfile(Boolean.TRUE.equals(hasYard), Boolean.TRUE.equals(hasChildren),
+                    Boolean.TRUE.equals(hasOtherPets), livingSituation);
+            } else {
+                profile = (email != null ? adoptionInquiryService.getLatestAdopterProfile(email) : Optional.<AdopterProfile>empty())
+                    .orElseGet(AdopterProfile::new);
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", petService.getBestMatches(profile, limit));
+            response.put("profile", profile);
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    @GetMapping("/pets/search")
+    public ResponseEntity<?> searchPets(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int pageSize) {
+        try {
+            Page<PetResponseDto> pets = petService.searchAvailablePets(keyword, PageRequest.of(page, pageSize));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -191,6 +342,8 @@ public class ShelterPetController {
             response.put("data", pet);
             
             return ResponseEntity.ok(response);
+        } catch (ConcurrencyFailureException e) {
+            return petChangedConcurrently();
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -212,6 +365,8 @@ public class ShelterPetController {
             response.put("data", pet);
             
             return ResponseEntity.ok(response);
+        } catch (ConcurrencyFailureException e) {
+            return petChangedConcurrently();
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -231,6 +386,8 @@ public class ShelterPetController {
             response.put("message", "Pet deleted successfully");
             
             return ResponseEntity.ok(response);
+        } catch (ConcurrencyFailureException e) {
+            return petChangedConcurrently();
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -243,13 +400,14 @@ public class ShelterPetController {
     @GetMapping("/{shelterId}/pets/stats")
     public ResponseEntity<?> getPetStatsByShelterId(@PathVariable @Positive Long shelterId) {
         try {
+            ShelterStatsDto shelterStats = shelterStatsService.getStats(shelterId);
             Map<String, Long> stats = new HashMap<>();
-            stats.put("total", petService.getTotalPetsByShelterProfile(shelterId));
-            stats.put("available", petService.getPetCountByStatus(shelterId, ShelterPet.AdoptionStatus.AVAILABLE));
-            stats.put("pending", petService.getPetCountByStatus(shelterId, ShelterPet.AdoptionStatus.PENDING));
-            stats.put("adopted", petService.getPetCountByStatus(shelterId, ShelterPet.AdoptionStatus.ADOPTED));
+            stats.put("total", shelterStats.getTotalPets());
+            stats.put("available", shelterStats.getPetCount(ShelterPet.AdoptionStatus.AVAILABLE));
+            stats.put("pending", shelterStats.getPetCount(ShelterPet.AdoptionStatus.PENDING));
+            stats.put("adopted", shelterStats.getPetCount(ShelterPet.AdoptionStatus.ADOPTED));
             stats.put("totalViews", petService.getTotalViewsByShelterProfile(shelterId));
-            stats.put("totalApplications", petService.getTotalApplicationsByShelterProfile(shelterId));
+            stats.put("totalApplications", shelterStats.getTotalInquiries());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -266,9 +424,12 @@ public class ShelterPetController {
     }
     
     @PostMapping("/pets/{id}/view")
-    public ResponseEntity<?> incrementPetViews(@PathVariable @Positive Long id) {
+    public ResponseEntity<?> incrementPetViews(@PathVariable @Positive Long id, HttpServletRequest httpRequest) {
         try {
-            petService.incrementPetViews(id);
+            // Unique viewers are counted per signed-in user, falling back to client address
+            Object userId = httpRequest.getAttribute("userId");
+            String viewerKey = userId != null ? "u:" + userId : "ip:" + httpRequest.getRemoteAddr();
+            petService.incrementPetViews(id, viewerKey);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -283,4 +444,31 @@ public class ShelterPetController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
     }
+    
+    @GetMapping("/pets/{id}/views")
+    public ResponseEntity<?> getPetViews(@PathVariable @Positive Long id) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", petService.getPetViewStats(id));
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    // The pet's version moved under this request, typically an adoption transition. Re-applying the
+    // request would overwrite that transition's adoption status, so the client must reload instead.
+    private ResponseEntity<?> petChangedConcurrently() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "This pet was changed by someone else, please reload it and try again");
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
 }
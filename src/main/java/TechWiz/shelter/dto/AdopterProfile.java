@@ -0,0 +1,19 @@
+package TechWiz.shelter.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Household facts the match feed scores pets against, same fields as an adoption inquiry
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdopterProfile {
+
+    private boolean hasYard;
+    private boolean hasChildren;
+    private boolean hasOtherPets;
+    private String livingSituation;
+}
@@ -24,6 +24,7 @@ public class AdoptionInquiryResponseDto {
     private Boolean hasYard;
     private Boolean hasOtherPets;
     private Boolean hasChildren;
+    private Integer fitScore;
     private AdoptionInquiry.InquiryStatus status;
     private String shelterResponse;
     private LocalDateTime respondedAt;
@@ -0,0 +1,19 @@
+package TechWiz.shelter.dto;
+
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Adoptable pet search page; facets is null when the in-memory index could not serve the query
+ */
+@Getter
+@AllArgsConstructor
+public class AvailablePetPage {
+
+    private final Page<PetResponseDto> page;
+    private final Map<String, Map<String, Long>> facets;
+}
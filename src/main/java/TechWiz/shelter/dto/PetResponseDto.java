@@ -46,4 +46,11 @@ public class PetResponseDto {
     // Statistics
     private Long totalInquiries;
     private Long pendingInquiries;
+    private Long views;
+    
+    // Distance to the pet's shelter, only set by nearby search
+    private Double distanceKm;
+    
+    // Household fit 0-100, only set by the match feed
+    private Integer matchScore;
 }
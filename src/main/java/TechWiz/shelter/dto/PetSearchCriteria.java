@@ -0,0 +1,28 @@
+package TechWiz.shelter.dto;
+
+import java.math.BigDecimal;
+
+import TechWiz.shelter.models.ShelterPet;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filters for the public adoptable pet search; null means "any"
+ */
+@Data
+@NoArgsConstructor
+public class PetSearchCriteria {
+
+    private ShelterPet.PetType type;
+    private String breed;
+    private ShelterPet.Gender gender;
+    private ShelterPet.Size size;
+    private ShelterPet.EnergyLevel energyLevel;
+    private Boolean vaccinated;
+    private Boolean goodWithKids;
+    private Boolean goodWithPets;
+    private Integer minAgeInMonths;
+    private Integer maxAgeInMonths;
+    private BigDecimal minAdoptionFee;
+    private BigDecimal maxAdoptionFee;
+}
@@ -0,0 +1,19 @@
+package TechWiz.shelter.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One page of pet ids from AvailablePetIndex with facet counts over the whole match set
+ */
+@Getter
+@AllArgsConstructor
+public class PetSearchResult {
+
+    private final List<Long> petIds;
+    private final long totalElements;
+    private final Map<String, Map<String, Long>> facets;
+}
@@ -15,5 +15,7 @@ public class ShelterBasicInfoDto {
     private String email;
     private String phoneNumber;
     private String address;
+    private Double latitude;
+    private Double longitude;
     private String imageUrl;
 }
@@ -19,6 +19,8 @@ public class ShelterResponseDto {
     private String email;
     private String phoneNumber;
     private String address;
+    private Double latitude;
+    private Double longitude;
     private String description;
     private String website;
     private String imageUrl;
@@ -32,4 +34,7 @@ public class ShelterResponseDto {
     private Long totalPets;
     private Long availablePets;
     private Long pendingInquiries;
+    
+    // Only set by nearby search
+    private Double distanceKm;
 }
@@ -0,0 +1,29 @@
+package TechWiz.shelter.dto;
+
+import java.util.Map;
+
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.ShelterPet;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Pet and inquiry histograms of one shelter; every status is present, missing ones as 0
+ */
+@Getter
+@AllArgsConstructor
+public class ShelterStatsDto {
+
+    private final Map<ShelterPet.AdoptionStatus, Long> petsByStatus;
+    private final Map<AdoptionInquiry.InquiryStatus, Long> inquiriesByStatus;
+    private final long totalPets;
+    private final long totalInquiries;
+
+    public long getPetCount(ShelterPet.AdoptionStatus status) {
+        return petsByStatus.getOrDefault(status, 0L);
+    }
+
+    public long getInquiryCount(AdoptionInquiry.InquiryStatus status) {
+        return inquiriesByStatus.getOrDefault(status, 0L);
+    }
+}
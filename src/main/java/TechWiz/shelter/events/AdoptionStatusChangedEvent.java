@@ -0,0 +1,23 @@
+package TechWiz.shelter.events;
+
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.ShelterPet;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by AdoptionStateMachine after an adoption inquiry changes status or is removed
+ */
+@Getter
+@AllArgsConstructor
+public class AdoptionStatusChangedEvent {
+
+    private final Long inquiryId;
+    private final Long petId;
+    private final Long shelterProfileId;
+    private final AdoptionInquiry.InquiryStatus previousStatus;
+    // Null when the inquiry was removed
+    private final AdoptionInquiry.InquiryStatus status;
+    private final ShelterPet.AdoptionStatus previousPetStatus;
+    private final ShelterPet.AdoptionStatus petStatus;
+}
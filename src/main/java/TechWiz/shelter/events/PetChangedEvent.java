@@ -0,0 +1,14 @@
+package TechWiz.shelter.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a pet is created, updated, deleted or changes adoption status
+ */
+@Getter
+@AllArgsConstructor
+public class PetChangedEvent {
+
+    private final Long petId;
+}
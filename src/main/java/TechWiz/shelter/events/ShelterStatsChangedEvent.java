@@ -0,0 +1,14 @@
+package TechWiz.shelter.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by the shelter services after a pet or adoption inquiry of a shelter is written
+ */
+@Getter
+@AllArgsConstructor
+public class ShelterStatsChangedEvent {
+
+    private final Long shelterProfileId;
+}
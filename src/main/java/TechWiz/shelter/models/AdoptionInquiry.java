@@ -11,16 +11,22 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "adoption_inquiries")
+@Table(name = "adoption_inquiries", indexes = {
+    @Index(name = "idx_inquiry_shelter_status", columnList = "shelter_profile_id, status"),
+    @Index(name = "idx_inquiry_shelter_queue", columnList = "shelter_profile_id, status, fit_score DESC, id"),
+    @Index(name = "idx_inquiry_pet_queue", columnList = "pet_id, status, fit_score DESC, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -60,6 +66,10 @@ public class AdoptionInquiry {
     @Column(nullable = false)
     private Boolean hasChildren = false;
     
+    // Household fit with the pet (0-100) when the inquiry arrived; orders the review queue
+    @Column
+    private Integer fitScore;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private InquiryStatus status = InquiryStatus.NEW;
@@ -76,6 +86,9 @@ public class AdoptionInquiry {
     @Column(nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    @Version
+    private long version;
+    
     // Relationship with pet
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "pet_id", nullable = false)
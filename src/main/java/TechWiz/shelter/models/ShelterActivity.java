@@ -0,0 +1,61 @@
+package TechWiz.shelter.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Append-only dashboard journal entry, written in the same transaction as the pet or inquiry change.
+ * Ids are plain columns so entries outlive deleted pets and inquiries.
+ */
+@Entity
+@Table(name = "shelter_activities", indexes = {
+    @Index(name = "idx_activity_shelter_created", columnList = "shelter_profile_id, created_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShelterActivity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "shelter_profile_id", nullable = false)
+    private Long shelterProfileId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private ActivityType type;
+
+    @Column(nullable = false, length = 100)
+    private String action;
+
+    @Column(nullable = false, length = 200)
+    private String subject;
+
+    @Column(name = "pet_id")
+    private Long petId;
+
+    @Column(name = "inquiry_id")
+    private Long inquiryId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public enum ActivityType {
+        PET_ADDED, PET_UPDATED, PET_STATUS_CHANGED, PET_REMOVED,
+        INQUIRY_RECEIVED, INQUIRY_STATUS_CHANGED, INQUIRY_REMOVED
+    }
+}
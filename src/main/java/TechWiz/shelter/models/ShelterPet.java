@@ -19,6 +19,7 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -109,12 +110,22 @@ public class ShelterPet {
     @Column(length = 1000)
     private String requirements;
     
+    // Maintained by PetViewCounterService with additive UPDATEs; JPA never writes it so an
+    // entity save cannot overwrite counts flushed in the meantime
+    @Column(nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long views = 0L;
+    
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     
     @Column(nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // Optimistic lock; AdoptionStateMachine also bumps it on every inquiry transition touching the pet
+    @Version
+    private long version;
+    
     // Relationship with shelter profile
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shelter_profile_id", nullable = false)
@@ -0,0 +1,32 @@
+package TechWiz.shelter.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running total of pet views per shelter, upserted by PetViewCounterService on every flush
+ */
+@Entity
+@Table(name = "shelter_view_totals")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShelterViewTotal {
+
+    @Id
+    @Column(name = "shelter_profile_id")
+    private Long shelterProfileId;
+
+    @Column(name = "total_views", nullable = false)
+    private Long totalViews = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -1,13 +1,18 @@
 package TechWiz.shelter.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import TechWiz.shelter.models.AdoptionInquiry;
 
@@ -18,6 +23,9 @@ public interface AdoptionInquiryRepository extends JpaRepository<AdoptionInquiry
     
     List<AdoptionInquiry> findByShelterProfileIdOrderByCreatedAtDesc(Long shelterProfileId);
     
+    @EntityGraph(attributePaths = {"pet"})
+    List<AdoptionInquiry> findByShelterProfileIdOrderByCreatedAtDesc(Long shelterProfileId, Pageable pageable);
+    
     Page<AdoptionInquiry> findByShelterProfileId(Long shelterProfileId, Pageable pageable);
     
     List<AdoptionInquiry> findByPetId(Long petId);
@@ -42,7 +50,72 @@ public interface AdoptionInquiryRepository extends JpaRepository<AdoptionInquiry
     
     Long countByShelterProfileId(Long shelterProfileId);
     
+    // Status histogram of one shelter, rows are [status, count]
+    @Query("SELECT a.status, COUNT(a) FROM AdoptionInquiry a WHERE a.shelterProfile.id = :shelterProfileId GROUP BY a.status")
+    List<Object[]> countByShelterProfileIdGroupByStatus(@Param("shelterProfileId") Long shelterProfileId);
+    
+    // Inquiry totals for a page of pets, rows are [petId, count]
+    @Query("SELECT a.pet.id, COUNT(a) FROM AdoptionInquiry a WHERE a.pet.id IN :petIds GROUP BY a.pet.id")
+    List<Object[]> countByPetIds(@Param("petIds") Collection<Long> petIds);
+    
+    // Inquiries in one status for several shelters, rows are [shelterProfileId, count]
+    @Query("SELECT a.shelterProfile.id, COUNT(a) FROM AdoptionInquiry a " +
+           "WHERE a.shelterProfile.id IN :shelterProfileIds AND a.status = :status GROUP BY a.shelterProfile.id")
+    List<Object[]> countByShelterProfileIdsAndStatus(@Param("shelterProfileIds") Collection<Long> shelterProfileIds,
+                                                     @Param("status") AdoptionInquiry.InquiryStatus status);
+    
+    // Review queue keyset pages, best fit first and oldest first among equal scores. The "After"
+    // variants seek past the last (fitScore, id) seen. Pass PageRequest.of(0, limit) for the limit.
+    // Inquiries not yet reached by the startup backfill have no score and rank as 0.
+    
+    @EntityGraph(attributePaths = {"pet", "shelterProfile", "shelterProfile.user"})
+    @Query("SELECT a FROM AdoptionInquiry a WHERE a.shelterProfile.id = :shelterProfileId AND a.status = :status " +
+           "ORDER BY COALESCE(a.fitScore, 0) DESC, a.id ASC")
+    List<AdoptionInquiry> findShelterQueuePage(@Param("shelterProfileId") Long shelterProfileId,
+                                               @Param("status") AdoptionInquiry.InquiryStatus status,
+                                               Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"pet", "shelterProfile", "shelterProfile.user"})
+    @Query("SELECT a FROM AdoptionInquiry a WHERE a.shelterProfile.id = :shelterProfileId AND a.status = :status AND " +
+           "(COALESCE(a.fitScore, 0) < :fitScore OR (COALESCE(a.fitScore, 0) = :fitScore AND a.id > :id)) " +
+           "ORDER BY COALESCE(a.fitScore, 0) DESC, a.id ASC")
+    List<AdoptionInquiry> findShelterQueuePageAfter(@Param("shelterProfileId") Long shelterProfileId,
+                                                    @Param("status") AdoptionInquiry.InquiryStatus status,
+                                                    @Param("fitScore") Integer fitScore, @Param("id") Long id,
+                                                    Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"pet", "shelterProfile", "shelterProfile.user"})
+    @Query("SELECT a FROM AdoptionInquiry a WHERE a.pet.id = :petId AND a.shelterProfile.id = :shelterProfileId " +
+           "AND a.status = :status ORDER BY COALESCE(a.fitScore, 0) DESC, a.id ASC")
+    List<AdoptionInquiry> findPetQueuePage(@Param("shelterProfileId") Long shelterProfileId, @Param("petId") Long petId,
+                                           @Param("status") AdoptionInquiry.InquiryStatus status,
+                                           Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"pet", "shelterProfile", "shelterProfile.user"})
+    @Query("SELECT a FROM AdoptionInquiry a WHERE a.pet.id = :petId AND a.shelterProfile.id = :shelterProfileId " +
+           "AND a.status = :status AND " +
+           "(COALESCE(a.fitScore, 0) < :fitScore OR (COALESCE(a.fitScore, 0) = :fitScore AND a.id > :id)) " +
+           "ORDER BY COALESCE(a.fitScore, 0) DESC, a.id ASC")
+    List<AdoptionInquiry> findPetQueuePageAfter(@Param("shelterProfileId") Long shelterProfileId, @Param("petId") Long petId,
+                                                @Param("status") AdoptionInquiry.InquiryStatus status,
+                                                @Param("fitScore") Integer fitScore, @Param("id") Long id,
+                                                Pageable pageable);
+    
+    // Inquiries created before fit scores existed
+    @EntityGraph(attributePaths = {"pet"})
+    List<AdoptionInquiry> findByFitScoreIsNullOrderByIdAsc(Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE AdoptionInquiry a SET a.fitScore = :fitScore WHERE a.id IN :ids")
+    int updateFitScore(@Param("ids") Collection<Long> ids, @Param("fitScore") Integer fitScore);
+    
+    Optional<AdoptionInquiry> findFirstByAdopterEmailOrderByCreatedAtDesc(String adopterEmail);
+    
     List<AdoptionInquiry> findByAdopterEmailAndPetId(String adopterEmail, Long petId);
     
     boolean existsByAdopterEmailAndPetId(String adopterEmail, Long petId);
+    
+    // Whether another inquiry of the pet is in the given status; served by idx_inquiry_pet_queue
+    boolean existsByPetIdAndStatusAndIdNot(Long petId, AdoptionInquiry.InquiryStatus status, Long id);
 }
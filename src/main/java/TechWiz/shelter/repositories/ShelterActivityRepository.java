@@ -0,0 +1,16 @@
+package TechWiz.shelter.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import TechWiz.shelter.models.ShelterActivity;
+
+@Repository
+public interface ShelterActivityRepository extends JpaRepository<ShelterActivity, Long> {
+    
+    // Newest first, bounded by the pageable; served by idx_activity_shelter_created
+    List<ShelterActivity> findByShelterProfileIdOrderByCreatedAtDescIdDesc(Long shelterProfileId, Pageable pageable);
+}
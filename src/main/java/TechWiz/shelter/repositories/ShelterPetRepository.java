@@ -1,15 +1,21 @@
 package TechWiz.shelter.repositories;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import TechWiz.shelter.models.ShelterPet;
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface ShelterPetRepository extends JpaRepository<ShelterPet, Long> {
@@ -22,10 +28,28 @@ public interface ShelterPetRepository extends JpaRepository<ShelterPet, Long> {
     
     List<ShelterPet> findByAdoptionStatus(ShelterPet.AdoptionStatus adoptionStatus);
     
+    @EntityGraph(attributePaths = {"shelterProfile", "shelterProfile.user"})
     List<ShelterPet> findByShelterProfileIdAndAdoptionStatus(Long shelterProfileId, ShelterPet.AdoptionStatus adoptionStatus);
     
+    // Pet with its shelter and shelter user in one query, for DTO conversion
+    @EntityGraph(attributePaths = {"shelterProfile", "shelterProfile.user"})
+    @Query("SELECT p FROM ShelterPet p WHERE p.id = :id")
+    Optional<ShelterPet> findWithShelterById(@Param("id") Long id);
+    
+    // Pet whose version is bumped on commit even if unchanged, so concurrent adoption transitions conflict
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT p FROM ShelterPet p WHERE p.id = :id")
+    Optional<ShelterPet> findForTransitionById(@Param("id") Long id);
+    
     Long countByShelterProfileId(Long shelterProfileId);
     
+    // Status histogram of one shelter, rows are [adoptionStatus, count]
+    @Query("SELECT p.adoptionStatus, COUNT(p) FROM ShelterPet p WHERE p.shelterProfile.id = :shelterProfileId GROUP BY p.adoptionStatus")
+    List<Object[]> countByShelterProfileIdGroupByAdoptionStatus(@Param("shelterProfileId") Long shelterProfileId);
+    
+    @Query("SELECT p.views FROM ShelterPet p WHERE p.id = :id")
+    Long findViewsById(@Param("id") Long id);
+    
     @Query("SELECT p FROM ShelterPet p WHERE p.shelterProfile.id = :shelterProfileId AND " +
            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
            "(:type IS NULL OR p.type = :type) AND " +
@@ -34,6 +58,7 @@ public interface ShelterPetRepository extends JpaRepository<ShelterPet, Long> {
            "(:healthStatus IS NULL OR p.healthStatus = :healthStatus) AND " +
            "(:gender IS NULL OR p.gender = :gender) AND " +
            "(:size IS NULL OR p.size = :size)")
+    @EntityGraph(attributePaths = {"shelterProfile", "shelterProfile.user"})
     Page<ShelterPet> findPetsWithFilters(@Param("shelterProfileId") Long shelterProfileId,
                                  @Param("name") String name,
                                  @Param("type") ShelterPet.PetType type,
@@ -48,14 +73,58 @@ public interface ShelterPetRepository extends JpaRepository<ShelterPet, Long> {
     Long countByShelterProfileIdAndAdoptionStatus(@Param("shelterProfileId") Long shelterProfileId, 
                                                 @Param("status") ShelterPet.AdoptionStatus status);
     
+    // Fallback for AvailablePetIndex while it is loading or for sorts it does not support
     @Query("SELECT p FROM ShelterPet p WHERE p.adoptionStatus = 'AVAILABLE' AND " +
            "(:type IS NULL OR p.type = :type) AND " +
            "(:breed IS NULL OR LOWER(p.breed) LIKE LOWER(CONCAT('%', :breed, '%'))) AND " +
            "(:gender IS NULL OR p.gender = :gender) AND " +
-           "(:size IS NULL OR p.size = :size)")
+           "(:size IS NULL OR p.size = :size) AND " +
+           "(:energyLevel IS NULL OR p.energyLevel = :energyLevel) AND " +
+           "(:vaccinated IS NULL OR p.vaccinated = :vaccinated) AND " +
+           "(:goodWithKids IS NULL OR p.goodWithKids = :goodWithKids) AND " +
+           "(:goodWithPets IS NULL OR p.goodWithPets = :goodWithPets) AND " +
+           "(:minAge IS NULL OR p.ageInMonths >= :minAge) AND " +
+           "(:maxAge IS NULL OR p.ageInMonths <= :maxAge) AND " +
+           "(:minFee IS NULL OR p.adoptionFee >= :minFee) AND " +
+           "(:maxFee IS NULL OR p.adoptionFee <= :maxFee)")
+    @EntityGraph(attributePaths = {"shelterProfile", "shelterProfile.user"})
     Page<ShelterPet> findAvailablePetsWithFilters(@Param("type") ShelterPet.PetType type,
                                           @Param("breed") String breed,
                                           @Param("gender") ShelterPet.Gender gender,
                                           @Param("size") ShelterPet.Size size,
+                                          @Param("energyLevel") ShelterPet.EnergyLevel energyLevel,
+                                          @Param("vaccinated") Boolean vaccinated,
+                                          @Param("goodWithKids") Boolean goodWithKids,
+                                          @Param("goodWithPets") Boolean goodWithPets,
+                                          @Param("minAge") Integer minAge,
+                                          @Param("maxAge") Integer maxAge,
+                                          @Param("minFee") BigDecimal minFee,
+                                          @Param("maxFee") BigDecimal maxFee,
                                           Pageable pageable);
+    
+    // Page of pets by id for DTO conversion, order is not preserved
+    @EntityGraph(attributePaths = {"shelterProfile", "shelterProfile.user"})
+    @Query("SELECT p FROM ShelterPet p WHERE p.id IN :ids")
+    List<ShelterPet> findWithShelterByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Match features of every available pet, rows are
+    // [id, size, energyLevel, goodWithKids, goodWithPets, houseTrained, hasSpecialNeeds]
+    @Query("SELECT p.id, p.size, p.energyLevel, p.goodWithKids, p.goodWithPets, p.houseTrained, " +
+           "CASE WHEN p.specialNeeds IS NULL OR TRIM(p.specialNeeds) = '' THEN false ELSE true END " +
+           "FROM ShelterPet p WHERE p.adoptionStatus = 'AVAILABLE'")
+    List<Object[]> findAvailablePetMatchFeatures();
+    
+    // Fallback for nearby search while AvailablePetIndex is loading; the caller orders by distance
+    @Query("SELECT p FROM ShelterPet p WHERE p.adoptionStatus = 'AVAILABLE' AND " +
+           "p.shelterProfile.id IN :shelterProfileIds AND " +
+           "(:type IS NULL OR p.type = :type) AND " +
+           "(:breed IS NULL OR LOWER(p.breed) LIKE LOWER(CONCAT('%', :breed, '%'))) AND " +
+           "(:gender IS NULL OR p.gender = :gender) AND " +
+           "(:size IS NULL OR p.size = :size)")
+    @EntityGraph(attributePaths = {"shelterProfile", "shelterProfile.user"})
+    List<ShelterPet> findAvailablePetsByShelterProfileIds(@Param("shelterProfileIds") Collection<Long> shelterProfileIds,
+                                                     @Param("type") ShelterPet.PetType type,
+                                                     @Param("breed") String breed,
+                                                     @Param("gender") ShelterPet.Gender gender,
+                                                     @Param("size") ShelterPet.Size size);
 }
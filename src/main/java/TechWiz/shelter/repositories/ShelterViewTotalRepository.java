@@ -0,0 +1,10 @@
+package TechWiz.shelter.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import TechWiz.shelter.models.ShelterViewTotal;
+
+@Repository
+public interface ShelterViewTotalRepository extends JpaRepository<ShelterViewTotal, Long> {
+}
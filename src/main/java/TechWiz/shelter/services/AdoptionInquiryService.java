@@ -1,20 +1,34 @@
 package TechWiz.shelter.services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import TechWiz.common.pagination.CursorCodec;
+import TechWiz.common.pagination.CursorPage;
+import TechWiz.shelter.dto.AdopterProfile;
 import TechWiz.shelter.dto.AdoptionInquiryRequestDto;
 import TechWiz.shelter.dto.AdoptionInquiryResponseDto;
 import TechWiz.shelter.dto.InquiryResponseRequestDto;
 import TechWiz.shelter.dto.ShelterBasicInfoDto;
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.events.ShelterStatsChangedEvent;
 import TechWiz.shelter.models.AdoptionInquiry;
 import TechWiz.shelter.models.ShelterPet;
 import TechWiz.shelter.repositories.AdoptionInquiryRepository;
@@ -24,6 +38,9 @@ import TechWiz.shelter.repositories.ShelterPetRepository;
 @Transactional
 public class AdoptionInquiryService {
     
+    private static final int MAX_QUEUE_PAGE_SIZE = 100;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    
     @Autowired
     private AdoptionInquiryRepository adoptionInquiryRepository;
     
@@ -33,6 +50,21 @@ public class AdoptionInquiryService {
     @Autowired
     private ShelterPetService petService;
     
+    @Autowired
+    private ShelterStatsService shelterStatsService;
+    
+    @Autowired
+    private ShelterActivityService activityService;
+    
+    @Autowired
+    private PetMatchingService petMatchingService;
+    
+    @Autowired
+    private AdoptionStateMachine adoptionStateMachine;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public AdoptionInquiryResponseDto createAdoptionInquiry(AdoptionInquiryRequestDto requestDto) {
         ShelterPet pet = petRepository.findById(requestDto.getPetId())
             .orElseThrow(() -> new RuntimeException("Pet not found with id: " + requestDto.getPetId()));
@@ -62,8 +94,11 @@ public class AdoptionInquiryService {
         inquiry.setHasOtherPets(requestDto.getHasOtherPets() != null ? requestDto.getHasOtherPets() : false);
         inquiry.setHasChildren(requestDto.getHasChildren() != null ? requestDto.getHasChildren() : false);
         inquiry.setStatus(AdoptionInquiry.InquiryStatus.NEW);
+        inquiry.setFitScore(petMatchingService.scorePet(toAdopterProfile(inquiry), pet));
         
         AdoptionInquiry savedInquiry = adoptionInquiryRepository.save(inquiry);
+        activityService.recordInquiryReceived(savedInquiry);
+        publishStatsChanged(savedInquiry);
         return convertToResponseDto(savedInquiry);
     }
     
@@ -103,82 +138,36 @@ public class AdoptionInquiryService {
     }
     
     public Long getInquiryCountByShelterIdAndStatus(Long shelterProfileId, AdoptionInquiry.InquiryStatus status) {
-        return adoptionInquiryRepository.countByShelterProfileIdAndStatus(shelterProfileId, status);
+        return shelterStatsService.getStats(shelterProfileId).getInquiryCount(status);
     }
     
+    // Status changes run outside a transaction so the state machine can retry each attempt in a fresh one
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AdoptionInquiryResponseDto respondToInquiry(Long id, InquiryResponseRequestDto responseDto) {
-        AdoptionInquiry inquiry = adoptionInquiryRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Adoption inquiry not found with id: " + id));
-        
-        inquiry.setStatus(responseDto.getStatus());
-        inquiry.setShelterResponse(responseDto.getShelterResponse());
-        inquiry.setRespondedAt(LocalDateTime.now());
-        inquiry.setUpdatedAt(LocalDateTime.now());
-        
-        // If approved, update pet status to pending
-        if (responseDto.getStatus() == AdoptionInquiry.InquiryStatus.APPROVED) {
-            ShelterPet pet = inquiry.getPet();
-            pet.setAdoptionStatus(ShelterPet.AdoptionStatus.PENDING);
-            petRepository.save(pet);
-        }
-        
-        AdoptionInquiry updatedInquiry = adoptionInquiryRepository.save(inquiry);
-        return convertToResponseDto(updatedInquiry);
+        return adoptionStateMachine.changeStatus(id, responseDto.getStatus(), inquiry -> {
+            inquiry.setShelterResponse(responseDto.getShelterResponse());
+            inquiry.setRespondedAt(LocalDateTime.now());
+        }, this::convertToResponseDto);
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AdoptionInquiryResponseDto updateInquiryStatus(Long id, AdoptionInquiry.InquiryStatus status) {
-        AdoptionInquiry inquiry = adoptionInquiryRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Adoption inquiry not found with id: " + id));
-        
-        AdoptionInquiry.InquiryStatus oldStatus = inquiry.getStatus();
-        inquiry.setStatus(status);
-        inquiry.setUpdatedAt(LocalDateTime.now());
-        
-        // Handle pet status updates based on inquiry status changes
-        ShelterPet pet = inquiry.getPet();
-        if (status == AdoptionInquiry.InquiryStatus.APPROVED && 
-            oldStatus != AdoptionInquiry.InquiryStatus.APPROVED) {
-            pet.setAdoptionStatus(ShelterPet.AdoptionStatus.PENDING);
-        } else if (status == AdoptionInquiry.InquiryStatus.COMPLETED) {
-            pet.setAdoptionStatus(ShelterPet.AdoptionStatus.ADOPTED);
-        } else if ((status == AdoptionInquiry.InquiryStatus.REJECTED || 
-                   status == AdoptionInquiry.InquiryStatus.NEW) &&
-                   oldStatus == AdoptionInquiry.InquiryStatus.APPROVED) {
-            // Check if there are other approved inquiries
-            boolean hasOtherApproved = adoptionInquiryRepository.findByPetId(pet.getId())
-                .stream()
-                .anyMatch(i -> !i.getId().equals(inquiry.getId()) && 
-                         i.getStatus() == AdoptionInquiry.InquiryStatus.APPROVED);
-            
-            if (!hasOtherApproved) {
-                pet.setAdoptionStatus(ShelterPet.AdoptionStatus.AVAILABLE);
-            }
-        }
-        
-        petRepository.save(pet);
-        AdoptionInquiry updatedInquiry = adoptionInquiryRepository.save(inquiry);
-        return convertToResponseDto(updatedInquiry);
+        return adoptionStateMachine.changeStatus(id, status, inquiry -> { }, this::convertToResponseDto);
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteInquiry(Long id) {
-        AdoptionInquiry inquiry = adoptionInquiryRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Adoption inquiry not found with id: " + id));
-        
-        // If deleting an approved inquiry, check if pet status should be updated
-        if (inquiry.getStatus() == AdoptionInquiry.InquiryStatus.APPROVED) {
-            ShelterPet pet = inquiry.getPet();
-            boolean hasOtherApproved = adoptionInquiryRepository.findByPetId(pet.getId())
-                .stream()
-                .anyMatch(i -> !i.getId().equals(inquiry.getId()) && 
-                         i.getStatus() == AdoptionInquiry.InquiryStatus.APPROVED);
-            
-            if (!hasOtherApproved) {
-                pet.setAdoptionStatus(ShelterPet.AdoptionStatus.AVAILABLE);
-                petRepository.save(pet);
-            }
+        adoptionStateMachine.remove(id);
+    }
+    
+    private void publishStatsChanged(AdoptionInquiry inquiry) {
+        if (inquiry.getShelterProfile() != null) {
+            eventPublisher.publishEvent(new ShelterStatsChangedEvent(inquiry.getShelterProfile().getId()));
+        }
+        // Inquiry state changes can move the pet in or out of AVAILABLE
+        if (inquiry.getPet() != null) {
+            eventPublisher.publishEvent(new PetChangedEvent(inquiry.getPet().getId()));
         }
-        
-        adoptionInquiryRepository.deleteById(id);
     }
     
     private AdoptionInquiryResponseDto convertToResponseDto(AdoptionInquiry inquiry) {
@@ -194,6 +183,7 @@ public class AdoptionInquiryService {
         dto.setHasYard(inquiry.getHasYard());
         dto.setHasOtherPets(inquiry.getHasOtherPets());
         dto.setHasChildren(inquiry.getHasChildren());
+        dto.setFitScore(inquiry.getFitScore());
         dto.setStatus(inquiry.getStatus());
         dto.setShelterResponse(inquiry.getShelterResponse());
         dto.setRespondedAt(inquiry.getRespondedAt());
@@ -217,11 +207,96 @@ public class AdoptionInquiryService {
     }
     
     public Long getPendingInquiriesCount(Long shelterProfileId) {
-        return adoptionInquiryRepository.countByShelterProfileIdAndStatus(
-            shelterProfileId, AdoptionInquiry.InquiryStatus.NEW);
+        return shelterStatsService.getStats(shelterProfileId).getInquiryCount(AdoptionInquiry.InquiryStatus.NEW);
     }
     
     public List<AdoptionInquiry> getInquiriesByShelterId(Long shelterProfileId) {
         return adoptionInquiryRepository.findByShelterProfileIdOrderByCreatedAtDesc(shelterProfileId);
     }
+    
+    /**
+     * Household answers from the adopter's most recent inquiry, for the match feed
+     */
+    public Optional<AdopterProfile> getLatestAdopterProfile(String adopterEmail) {
+        return adoptionInquiryRepository.findFirstByAdopterEmailOrderByCreatedAtDesc(adopterEmail)
+            .map(this::toAdopterProfile);
+    }
+    
+    /**
+     * Review queue of a shelter, or of one of its pets when petId is given: best fit first, oldest
+     * first among equal scores, unscored inquiries ranking as 0. Keyset paged, so a page never
+     * re-reads the rows before it.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AdoptionInquiryResponseDto> getReviewQueue(Long shelterProfileId, Long petId,
+                                                                 AdoptionInquiry.InquiryStatus status,
+                                                                 String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_QUEUE_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        
+        List<AdoptionInquiry> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = petId == null
+                ? adoptionInquiryRepository.findShelterQueuePage(shelterProfileId, status, pageable)
+                : adoptionInquiryRepository.findPetQueuePage(shelterProfileId, petId, status, pageable);
+        } else {
+            String[] position = CursorCodec.decode(cursor, 2);
+            Integer fitScore = Integer.valueOf(position[0]);
+            Long id = Long.valueOf(position[1]);
+            rows = petId == null
+                ? adoptionInquiryRepository.findShelterQueuePageAfter(shelterProfileId, status, fitScore, id, pageable)
+                : adoptionInquiryRepository.findPetQueuePageAfter(shelterProfileId, petId, status, fitScore, id, pageable);
+        }
+        
+        // Rows are fetched with limit + 1 so the extra row tells us whether another page exists
+        boolean hasMore = rows.size() > limit;
+        List<AdoptionInquiry> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            AdoptionInquiry last = items.get(items.size() - 1);
+            // Same null-as-0 rule as the queue queries, so the cursor always decodes to a number
+            nextCursor = CursorCodec.encode(last.getFitScore() != null ? last.getFitScore() : 0, last.getId());
+        }
+        return new CursorPage<>(items.stream().map(this::convertToResponseDto).collect(Collectors.toList()),
+            nextCursor, hasMore);
+    }
+    
+    /**
+     * Score inquiries saved before fit scores existed, in batches, so the review queue covers them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillFitScores() {
+        try {
+            List<AdoptionInquiry> batch;
+            do {
+                batch = adoptionInquiryRepository.findByFitScoreIsNullOrderByIdAsc(PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                // One bulk update per distinct score; each commits on its own
+                Map<Integer, List<Long>> idsByScore = new HashMap<>();
+                for (AdoptionInquiry inquiry : batch) {
+                    int score = petMatchingService.scorePet(toAdopterProfile(inquiry), inquiry.getPet());
+                    idsByScore.computeIfAbsent(score, k -> new ArrayList<>()).add(inquiry.getId());
+                }
+                idsByScore.forEach((score, ids) -> adoptionInquiryRepository.updateFitScore(ids, score));
+            } while (batch.size() == BACKFILL_BATCH_SIZE);
+        } catch (Exception e) {
+            System.err.println("Inquiry fit score backfill failed, will retry on next start: " + e.getMessage());
+        }
+    }
+    
+    private AdopterProfile toAdopterProfile(AdoptionInquiry inquiry) {
+        return new AdopterProfile(
+            Boolean.TRUE.equals(inquiry.getHasYard()),
+            Boolean.TRUE.equals(inquiry.getHasChildren()),
+            Boolean.TRUE.equals(inquiry.getHasOtherPets()),
+            inquiry.getLivingSituation());
+    }
+    
+    /**
+     * Newest inquiries of a shelter with their pets, bounded in the query
+     */
+    public List<AdoptionInquiry> getRecentInquiriesByShelterId(Long shelterProfileId, int limit) {
+        return adoptionInquiryRepository.findByShelterProfileIdOrderByCreatedAtDesc(
+            shelterProfileId, PageRequest.of(0, limit));
+    }
 }
@@ -0,0 +1,243 @@
+package TechWiz.shelter.services;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import TechWiz.shelter.events.AdoptionStatusChangedEvent;
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.events.ShelterStatsChangedEvent;
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.AdoptionInquiry.InquiryStatus;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.models.ShelterPet.AdoptionStatus;
+import TechWiz.shelter.repositories.AdoptionInquiryRepository;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Adoption inquiry status transitions and the pet status each one implies.
+ *
+ * Inquiries and pets are optimistically versioned. Any transition that reads or writes the pet's
+ * status also force-increments the pet's version, so two transitions on inquiries of the same pet
+ * cannot both commit against the same snapshot. The loser is re-read and re-applied in a fresh
+ * transaction, up to app.adoption.max-attempts times.
+ */
+@Component
+public class AdoptionStateMachine {
+
+    private static final Map<InquiryStatus, Set<InquiryStatus>> TRANSITIONS = new EnumMap<>(InquiryStatus.class);
+
+    static {
+        TRANSITIONS.put(InquiryStatus.NEW, EnumSet.of(
+            InquiryStatus.CONTACTED, InquiryStatus.IN_REVIEW, InquiryStatus.APPROVED, InquiryStatus.REJECTED));
+        TRANSITIONS.put(InquiryStatus.CONTACTED, EnumSet.of(
+            InquiryStatus.NEW, InquiryStatus.IN_REVIEW, InquiryStatus.APPROVED, InquiryStatus.REJECTED));
+        TRANSITIONS.put(InquiryStatus.IN_REVIEW, EnumSet.of(
+            InquiryStatus.NEW, InquiryStatus.CONTACTED, InquiryStatus.APPROVED, InquiryStatus.REJECTED));
+        TRANSITIONS.put(InquiryStatus.APPROVED, EnumSet.of(
+            InquiryStatus.NEW, InquiryStatus.CONTACTED, InquiryStatus.IN_REVIEW, InquiryStatus.REJECTED,
+            InquiryStatus.COMPLETED));
+        TRANSITIONS.put(InquiryStatus.REJECTED, EnumSet.of(
+            InquiryStatus.NEW, InquiryStatus.CONTACTED, InquiryStatus.IN_REVIEW, InquiryStatus.APPROVED));
+        // A completed adoption is final
+        TRANSITIONS.put(InquiryStatus.COMPLETED, EnumSet.noneOf(InquiryStatus.class));
+    }
+
+    @Autowired
+    private AdoptionInquiryRepository inquiryRepository;
+
+    @Autowired
+    private ShelterPetRepository petRepository;
+
+    @Autowired
+    private ShelterActivityService activityService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.adoption.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.adoption.retry-backoff-ms:20}")
+    private long retryBackoffMs;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter conflictCounter;
+    private Counter exhaustedCounter;
+
+    @PostConstruct
+    public void init() {
+        maxAttempts = Math.max(1, maxAttempts);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Each attempt has to read what the conflicting writer committed, never an enclosing snapshot
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        conflictCounter = meterRegistry.counter("adoption.transition.conflicts");
+        exhaustedCounter = meterRegistry.counter("adoption.transition.retries.exhausted");
+    }
+
+    public static boolean canTransition(InquiryStatus from, InquiryStatus to) {
+        return from == to || TRANSITIONS.get(from).contains(to);
+    }
+
+    /**
+     * Move an inquiry to status, apply changes and update its pet to match; view maps the
+     * inquiry inside the committing transaction
+     */
+    public <T> T changeStatus(Long inquiryId, InquiryStatus status, Consumer<AdoptionInquiry> changes,
+                              Function<AdoptionInquiry, T> view) {
+        return withRetry(inquiryId, () -> {
+            AdoptionInquiry inquiry = findInquiry(inquiryId);
+            InquiryStatus previousStatus = inquiry.getStatus();
+            if (!canTransition(previousStatus, status)) {
+                throw new RuntimeException("Cannot change adoption inquiry from " + previousStatus + " to " + status);
+            }
+
+            boolean touchesPet = previousStatus != status && (previousStatus == InquiryStatus.APPROVED
+                || status == InquiryStatus.APPROVED || status == InquiryStatus.COMPLETED);
+            ShelterPet pet = touchesPet ? findPetForTransition(inquiry) : inquiry.getPet();
+            AdoptionStatus previousPetStatus = pet.getAdoptionStatus();
+            AdoptionStatus petStatus = touchesPet
+                ? nextPetStatus(inquiry, pet, previousStatus, status)
+                : previousPetStatus;
+
+            inquiry.setStatus(status);
+            changes.accept(inquiry);
+            inquiry.setUpdatedAt(LocalDateTime.now());
+            AdoptionInquiry updatedInquiry = inquiryRepository.save(inquiry);
+            activityService.recordInquiryStatusChanged(updatedInquiry);
+            applyPetStatus(pet, previousPetStatus, petStatus);
+
+            publish(updatedInquiry, pet, previousStatus, status, previousPetStatus);
+            return view.apply(updatedInquiry);
+        });
+    }
+
+    /**
+     * Delete an inquiry, releasing its pet if this was the last approval holding it
+     */
+    public void remove(Long inquiryId) {
+        withRetry(inquiryId, () -> {
+            AdoptionInquiry inquiry = findInquiry(inquiryId);
+            InquiryStatus previousStatus = inquiry.getStatus();
+            boolean touchesPet = previousStatus == InquiryStatus.APPROVED;
+            ShelterPet pet = touchesPet ? findPetForTransition(inquiry) : inquiry.getPet();
+            AdoptionStatus previousPetStatus = pet.getAdoptionStatus();
+            AdoptionStatus petStatus = touchesPet ? releasedPetStatus(inquiry, pet) : previousPetStatus;
+
+            inquiryRepository.delete(inquiry);
+            activityService.recordInquiryRemoved(inquiry);
+            applyPetStatus(pet, previousPetStatus, petStatus);
+
+            publish(inquiry, pet, previousStatus, null, previousPetStatus);
+            return null;
+        });
+    }
+
+    private AdoptionStatus nextPetStatus(AdoptionInquiry inquiry, ShelterPet pet,
+                                         InquiryStatus previousStatus, InquiryStatus status) {
+        if (status == InquiryStatus.APPROVED) {
+            if (pet.getAdoptionStatus() == AdoptionStatus.ADOPTED) {
+                throw new RuntimeException("Pet " + pet.getName() + " has already been adopted");
+            }
+            return AdoptionStatus.PENDING;
+        }
+        if (status == InquiryStatus.COMPLETED) {
+            if (inquiryRepository.existsByPetIdAndStatusAndIdNot(pet.getId(), InquiryStatus.COMPLETED, inquiry.getId())) {
+                throw new RuntimeException("Pet " + pet.getName() + " has already been adopted through another inquiry");
+            }
+            return AdoptionStatus.ADOPTED;
+        }
+        return previousStatus == InquiryStatus.APPROVED ? releasedPetStatus(inquiry, pet) : pet.getAdoptionStatus();
+    }
+
+    // Leaving APPROVED frees a pending pet unless another approval still holds it
+    private AdoptionStatus releasedPetStatus(AdoptionInquiry inquiry, ShelterPet pet) {
+        if (pet.getAdoptionStatus() != AdoptionStatus.PENDING
+                || inquiryRepository.existsByPetIdAndStatusAndIdNot(pet.getId(), InquiryStatus.APPROVED, inquiry.getId())) {
+            return pet.getAdoptionStatus();
+        }
+        return AdoptionStatus.AVAILABLE;
+    }
+
+    private void applyPetStatus(ShelterPet pet, AdoptionStatus previousPetStatus, AdoptionStatus petStatus) {
+        if (petStatus == previousPetStatus) {
+            return;
+        }
+        pet.setAdoptionStatus(petStatus);
+        pet.setUpdatedAt(LocalDateTime.now());
+        petRepository.save(pet);
+        activityService.recordPetStatusChanged(pet);
+    }
+
+    private void publish(AdoptionInquiry inquiry, ShelterPet pet, InquiryStatus previousStatus,
+                         InquiryStatus status, AdoptionStatus previousPetStatus) {
+        Long shelterProfileId = inquiry.getShelterProfile().getId();
+        eventPublisher.publishEvent(new AdoptionStatusChangedEvent(inquiry.getId(), pet.getId(), shelterProfileId,
+            previousStatus, status, previousPetStatus, pet.getAdoptionStatus()));
+        eventPublisher.publishEvent(new ShelterStatsChangedEvent(shelterProfileId));
+        if (pet.getAdoptionStatus() != previousPetStatus) {
+            eventPublisher.publishEvent(new PetChangedEvent(pet.getId()));
+        }
+    }
+
+    private AdoptionInquiry findInquiry(Long inquiryId) {
+        return inquiryRepository.findById(inquiryId)
+            .orElseThrow(() -> new RuntimeException("Adoption inquiry not found with id: " + inquiryId));
+    }
+
+    private ShelterPet findPetForTransition(AdoptionInquiry inquiry) {
+        Long petId = inquiry.getPet().getId();
+        return petRepository.findForTransitionById(petId)
+            .orElseThrow(() -> new RuntimeException("Pet not found with id: " + petId));
+    }
+
+    private <T> T withRetry(Long inquiryId, Supplier<T> attempt) {
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return transactionTemplate.execute(status -> attempt.get());
+            } catch (ConcurrencyFailureException e) {
+                conflictCounter.increment();
+                if (attemptNumber >= maxAttempts) {
+                    exhaustedCounter.increment();
+                    throw new RuntimeException("Adoption inquiry " + inquiryId
+                        + " is being changed by someone else, please try again");
+                }
+                backoff(inquiryId, attemptNumber);
+            }
+        }
+    }
+
+    // Jittered so requests that collided once do not collide again in lockstep
+    private void backoff(Long inquiryId, int attemptNumber) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(retryBackoffMs * attemptNumber + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying adoption inquiry " + inquiryId);
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package TechWiz.shelter.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import TechWiz.shelter.dto.PetSearchCriteria;
+import TechWiz.shelter.dto.PetSearchResult;
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * In-process search index over AVAILABLE pets.
+ *
+ * Every pet gets a dense slot; each enum value, boolean flag, breed and age/fee value maps to a
+ * BitSet of slots, so a filter combination is a handful of AND/OR operations and facet counts are
+ * intersection cardinalities. Pets are re-read on PetChangedEvent after commit, and a periodic
+ * rebuild picks up writes made on other nodes.
+ */
+@Service
+public class AvailablePetIndex {
+
+    private static final Set<String> SORTABLE = Set.of("createdAt", "ageInMonths", "adoptionFee", "name", "id");
+
+    @Autowired
+    private ShelterPetRepository petRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final Timer rebuildTimer;
+
+    private Bitmaps bitmaps = new Bitmaps();
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+
+    public AvailablePetIndex(MeterRegistry meterRegistry) {
+        this.rebuildTimer = meterRegistry.timer("pet.index.rebuild");
+        Gauge.builder("pet.index.size", this, AvailablePetIndex::size).register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether the index can order results by this sort; other sorts go to the database
+     */
+    public boolean supports(Sort sort) {
+        return sort.stream().allMatch(order -> SORTABLE.contains(order.getProperty()));
+    }
+
+    public PetSearchResult search(PetSearchCriteria criteria, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = bitmaps.match(criteria);
+            return page(matches, comparator(pageable.getSort()), pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Matches restricted to the given shelters, nearest shelter first and newest pet first within a shelter
+     */
+    public PetSearchResult searchNear(PetSearchCriteria criteria, Map<Long, Double> distanceByShelter, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = bitmaps.match(criteria);
+            BitSet nearby = new BitSet();
+            for (Long shelterProfileId : distanceByShelter.keySet()) {
+                BitSet slots = bitmaps.byShelter.get(shelterProfileId);
+                if (slots != null) {
+                    nearby.or(slots);
+                }
+            }
+            matches.and(nearby);
+
+            Comparator<PetDoc> byDistance = Comparator.comparingDouble(doc -> distanceByShelter.get(doc.shelterProfileId()));
+            return page(matches, byDistance.thenComparing(comparator(Sort.by(Sort.Direction.DESC, "createdAt"))), pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getPetId());
+        }
+        refresh(event.getPetId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.pet-index.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            Bitmaps fresh = new Bitmaps();
+            rebuildTimer.record(() -> {
+                for (ShelterPet pet : petRepository.findByAdoptionStatus(ShelterPet.AdoptionStatus.AVAILABLE)) {
+                    fresh.add(PetDoc.from(pet));
+                }
+            });
+
+            lock.writeLock().lock();
+            try {
+                bitmaps = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+        } catch (Exception e) {
+            System.err.println("Available pet index rebuild failed, keeping previous index: " + e.getMessage());
+        } finally {
+            rebuilding = false;
+        }
+
+        // Changes committed while the snapshot was loading may be missing from it
+        for (Long petId : changedDuringRebuild) {
+            refresh(petId);
+        }
+        changedDuringRebuild.clear();
+    }
+
+    private void refresh(Long petId) {
+        try {
+            Optional<ShelterPet> pet = petRepository.findById(petId)
+                .filter(p -> p.getAdoptionStatus() == ShelterPet.AdoptionStatus.AVAILABLE);
+
+            lock.writeLock().lock();
+            try {
+                bitmaps.remove(petId);
+                pet.ifPresent(p -> bitmaps.add(PetDoc.from(p)));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            // The next rebuild repairs the entry
+            System.err.println("Failed to refresh pet " + petId + " in available pet index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cut one page of ids in order; caller holds the read lock. Only the best offset + size docs are
+     * kept, in a heap with the worst of them on top, so a page costs n log(offset + size) rather
+     * than a sort of every match
+     */
+    private PetSearchResult page(BitSet matches, Comparator<PetDoc> order, Pageable pageable) {
+        int total = matches.cardinality();
+        List<Long> petIds = new ArrayList<>();
+        if (pageable.getOffset() < total) {
+            int from = (int) pageable.getOffset();
+            int limit = (int) Math.min((long) from + pageable.getPageSize(), total);
+            PriorityQueue<PetDoc> best = new PriorityQueue<>(limit + 1, order.reversed());
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                PetDoc doc = bitmaps.docs.get(slot);
+                if (best.size() < limit) {
+                    best.add(doc);
+                } else if (order.compare(doc, best.peek()) < 0) {
+                    best.poll();
+                    best.add(doc);
+                }
+            }
+            List<PetDoc> top = new ArrayList<>(best);
+            top.sort(order);
+            for (PetDoc doc : top.subList(from, limit)) {
+                petIds.add(doc.id());
+            }
+        }
+        return new PetSearchResult(petIds, total, bitmaps.facets(matches));
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return bitmaps.slotByPetId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Comparator<PetDoc> comparator(Sort sort) {
+        Comparator<PetDoc> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<PetDoc> next = switch (order.getProperty()) {
+                case "ageInMonths" -> Comparator.comparing(PetDoc::ageInMonths, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "adoptionFee" -> Comparator.comparing(PetDoc::adoptionFee, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "name" -> Comparator.comparing(PetDoc::name, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+                case "id" -> Comparator.comparing(PetDoc::id);
+                default -> Comparator.comparing(PetDoc::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        // Stable page boundaries for equal sort keys
+        Comparator<PetDoc> byId = Comparator.comparing(PetDoc::id);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    private record PetDoc(Long id, Long shelterProfileId, String name, ShelterPet.PetType type, String breedKey, ShelterPet.Gender gender,
+                          ShelterPet.Size size, ShelterPet.EnergyLevel energyLevel, boolean vaccinated,
+                          boolean goodWithKids, boolean goodWithPets, Integer ageInMonths, BigDecimal adoptionFee,
+                          LocalDateTime createdAt) {
+
+        static PetDoc from(ShelterPet pet) {
+            return new PetDoc(pet.getId(),
+                pet.getShelterProfile() != null ? pet.getShelterProfile().getId() : null,
+                pet.getName(), pet.getType(),
+                pet.getBreed() != null ? pet.getBreed().toLowerCase() : "",
+                pet.getGender(), pet.getSize(), pet.getEnergyLevel(),
+                Boolean.TRUE.equals(pet.getVaccinated()), Boolean.TRUE.equals(pet.getGoodWithKids()),
+                Boolean.TRUE.equals(pet.getGoodWithPets()), pet.getAgeInMonths(), pet.getAdoptionFee(),
+                pet.getCreatedAt());
+        }
+    }
+
+    /**
+     * Slot table plus one BitSet per indexed value. Not thread-safe; guarded by the outer lock.
+     */
+    private static final class Bitmaps {
+
+        private final Map<Long, Integer> slotByPetId = new HashMap<>();
+        private final List<PetDoc> docs = new ArrayList<>();
+        private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+        private final BitSet live = new BitSet();
+
+        private final Map<Long, BitSet> byShelter = new HashMap<>();
+        private final Map<ShelterPet.PetType, BitSet> byType = new EnumMap<>(ShelterPet.PetType.class);
+        private final Map<ShelterPet.Gender, BitSet> byGender = new EnumMap<>(ShelterPet.Gender.class);
+        private final Map<ShelterPet.Size, BitSet> bySize = new EnumMap<>(ShelterPet.Size.class);
+        private final Map<ShelterPet.EnergyLevel, BitSet> byEnergyLevel = new EnumMap<>(ShelterPet.EnergyLevel.class);
+        private final BitSet vaccinated = new BitSet();
+        private final BitSet goodWithKids = new BitSet();
+        private final BitSet goodWithPets = new BitSet();
+        private final TreeMap<String, BitSet> byBreed = new TreeMap<>();
+        private final TreeMap<Integer, BitSet> byAge = new TreeMap<>();
+        private final TreeMap<BigDecimal, BitSet> byFee = new TreeMap<>();
+
+        void add(PetDoc doc) {
+            int slot;
+            if (freeSlots.isEmpty()) {
+                slot = docs.size();
+                docs.add(doc);
+            } else {
+                slot = freeSlots.pop();
+                docs.set(slot, doc);
+            }
+            slotByPetId.put(doc.id(), slot);
+            live.set(slot);
+
+            setBit(byShelter, doc.shelterProfileId(), slot);
+            setBit(byType, doc.type(), slot);
+            setBit(byGender, doc.gender(), slot);
+            setBit(bySize, doc.size(), slot);
+            setBit(byEnergyLevel, doc.energyLevel(), slot);
+            vaccinated.set(slot, doc.vaccinated());
+            goodWithKids.set(slot, doc.goodWithKids());
+            goodWithPets.set(slot, doc.goodWithPets());
+            setBit(byBreed, doc.breedKey(), slot);
+            setBit(byAge, doc.ageInMonths(), slot);
+            setBit(byFee, doc.adoptionFee(), slot);
+        }
+
+        void remove(Long petId) {
+            Integer slot = slotByPetId.remove(petId);
+            if (slot == null) {
+                return;
+            }
+            PetDoc doc = docs.get(slot);
+            docs.set(slot, null);
+            freeSlots.push(slot);
+            live.clear(slot);
+
+            clearBit(byShelter, doc.shelterProfileId(), slot);
+            clearBit(byType, doc.type(), slot);
+            clearBit(byGender, doc.gender(), slot);
+            clearBit(bySize, doc.size(), slot);
+            clearBit(byEnergyLevel, doc.energyLevel(), slot);
+            vaccinated.clear(slot);
+            goodWithKids.clear(slot);
+            goodWithPets.clear(slot);
+            clearBit(byBreed, doc.breedKey(), slot);
+            clearBit(byAge, doc.ageInMonths(), slot);
+            clearBit(byFee, doc.adoptionFee(), slot);
+        }
+
+        BitSet match(PetSearchCriteria criteria) {
+            BitSet result = (BitSet) live.clone();
+            andValue(result, byType, criteria.getType());
+            andValue(result, byGender, criteria.getGender());
+            andValue(result, bySize, criteria.getSize());
+            andValue(result, byEnergyLevel, criteria.getEnergyLevel());
+            andFlag(result, vaccinated, criteria.getVaccinated());
+            andFlag(result, goodWithKids, criteria.getGoodWithKids());
+            andFlag(result, goodWithPets, criteria.getGoodWithPets());
+
+            if (criteria.getBreed() != null && !criteria.getBreed().isBlank()) {
+                // Substring match over the breed dictionary, same semantics as the SQL LIKE '%x%'
+                String needle = criteria.getBreed().trim().toLowerCase();
+                BitSet breeds = new BitSet();
+                byBreed.forEach((breed, slots) -> {
+                    if (breed.contains(needle)) {
+                        breeds.or(slots);
+                    }
+                });
+                result.and(breeds);
+            }
+            if (criteria.getMinAgeInMonths() != null || criteria.getMaxAgeInMonths() != null) {
+                result.and(union(range(byAge, criteria.getMinAgeInMonths(), criteria.getMaxAgeInMonths())));
+            }
+            if (criteria.getMinAdoptionFee() != null || criteria.getMaxAdoptionFee() != null) {
+                result.and(union(range(byFee, criteria.getMinAdoptionFee(), criteria.getMaxAdoptionFee())));
+            }
+            return result;
+        }
+
+        Map<String, Map<String, Long>> facets(BitSet matches) {
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put("type", counts(byType, matches));
+            facets.put("gender", counts(byGender, matches));
+            facets.put("size", counts(bySize, matches));
+            facets.put("energyLevel", counts(byEnergyLevel, matches));
+            facets.put("vaccinated", flagCounts(vaccinated, matches));
+            facets.put("goodWithKids", flagCounts(goodWithKids, matches));
+            facets.put("goodWithPets", flagCounts(goodWithPets, matches));
+            return facets;
+        }
+
+        private static <K> void setBit(Map<K, BitSet> index, K key, int slot) {
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new BitSet()).set(slot);
+            }
+        }
+
+        private static <K> void clearBit(Map<K, BitSet> index, K key, int slot) {
+            if (key == null) {
+                return;
+            }
+            BitSet slots = index.get(key);
+            if (slots != null) {
+                slots.clear(slot);
+                if (slots.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+
+        private static <K> void andValue(BitSet result, Map<K, BitSet> index, K value) {
+            if (value != null) {
+                BitSet slots = index.get(value);
+                if (slots == null) {
+                    result.clear();
+                } else {
+                    result.and(slots);
+                }
+            }
+        }
+
+        private static void andFlag(BitSet result, BitSet flag, Boolean wanted) {
+            if (wanted == null) {
+                return;
+            }
+            if (wanted) {
+                result.and(flag);
+            } else {
+                result.andNot(flag);
+            }
+        }
+
+        private static <K extends Comparable<K>> NavigableMap<K, BitSet> range(TreeMap<K, BitSet> index, K min, K max) {
+            if (min != null && max != null) {
+                return min.compareTo(max) > 0 ? new TreeMap<>() : index.subMap(min, true, max, true);
+            }
+            return min != null ? index.tailMap(min, true) : index.headMap(max, true);
+        }
+
+        private static BitSet union(NavigableMap<?, BitSet> slotsByValue) {
+            BitSet union = new BitSet();
+            for (BitSet slots : slotsByValue.values()) {
+                union.or(slots);
+            }
+            return union;
+        }
+
+        private static <K extends Enum<K>> Map<String, Long> counts(Map<K, BitSet> index, BitSet matches) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            index.forEach((value, slots) -> {
+                long count = intersectionSize(slots, matches);
+                if (count > 0) {
+                    counts.put(value.name(), count);
+                }
+            });
+            return counts;
+        }
+
+        private static Map<String, Long> flagCounts(BitSet flag, BitSet matches) {
+            long yes = intersectionSize(flag, matches);
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("true", yes);
+            counts.put("false", matches.cardinality() - yes);
+            return counts;
+        }
+
+        private static long intersectionSize(BitSet a, BitSet b) {
+            BitSet both = (BitSet) a.clone();
+            both.and(b);
+            return both.cardinality();
+        }
+    }
+}
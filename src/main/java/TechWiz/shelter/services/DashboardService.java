@@ -9,17 +9,20 @@ import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import TechWiz.shelter.dto.ShelterStatsDto;
+import TechWiz.shelter.models.AdoptionInquiry;
 import TechWiz.shelter.models.ShelterPet;
-import TechWiz.shelter.repositories.ShelterPetRepository;
 
 @Service
 public class DashboardService {
 
+    private static final int DASHBOARD_ITEMS = 5;
+    
     @Autowired
-    private ShelterPetService petService;
+    private ShelterStatsService shelterStatsService;
     
     @Autowired
-    private ShelterPetRepository petRepository;
+    private ShelterActivityService activityService;
     
     @Autowired
     private AdoptionInquiryService adoptionInquiryService;
@@ -28,10 +31,11 @@ public class DashboardService {
         Map<String, Object> dashboardData = new HashMap<>();
         
         // Statistics
+        ShelterStatsDto shelterStats = shelterStatsService.getStats(shelterId);
         Map<String, Long> stats = new HashMap<>();
-        stats.put("adoptablePets", petService.getPetCountByStatus(shelterId, ShelterPet.AdoptionStatus.AVAILABLE));
-        stats.put("newAdoptionRequests", adoptionInquiryService.getPendingInquiriesCount(shelterId));
-        stats.put("petsAdopted", petService.getPetCountByStatus(shelterId, ShelterPet.AdoptionStatus.ADOPTED));
+        stats.put("adoptablePets", shelterStats.getPetCount(ShelterPet.AdoptionStatus.AVAILABLE));
+        stats.put("newAdoptionRequests", shelterStats.getInquiryCount(AdoptionInquiry.InquiryStatus.NEW));
+        stats.put("petsAdopted", shelterStats.getPetCount(ShelterPet.AdoptionStatus.ADOPTED));
         stats.put("newNotifications", 0L); // TODO: implement notifications
         
         dashboardData.put("stats", stats);
@@ -48,29 +52,17 @@ public class DashboardService {
     }
     
     private List<Map<String, Object>> getRecentActivities(Long shelterId) {
-        // Get recently added pets
-        List<ShelterPet> recentPets = petRepository.findByShelterProfileIdOrderByCreatedAtDesc(shelterId)
-                .stream()
-                .limit(5)
-                .collect(Collectors.toList());
-        
-        return recentPets.stream().map(pet -> {
+        return activityService.getRecentActivities(shelterId, DASHBOARD_ITEMS).stream().map(entry -> {
             Map<String, Object> activity = new HashMap<>();
-            activity.put("action", determineAction(pet));
-            activity.put("pet", pet.getName() + " (" + pet.getBreed() + ")");
-            activity.put("time", getTimeAgo(pet.getUpdatedAt()));
+            activity.put("action", entry.getAction());
+            activity.put("pet", entry.getSubject());
+            activity.put("time", getTimeAgo(entry.getCreatedAt()));
             return activity;
         }).collect(Collectors.toList());
     }
     
     private List<Map<String, Object>> getUpcomingAdoptions(Long shelterId) {
-        // Get pending adoption inquiries
-        var pendingInquiries = adoptionInquiryService.getInquiriesByShelterId(shelterId)
-                .stream()
-                .limit(5)
-                .collect(Collectors.toList());
-        
-        return pendingInquiries.stream().map(inquiry -> {
+        return adoptionInquiryService.getRecentInquiriesByShelterId(shelterId, DASHBOARD_ITEMS).stream().map(inquiry -> {
             Map<String, Object> adoption = new HashMap<>();
             adoption.put("pet", inquiry.getPet().getName());
             adoption.put("adopter", inquiry.getAdopterName());
@@ -80,21 +72,6 @@ public class DashboardService {
         }).collect(Collectors.toList());
     }
     
-    private String determineAction(ShelterPet pet) {
-        long daysSinceCreated = java.time.Duration.between(pet.getCreatedAt(), LocalDateTime.now()).toDays();
-        long daysSinceUpdated = java.time.Duration.between(pet.getUpdatedAt(), LocalDateTime.now()).toDays();
-        
-        if (daysSinceCreated <= 1) {
-            return "Added new pet";
-        } else if (daysSinceUpdated <= 1 && pet.getAdoptionStatus() == ShelterPet.AdoptionStatus.ADOPTED) {
-            return "Confirmed adoption";
-        } else if (daysSinceUpdated <= 1) {
-            return "Updated status";
-        } else {
-            return "Added new pet";
-        }
-    }
-    
     private String getTimeAgo(LocalDateTime dateTime) {
         long hours = java.time.Duration.between(dateTime, LocalDateTime.now()).toHours();
         long days = hours / 24;
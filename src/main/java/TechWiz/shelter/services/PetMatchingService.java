@@ -0,0 +1,438 @@
+package TechWiz.shelter.services;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import TechWiz.common.cache.BoundedTtlCache;
+import TechWiz.shelter.dto.AdopterProfile;
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Scores every AVAILABLE pet against an adopter's household for the "best matches" feed.
+ *
+ * Each pet is reduced to a 10-bit feature code (size, energy level and four flags) stored in flat
+ * arrays by slot. An adopter profile compiles into a score table over all 1024 codes, so scoring a
+ * pet is one array lookup. Slices of the slot range are scored in parallel, each into its own
+ * bounded min-heap of (score, pet id) keys, and the heaps are merged. The top matches are cached
+ * per profile for a short TTL; callers drop pets that stopped being available since.
+ */
+@Service
+public class PetMatchingService {
+
+    public static final int MAX_LIMIT = 50;
+
+    // Feature code layout: size ordinal in bits 0-2, energy ordinal in bits 3-5, then the flags
+    private static final int CODES = 1 << 10;
+    private static final int MISSING = 4;
+    private static final int GOOD_WITH_KIDS = 1 << 6;
+    private static final int GOOD_WITH_PETS = 1 << 7;
+    private static final int HOUSE_TRAINED = 1 << 8;
+    private static final int SPECIAL_NEEDS = 1 << 9;
+
+    // Heap keys are score << 40 | pet id, so equal scores rank the newer pet first
+    private static final int ID_BITS = 40;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final int SLICE = 1 << 16;
+
+    private static final Pattern APARTMENT = Pattern.compile("\\b(apartment|apt|flat|condo|condominium|studio|unit|dorm)s?\\b");
+    private static final Pattern HOUSE = Pattern.compile("\\b(house|townhouse|farm|ranch|bungalow|villa|cottage|detached)s?\\b");
+
+    private static final int[] SIZE_FIT_APARTMENT = {10, 8, 4, 1};
+    private static final int[] SIZE_FIT_HOUSE = {10, 10, 7, 5};
+    private static final int[] SIZE_FIT_YARD = {10, 10, 10, 8};
+
+    @Autowired
+    private ShelterPetRepository petRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.pet-matching.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.pet-matching.cache-max-entries:1000}")
+    private int cacheMaxEntries;
+
+    @Value("${app.pet-matching.cache-ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    // Guarded by lock
+    private Features features = new Features(1024);
+
+    private ForkJoinPool pool;
+    private BoundedTtlCache<String, long[]> cache;
+    private Timer scoreTimer;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        cache = new BoundedTtlCache<>(cacheMaxEntries);
+        cache.bindTo(meterRegistry, "pet.matching.cache");
+        scoreTimer = meterRegistry.timer("pet.matching.score");
+        Gauge.builder("pet.matching.pets", this, PetMatchingService::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Best-scoring available pets for this household, highest score first
+     */
+    public List<Match> findTopMatches(AdopterProfile profile, int limit) {
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long[] top = cache.get(cacheKey(profile), key -> score(profile), Duration.ofSeconds(cacheTtlSeconds));
+
+        List<Match> matches = new ArrayList<>(Math.min(k, top.length));
+        for (int i = 0; i < top.length && matches.size() < k; i++) {
+            matches.add(new Match(top[i] & ID_MASK, (int) (top[i] >>> ID_BITS)));
+        }
+        return matches;
+    }
+
+    /**
+     * Fit score (0-100) of one pet for this household, same scale as the match feed
+     */
+    public int scorePet(AdopterProfile profile, ShelterPet pet) {
+        return score(profile, livingSpace(profile.getLivingSituation()), code(pet));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getPetId());
+        }
+        refresh(event.getPetId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.pet-matching.rebuild-interval-ms:600000}",
+               initialDelayString = "${app.pet-matching.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            List<Object[]> rows = petRepository.findAvailablePetMatchFeatures();
+            Features fresh = new Features(Math.max(1024, rows.size()));
+            for (Object[] row : rows) {
+                fresh.put((Long) row[0], code((ShelterPet.Size) row[1], (ShelterPet.EnergyLevel) row[2],
+                    Boolean.TRUE.equals(row[3]), Boolean.TRUE.equals(row[4]),
+                    Boolean.TRUE.equals(row[5]), Boolean.TRUE.equals(row[6])));
+            }
+
+            lock.writeLock().lock();
+            try {
+                features = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            System.err.println("Pet matching rebuild failed, keeping previous features: " + e.getMessage());
+        } finally {
+            rebuilding = false;
+        }
+
+        // Changes committed while the snapshot was loading may be missing from it
+        for (Long petId : changedDuringRebuild) {
+            refresh(petId);
+        }
+        changedDuringRebuild.clear();
+    }
+
+    private void refresh(Long petId) {
+        try {
+            ShelterPet pet = petRepository.findById(petId)
+                .filter(p -> p.getAdoptionStatus() == ShelterPet.AdoptionStatus.AVAILABLE)
+                .orElse(null);
+
+            lock.writeLock().lock();
+            try {
+                if (pet == null) {
+                    features.remove(petId);
+                } else {
+                    features.put(petId, code(pet));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            // The next rebuild repairs the entry
+            System.err.println("Failed to refresh pet " + petId + " in match features: " + e.getMessage());
+        }
+    }
+
+    private long[] score(AdopterProfile profile) {
+        int[] table = scoreTable(profile);
+        return scoreTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                Features snapshot = features;
+                int slots = snapshot.highWater;
+                if (slots <= SLICE) {
+                    return topOf(snapshot, table, 0, slots).toSortedDescending();
+                }
+
+                List<Callable<TopK>> tasks = new ArrayList<>();
+                for (int from = 0; from < slots; from += SLICE) {
+                    int start = from;
+                    int end = Math.min(from + SLICE, slots);
+                    tasks.add(() -> topOf(snapshot, table, start, end));
+                }
+                TopK merged = new TopK(MAX_LIMIT);
+                for (Future<TopK> slice : pool.invokeAll(tasks)) {
+                    merged.offerAll(slice.get());
+                }
+                return merged.toSortedDescending();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Pet matching interrupted");
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Pet matching failed: " + e.getCause().getMessage());
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Inner scoring loop: one table lookup and at most one heap update per slot, no allocation
+     */
+    private static TopK topOf(Features snapshot, int[] table, int from, int to) {
+        TopK top = new TopK(MAX_LIMIT);
+        short[] codes = snapshot.codes;
+        long[] ids = snapshot.ids;
+        for (int slot = from; slot < to; slot++) {
+            int code = codes[slot];
+            if (code >= 0) {
+                top.offer(((long) table[code] << ID_BITS) | ids[slot]);
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Score (0-100) of every feature code for one household
+     */
+    private static int[] scoreTable(AdopterProfile profile) {
+        LivingSpace space = livingSpace(profile.getLivingSituation());
+        int[] table = new int[CODES];
+        for (int code = 0; code < CODES; code++) {
+            if ((code & 7) <= MISSING && ((code >>> 3) & 7) <= MISSING) {
+                table[code] = score(profile, space, code);
+            }
+        }
+        return table;
+    }
+
+    private static int score(AdopterProfile profile, LivingSpace space, int code) {
+        int size = code & 7;
+        int energy = (code >>> 3) & 7;
+        int capacity = (space == LivingSpace.APARTMENT ? 1 : 2) + (profile.isHasYard() ? 1 : 0);
+        int[] sizeFit = profile.isHasYard() ? SIZE_FIT_YARD
+            : space == LivingSpace.APARTMENT ? SIZE_FIT_APARTMENT : SIZE_FIT_HOUSE;
+
+        int score = 0;
+        score += !profile.isHasChildren() || (code & GOOD_WITH_KIDS) != 0 ? 30 : 0;
+        score += !profile.isHasOtherPets() || (code & GOOD_WITH_PETS) != 0 ? 25 : 0;
+        score += energy == MISSING ? 8 : Math.max(0, 15 - 6 * Math.max(0, energy - capacity));
+        score += size == MISSING ? 5 : sizeFit[size];
+        score += (code & HOUSE_TRAINED) != 0 ? 10 : space == LivingSpace.APARTMENT ? 3 : 6;
+        score += (code & SPECIAL_NEEDS) == 0 ? 10 : profile.isHasChildren() || profile.isHasOtherPets() ? 3 : 6;
+        return score;
+    }
+
+    private static int code(ShelterPet pet) {
+        return code(pet.getSize(), pet.getEnergyLevel(),
+            Boolean.TRUE.equals(pet.getGoodWithKids()), Boolean.TRUE.equals(pet.getGoodWithPets()),
+            Boolean.TRUE.equals(pet.getHouseTrained()),
+            pet.getSpecialNeeds() != null && !pet.getSpecialNeeds().isBlank());
+    }
+
+    private static int code(ShelterPet.Size size, ShelterPet.EnergyLevel energyLevel, boolean goodWithKids,
+                            boolean goodWithPets, boolean houseTrained, boolean specialNeeds) {
+        int code = (size != null ? size.ordinal() : MISSING)
+            | (energyLevel != null ? energyLevel.ordinal() : MISSING) << 3;
+        if (goodWithKids) {
+            code |= GOOD_WITH_KIDS;
+        }
+        if (goodWithPets) {
+            code |= GOOD_WITH_PETS;
+        }
+        if (houseTrained) {
+            code |= HOUSE_TRAINED;
+        }
+        if (specialNeeds) {
+            code |= SPECIAL_NEEDS;
+        }
+        return code;
+    }
+
+    /**
+     * livingSituation is free text on the inquiry form, so only a coarse keyword reading is used
+     */
+    private static LivingSpace livingSpace(String livingSituation) {
+        if (livingSituation == null || livingSituation.isBlank()) {
+            return LivingSpace.UNKNOWN;
+        }
+        String text = livingSituation.toLowerCase();
+        if (APARTMENT.matcher(text).find()) {
+            return LivingSpace.APARTMENT;
+        }
+        return HOUSE.matcher(text).find() ? LivingSpace.HOUSE : LivingSpace.UNKNOWN;
+    }
+
+    private static String cacheKey(AdopterProfile profile) {
+        return (profile.isHasYard() ? "Y" : "y") + (profile.isHasChildren() ? "C" : "c")
+            + (profile.isHasOtherPets() ? "P" : "p") + livingSpace(profile.getLivingSituation()).ordinal();
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return features.slotByPetId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record Match(Long petId, int score) {
+    }
+
+    private enum LivingSpace {
+        APARTMENT, HOUSE, UNKNOWN
+    }
+
+    /**
+     * Pet ids and feature codes by slot; a code of -1 marks a free slot. Guarded by the outer lock.
+     */
+    private static final class Features {
+
+        private final Map<Long, Integer> slotByPetId = new HashMap<>();
+        private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+        private long[] ids;
+        private short[] codes;
+        private int highWater;
+
+        Features(int capacity) {
+            ids = new long[capacity];
+            codes = new short[capacity];
+            Arrays.fill(codes, (short) -1);
+        }
+
+        void put(long petId, int code) {
+            Integer slot = slotByPetId.get(petId);
+            if (slot == null) {
+                slot = freeSlots.isEmpty() ? highWater++ : freeSlots.pop();
+                if (slot >= ids.length) {
+                    int capacity = ids.length * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    codes = Arrays.copyOf(codes, capacity);
+                    Arrays.fill(codes, slot, capacity, (short) -1);
+                }
+                slotByPetId.put(petId, slot);
+            }
+            ids[slot] = petId;
+            codes[slot] = (short) code;
+        }
+
+        void remove(long petId) {
+            Integer slot = slotByPetId.remove(petId);
+            if (slot != null) {
+                codes[slot] = -1;
+                freeSlots.push(slot);
+            }
+        }
+    }
+
+    /**
+     * Bounded min-heap of the k largest keys
+     */
+    static final class TopK {
+
+        private final long[] heap;
+        private int size;
+
+        TopK(int k) {
+            heap = new long[k];
+        }
+
+        void offer(long key) {
+            if (size < heap.length) {
+                int i = size++;
+                while (i > 0 && heap[(i - 1) / 2] > key) {
+                    heap[i] = heap[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = key;
+            } else if (key > heap[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && heap[child + 1] < heap[child]) {
+                        child++;
+                    }
+                    if (heap[child] >= key) {
+                        break;
+                    }
+                    heap[i] = heap[child];
+                    i = child;
+                }
+                heap[i] = key;
+            }
+        }
+
+        void offerAll(TopK other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.heap[i]);
+            }
+        }
+
+        long[] toSortedDescending() {
+            long[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+                long tmp = sorted[i];
+                sorted[i] = sorted[j];
+                sorted[j] = tmp;
+            }
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package TechWiz.shelter.services;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import TechWiz.common.search.AutocompleteService;
+import TechWiz.common.search.AutocompleteSource;
+import TechWiz.common.search.SearchDocument;
+import TechWiz.common.search.SearchDocumentSource;
+import TechWiz.common.search.SearchIndexService;
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+
+/**
+ * Adoptable pets in the full-text index and in breed autocomplete
+ */
+@Component
+public class PetSearchSource implements SearchDocumentSource, AutocompleteSource {
+
+    public static final String TYPE = "pet";
+    public static final String BREED_FIELD = "breed";
+
+    @Autowired
+    private ShelterPetRepository petRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public Optional<SearchDocument> load(Long id) {
+        return petRepository.findById(id)
+            .filter(pet -> pet.getAdoptionStatus() == ShelterPet.AdoptionStatus.AVAILABLE)
+            .map(this::toDocument);
+    }
+
+    @Override
+    public void forEachDocument(Consumer<SearchDocument> consumer) {
+        petRepository.findByAdoptionStatus(ShelterPet.AdoptionStatus.AVAILABLE).stream()
+            .map(this::toDocument)
+            .forEach(consumer);
+    }
+
+    @Override
+    public Map<String, String> loadTerms(Long id) {
+        return petRepository.findById(id)
+            .filter(pet -> pet.getAdoptionStatus() == ShelterPet.AdoptionStatus.AVAILABLE)
+            .map(this::toTerms)
+            .orElse(Map.of());
+    }
+
+    @Override
+    public void forEachTerms(BiConsumer<Long, Map<String, String>> consumer) {
+        petRepository.findByAdoptionStatus(ShelterPet.AdoptionStatus.AVAILABLE)
+            .forEach(pet -> consumer.accept(pet.getId(), toTerms(pet)));
+    }
+
+    // Pets publish PetChangedEvent rather than SearchIndexEvent
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        searchIndexService.reindex(TYPE, event.getPetId());
+        autocompleteService.reindex(TYPE, event.getPetId());
+    }
+
+    private Map<String, String> toTerms(ShelterPet pet) {
+        return pet.getBreed() != null ? Map.of(BREED_FIELD, pet.getBreed()) : Map.of();
+    }
+
+    private SearchDocument toDocument(ShelterPet pet) {
+        return new SearchDocument(TYPE, pet.getId(), SearchDocument.joinText(pet.getName(), pet.getBreed()),
+            SearchDocument.joinText(pet.getType() != null ? pet.getType().name() : null, pet.getColor(),
+                pet.getDescription(), pet.getPersonality()));
+    }
+}
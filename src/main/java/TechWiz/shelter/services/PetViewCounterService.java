@@ -0,0 +1,225 @@
+package TechWiz.shelter.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.models.ShelterViewTotal;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+import TechWiz.shelter.repositories.ShelterViewTotalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind pet view counting.
+ *
+ * A view only bumps an in-memory LongAdder and adds the viewer to a Redis HyperLogLog.
+ * A scheduled flush drains the adders and applies all deltas with one additive UPDATE on
+ * shelter_pets and one upsert on shelter_view_totals, so hot pages never contend on row locks.
+ *
+ * Pet ids are checked once and then remembered until the pet changes, so unknown ids cannot
+ * grow the adder map; adders idle for a whole flush interval are dropped, and the per-pet
+ * HyperLogLog expires once a pet stops getting new viewers.
+ */
+@Service
+public class PetViewCounterService {
+
+    private static final String UNIQUE_VIEWERS_KEY_PREFIX = "pet:viewers:";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ShelterPetRepository petRepository;
+
+    @Autowired
+    private ShelterViewTotalRepository viewTotalRepository;
+
+    @Value("${app.pet-views.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${app.pet-views.unique-viewers-ttl-days:30}")
+    private long uniqueViewersTtlDays;
+
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    // Removed from pendingViews on the last flush; drained once more for views that raced the removal
+    private final Map<Long, LongAdder> retiredViews = new HashMap<>();
+    private final Set<Long> knownPetIds = ConcurrentHashMap.newKeySet();
+    private final TransactionTemplate transactionTemplate;
+    private final Counter recordedCounter;
+    private final Counter flushedCounter;
+    private final Counter flushFailures;
+
+    public PetViewCounterService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recordedCounter = meterRegistry.counter("pet.views.recorded");
+        this.flushedCounter = meterRegistry.counter("pet.views.flushed");
+        this.flushFailures = meterRegistry.counter("pet.views.flush.failures");
+        Gauge.builder("pet.views.tracked.pets", pendingViews, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Count one view; viewerKey identifies the viewer for the unique-viewer estimate.
+     * Returns false, counting nothing, when the pet does not exist.
+     */
+    public boolean recordView(Long petId, String viewerKey) {
+        if (!knownPetIds.contains(petId)) {
+            if (!petRepository.existsById(petId)) {
+                return false;
+            }
+            knownPetIds.add(petId);
+        }
+
+        pendingViews.computeIfAbsent(petId, id -> new LongAdder()).increment();
+        recordedCounter.increment();
+
+        if (viewerKey != null) {
+            try {
+                String key = UNIQUE_VIEWERS_KEY_PREFIX + petId;
+                // PFADD answers 1 only when the estimate changed, so repeat viewers cost no EXPIRE
+                Long changed = redisTemplate.opsForHyperLogLog().add(key, viewerKey);
+                if (changed != null && changed > 0) {
+                    redisTemplate.expire(key, Duration.ofDays(uniqueViewersTtlDays));
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to record unique viewer for pet " + petId + ": " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    // Re-check on the next view; a deleted pet then stops being counted
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        knownPetIds.remove(event.getPetId());
+    }
+
+    /**
+     * Persisted views plus views not yet flushed from this node
+     */
+    public long getPetViews(Long petId) {
+        Long persisted = petRepository.findViewsById(petId);
+        LongAdder pending = pendingViews.get(petId);
+        return (persisted != null ? persisted : 0L) + (pending != null ? pending.sum() : 0L);
+    }
+
+    /**
+     * Approximate distinct viewers (HyperLogLog, ~0.81% standard error)
+     */
+    public long getUniqueViewers(Long petId) {
+        try {
+            Long count = redisTemplate.opsForHyperLogLog().size(UNIQUE_VIEWERS_KEY_PREFIX + petId);
+            return count != null ? count : 0L;
+        } catch (Exception e) {
+            System.err.println("Failed to read unique viewers for pet " + petId + ": " + e.getMessage());
+            return 0L;
+        }
+    }
+
+    public long getShelterTotalViews(Long shelterProfileId) {
+        return viewTotalRepository.findById(shelterProfileId)
+            .map(ShelterViewTotal::getTotalViews)
+            .orElse(0L);
+    }
+
+    @Scheduled(fixedDelayString = "${app.pet-views.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        // A view that fetched an adder just before it was retired lands in the retired adder
+        retiredViews.forEach((petId, adder) -> {
+            long late = adder.sumThenReset();
+            if (late > 0) {
+                deltas.merge(petId, late, Long::sum);
+            }
+        });
+        retiredViews.clear();
+
+        // Take what each adder holds and subtract exactly that; increments racing with the
+        // flush stay in the adder for the next round instead of being lost by a reset.
+        // An adder already empty was idle for a whole interval and is retired.
+        pendingViews.forEach((petId, adder) -> {
+            long delta = adder.sum();
+            if (delta > 0) {
+                adder.add(-delta);
+                deltas.merge(petId, delta, Long::sum);
+            } else if (pendingViews.remove(petId, adder)) {
+                retiredViews.put(petId, adder);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(deltas.entrySet());
+        for (int from = 0; from < entries.size(); from += flushBatchSize) {
+            List<Map.Entry<Long, Long>> batch = entries.subList(from, Math.min(from + flushBatchSize, entries.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyDeltas(batch));
+                flushedCounter.increment(batch.stream().mapToLong(Map.Entry::getValue).sum());
+            } catch (Exception e) {
+                flushFailures.increment();
+                System.err.println("Pet view flush failed, re-queueing " + batch.size() + " pet(s): " + e.getMessage());
+                batch.forEach(entry -> pendingViews.computeIfAbsent(entry.getKey(), id -> new LongAdder()).add(entry.getValue()));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void applyDeltas(List<Map.Entry<Long, Long>> batch) {
+        StringBuilder caseSql = new StringBuilder("CASE id");
+        StringBuilder inSql = new StringBuilder();
+        List<Object> caseArgs = new ArrayList<>(batch.size() * 2);
+        List<Object> inArgs = new ArrayList<>(batch.size());
+
+        for (Map.Entry<Long, Long> entry : batch) {
+            caseSql.append(" WHEN ? THEN ?");
+            caseArgs.add(entry.getKey());
+            caseArgs.add(entry.getValue());
+            inSql.append(inSql.length() == 0 ? "?" : ",?");
+            inArgs.add(entry.getKey());
+        }
+        caseSql.append(" ELSE 0 END");
+
+        List<Object> updateArgs = new ArrayList<>(caseArgs);
+        updateArgs.addAll(inArgs);
+        jdbcTemplate.update(
+            "UPDATE shelter_pets SET views = views + " + caseSql + " WHERE id IN (" + inSql + ")",
+            updateArgs.toArray());
+
+        // Same deltas rolled up per shelter; pets deleted in the meantime simply drop out
+        List<Object> upsertArgs = new ArrayList<>(caseArgs);
+        upsertArgs.addAll(inArgs);
+        jdbcTemplate.update(
+            "INSERT INTO shelter_view_totals (shelter_profile_id, total_views, updated_at) " +
+            "SELECT shelter_profile_id, SUM(" + caseSql + "), NOW() FROM shelter_pets " +
+            "WHERE id IN (" + inSql + ") GROUP BY shelter_profile_id " +
+            "ON DUPLICATE KEY UPDATE total_views = total_views + VALUES(total_views), updated_at = VALUES(updated_at)",
+            upsertArgs.toArray());
+    }
+}
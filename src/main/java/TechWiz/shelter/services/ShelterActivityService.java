@@ -0,0 +1,95 @@
+package TechWiz.shelter.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.ShelterActivity;
+import TechWiz.shelter.models.ShelterActivity.ActivityType;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.repositories.ShelterActivityRepository;
+
+/**
+ * Writes and reads the per-shelter activity journal shown on the dashboard
+ */
+@Service
+@Transactional
+public class ShelterActivityService {
+
+    @Autowired
+    private ShelterActivityRepository activityRepository;
+
+    public void recordPetAdded(ShelterPet pet) {
+        record(pet, ActivityType.PET_ADDED, "Added new pet");
+    }
+
+    public void recordPetUpdated(ShelterPet pet) {
+        record(pet, ActivityType.PET_UPDATED, "Updated pet details");
+    }
+
+    public void recordPetStatusChanged(ShelterPet pet) {
+        String action = pet.getAdoptionStatus() == ShelterPet.AdoptionStatus.ADOPTED
+            ? "Confirmed adoption"
+            : "Updated status to " + pet.getAdoptionStatus();
+        record(pet, ActivityType.PET_STATUS_CHANGED, action);
+    }
+
+    public void recordPetRemoved(ShelterPet pet) {
+        record(pet, ActivityType.PET_REMOVED, "Removed pet");
+    }
+
+    public void recordInquiryReceived(AdoptionInquiry inquiry) {
+        record(inquiry, ActivityType.INQUIRY_RECEIVED, "New adoption inquiry from " + inquiry.getAdopterName());
+    }
+
+    public void recordInquiryStatusChanged(AdoptionInquiry inquiry) {
+        record(inquiry, ActivityType.INQUIRY_STATUS_CHANGED,
+            "Marked inquiry from " + inquiry.getAdopterName() + " as " + inquiry.getStatus());
+    }
+
+    public void recordInquiryRemoved(AdoptionInquiry inquiry) {
+        record(inquiry, ActivityType.INQUIRY_REMOVED, "Removed inquiry from " + inquiry.getAdopterName());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ShelterActivity> getRecentActivities(Long shelterProfileId, int limit) {
+        return activityRepository.findByShelterProfileIdOrderByCreatedAtDescIdDesc(
+            shelterProfileId, PageRequest.of(0, limit));
+    }
+
+    private void record(ShelterPet pet, ActivityType type, String action) {
+        ShelterActivity activity = newActivity(pet.getShelterProfile().getId(), type, action, describe(pet));
+        activity.setPetId(pet.getId());
+        activityRepository.save(activity);
+    }
+
+    private void record(AdoptionInquiry inquiry, ActivityType type, String action) {
+        ShelterActivity activity = newActivity(inquiry.getShelterProfile().getId(), type, truncate(action, 100),
+            describe(inquiry.getPet()));
+        activity.setPetId(inquiry.getPet().getId());
+        activity.setInquiryId(inquiry.getId());
+        activityRepository.save(activity);
+    }
+
+    private ShelterActivity newActivity(Long shelterProfileId, ActivityType type, String action, String subject) {
+        ShelterActivity activity = new ShelterActivity();
+        activity.setShelterProfileId(shelterProfileId);
+        activity.setType(type);
+        activity.setAction(action);
+        activity.setSubject(subject);
+        return activity;
+    }
+
+    private String describe(ShelterPet pet) {
+        String subject = pet.getBreed() != null ? pet.getName() + " (" + pet.getBreed() + ")" : pet.getName();
+        return truncate(subject, 200);
+    }
+
+    private String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -1,10 +1,16 @@
 package TechWiz.shelter.services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -13,10 +19,20 @@ import org.springframework.transaction.annotation.Transactional;
 
 import TechWiz.auths.models.ShelterProfile;
 import TechWiz.auths.repositories.ShelterProfileRepository;
+import TechWiz.auths.services.ProfileLocationIndex;
+import TechWiz.common.geo.GeoGridIndex.Neighbor;
+import TechWiz.common.search.SearchIndexService;
+import TechWiz.common.search.SearchResult;
+import TechWiz.shelter.dto.AdopterProfile;
+import TechWiz.shelter.dto.AvailablePetPage;
 import TechWiz.shelter.dto.PetBasicInfoDto;
 import TechWiz.shelter.dto.PetRequestDto;
 import TechWiz.shelter.dto.PetResponseDto;
+import TechWiz.shelter.dto.PetSearchCriteria;
+import TechWiz.shelter.dto.PetSearchResult;
 import TechWiz.shelter.dto.ShelterBasicInfoDto;
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.events.ShelterStatsChangedEvent;
 import TechWiz.shelter.models.AdoptionInquiry;
 import TechWiz.shelter.models.ShelterPet;
 import TechWiz.shelter.repositories.AdoptionInquiryRepository;
@@ -35,6 +51,30 @@ public class ShelterPetService {
     @Autowired
     private AdoptionInquiryRepository adoptionInquiryRepository;
     
+    @Autowired
+    private PetViewCounterService petViewCounterService;
+    
+    @Autowired
+    private ShelterStatsService shelterStatsService;
+    
+    @Autowired
+    private ShelterActivityService activityService;
+    
+    @Autowired
+    private AvailablePetIndex availablePetIndex;
+    
+    @Autowired
+    private ProfileLocationIndex profileLocationIndex;
+    
+    @Autowired
+    private PetMatchingService petMatchingService;
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public PetResponseDto createPet(Long shelterProfileId, PetRequestDto requestDto) {
         ShelterProfile shelterProfile = shelterProfileRepository.findById(shelterProfileId)
             .orElseThrow(() -> new RuntimeException("Shelter profile not found with id: " + shelterProfileId));
@@ -44,11 +84,14 @@ public class ShelterPetService {
         pet.setShelterProfile(shelterProfile);
         
         ShelterPet savedPet = petRepository.save(pet);
+        activityService.recordPetAdded(savedPet);
+        eventPublisher.publishEvent(new PetChangedEvent(savedPet.getId()));
+        eventPublisher.publishEvent(new ShelterStatsChangedEvent(shelterProfileId));
         return convertToResponseDto(savedPet);
     }
     
     public PetResponseDto getPetById(Long id) {
-        ShelterPet pet = petRepository.findById(id)
+        ShelterPet pet = petRepository.findWithShelterById(id)
             .orElseThrow(() -> new RuntimeException("Pet not found with id: " + id));
         return convertToResponseDto(pet);
     }
@@ -65,9 +108,7 @@ public class ShelterPetService {
         Page<ShelterPet> pets = petRepository.findPetsWithFilters(
             shelterProfileId, name, type, breed, adoptionStatus, healthStatus, gender, size, pageable);
         
-        List<PetResponseDto> dtos = pets.getContent().stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+        List<PetResponseDto> dtos = convertToResponseDtos(pets.getContent());
             
         return new PageImpl<>(dtos, pageable, pets.getTotalElements());
     }
@@ -75,24 +116,107 @@ public class ShelterPetService {
     public List<PetResponseDto> getAvailablePetsByShelterId(Long shelterProfileId) {
         List<ShelterPet> pets = petRepository.findByShelterProfileIdAndAdoptionStatus(
             shelterProfileId, ShelterPet.AdoptionStatus.AVAILABLE);
-        return pets.stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+        return convertToResponseDtos(pets);
     }
     
-    public Page<PetResponseDto> getAvailablePetsForAdoption(ShelterPet.PetType type,
-                                                           String breed,
-                                                           ShelterPet.Gender gender,
-                                                           ShelterPet.Size size,
-                                                           Pageable pageable) {
+    public AvailablePetPage getAvailablePetsForAdoption(PetSearchCriteria criteria, Pageable pageable) {
+        if (availablePetIndex.isReady() && availablePetIndex.supports(pageable.getSort())) {
+            PetSearchResult result = availablePetIndex.search(criteria, pageable);
+            List<ShelterPet> pets = loadInOrder(result.getPetIds());
+            
+            return new AvailablePetPage(
+                new PageImpl<>(convertToResponseDtos(pets), pageable, result.getTotalElements()),
+                result.getFacets());
+        }
+        
         Page<ShelterPet> pets = petRepository.findAvailablePetsWithFilters(
-            type, breed, gender, size, pageable);
+            criteria.getType(), criteria.getBreed(), criteria.getGender(), criteria.getSize(),
+            criteria.getEnergyLevel(), criteria.getVaccinated(), criteria.getGoodWithKids(), criteria.getGoodWithPets(),
+            criteria.getMinAgeInMonths(), criteria.getMaxAgeInMonths(),
+            criteria.getMinAdoptionFee(), criteria.getMaxAdoptionFee(), pageable);
         
-        List<PetResponseDto> dtos = pets.getContent().stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+        List<PetResponseDto> dtos = convertToResponseDtos(pets.getContent());
             
-        return new PageImpl<>(dtos, pageable, pets.getTotalElements());
+        return new AvailablePetPage(new PageImpl<>(dtos, pageable, pets.getTotalElements()), null);
+    }
+    
+    /**
+     * Available pets at shelters within radiusKm, nearest shelter first and newest pet first per shelter.
+     * Facets are null while the in-memory index is loading.
+     */
+    public AvailablePetPage getAvailablePetsNear(double latitude, double longitude, double radiusKm,
+                                                 PetSearchCriteria criteria, Pageable pageable) {
+        Map<Long, Double> distanceByShelter = new HashMap<>();
+        for (Neighbor<Long> shelter : profileLocationIndex.findSheltersWithin(latitude, longitude, radiusKm)) {
+            distanceByShelter.put(shelter.key(), shelter.distanceKm());
+        }
+        if (distanceByShelter.isEmpty()) {
+            return new AvailablePetPage(new PageImpl<>(new ArrayList<>(), pageable, 0), null);
+        }
+        
+        List<ShelterPet> pets;
+        long totalElements;
+        Map<String, Map<String, Long>> facets = null;
+        if (availablePetIndex.isReady()) {
+            PetSearchResult result = availablePetIndex.searchNear(criteria, distanceByShelter, pageable);
+            pets = loadInOrder(result.getPetIds());
+            totalElements = result.getTotalElements();
+            facets = result.getFacets();
+        } else {
+            List<ShelterPet> matches = new ArrayList<>(petRepository.findAvailablePetsByShelterProfileIds(
+                distanceByShelter.keySet(), criteria.getType(), criteria.getBreed(), criteria.getGender(), criteria.getSize()));
+            matches.sort(Comparator.comparingDouble((ShelterPet p) -> distanceByShelter.get(p.getShelterProfile().getId()))
+                .thenComparing(ShelterPet::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(ShelterPet::getId));
+            int from = (int) Math.min(pageable.getOffset(), matches.size());
+            int to = Math.min(from + pageable.getPageSize(), matches.size());
+            pets = matches.subList(from, to);
+            totalElements = matches.size();
+        }
+        
+        List<PetResponseDto> dtos = convertToResponseDtos(pets);
+        for (PetResponseDto dto : dtos) {
+            dto.setDistanceKm(Math.round(distanceByShelter.get(dto.getShelter().getId()) * 100) / 100.0);
+        }
+        return new AvailablePetPage(new PageImpl<>(dtos, pageable, totalElements), facets);
+    }
+    
+    /**
+     * Best-matching available pets for an adopter's household, highest score first
+     */
+    public List<PetResponseDto> getBestMatches(AdopterProfile profile, int limit) {
+        Map<Long, Integer> scoreByPet = new HashMap<>();
+        List<Long> petIds = new ArrayList<>();
+        for (PetMatchingService.Match match : petMatchingService.findTopMatches(profile, limit)) {
+            scoreByPet.put(match.petId(), match.score());
+            petIds.add(match.petId());
+        }
+        
+        // Matches are cached for a short while, so skip pets adopted since
+        List<ShelterPet> pets = loadInOrder(petIds).stream()
+            .filter(pet -> pet.getAdoptionStatus() == ShelterPet.AdoptionStatus.AVAILABLE)
+            .toList();
+        List<PetResponseDto> dtos = convertToResponseDtos(pets);
+        for (PetResponseDto dto : dtos) {
+            dto.setMatchScore(scoreByPet.get(dto.getId()));
+        }
+        return dtos;
+    }
+    
+    /**
+     * Full-text pet search over name, breed, description and personality, ranked by relevance.
+     * Until the search index is built this falls back to the SQL breed filter.
+     */
+    public Page<PetResponseDto> searchAvailablePets(String keyword, Pageable pageable) {
+        if (!searchIndexService.isReady()) {
+            Page<ShelterPet> pets = petRepository.findAvailablePetsWithFilters(
+                null, keyword, null, null, null, null, null, null, null, null, null, null, pageable);
+            return new PageImpl<>(convertToResponseDtos(pets.getContent()), pageable, pets.getTotalElements());
+        }
+        
+        SearchResult result = searchIndexService.search(keyword, Set.of(PetSearchSource.TYPE),
+            pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(convertToResponseDtos(loadInOrder(result.getIds())), pageable, result.getTotalHits());
     }
     
     public PetResponseDto updatePet(Long id, PetRequestDto requestDto) {
@@ -103,6 +227,9 @@ public class ShelterPetService {
         pet.setUpdatedAt(LocalDateTime.now());
         
         ShelterPet updatedPet = petRepository.save(pet);
+        activityService.recordPetUpdated(updatedPet);
+        eventPublisher.publishEvent(new PetChangedEvent(id));
+        eventPublisher.publishEvent(new ShelterStatsChangedEvent(pet.getShelterProfile().getId()));
         return convertToResponseDto(updatedPet);
     }
     
@@ -114,14 +241,35 @@ public class ShelterPetService {
         pet.setUpdatedAt(LocalDateTime.now());
         
         ShelterPet updatedPet = petRepository.save(pet);
+        activityService.recordPetStatusChanged(updatedPet);
+        eventPublisher.publishEvent(new PetChangedEvent(id));
+        eventPublisher.publishEvent(new ShelterStatsChangedEvent(pet.getShelterProfile().getId()));
         return convertToResponseDto(updatedPet);
     }
     
     public void deletePet(Long id) {
-        if (!petRepository.existsById(id)) {
-            throw new RuntimeException("Pet not found with id: " + id);
+        ShelterPet pet = petRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Pet not found with id: " + id));
+        petRepository.delete(pet);
+        activityService.recordPetRemoved(pet);
+        eventPublisher.publishEvent(new PetChangedEvent(id));
+        eventPublisher.publishEvent(new ShelterStatsChangedEvent(pet.getShelterProfile().getId()));
+    }
+    
+    // Keep the index order; a pet deleted since the search is simply skipped
+    private List<ShelterPet> loadInOrder(List<Long> petIds) {
+        Map<Long, ShelterPet> petsById = new HashMap<>();
+        for (ShelterPet pet : petRepository.findWithShelterByIdIn(petIds)) {
+            petsById.put(pet.getId(), pet);
         }
-        petRepository.deleteById(id);
+        List<ShelterPet> pets = new ArrayList<>(petIds.size());
+        for (Long petId : petIds) {
+            ShelterPet pet = petsById.get(petId);
+            if (pet != null) {
+                pets.add(pet);
+            }
+        }
+        return pets;
     }
     
     private void mapRequestDtoToPet(PetRequestDto requestDto, ShelterPet pet) {
@@ -154,6 +302,53 @@ public class ShelterPetService {
     }
     
     private PetResponseDto convertToResponseDto(ShelterPet pet) {
+        return convertToResponseDtos(List.of(pet)).get(0);
+    }
+    
+    /**
+     * Converts a page of pets with a fixed number of queries: shelter and shelter user come from
+     * the entity graph on the listing query, inquiry counts from two grouped aggregates.
+     */
+    private List<PetResponseDto> convertToResponseDtos(List<ShelterPet> pets) {
+        if (pets.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Set<Long> petIds = new HashSet<>();
+        Set<Long> shelterProfileIds = new HashSet<>();
+        for (ShelterPet pet : pets) {
+            if (pet.getId() != null) {
+                petIds.add(pet.getId());
+            }
+            if (pet.getShelterProfile() != null) {
+                shelterProfileIds.add(pet.getShelterProfile().getId());
+            }
+        }
+        
+        Map<Long, Long> inquiriesByPet = petIds.isEmpty() ? Map.of()
+            : toCountMap(adoptionInquiryRepository.countByPetIds(petIds));
+        Map<Long, Long> pendingByShelter = shelterProfileIds.isEmpty() ? Map.of()
+            : toCountMap(adoptionInquiryRepository.countByShelterProfileIdsAndStatus(
+                shelterProfileIds, AdoptionInquiry.InquiryStatus.NEW));
+        
+        List<PetResponseDto> dtos = new ArrayList<>(pets.size());
+        for (ShelterPet pet : pets) {
+            Long pending = pet.getShelterProfile() != null
+                ? pendingByShelter.getOrDefault(pet.getShelterProfile().getId(), 0L) : 0L;
+            dtos.add(convertToResponseDto(pet, inquiriesByPet.getOrDefault(pet.getId(), 0L), pending));
+        }
+        return dtos;
+    }
+    
+    private Map<Long, Long> toCountMap(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+    
+    private PetResponseDto convertToResponseDto(ShelterPet pet, Long totalInquiries, Long pendingInquiries) {
         PetResponseDto dto = new PetResponseDto();
         dto.setId(pet.getId());
         dto.setName(pet.getName());
@@ -190,20 +385,16 @@ public class ShelterPetService {
             shelterInfo.setShelterName(pet.getShelterProfile().getShelterName());
             shelterInfo.setContactPersonName(pet.getShelterProfile().getContactPersonName());
             shelterInfo.setAddress(pet.getShelterProfile().getAddress());
+            shelterInfo.setLatitude(pet.getShelterProfile().getLatitude());
+            shelterInfo.setLongitude(pet.getShelterProfile().getLongitude());
             shelterInfo.setImageUrl(pet.getShelterProfile().getUser().getProfileImageUrl());
             dto.setShelter(shelterInfo);
         }
         
-        // Add statistics - with null check
-        dto.setTotalInquiries(pet.getAdoptionInquiries() != null ? 
-                             (long) pet.getAdoptionInquiries().size() : 0L);
-        // Count pending inquiries by shelter profile ID
-        if (pet.getShelterProfile() != null) {
-            dto.setPendingInquiries(adoptionInquiryRepository.countByShelterProfileIdAndStatus(
-                pet.getShelterProfile().getId(), AdoptionInquiry.InquiryStatus.NEW));
-        } else {
-            dto.setPendingInquiries(0L);
-        }
+        // Inquiry statistics are precomputed per page, see convertToResponseDtos
+        dto.setTotalInquiries(totalInquiries);
+        dto.setPendingInquiries(pendingInquiries);
+        dto.setViews(pet.getViews());
         
         return dto;
     }
@@ -220,29 +411,34 @@ public class ShelterPetService {
     
     // Statistics methods for shelter dashboard
     public Long getTotalPetsByShelterProfile(Long shelterProfileId) {
-        return petRepository.countByShelterProfileId(shelterProfileId);
+        return shelterStatsService.getStats(shelterProfileId).getTotalPets();
     }
     
     public Long getPetCountByStatus(Long shelterProfileId, ShelterPet.AdoptionStatus status) {
-        return petRepository.countByShelterProfileIdAndAdoptionStatus(shelterProfileId, status);
+        return shelterStatsService.getStats(shelterProfileId).getPetCount(status);
     }
     
     public Long getTotalViewsByShelterProfile(Long shelterProfileId) {
-        return petRepository.findByShelterProfileId(shelterProfileId).stream()
-            .mapToLong(pet -> 0L) // placeholder - would need views field in ShelterPet model
-            .sum();
+        return petViewCounterService.getShelterTotalViews(shelterProfileId);
     }
     
     public Long getTotalApplicationsByShelterProfile(Long shelterProfileId) {
-        return adoptionInquiryRepository.countByShelterProfileId(shelterProfileId);
+        return shelterStatsService.getStats(shelterProfileId).getTotalInquiries();
     }
     
-    public void incrementPetViews(Long petId) {
-        ShelterPet pet = petRepository.findById(petId)
-            .orElseThrow(() -> new RuntimeException("Pet not found with id: " + petId));
-        // Would increment view count if field exists in ShelterPet model
-        // For now, just update the updatedAt field to track access
-        pet.setUpdatedAt(LocalDateTime.now());
-        petRepository.save(pet);
+    public void incrementPetViews(Long petId, String viewerKey) {
+        if (!petViewCounterService.recordView(petId, viewerKey)) {
+            throw new RuntimeException("Pet not found with id: " + petId);
+        }
+    }
+    
+    public Map<String, Long> getPetViewStats(Long petId) {
+        if (!petRepository.existsById(petId)) {
+            throw new RuntimeException("Pet not found with id: " + petId);
+        }
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("views", petViewCounterService.getPetViews(petId));
+        stats.put("uniqueViewers", petViewCounterService.getUniqueViewers(petId));
+        return stats;
     }
 }
@@ -0,0 +1,95 @@
+package TechWiz.shelter.services;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import TechWiz.common.cache.BoundedTtlCache;
+import TechWiz.shelter.dto.ShelterStatsDto;
+import TechWiz.shelter.events.ShelterStatsChangedEvent;
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.repositories.AdoptionInquiryRepository;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Per-shelter pet and inquiry histograms, each built by one GROUP BY query.
+ *
+ * Results are cached per shelter and dropped on ShelterStatsChangedEvent after commit.
+ * The TTL bounds staleness for writes made on other nodes.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ShelterStatsService {
+
+    @Autowired
+    private ShelterPetRepository petRepository;
+
+    @Autowired
+    private AdoptionInquiryRepository adoptionInquiryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.shelter-stats.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${app.shelter-stats.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private BoundedTtlCache<Long, ShelterStatsDto> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new BoundedTtlCache<>(maxEntries);
+        cache.bindTo(meterRegistry, "shelter.stats.cache");
+    }
+
+    public ShelterStatsDto getStats(Long shelterProfileId) {
+        return cache.get(shelterProfileId, this::load, Duration.ofSeconds(ttlSeconds));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatsChanged(ShelterStatsChangedEvent event) {
+        cache.invalidate(event.getShelterProfileId());
+    }
+
+    private ShelterStatsDto load(Long shelterProfileId) {
+        Map<ShelterPet.AdoptionStatus, Long> petsByStatus = new EnumMap<>(ShelterPet.AdoptionStatus.class);
+        for (ShelterPet.AdoptionStatus status : ShelterPet.AdoptionStatus.values()) {
+            petsByStatus.put(status, 0L);
+        }
+        long totalPets = 0;
+        for (Object[] row : petRepository.countByShelterProfileIdGroupByAdoptionStatus(shelterProfileId)) {
+            long count = ((Number) row[1]).longValue();
+            petsByStatus.put((ShelterPet.AdoptionStatus) row[0], count);
+            totalPets += count;
+        }
+
+        Map<AdoptionInquiry.InquiryStatus, Long> inquiriesByStatus = new EnumMap<>(AdoptionInquiry.InquiryStatus.class);
+        for (AdoptionInquiry.InquiryStatus status : AdoptionInquiry.InquiryStatus.values()) {
+            inquiriesByStatus.put(status, 0L);
+        }
+        long totalInquiries = 0;
+        List<Object[]> inquiryRows = adoptionInquiryRepository.countByShelterProfileIdGroupByStatus(shelterProfileId);
+        for (Object[] row : inquiryRows) {
+            long count = ((Number) row[1]).longValue();
+            inquiriesByStatus.put((AdoptionInquiry.InquiryStatus) row[0], count);
+            totalInquiries += count;
+        }
+
+        return new ShelterStatsDto(Collections.unmodifiableMap(petsByStatus),
+            Collections.unmodifiableMap(inquiriesByStatus), totalPets, totalInquiries);
+    }
+}
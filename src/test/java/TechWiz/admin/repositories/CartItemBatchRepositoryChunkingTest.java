@@ -0,0 +1,95 @@
+package TechWiz.admin.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.admin.models.CartItem;
+
+/**
+ * How deleteLinesNotIn splits its work into statements, checked on the bound arguments
+ */
+class CartItemBatchRepositoryChunkingTest {
+
+    private final List<String> statements = new ArrayList<>();
+    private final List<Object[]> statementArgs = new ArrayList<>();
+    private CartItemBatchRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            statements.add((String) args[0]);
+            statementArgs.add(Arrays.copyOfRange(args, 1, args.length));
+            return 0;
+        });
+        repository = new CartItemBatchRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void noUsersRunsNoStatement() {
+        repository.deleteLinesNotIn(Set.of(), List.of());
+
+        assertThat(statements).isEmpty();
+    }
+
+    @Test
+    void largeBatchIsSplitAndEveryUserAndKeptLineIsBoundOnce() {
+        Set<Long> userIds = new LinkedHashSet<>();
+        List<CartItem> keep = new ArrayList<>();
+        for (long userId = 1; userId <= 2000; userId++) {
+            userIds.add(userId);
+            keep.add(line(userId, 1L));
+            keep.add(line(userId, 2L));
+        }
+
+        repository.deleteLinesNotIn(userIds, keep);
+
+        assertThat(statements.size()).isGreaterThan(1);
+        int boundUsers = 0;
+        int boundPairs = 0;
+        for (int s = 0; s < statements.size(); s++) {
+            String sql = statements.get(s);
+            Object[] args = statementArgs.get(s);
+            String userList = sql.substring(sql.indexOf("user_id IN (") + 12, sql.indexOf(')'));
+            int users = userList.split(",").length;
+            int pairs = (args.length - users) / 2;
+            assertThat(users + pairs).isLessThanOrEqualTo(1000);
+            Set<Object> chunkUsers = new HashSet<>(Arrays.asList(args).subList(0, users));
+            for (int p = users; p < args.length; p += 2) {
+                // A kept line always travels with its own user
+                assertThat(chunkUsers).contains(args[p]);
+            }
+            boundUsers += users;
+            boundPairs += pairs;
+        }
+        assertThat(boundUsers).isEqualTo(2000);
+        assertThat(boundPairs).isEqualTo(4000);
+    }
+
+    private static CartItem line(Long userId, Long productId) {
+        CartItem item = new CartItem();
+        item.setUserId(userId);
+        item.setProductId(productId);
+        item.setQuantity(1);
+        item.setAddedAt(LocalDateTime.now());
+        return item;
+    }
+}
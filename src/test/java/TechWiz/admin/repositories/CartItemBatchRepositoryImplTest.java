@@ -0,0 +1,136 @@
+package TechWiz.admin.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.admin.models.CartItem;
+import TechWiz.support.ExternalServices;
+
+/**
+ * The multi-row cart_items statements against a real MySQL, including the contention benchmark
+ * for many writers on one (user, product) line. Creates and drops cart_items in the scratch schema
+ * and is skipped when -Dtest.mysql.url is not set, see TechWiz.support.ExternalServices.
+ */
+class CartItemBatchRepositoryImplTest {
+
+    private static final int WRITERS = 32;
+    private static final int WRITES_PER_WRITER = 200;
+
+    private JdbcTemplate jdbcTemplate;
+    private CartItemBatchRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(ExternalServices.mysqlOrSkip());
+        jdbcTemplate.execute("DROP TABLE IF EXISTS cart_items");
+        jdbcTemplate.execute("CREATE TABLE cart_items (" +
+            "id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, product_id BIGINT NOT NULL, " +
+            "quantity INT NOT NULL, product_available BIT(1) NOT NULL DEFAULT 1, " +
+            "added_at DATETIME(6) NOT NULL, updated_at DATETIME(6), " +
+            "UNIQUE KEY uk_cart_user_product (user_id, product_id))");
+        repository = new CartItemBatchRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (jdbcTemplate != null) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS cart_items");
+        }
+    }
+
+    @Test
+    void upsertOverwritesQuantityOfAnExistingLine() {
+        repository.upsertQuantities(List.of(line(1L, 10L, 2)));
+        repository.upsertQuantities(List.of(line(1L, 10L, 5)));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM cart_items", Integer.class)).isEqualTo(5);
+    }
+
+    @Test
+    void deleteAcrossChunksKeepsEveryKeptLine() {
+        // 1500 users with two lines each: keep one per user, so the delete needs several statements
+        List<CartItem> all = new ArrayList<>();
+        List<CartItem> keep = new ArrayList<>();
+        for (long userId = 1; userId <= 1500; userId++) {
+            all.add(line(userId, 1L, 1));
+            all.add(line(userId, 2L, 1));
+            keep.add(line(userId, 1L, 1));
+        }
+        repository.upsertQuantities(all);
+        Set<Long> userIds = LongStream.rangeClosed(1, 1500).boxed().collect(Collectors.toSet());
+
+        int deleted = repository.deleteLinesNotIn(userIds, keep);
+
+        assertThat(deleted).isEqualTo(1500);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE product_id = 1", Integer.class))
+            .isEqualTo(1500);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE product_id = 2", Integer.class))
+            .isZero();
+    }
+
+    @Test
+    void deleteWithNothingKeptEmptiesOnlyTheGivenUsers() {
+        repository.upsertQuantities(List.of(line(1L, 10L, 1), line(2L, 10L, 1)));
+
+        repository.deleteLinesNotIn(Set.of(1L), List.of());
+
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM cart_items", Long.class)).containsExactly(2L);
+    }
+
+    @Test
+    void concurrentUpsertsOfOneLineLeaveOneRow() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 1; i <= WRITES_PER_WRITER; i++) {
+                    repository.upsertQuantities(List.of(line(1L, 10L, i)));
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began));
+        pool.shutdown();
+
+        System.out.println("cart_items upsert, " + WRITERS + " writers on one line: " +
+            (WRITERS * WRITES_PER_WRITER * 1000L / elapsedMillis) + " statements/s");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM cart_items", Integer.class))
+            .isBetween(1, WRITES_PER_WRITER);
+    }
+
+    private static CartItem line(Long userId, Long productId, int quantity) {
+        CartItem item = new CartItem();
+        item.setUserId(userId);
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setAddedAt(LocalDateTime.now());
+        return item;
+    }
+}
@@ -0,0 +1,72 @@
+package TechWiz.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.admin.repositories.CartItemRepository;
+import TechWiz.admin.repositories.ProductRepository;
+
+class CartAvailabilityServiceTest {
+
+    private CartStore cartStore;
+    private CartItemRepository cartItemRepository;
+    private ProductRepository productRepository;
+    private CartAvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        cartStore = mock(CartStore.class);
+        cartItemRepository = mock(CartItemRepository.class);
+        productRepository = mock(ProductRepository.class);
+        service = new CartAvailabilityService();
+        ReflectionTestUtils.setField(service, "cartStore", cartStore);
+        ReflectionTestUtils.setField(service, "cartService", mock(CartService.class));
+        ReflectionTestUtils.setField(service, "cartItemRepository", cartItemRepository);
+        ReflectionTestUtils.setField(service, "productRepository", productRepository);
+    }
+
+    @Test
+    void deletedProductStaysFlaggedOnlyWhileACartLineRefersToIt() {
+        when(productRepository.findUnavailableIds()).thenReturn(List.of(7L));
+        when(cartStore.getUnavailableProducts()).thenReturn(new HashSet<>(Set.of(1L, 2L, 7L)));
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(List.of(7L));
+        when(cartItemRepository.findReferencedProductIds(anyCollection())).thenReturn(List.of(1L));
+
+        service.reconcile();
+
+        assertThat(replacedSet()).containsExactlyInAnyOrder(7L, 1L);
+    }
+
+    @Test
+    void nothingDeletedSkipsTheCartLineLookup() {
+        when(productRepository.findUnavailableIds()).thenReturn(List.of(7L));
+        when(cartStore.getUnavailableProducts()).thenReturn(new HashSet<>(Set.of(7L)));
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(List.of(7L));
+
+        service.reconcile();
+
+        assertThat(replacedSet()).containsExactly(7L);
+        verify(cartItemRepository, never()).findReferencedProductIds(anyCollection());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Long> replacedSet() {
+        ArgumentCaptor<Collection<Long>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(cartStore).replaceUnavailableProducts(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,84 @@
+package TechWiz.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.admin.events.ProductPriceChangedEvent;
+import TechWiz.admin.models.Product;
+import TechWiz.admin.models.dto.CartView;
+import TechWiz.admin.repositories.ProductRepository;
+import TechWiz.admin.services.CartStore.CartLine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CartServicePricingTest {
+
+    private CartStore cartStore;
+    private Product product;
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartStore = mock(CartStore.class);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        product = new Product();
+        product.setId(5L);
+        product.setName("Chew Toy");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setIsActive(true);
+        product.setIsAvailable(true);
+        // A fresh copy per query, as JPA would return after the admin's update committed
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> List.of(copy(product)));
+
+        cartService = new CartService();
+        ReflectionTestUtils.setField(cartService, "cartStore", cartStore);
+        ReflectionTestUtils.setField(cartService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(cartService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cartService, "productCacheMaxEntries", 100);
+        ReflectionTestUtils.setField(cartService, "productCacheTtlSeconds", 300L);
+        cartService.init();
+    }
+
+    @Test
+    void linesAndTotalUseTheCurrentProductPrice() {
+        when(cartStore.getLines(1L)).thenReturn(List.of(new CartLine(5L, 2, LocalDateTime.now(), true)));
+
+        CartView cart = cartService.getCartView(1L);
+
+        assertThat(cart.getItems().get(0).getPrice()).isEqualByComparingTo("10.00");
+        assertThat(cart.getItems().get(0).getSubtotal()).isEqualByComparingTo("20.00");
+        assertThat(cart.getTotal()).isEqualByComparingTo("20.00");
+    }
+
+    @Test
+    void priceChangeReachesLiveCartsOnceTheSnapshotIsEvicted() {
+        when(cartStore.getLines(1L)).thenReturn(List.of(new CartLine(5L, 2, LocalDateTime.now(), true)));
+        cartService.getCartView(1L);
+
+        product.setPrice(new BigDecimal("12.50"));
+        cartService.onProductPriceChanged(new ProductPriceChangedEvent(5L));
+        CartView cart = cartService.getCartView(1L);
+
+        assertThat(cart.getItems().get(0).getPrice()).isEqualByComparingTo("12.50");
+        assertThat(cart.getTotal()).isEqualByComparingTo("25.00");
+    }
+
+    private static Product copy(Product source) {
+        Product product = new Product();
+        product.setId(source.getId());
+        product.setName(source.getName());
+        product.setPrice(source.getPrice());
+        product.setIsActive(source.getIsActive());
+        product.setIsAvailable(source.getIsAvailable());
+        return product;
+    }
+}
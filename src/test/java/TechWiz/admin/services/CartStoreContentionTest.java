@@ -0,0 +1,99 @@
+package TechWiz.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import TechWiz.admin.models.dto.AddToCartRequest;
+import TechWiz.admin.repositories.CartItemRepository;
+import TechWiz.admin.repositories.ProductRepository;
+import TechWiz.admin.services.CartStore.CartLine;
+import TechWiz.support.ExternalServices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Contention benchmark for the live add path: many threads adding the same product to one cart.
+ * Every accepted increment must land exactly once and the line must stop at its cap. Needs Redis
+ * and is skipped without it, see TechWiz.support.ExternalServices.
+ */
+class CartStoreContentionTest {
+
+    private static final int THREADS = 64;
+    private static final int ADDS_PER_THREAD = 500;
+
+    private LettuceConnectionFactory connectionFactory;
+    private CartStore cartStore;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = ExternalServices.redisOrSkip();
+        ExternalServices.flush(connectionFactory);
+        CartItemRepository cartItemRepository = mock(CartItemRepository.class);
+        when(cartItemRepository.findCartLinesByUserId(anyLong())).thenReturn(List.of());
+
+        cartStore = new CartStore(mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cartStore, "redisTemplate", ExternalServices.redisTemplate(connectionFactory));
+        ReflectionTestUtils.setField(cartStore, "cartItemRepository", cartItemRepository);
+        ReflectionTestUtils.setField(cartStore, "productRepository", mock(ProductRepository.class));
+        ReflectionTestUtils.setField(cartStore, "ttlDays", 1L);
+        ReflectionTestUtils.setField(cartStore, "flushBatchSize", 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connectionFactory != null) {
+            ExternalServices.flush(connectionFactory);
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    void concurrentAddsOfOneProductAreNeverLostAndStopAtTheCap() throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> adders = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            adders.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    if (cartStore.add(1L, 10L, 1) != CartStore.OVER_LIMIT) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> adder : adders) {
+            adder.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began));
+        pool.shutdown();
+
+        System.out.println("cart add, " + THREADS + " threads on one line: " +
+            (THREADS * ADDS_PER_THREAD * 1000L / elapsedMillis) + " adds/s");
+        List<CartLine> lines = cartStore.getLines(1L);
+        assertThat(lines).hasSize(1);
+        assertThat(accepted.get()).isEqualTo(AddToCartRequest.MAX_QUANTITY);
+        assertThat(lines.get(0).quantity()).isEqualTo(AddToCartRequest.MAX_QUANTITY);
+    }
+}
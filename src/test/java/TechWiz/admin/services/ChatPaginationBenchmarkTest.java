@@ -0,0 +1,140 @@
+package TechWiz.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import TechWiz.support.ExternalServices;
+
+/**
+ * Offset against keyset latency for a user's message feed at pages 1, 100 and 10,000, on a
+ * copy of chat_messages with the entity's indexes. The offset query is the old
+ * findMessagesForUser; the keyset one is the two index-ordered seeks ChatService merges.
+ * Needs MySQL, see ExternalServices.
+ */
+@Tag("benchmark")
+class ChatPaginationBenchmarkTest {
+
+    private static final String TABLE = "chat_messages_benchmark";
+    private static final long USER = 1;
+    private static final int PAGE_SIZE = 20;
+    private static final int ROWS = 10_000 * PAGE_SIZE + 1_000;
+    private static final int RUNS = 7;
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void seed() {
+        jdbc = new JdbcTemplate(ExternalServices.mysqlOrSkip());
+        jdbc.execute("DROP TABLE IF EXISTS " + TABLE);
+        jdbc.execute("CREATE TABLE " + TABLE + " (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+            "sender_id BIGINT NOT NULL, receiver_id BIGINT, message TEXT, created_at DATETIME(6) NOT NULL, " +
+            "INDEX idx_chat_sender_receiver_created (sender_id, receiver_id, created_at, id), " +
+            "INDEX idx_chat_sender_created (sender_id, created_at, id), " +
+            "INDEX idx_chat_receiver_created (receiver_id, created_at, id))");
+
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        List<Object[]> batch = new ArrayList<>(5_000);
+        for (int i = 0; i < ROWS; i++) {
+            // The user's own traffic, half sent and half received, among other users' messages
+            long other = 2 + (i % 500);
+            boolean sent = i % 2 == 0;
+            batch.add(new Object[] {sent ? USER : other, sent ? other : USER, "message " + i,
+                Timestamp.valueOf(start.plusSeconds(i))});
+            batch.add(new Object[] {other, other + 1, "noise " + i, Timestamp.valueOf(start.plusSeconds(i))});
+            if (batch.size() >= 5_000) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+        jdbc.execute("ANALYZE TABLE " + TABLE);
+    }
+
+    @AfterAll
+    static void drop() {
+        if (jdbc != null) {
+            jdbc.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+    }
+
+    @Test
+    void keysetStaysFlatWhileOffsetGrowsWithDepth() {
+        long[] offsetNanos = new long[3];
+        long[] keysetNanos = new long[3];
+        int[] pages = {1, 100, 10_000};
+        for (int p = 0; p < pages.length; p++) {
+            int page = pages[p];
+            offsetNanos[p] = median(() -> offsetPage(page));
+            Object[] cursor = page == 1 ? null : cursorBefore(page);
+            keysetNanos[p] = median(() -> keysetPage(cursor));
+            System.out.printf("page %,6d: offset %8.2f ms, keyset %8.2f ms%n",
+                page, offsetNanos[p] / 1e6, keysetNanos[p] / 1e6);
+        }
+
+        // The same rows either way, so only the cost differs
+        assertThat(keysetPage(cursorBefore(100))).isEqualTo(offsetPage(100));
+        assertThat(keysetNanos[2]).isLessThan(offsetNanos[2]);
+    }
+
+    private static List<Long> offsetPage(int page) {
+        return jdbc.queryForList("SELECT id FROM " + TABLE + " WHERE sender_id = ? OR receiver_id = ? " +
+            "ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?", Long.class,
+            USER, USER, PAGE_SIZE, (page - 1) * PAGE_SIZE);
+    }
+
+    private static List<Long> keysetPage(Object[] cursor) {
+        String seek = cursor == null ? "" : " AND (created_at < ? OR (created_at = ? AND id < ?))";
+        Object[] args = cursor == null
+            ? new Object[] {USER, PAGE_SIZE}
+            : new Object[] {USER, cursor[0], cursor[0], cursor[1], PAGE_SIZE};
+        List<Object[]> rows = new ArrayList<>();
+        for (String column : new String[] {"sender_id", "receiver_id"}) {
+            jdbc.query("SELECT id, created_at FROM " + TABLE + " WHERE " + column + " = ?" + seek +
+                " ORDER BY created_at DESC, id DESC LIMIT ?",
+                rs -> {
+                    rows.add(new Object[] {rs.getLong(1), rs.getTimestamp(2)});
+                }, args);
+        }
+        rows.sort((a, b) -> {
+            int byTime = ((Timestamp) b[1]).compareTo((Timestamp) a[1]);
+            return byTime != 0 ? byTime : Long.compare((Long) b[0], (Long) a[0]);
+        });
+        return rows.stream().limit(PAGE_SIZE).map(row -> (Long) row[0]).toList();
+    }
+
+    // The (createdAt, id) of the last row of the previous page, as a nextCursor would carry it
+    private static Object[] cursorBefore(int page) {
+        return jdbc.queryForObject("SELECT created_at, id FROM " + TABLE +
+            " WHERE sender_id = ? OR receiver_id = ? ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?",
+            (rs, n) -> new Object[] {rs.getTimestamp(1), rs.getLong(2)},
+            USER, USER, (page - 1) * PAGE_SIZE - 1);
+    }
+
+    private static long median(Runnable query) {
+        query.run();
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+
+    private static void insert(List<Object[]> batch) {
+        jdbc.batchUpdate("INSERT INTO " + TABLE + " (sender_id, receiver_id, message, created_at) VALUES (?,?,?,?)",
+            batch);
+        batch.clear();
+    }
+}
@@ -0,0 +1,66 @@
+package TechWiz.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import TechWiz.admin.models.ChatMessage;
+
+class ChatServiceMergeTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Test
+    void interleavesBothSeeksNewestFirst() {
+        List<ChatMessage> sent = List.of(message(5, T.plusMinutes(5)), message(2, T.plusMinutes(2)));
+        List<ChatMessage> received = List.of(message(4, T.plusMinutes(4)), message(3, T.plusMinutes(3)),
+            message(1, T.plusMinutes(1)));
+
+        assertThat(ids(ChatService.mergeNewestFirst(sent, received, 10))).containsExactly(5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void stopsAtMax() {
+        List<ChatMessage> sent = List.of(message(4, T.plusMinutes(4)), message(2, T.plusMinutes(2)));
+        List<ChatMessage> received = List.of(message(3, T.plusMinutes(3)), message(1, T.plusMinutes(1)));
+
+        assertThat(ids(ChatService.mergeNewestFirst(sent, received, 3))).containsExactly(4L, 3L, 2L);
+    }
+
+    @Test
+    void breaksCreatedAtTiesById() {
+        List<ChatMessage> sent = List.of(message(7, T), message(3, T));
+        List<ChatMessage> received = List.of(message(9, T), message(5, T));
+
+        assertThat(ids(ChatService.mergeNewestFirst(sent, received, 10))).containsExactly(9L, 7L, 5L, 3L);
+    }
+
+    @Test
+    void keepsMessageToSelfOnce() {
+        ChatMessage toSelf = message(2, T.plusMinutes(2));
+        List<ChatMessage> sent = List.of(message(3, T.plusMinutes(3)), toSelf);
+        List<ChatMessage> received = List.of(toSelf, message(1, T.plusMinutes(1)));
+
+        assertThat(ids(ChatService.mergeNewestFirst(sent, received, 10))).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void handlesEmptySides() {
+        assertThat(ChatService.mergeNewestFirst(List.of(), List.of(), 5)).isEmpty();
+        assertThat(ids(ChatService.mergeNewestFirst(List.of(), List.of(message(1, T)), 5))).containsExactly(1L);
+    }
+
+    private static ChatMessage message(long id, LocalDateTime createdAt) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setCreatedAt(createdAt);
+        return message;
+    }
+
+    private static List<Long> ids(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getId).toList();
+    }
+}
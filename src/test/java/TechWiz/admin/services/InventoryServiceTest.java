@@ -0,0 +1,337 @@
+package TechWiz.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import TechWiz.admin.events.StockLevelChangedEvent;
+import TechWiz.admin.models.dto.AddToCartRequest;
+import TechWiz.admin.repositories.ProductRepository;
+import TechWiz.admin.services.InventoryService.Reservation;
+import TechWiz.support.ExternalServices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * InventoryService's scripts against a real Redis, with products.stock_quantity modelled in memory:
+ * reserve, commit, release and expiry, the load/reconcile race, and 5000 concurrent checkouts that
+ * must never oversell. Skipped without Redis, see TechWiz.support.ExternalServices.
+ */
+class InventoryServiceTest {
+
+    private static final Long PRODUCT = 5L;
+    private static final Long USER = 1L;
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+    private ProductRepository productRepository;
+    // productId -> {stockQuantity or null, stockSyncedSeq}, standing in for the products table
+    private final Map<Long, Object[]> rows = new ConcurrentHashMap<>();
+    private ApplicationEventPublisher eventPublisher;
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = ExternalServices.redisOrSkip();
+        ExternalServices.flush(connectionFactory);
+        redisTemplate = ExternalServices.redisTemplate(connectionFactory);
+
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findStockLevels(anyCollection())).thenAnswer(invocation -> {
+            List<Object[]> levels = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                Object[] row = rows.get(id);
+                if (row != null) {
+                    levels.add(new Object[] {id, row[0], row[1]});
+                }
+            }
+            return levels;
+        });
+        when(productRepository.findMaxStockSyncedSeq()).thenAnswer(invocation ->
+            rows.values().stream().mapToLong(row -> (Long) row[1]).max().orElse(0L));
+        when(productRepository.applySoldStock(anyLong(), anyInt(), anyLong())).thenAnswer(invocation -> {
+            Object[] row = rows.get(invocation.<Long>getArgument(0));
+            int sold = invocation.getArgument(1);
+            long seq = invocation.getArgument(2);
+            synchronized (row) {
+                if (row[0] == null || (Long) row[1] >= seq) {
+                    return 0;
+                }
+                row[0] = Math.max(0, (Integer) row[0] - sold);
+                row[1] = seq;
+            }
+            return 1;
+        });
+        when(productRepository.updateStockQuantity(anyLong(), any())).thenAnswer(invocation -> {
+            Object[] row = rows.get(invocation.<Long>getArgument(0));
+            if (row == null) {
+                return 0;
+            }
+            row[0] = invocation.getArgument(1);
+            return 1;
+        });
+
+        inventoryService = new InventoryService(mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(inventoryService, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(inventoryService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(inventoryService, "productService", mock(ProductService.class));
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        ReflectionTestUtils.setField(inventoryService, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(inventoryService, "holdTtlSeconds", 600L);
+        ReflectionTestUtils.setField(inventoryService, "sweepBatchSize", 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connectionFactory != null) {
+            ExternalServices.flush(connectionFactory);
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    void rebuildReadingARowFromBeforeAFinishedBatchReadsItAgain() {
+        rows.put(PRODUCT, new Object[] {10, 0L});
+        Reservation reservation = inventoryService.reserve(USER, Map.of(PRODUCT, 3));
+        assertThat(inventoryService.commit(USER, reservation.reservationId())).isTrue();
+        redisTemplate.delete("stock:" + PRODUCT);
+
+        // The first read returns the row as it was, and the batch is applied and finished before the rebuild runs
+        AtomicBoolean reconciled = new AtomicBoolean();
+        Object[] before = rows.get(PRODUCT).clone();
+        when(productRepository.findStockLevels(anyCollection())).thenAnswer(invocation -> {
+            if (reconciled.compareAndSet(false, true)) {
+                inventoryService.reconcile();
+                return List.<Object[]>of(new Object[] {PRODUCT, before[0], before[1]});
+            }
+            Object[] row = rows.get(PRODUCT);
+            return List.<Object[]>of(new Object[] {PRODUCT, row[0], row[1]});
+        });
+
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(7);
+        assertThat(rows.get(PRODUCT)[0]).isEqualTo(7);
+    }
+
+    @Test
+    void committingAnExpiredHoldGivesItsUnitsBackAndAnnouncesTheRestock() throws Exception {
+        rows.put(PRODUCT, new Object[] {2, 0L});
+        ReflectionTestUtils.setField(inventoryService, "holdTtlSeconds", 0L);
+        Reservation reservation = inventoryService.reserve(USER, Map.of(PRODUCT, 2));
+        clearInvocations(eventPublisher);
+        Thread.sleep(5);
+
+        assertThat(inventoryService.commit(USER, reservation.reservationId())).isFalse();
+
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(2);
+        ArgumentCaptor<StockLevelChangedEvent> event = ArgumentCaptor.forClass(StockLevelChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getProductId()).isEqualTo(PRODUCT);
+    }
+
+    @Test
+    void aNewReservationReplacesTheUsersPreviousHold() {
+        rows.put(PRODUCT, new Object[] {5, 0L});
+        Reservation first = inventoryService.reserve(USER, Map.of(PRODUCT, 3));
+
+        // The first hold's 3 units count as available to the same user
+        Reservation second = inventoryService.reserve(USER, Map.of(PRODUCT, 4));
+
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(1);
+        assertThat(inventoryService.commit(USER, first.reservationId())).isFalse();
+        assertThat(inventoryService.commit(USER, second.reservationId())).isTrue();
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(1);
+    }
+
+    @Test
+    void holdsOfDifferentUsersDoNotReplaceEachOther() {
+        rows.put(PRODUCT, new Object[] {5, 0L});
+        inventoryService.reserve(USER, Map.of(PRODUCT, 3));
+
+        assertThatThrownBy(() -> inventoryService.reserve(2L, Map.of(PRODUCT, 3)))
+            .hasMessageContaining("Insufficient stock");
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(2);
+    }
+
+    @Test
+    void releasedHoldIsNotCountedForTheUsersNextReservation() {
+        rows.put(PRODUCT, new Object[] {5, 0L});
+        Reservation first = inventoryService.reserve(USER, Map.of(PRODUCT, 3));
+        assertThat(inventoryService.release(USER, first.reservationId())).isTrue();
+
+        inventoryService.reserve(USER, Map.of(PRODUCT, 5));
+
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isZero();
+    }
+
+    @Test
+    void quantityOverTheLineCapIsRejected() {
+        rows.put(PRODUCT, new Object[] {1000, 0L});
+
+        assertThatThrownBy(() -> inventoryService.reserve(USER, Map.of(PRODUCT, AddToCartRequest.MAX_QUANTITY + 1)))
+            .hasMessageContaining("Invalid quantity");
+    }
+
+    @Test
+    void reservationTakesEveryProductOrNone() {
+        rows.put(PRODUCT, new Object[] {5, 0L});
+        rows.put(6L, new Object[] {1, 0L});
+
+        assertThatThrownBy(() -> inventoryService.reserve(USER, Map.of(PRODUCT, 2, 6L, 2)))
+            .hasMessageContaining("Insufficient stock for product 6");
+
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(5);
+        assertThat(inventoryService.getAvailableStock(6L)).isEqualTo(1);
+    }
+
+    @Test
+    void untrackedProductIsNeverShort() {
+        rows.put(PRODUCT, new Object[] {null, 0L});
+
+        Reservation reservation = inventoryService.reserve(USER, Map.of(PRODUCT, AddToCartRequest.MAX_QUANTITY));
+
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isNull();
+        assertThat(inventoryService.commit(USER, reservation.reservationId())).isTrue();
+    }
+
+    @Test
+    void committedSaleIsDeductedFromTheRowByReconcile() {
+        rows.put(PRODUCT, new Object[] {5, 0L});
+        Reservation reservation = inventoryService.reserve(USER, Map.of(PRODUCT, 2));
+
+        assertThat(inventoryService.commit(USER, reservation.reservationId())).isTrue();
+        assertThat(inventoryService.commit(USER, reservation.reservationId())).isFalse();
+        inventoryService.reconcile();
+
+        assertThat(rows.get(PRODUCT)[0]).isEqualTo(3);
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(3);
+    }
+
+    @Test
+    void releaseGivesUnitsBackOnceAndOnlyToTheOwner() {
+        rows.put(PRODUCT, new Object[] {5, 0L});
+        Reservation reservation = inventoryService.reserve(USER, Map.of(PRODUCT, 5));
+
+        assertThatThrownBy(() -> inventoryService.release(2L, reservation.reservationId()))
+            .hasMessageContaining("does not belong");
+        assertThat(inventoryService.release(USER, reservation.reservationId())).isTrue();
+        assertThat(inventoryService.release(USER, reservation.reservationId())).isFalse();
+
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(5);
+    }
+
+    @Test
+    void sweepGivesBackExpiredHoldsOnly() throws Exception {
+        rows.put(PRODUCT, new Object[] {5, 0L});
+        ReflectionTestUtils.setField(inventoryService, "holdTtlSeconds", 0L);
+        Reservation expired = inventoryService.reserve(USER, Map.of(PRODUCT, 2));
+        ReflectionTestUtils.setField(inventoryService, "holdTtlSeconds", 600L);
+        inventoryService.reserve(2L, Map.of(PRODUCT, 1));
+        Thread.sleep(5);
+
+        inventoryService.releaseExpired();
+
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(4);
+        assertThat(inventoryService.commit(USER, expired.reservationId())).isFalse();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        int stock = 500;
+        int checkouts = 5000;
+        rows.put(PRODUCT, new Object[] {stock, 0L});
+        rows.put(6L, new Object[] {stock / 2, 0L});
+        AtomicInteger soldA = new AtomicInteger();
+        AtomicInteger soldB = new AtomicInteger();
+        AtomicInteger negativeReads = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+
+        // Reconcile, the sweep and stock reads run alongside checkout, as the scheduled jobs would
+        Thread background = new Thread(() -> {
+            while (!done.get()) {
+                inventoryService.reconcile();
+                inventoryService.releaseExpired();
+                Integer a = inventoryService.getAvailableStock(PRODUCT);
+                Integer b = inventoryService.getAvailableStock(6L);
+                if ((a != null && a < 0) || (b != null && b < 0)) {
+                    negativeReads.incrementAndGet();
+                }
+            }
+        });
+        background.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < checkouts; i++) {
+            long userId = 1000 + i;
+            boolean both = i % 2 == 0;
+            boolean abandon = i % 5 == 0;
+            futures.add(pool.submit(() -> {
+                start.await();
+                Reservation reservation;
+                try {
+                    reservation = inventoryService.reserve(userId, both ? Map.of(PRODUCT, 1, 6L, 1) : Map.of(PRODUCT, 1));
+                } catch (RuntimeException e) {
+                    return null;
+                }
+                if (abandon) {
+                    inventoryService.release(userId, reservation.reservationId());
+                } else if (inventoryService.commit(userId, reservation.reservationId())) {
+                    soldA.incrementAndGet();
+                    if (both) {
+                        soldB.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        done.set(true);
+        background.join();
+        // A batch left claimed by the last background run is finished before the new one is claimed
+        inventoryService.reconcile();
+        inventoryService.reconcile();
+
+        // No holds are left, so what was not sold is still on hand, in MySQL and in Redis alike
+        assertThat(negativeReads.get()).isZero();
+        assertThat(soldA.get()).isPositive().isLessThanOrEqualTo(stock);
+        assertThat(soldB.get()).isPositive().isLessThanOrEqualTo(stock / 2);
+        assertThat(rows.get(PRODUCT)[0]).isEqualTo(stock - soldA.get());
+        assertThat(rows.get(6L)[0]).isEqualTo(stock / 2 - soldB.get());
+        assertThat(inventoryService.getAvailableStock(PRODUCT)).isEqualTo(stock - soldA.get());
+        assertThat(inventoryService.getAvailableStock(6L)).isEqualTo(stock / 2 - soldB.get());
+    }
+}
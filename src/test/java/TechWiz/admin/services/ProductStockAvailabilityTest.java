@@ -0,0 +1,91 @@
+package TechWiz.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.admin.models.Product;
+import TechWiz.admin.models.dto.UpdateProductStatusRequest;
+import TechWiz.admin.repositories.ProductRepository;
+import TechWiz.common.search.SearchIndexService;
+
+class ProductStockAvailabilityTest {
+
+    private ProductRepository productRepository;
+    private Product product;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        product = new Product();
+        product.setId(5L);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setIsActive(true);
+        product.setIsAvailable(true);
+        product.setStockQuantity(3);
+        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        productService = new ProductService();
+        ReflectionTestUtils.setField(productService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(productService, "searchIndexService", mock(SearchIndexService.class));
+        ReflectionTestUtils.setField(productService, "eventPublisher", mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void sellingOutSwitchesOffAndRestockSwitchesBackOn() {
+        productService.applyStockAvailability(5L, false);
+        assertThat(product.getIsAvailable()).isFalse();
+        assertThat(product.getSoldOut()).isTrue();
+
+        productService.applyStockAvailability(5L, true);
+        assertThat(product.getIsAvailable()).isTrue();
+        assertThat(product.getSoldOut()).isFalse();
+    }
+
+    @Test
+    void restockLeavesAProductTheAdminSwitchedOffAlone() {
+        UpdateProductStatusRequest request = new UpdateProductStatusRequest();
+        request.setIsAvailable(false);
+        productService.updateProductStatus(5L, request, 99L);
+
+        productService.applyStockAvailability(5L, true);
+
+        assertThat(product.getIsAvailable()).isFalse();
+        assertThat(product.getSoldOut()).isFalse();
+    }
+
+    @Test
+    void adminSwitchingOffASoldOutProductIsNotUndoneByRestock() {
+        productService.applyStockAvailability(5L, false);
+        UpdateProductStatusRequest request = new UpdateProductStatusRequest();
+        request.setIsAvailable(false);
+        productService.updateProductStatus(5L, request, 99L);
+
+        productService.applyStockAvailability(5L, true);
+
+        assertThat(product.getIsAvailable()).isFalse();
+    }
+
+    @Test
+    void stoppingStockTrackingBringsASoldOutProductBack() {
+        productService.applyStockAvailability(5L, false);
+        product.setStockQuantity(null);
+
+        // An untracked product's live count reads as in stock
+        productService.applyStockAvailability(5L, true);
+
+        assertThat(product.getIsAvailable()).isTrue();
+        assertThat(product.getSoldOut()).isFalse();
+    }
+}
@@ -0,0 +1,92 @@
+package TechWiz.auths.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.auths.models.Role;
+import TechWiz.auths.models.User;
+import TechWiz.auths.models.dto.ApiResponse;
+import TechWiz.auths.models.dto.RegisterRequest;
+import TechWiz.auths.repositories.PetOwnerProfileRepository;
+import TechWiz.auths.repositories.UserRepository;
+import TechWiz.common.ratelimit.RateLimitDecision;
+
+class AuthServiceRegisterTest {
+
+    private UserRepository userRepository;
+    private EmailService emailService;
+    private AuthRateLimitService authRateLimitService;
+    private AuthService authService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        emailService = mock(EmailService.class);
+        authRateLimitService = mock(AuthRateLimitService.class);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashed");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Real OtpService so the limit check it performs is the one under test
+        OtpService otpService = new OtpService();
+        ReflectionTestUtils.setField(otpService, "authRateLimitService", authRateLimitService);
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        ReflectionTestUtils.setField(otpService, "redisTemplate", redisTemplate);
+
+        authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authService, "petOwnerProfileRepository", mock(PetOwnerProfileRepository.class));
+        ReflectionTestUtils.setField(authService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(authService, "emailService", emailService);
+        ReflectionTestUtils.setField(authService, "otpService", otpService);
+        ReflectionTestUtils.setField(authService, "authRateLimitService", authRateLimitService);
+    }
+
+    @Test
+    void rateLimitedRegistrationSavesNoUser() {
+        when(authRateLimitService.checkOtpIssuance("new@petcare.test")).thenReturn(new RateLimitDecision(false, 30_000));
+
+        ApiResponse response = authService.register(request("new@petcare.test"));
+
+        assertThat(response.getSuccess()).isFalse();
+        assertThat(response.getMessage()).contains("Too many OTP requests");
+        verify(userRepository, never()).save(any(User.class));
+        verify(emailService, never()).sendOtpEmail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void allowedRegistrationSavesTheUserAndMailsTheOtp() {
+        when(authRateLimitService.checkOtpIssuance("new@petcare.test")).thenReturn(RateLimitDecision.ALLOWED);
+
+        ApiResponse response = authService.register(request("new@petcare.test"));
+
+        assertThat(response.getSuccess()).isTrue();
+        verify(userRepository).save(any(User.class));
+        verify(emailService).sendOtpEmail(eq("new@petcare.test"), eq("New Adopter"), anyString());
+    }
+
+    private RegisterRequest request(String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword("secret-password");
+        request.setFullName("New Adopter");
+        request.setPhoneNumber("0123456789");
+        request.setRole(Role.PET_OWNER);
+        return request;
+    }
+}
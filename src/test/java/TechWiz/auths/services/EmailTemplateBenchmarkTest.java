@@ -0,0 +1,98 @@
+package TechWiz.auths.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * OTP mail bodies per second with the text-block formatting EmailService used before, against
+ * EmailTemplateEngine. A timed loop after warm-up rather than JMH, which is not among the
+ * build's dependencies; numbers are indicative, the assertion only checks the 10k/s target.
+ */
+@Tag("benchmark")
+class EmailTemplateBenchmarkTest {
+
+    private static final int MAILS = 10_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void compiledRendererKeepsUpWithTenThousandOtpMailsPerSecond() {
+        EmailTemplateEngine engine = new EmailTemplateEngine();
+        engine.init();
+
+        long formatted = bestOf(i -> formattedOtpBody("Adopter " + i, otp(i)).length);
+        long compiled = bestOf(i -> engine.render(EmailTemplateEngine.OTP,
+            Map.of("fullName", "Adopter " + i, "otpCode", otp(i))).length);
+
+        System.out.printf("%,d OTP bodies: String.formatted %.1f ms, compiled %.1f ms%n",
+            MAILS, formatted / 1e6, compiled / 1e6);
+        assertThat(compiled).isLessThan(1_000_000_000L);
+    }
+
+    // Fastest of several rounds of MAILS renders, after one warm-up round
+    private static long bestOf(Render render) {
+        long best = Long.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < MAILS; i++) {
+                sink += render.bodyLength(i);
+            }
+            long elapsed = System.nanoTime() - started;
+            if (round > 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        assertThat(sink).isPositive();
+        return best;
+    }
+
+    private static String otp(int i) {
+        return String.format("%06d", i % 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface Render {
+        int bodyLength(int i);
+    }
+
+    // EmailService.buildOtpEmailTemplate before the template engine, encoded as it was for sending
+    private static byte[] formattedOtpBody(String fullName, String otpCode) {
+        return """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <style>
+                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
+                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
+                    .header { background-color: #4CAF50; color: white; padding: 20px; text-align: center; }
+                    .content { padding: 20px; background-color: #f9f9f9; }
+                    .otp-code { font-size: 24px; font-weight: bold; color: #4CAF50; text-align: center; margin: 20px 0; }
+                    .footer { text-align: center; padding: 20px; color: #666; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <div class="header">
+                        <h1>PetCare Email Verification</h1>
+                    </div>
+                    <div class="content">
+                        <p>Hello %s,</p>
+                        <p>Thank you for registering with PetCare! To complete your account verification, please use the following OTP code:</p>
+                        <div class="otp-code">%s</div>
+                        <p>This OTP will expire in 10 minutes for security reasons.</p>
+                        <p>If you didn't create an account with PetCare, please ignore this email.</p>
+                    </div>
+                    <div class="footer">
+                        <p>&copy; 2025 PetCare. All rights reserved.</p>
+                    </div>
+                </div>
+            </body>
+            </html>
+            """.formatted(fullName, otpCode).getBytes(StandardCharsets.UTF_8);
+    }
+}
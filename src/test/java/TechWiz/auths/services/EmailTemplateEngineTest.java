@@ -0,0 +1,96 @@
+package TechWiz.auths.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import TechWiz.auths.services.EmailTemplateEngine.CompiledTemplate;
+
+class EmailTemplateEngineTest {
+
+    private EmailTemplateEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new EmailTemplateEngine();
+        engine.init();
+    }
+
+    @Test
+    void rendersPlaceholdersBetweenLiterals() {
+        CompiledTemplate template = EmailTemplateEngine.compile("Hi {{ name }}, code {{code}}!");
+
+        assertThat(text(template.render(Map.of("name", "Ana", "code", "42")))).isEqualTo("Hi Ana, code 42!");
+    }
+
+    @Test
+    void escapesValuesButNotLiterals() {
+        CompiledTemplate template = EmailTemplateEngine.compile("<p>{{name}}</p>");
+
+        assertThat(text(template.render(Map.of("name", "<b>\"Tom\" & 'Jerry'</b>"))))
+            .isEqualTo("<p>&lt;b&gt;&quot;Tom&quot; &amp; &#39;Jerry&#39;&lt;/b&gt;</p>");
+    }
+
+    @Test
+    void rendersMissingValuesAsEmpty() {
+        CompiledTemplate template = EmailTemplateEngine.compile("[{{a}}|{{b}}]");
+        Map<String, String> values = new HashMap<>();
+        values.put("a", null);
+
+        assertThat(text(template.render(values))).isEqualTo("[|]");
+    }
+
+    @Test
+    void keepsUnclosedBracesAsText() {
+        CompiledTemplate template = EmailTemplateEngine.compile("a {{b}} c {{d");
+
+        assertThat(text(template.render(Map.of("b", "B")))).isEqualTo("a B c {{d");
+    }
+
+    @Test
+    void keepsMultibyteTextIntact() {
+        CompiledTemplate template = EmailTemplateEngine.compile("Xin chào {{name}} 🐾");
+
+        assertThat(text(template.render(Map.of("name", "Đức")))).isEqualTo("Xin chào Đức 🐾");
+    }
+
+    @Test
+    void bindFillsOnePlaceholderAndCachesTheResult() {
+        CompiledTemplate petOwner = engine.bind(EmailTemplateEngine.WELCOME, "role", "PET_OWNER");
+
+        assertThat(engine.bind(EmailTemplateEngine.WELCOME, "role", "PET_OWNER")).isSameAs(petOwner);
+        String rendered = text(petOwner.render(Map.of("fullName", "Ana", "role", "ignored")));
+        assertThat(rendered).contains("Hello Ana,").contains("PET_OWNER").doesNotContain("ignored");
+    }
+
+    @Test
+    void rendersTheOtpTemplate() {
+        String rendered = text(engine.render(EmailTemplateEngine.OTP, Map.of("fullName", "Ana", "otpCode", "123456")));
+
+        assertThat(rendered).contains("Hello Ana,").contains(">123456<").doesNotContain("{{");
+    }
+
+    @Test
+    void rejectsUnknownTemplates() {
+        assertThatThrownBy(() -> engine.render("missing", Map.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void renderBufferIsNotSharedBetweenResults() {
+        byte[] first = engine.render(EmailTemplateEngine.OTP, Map.of("fullName", "A", "otpCode", "111111"));
+        byte[] second = engine.render(EmailTemplateEngine.OTP, Map.of("fullName", "B", "otpCode", "222222"));
+
+        assertThat(text(first)).contains("111111");
+        assertThat(text(second)).contains("222222");
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package TechWiz.auths.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.support.FakeSmtpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MailDispatchServiceTest {
+
+    private FakeSmtpServer smtp;
+    private SimpleMeterRegistry meterRegistry;
+    private MailDispatchService dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new FakeSmtpServer();
+        meterRegistry = new SimpleMeterRegistry();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.getPort());
+        Properties properties = new Properties();
+        properties.put("mail.smtp.connectiontimeout", "5000");
+        properties.put("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(properties);
+
+        dispatcher = new MailDispatchService();
+        ReflectionTestUtils.setField(dispatcher, "mailSender", mailSender);
+        ReflectionTestUtils.setField(dispatcher, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@petcare.test");
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(dispatcher, "workerCount", 1);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 20);
+        ReflectionTestUtils.setField(dispatcher, "lingerMs", 200L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitialMs", 50L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 200L);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.stop();
+        smtp.close();
+    }
+
+    @Test
+    void deliversQueuedMailWithTheHtmlBody() {
+        dispatcher.enqueue("adopter@petcare.test", "Your OTP", "<p>Code: <b>123456</b></p>");
+
+        awaitTrue(() -> smtp.getMessages().size() == 1);
+        String message = smtp.getMessages().get(0);
+        assertThat(message).contains("To: adopter@petcare.test").contains("Subject: Your OTP")
+            .contains("text/html").contains("123456");
+        assertThat(meterRegistry.counter("mail.dispatch", "status", "sent").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void sendsABurstOverOneConnection() {
+        for (int i = 0; i < 10; i++) {
+            dispatcher.enqueue("user" + i + "@petcare.test", "OTP " + i, "<p>" + i + "</p>");
+        }
+
+        awaitTrue(() -> smtp.getMessages().size() == 10);
+        assertThat(smtp.getConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesTransientFailuresWithBackoff() {
+        smtp.rejectNext(1);
+
+        dispatcher.enqueue("adopter@petcare.test", "Your OTP", "<p>654321</p>");
+
+        awaitTrue(() -> smtp.getMessages().size() == 1);
+        assertThat(smtp.getMessages().get(0)).contains("654321");
+        assertThat(meterRegistry.counter("mail.dispatch", "status", "retried").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("mail.dispatch", "status", "failed").count()).isZero();
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        smtp.rejectNext(3);
+
+        dispatcher.enqueue("adopter@petcare.test", "Your OTP", "<p>000000</p>");
+
+        awaitTrue(() -> meterRegistry.counter("mail.dispatch", "status", "failed").count() == 1.0);
+        assertThat(smtp.getMessages()).isEmpty();
+        assertThat(meterRegistry.counter("mail.dispatch", "status", "retried").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void enqueueReturnsWithoutWaitingForSmtp() {
+        smtp.setGreetingDelayMs(1500);
+
+        long started = System.nanoTime();
+        dispatcher.enqueue("adopter@petcare.test", "Your OTP", "<p>111111</p>");
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(500);
+        awaitTrue(() -> smtp.getMessages().size() == 1);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package TechWiz.common.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import TechWiz.common.geo.GeoGridIndex.Neighbor;
+
+class GeoGridIndexTest {
+
+    @Test
+    void haversineMatchesKnownDistances() {
+        // Paris to London
+        assertThat(GeoGridIndex.distanceKm(48.8566, 2.3522, 51.5074, -0.1278)).isCloseTo(343.6, within(1.0));
+        // One degree of latitude
+        assertThat(GeoGridIndex.distanceKm(10, 20, 11, 20)).isCloseTo(111.2, within(0.1));
+        // Antipodes
+        assertThat(GeoGridIndex.distanceKm(0, 0, 0, 180)).isCloseTo(Math.PI * GeoGridIndex.EARTH_RADIUS_KM, within(1e-6));
+        assertThat(GeoGridIndex.distanceKm(90, 0, -90, 0)).isCloseTo(Math.PI * GeoGridIndex.EARTH_RADIUS_KM, within(1e-6));
+        assertThat(GeoGridIndex.distanceKm(12.5, -45, 12.5, -45)).isZero();
+    }
+
+    @Test
+    void haversineIsSymmetricAndIgnoresLongitudeAtThePole() {
+        assertThat(GeoGridIndex.distanceKm(35, 139, -33, 151))
+            .isCloseTo(GeoGridIndex.distanceKm(-33, 151, 35, 139), within(1e-9));
+        assertThat(GeoGridIndex.distanceKm(90, 0, 80, 45))
+            .isCloseTo(GeoGridIndex.distanceKm(90, 170, 80, 45), within(1e-9));
+    }
+
+    @Test
+    void radiusQueryWrapsAcrossTheDateLine() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(1.0);
+        index.put("east", -17.0, 179.9);
+        index.put("west", -17.0, -179.9);
+        index.put("far", -17.0, 170.0);
+
+        List<Neighbor<String>> fromEast = index.withinRadius(-17.0, 179.95, 50);
+        List<Neighbor<String>> fromWest = index.withinRadius(-17.0, -179.95, 50);
+
+        assertThat(fromEast).extracting(Neighbor::key).containsExactly("east", "west");
+        assertThat(fromWest).extracting(Neighbor::key).containsExactly("west", "east");
+    }
+
+    @Test
+    void pointsExactlyOnTheDateLineLandInOneColumn() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(5.0);
+        index.put("plus", 0, 180);
+        index.put("minus", 0, -180);
+
+        assertThat(index.withinRadius(0, 179.99, 5)).extracting(Neighbor::key).containsExactlyInAnyOrder("plus", "minus");
+        assertThat(index.withinRadius(0, -179.99, 5)).extracting(Neighbor::key).containsExactlyInAnyOrder("plus", "minus");
+    }
+
+    @Test
+    void radiusQueryNearAPoleScansEveryLongitude() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(1.0);
+        index.put("lon0", 89.9, 0);
+        index.put("lon180", 89.9, 180);
+        index.put("lon-90", 89.9, -90);
+        index.put("south", 89.0, 0);
+
+        // About 22 km across the pole between lon0 and lon180
+        assertThat(index.withinRadius(89.95, 90, 30)).extracting(Neighbor::key)
+            .containsExactlyInAnyOrder("lon0", "lon180", "lon-90");
+        assertThat(index.withinRadius(90, 0, 12)).extracting(Neighbor::key)
+            .containsExactlyInAnyOrder("lon0", "lon180", "lon-90");
+    }
+
+    @Test
+    void southPoleIsIndexedInTheLastRowBelow() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(2.0);
+        index.put("pole", -90, 0);
+        index.put("near", -89.5, 120);
+
+        assertThat(index.withinRadius(-90, -75, 60)).extracting(Neighbor::key).containsExactly("pole", "near");
+        assertThat(index.nearest(-89.9, 33, 1, 100)).extracting(Neighbor::key).containsExactly("pole");
+    }
+
+    @Test
+    void radiusQueriesAgreeWithABruteForceScan() {
+        Random random = new Random(42);
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(0.5);
+        double[][] points = new double[3000][];
+        for (int i = 0; i < points.length; i++) {
+            // Dense band near the north pole and the date line so the edge cases get traffic
+            double lat = i % 3 == 0 ? 80 + random.nextDouble() * 10 : random.nextDouble() * 180 - 90;
+            double lon = i % 5 == 0 ? (random.nextBoolean() ? 175 : -180) + random.nextDouble() * 5 : random.nextDouble() * 360 - 180;
+            points[i] = new double[] { lat, lon };
+            index.put(i, lat, lon);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            double lat = q % 4 == 0 ? 85 + random.nextDouble() * 5 : random.nextDouble() * 180 - 90;
+            double lon = q % 3 == 0 ? 178 + random.nextDouble() * 4 - (random.nextBoolean() ? 0 : 360) : random.nextDouble() * 360 - 180;
+            lon = Math.max(-180, Math.min(180, lon));
+            double radius = 10 + random.nextDouble() * 800;
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < points.length; i++) {
+                if (GeoGridIndex.distanceKm(lat, lon, points[i][0], points[i][1]) <= radius) {
+                    expected.add(i);
+                }
+            }
+            assertThat(index.withinRadius(lat, lon, radius)).extracting(Neighbor::key)
+                .as("query %s,%s r=%s", lat, lon, radius)
+                .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void nearestReturnsTheKClosestWithinTheLimit() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(1.0);
+        index.put("a", 10.0, 10.0);
+        index.put("b", 10.0, 10.5);
+        index.put("c", 10.0, 12.0);
+        index.put("d", 10.0, 20.0);
+
+        assertThat(index.nearest(10.0, 10.1, 2, 1000)).extracting(Neighbor::key).containsExactly("a", "b");
+        assertThat(index.nearest(10.0, 10.1, 10, 300)).extracting(Neighbor::key).containsExactly("a", "b", "c");
+        assertThat(index.nearest(10.0, 10.1, 0, 300)).isEmpty();
+    }
+
+    @Test
+    void putMovesAndRemoveForgetsAKey() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(1.0);
+        index.put("shelter", 0, 0);
+        index.put("shelter", 45, 45);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.withinRadius(0, 0, 100)).isEmpty();
+        assertThat(index.withinRadius(45, 45, 1)).extracting(Neighbor::key).containsExactly("shelter");
+
+        index.remove("shelter");
+        assertThat(index.size()).isZero();
+        assertThat(index.withinRadius(45, 45, 1)).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(1.0);
+
+        assertThatThrownBy(() -> new GeoGridIndex<>(0.7)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.put("x", 91, 0)).isInstanceOf(IllegalArgumentException.class);
+        index.put("x", 0, 0);
+        assertThat(index.withinRadius(0, 0, -1)).isEmpty();
+        assertThat(index.withinRadius(0, 0, Double.NaN)).isEmpty();
+        assertThat(index.withinRadius(100, 0, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,160 @@
+package TechWiz.common.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.support.ExternalServices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The Lua bucket runs against a real Redis (skipped when none is configured, see ExternalServices);
+ * the fail-open and rejection mapping paths run everywhere with a mocked template.
+ */
+class RedisTokenBucketRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LettuceConnectionFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        if (factory != null) {
+            ExternalServices.flush(factory);
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void allowsTheBurstThenRejectsWithARetryHint() {
+        RedisTokenBucketRateLimiter limiter = redisLimiter();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("otp", "a@petcare.test", 3, 1).isAllowed()).isTrue();
+        }
+        RateLimitDecision rejected = limiter.tryAcquire("otp", "a@petcare.test", 3, 1);
+
+        assertThat(rejected.isAllowed()).isFalse();
+        // One token per minute: the next one is at most a minute away
+        assertThat(rejected.getRetryAfterMs()).isBetween(1L, 60_000L);
+        assertThat(rejected.getRetryAfterSeconds()).isBetween(1L, 60L);
+        assertThat(meterRegistry.counter("ratelimit.rejected", "bucket", "otp").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void bucketsAreIndependentPerIdAndPerPolicy() {
+        RedisTokenBucketRateLimiter limiter = redisLimiter();
+
+        assertThat(limiter.tryAcquire("otp", "a@petcare.test", 1, 1).isAllowed()).isTrue();
+        assertThat(limiter.tryAcquire("otp", "a@petcare.test", 1, 1).isAllowed()).isFalse();
+
+        assertThat(limiter.tryAcquire("otp", "b@petcare.test", 1, 1).isAllowed()).isTrue();
+        assertThat(limiter.tryAcquire("auth-email", "a@petcare.test", 1, 1).isAllowed()).isTrue();
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        RedisTokenBucketRateLimiter limiter = redisLimiter();
+
+        // 600 per minute = one token every 100 ms
+        assertThat(limiter.tryAcquire("login", "ip-1", 1, 600).isAllowed()).isTrue();
+        assertThat(limiter.tryAcquire("login", "ip-1", 1, 600).isAllowed()).isFalse();
+
+        Thread.sleep(250);
+
+        assertThat(limiter.tryAcquire("login", "ip-1", 1, 600).isAllowed()).isTrue();
+    }
+
+    @Test
+    void bucketKeyExpiresOnceItWouldBeFull() {
+        RedisTokenBucketRateLimiter limiter = redisLimiter();
+        RedisTemplate<String, Object> redisTemplate = ExternalServices.redisTemplate(factory);
+
+        limiter.tryAcquire("otp", "a@petcare.test", 3, 1);
+
+        Long ttlMs = redisTemplate.getExpire("ratelimit:otp:a@petcare.test", TimeUnit.MILLISECONDS);
+        // capacity / rate = 3 minutes, plus one second of slack
+        assertThat(ttlMs).isBetween(170_000L, 181_000L);
+    }
+
+    @Test
+    void concurrentCallersNeverShareATokenBeyondCapacity() throws Exception {
+        RedisTokenBucketRateLimiter limiter = redisLimiter();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(pool.submit(() -> limiter.tryAcquire("otp", "burst@petcare.test", 5, 1).isAllowed()));
+            }
+            int allowed = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    allowed++;
+                }
+            }
+            assertThat(allowed).isEqualTo(5);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failsOpenWhenRedisIsDown() {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), isNull(), anyList(), any(Object[].class)))
+            .thenThrow(new RedisConnectionFailureException("connection refused"));
+        RedisTokenBucketRateLimiter limiter = limiter(redisTemplate);
+
+        RateLimitDecision decision = limiter.tryAcquire("otp", "a@petcare.test", 3, 1);
+
+        assertThat(decision.isAllowed()).isTrue();
+        assertThat(meterRegistry.counter("ratelimit.errors", "bucket", "otp").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapsAScriptRejectionToADecision() {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), isNull(), anyList(), any(Object[].class)))
+            .thenReturn(List.of(0L, 1500L));
+        RedisTokenBucketRateLimiter limiter = limiter(redisTemplate);
+
+        RateLimitDecision decision = limiter.tryAcquire("otp", "a@petcare.test", 3, 1);
+
+        assertThat(decision.isAllowed()).isFalse();
+        assertThat(decision.getRetryAfterMs()).isEqualTo(1500L);
+        assertThat(decision.getRetryAfterSeconds()).isEqualTo(2L);
+    }
+
+    private RedisTokenBucketRateLimiter redisLimiter() {
+        factory = ExternalServices.redisOrSkip();
+        ExternalServices.flush(factory);
+        return limiter(ExternalServices.redisTemplate(factory));
+    }
+
+    private RedisTokenBucketRateLimiter limiter(RedisTemplate<String, Object> redisTemplate) {
+        RedisTokenBucketRateLimiter limiter = new RedisTokenBucketRateLimiter();
+        ReflectionTestUtils.setField(limiter, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(limiter, "meterRegistry", meterRegistry);
+        return limiter;
+    }
+}
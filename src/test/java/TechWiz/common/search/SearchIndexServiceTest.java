@@ -0,0 +1,193 @@
+package TechWiz.common.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchIndexServiceTest {
+
+    private final InMemorySource pets = new InMemorySource("pet");
+    private final InMemorySource products = new InMemorySource("product");
+    private SearchIndexService index;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        ObjectProvider<SearchDocumentSource> sourceProvider = mock(ObjectProvider.class);
+        when(sourceProvider.orderedStream()).thenAnswer(invocation -> List.<SearchDocumentSource>of(pets, products).stream());
+        index = new SearchIndexService();
+        ReflectionTestUtils.setField(index, "sourceProvider", sourceProvider);
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        index.open(new ByteBuffersDirectory());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void emptyIndexIsNotReadyUntilBuilt() {
+        assertThat(index.isReady()).isFalse();
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+    }
+
+    @Test
+    void misspeltTermsMatchWithinTheEditBudget() {
+        pets.put(1L, "Golden Retriever", "Friendly family dog");
+        pets.put(2L, "Siamese", "Quiet indoor cat");
+        index.rebuild();
+
+        assertThat(search("retreiver")).containsExactly(1L);
+        assertThat(search("frendly")).containsExactly(1L);
+        // Terms under four characters must match exactly
+        assertThat(search("cta")).isEmpty();
+    }
+
+    @Test
+    void lastTermAlsoMatchesAsATitlePrefix() {
+        pets.put(1L, "Golden Retriever", "Friendly family dog");
+        pets.put(2L, "Labrador", "Loves to swim");
+        index.rebuild();
+
+        assertThat(search("lab")).containsExactly(2L);
+        assertThat(search("golden retr")).containsExactly(1L);
+        // Only the last term is a prefix; every term must match
+        assertThat(search("gol retriever")).isEmpty();
+    }
+
+    @Test
+    void titleMatchesRankAboveBodyMatches() {
+        pets.put(1L, "Bird food", "Seed mix for any parrot or finch");
+        pets.put(2L, "Parrot", "Talkative and affectionate");
+        index.rebuild();
+
+        assertThat(search("parrot")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void typeFilterAndPagingKeepTheTotal() {
+        pets.put(1L, "Beagle", "Dog");
+        pets.put(2L, "Beagle mix", "Dog");
+        products.put(1L, "Beagle collar", "Leather");
+        index.rebuild();
+
+        assertThat(index.search("beagle", Set.of(), 0, 10).getTotalHits()).isEqualTo(3);
+        SearchResult page = index.search("beagle", Set.of("pet"), 1, 1);
+        assertThat(page.getTotalHits()).isEqualTo(2);
+        assertThat(page.getHits()).hasSize(1).allMatch(hit -> hit.getType().equals("pet"));
+        assertThat(index.search("beagle", Set.of("pet"), 5, 10).getHits()).isEmpty();
+    }
+
+    @Test
+    void highlightsAreHtmlEscaped() {
+        pets.put(1L, "Rex <b>", "Loves <script>alert(1)</script> treats & toys");
+        index.rebuild();
+
+        SearchHit hit = index.search("treats", Set.of("pet"), 0, 1).getHits().get(0);
+
+        assertThat(hit.getHighlight())
+            .contains("<mark>treats</mark>")
+            .contains("&lt;script&gt;")
+            .contains("&amp;")
+            .doesNotContain("<script>");
+        assertThat(hit.getTitle()).isEqualTo("Rex <b>");
+    }
+
+    @Test
+    void reindexUpdatesAndRemovesOneDocument() {
+        pets.put(1L, "Beagle", "Dog");
+        index.rebuild();
+
+        pets.put(1L, "Poodle", "Dog");
+        index.reindex("pet", 1L);
+        assertThat(search("beagle")).isEmpty();
+        assertThat(search("poodle")).containsExactly(1L);
+
+        pets.remove(1L);
+        index.onIndexEvent(new SearchIndexEvent("pet", 1L));
+        assertThat(search("poodle")).isEmpty();
+    }
+
+    @Test
+    void rebuildDropsDocumentsItDidNotSeeButKeepsLiveUpdates() {
+        pets.put(1L, "Beagle", "Dog");
+        pets.put(2L, "Beagle mix", "Dog");
+        products.put(1L, "Beagle collar", "Leather");
+        index.rebuild();
+
+        // Pet 2 was deleted on another node; pet 3 is created and indexed while the pass runs
+        pets.remove(2L);
+        pets.onForEach = () -> {
+            pets.put(3L, "Beagle puppy", "Dog");
+            index.reindex("pet", 3L);
+        };
+        index.rebuild();
+
+        assertThat(search("beagle")).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.search("beagle", Set.of("product"), 0, 10).getIds()).containsExactly(1L);
+    }
+
+    private List<Long> search(String text) {
+        return index.search(text, Set.of("pet"), 0, 10).getIds();
+    }
+
+    private static class InMemorySource implements SearchDocumentSource {
+
+        private final String type;
+        private final Map<Long, SearchDocument> documents = new TreeMap<>();
+        private Runnable onForEach;
+
+        InMemorySource(String type) {
+            this.type = type;
+        }
+
+        void put(Long id, String title, String body) {
+            documents.put(id, new SearchDocument(type, id, title, body));
+        }
+
+        void remove(Long id) {
+            documents.remove(id);
+        }
+
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public Optional<SearchDocument> load(Long id) {
+            return Optional.ofNullable(documents.get(id));
+        }
+
+        @Override
+        public void forEachDocument(Consumer<SearchDocument> consumer) {
+            // Snapshot first, as a paged scan would have read these rows before the concurrent change
+            List<SearchDocument> snapshot = List.copyOf(documents.values());
+            if (onForEach != null) {
+                onForEach.run();
+            }
+            snapshot.forEach(consumer);
+        }
+    }
+}
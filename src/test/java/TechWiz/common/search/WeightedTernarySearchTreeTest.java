@@ -0,0 +1,174 @@
+package TechWiz.common.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import TechWiz.common.search.WeightedTernarySearchTree.Completion;
+
+class WeightedTernarySearchTreeTest {
+
+    @Test
+    void completesHeaviestFirstAndStopsAtK() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        tree.add("Labrador", 5);
+        tree.add("Labradoodle", 9);
+        tree.add("Lab Mix", 2);
+        tree.add("Beagle", 100);
+
+        assertThat(tree.complete("lab", 2)).containsExactly(
+            new Completion("Labradoodle", 9), new Completion("Labrador", 5));
+        assertThat(tree.complete("lab", 10)).extracting(Completion::text)
+            .containsExactly("Labradoodle", "Labrador", "Lab Mix");
+    }
+
+    @Test
+    void tiesAreOrderedAlphabeticallyIgnoringCase() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        tree.add("poodle", 3);
+        tree.add("Pomeranian", 3);
+        tree.add("pug", 3);
+        tree.add("Pointer", 4);
+
+        assertThat(tree.complete("p", 4)).extracting(Completion::text)
+            .containsExactly("Pointer", "Pomeranian", "poodle", "pug");
+    }
+
+    @Test
+    void matchesABruteForceRankingWithManyTies() {
+        Random random = new Random(3);
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        Map<String, Long> weights = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder term = new StringBuilder();
+            for (int len = 1 + random.nextInt(5); len > 0; len--) {
+                term.append((char) ('a' + random.nextInt(4)));
+            }
+            long delta = random.nextInt(4) == 0 ? -1 : 1;
+            tree.add(term.toString(), delta);
+            weights.put(term.toString(), Math.max(0, weights.getOrDefault(term.toString(), 0L) + delta));
+        }
+
+        for (String prefix : List.of("a", "b", "ab", "cd", "dda")) {
+            List<Completion> expected = weights.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0 && entry.getKey().startsWith(prefix))
+                .sorted(Comparator.comparing((Map.Entry<String, Long> entry) -> -entry.getValue())
+                    .thenComparing(Map.Entry::getKey))
+                .limit(15)
+                .map(entry -> new Completion(entry.getKey(), entry.getValue()))
+                .toList();
+            assertThat(tree.complete(prefix, 15)).as("prefix %s", prefix).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void prefixThatIsItselfATermIsIncluded() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        tree.add("Pug", 1);
+        tree.add("Puggle", 2);
+
+        assertThat(tree.complete("PUG", 5)).extracting(Completion::text).containsExactly("Puggle", "Pug");
+    }
+
+    @Test
+    void emptyOrBlankPrefixAndNonPositiveKReturnNothing() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        tree.add("Husky", 1);
+
+        assertThat(tree.complete("", 5)).isEmpty();
+        assertThat(tree.complete("   ", 5)).isEmpty();
+        assertThat(tree.complete(null, 5)).isEmpty();
+        assertThat(tree.complete("hu", 0)).isEmpty();
+        assertThat(tree.complete("x", 5)).isEmpty();
+    }
+
+    @Test
+    void keysAreCaseInsensitiveAndKeepTheLastDisplayText() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        tree.add("golden retriever", 1);
+        tree.add("Golden Retriever", 1);
+
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.complete("gol", 5)).containsExactly(new Completion("Golden Retriever", 2));
+    }
+
+    @Test
+    void removalDownToZeroDropsTheTermAndItsNodes() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        tree.add("Corgi", 2);
+        tree.add("Corgi", -1);
+        assertThat(tree.complete("cor", 5)).containsExactly(new Completion("Corgi", 1));
+
+        tree.add("Corgi", -1);
+
+        assertThat(tree.size()).isZero();
+        assertThat(tree.complete("cor", 5)).isEmpty();
+        assertThat(tree.nodeCount()).isZero();
+    }
+
+    @Test
+    void removingOneTermKeepsItsSiblingsReachable() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        // "m" ends up with both lo ("b...") and hi ("s...") siblings at the root position
+        tree.add("Maltese", 4);
+        tree.add("Beagle", 3);
+        tree.add("Shih Tzu", 2);
+        tree.add("Boxer", 1);
+        tree.add("Samoyed", 5);
+        int before = tree.nodeCount();
+
+        tree.add("Maltese", -4);
+
+        assertThat(tree.nodeCount()).isEqualTo(before - "maltese".length());
+        assertThat(tree.complete("m", 5)).isEmpty();
+        assertThat(tree.complete("b", 5)).extracting(Completion::text).containsExactly("Beagle", "Boxer");
+        assertThat(tree.complete("s", 5)).extracting(Completion::text).containsExactly("Samoyed", "Shih Tzu");
+        assertThat(tree.size()).isEqualTo(4);
+    }
+
+    @Test
+    void removingAShortTermKeepsLongerTermsThroughIt() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        tree.add("Pug", 1);
+        tree.add("Puggle", 1);
+        int before = tree.nodeCount();
+
+        tree.add("Pug", -1);
+
+        // The "g" node still leads to "puggle", so nothing is freed
+        assertThat(tree.nodeCount()).isEqualTo(before);
+        assertThat(tree.complete("pug", 5)).containsExactly(new Completion("Puggle", 1));
+    }
+
+    @Test
+    void maxWeightFollowsRemovalsSoSearchStillFindsTheNextBest() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        tree.add("Akita", 50);
+        tree.add("Airedale", 10);
+        tree.add("Afghan Hound", 20);
+
+        tree.add("Akita", -50);
+        List<Completion> top = tree.complete("a", 1);
+
+        assertThat(top).containsExactly(new Completion("Afghan Hound", 20));
+    }
+
+    @Test
+    void removingAnUnknownTermIsANoOp() {
+        WeightedTernarySearchTree tree = new WeightedTernarySearchTree();
+        tree.add("Dalmatian", 1);
+        int before = tree.nodeCount();
+
+        tree.add("Dachshund", -1);
+        tree.add("Dal", -1);
+
+        assertThat(tree.nodeCount()).isEqualTo(before);
+        assertThat(tree.complete("da", 5)).containsExactly(new Completion("Dalmatian", 1));
+    }
+}
@@ -0,0 +1,80 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.common.pagination.CursorCodec;
+import TechWiz.common.pagination.CursorPage;
+import TechWiz.shelter.dto.AdoptionInquiryResponseDto;
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.AdoptionInquiry.InquiryStatus;
+import TechWiz.shelter.repositories.AdoptionInquiryRepository;
+
+class AdoptionReviewQueueCursorTest {
+
+    private AdoptionInquiryRepository repository;
+    private AdoptionInquiryService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AdoptionInquiryRepository.class);
+        service = new AdoptionInquiryService();
+        ReflectionTestUtils.setField(service, "adoptionInquiryRepository", repository);
+        ReflectionTestUtils.setField(service, "petService", mock(ShelterPetService.class));
+    }
+
+    @Test
+    void cursorAfterAnUnscoredInquiryResumesAtScoreZero() {
+        when(repository.findShelterQueuePage(eq(1L), eq(InquiryStatus.NEW), any()))
+            .thenReturn(List.of(inquiry(10L, 40), inquiry(11L, null), inquiry(12L, null)));
+
+        CursorPage<AdoptionInquiryResponseDto> first = service.getReviewQueue(1L, null, InquiryStatus.NEW, null, 2);
+
+        assertThat(first.getHasMore()).isTrue();
+        assertThat(CursorCodec.decode(first.getNextCursor(), 2)).containsExactly("0", "11");
+
+        service.getReviewQueue(1L, null, InquiryStatus.NEW, first.getNextCursor(), 2);
+        verify(repository).findShelterQueuePageAfter(eq(1L), eq(InquiryStatus.NEW), eq(0), eq(11L), any());
+    }
+
+    @Test
+    void cursorInsideARunOfEqualScoresCarriesTheLastId() {
+        when(repository.findPetQueuePage(eq(1L), eq(7L), eq(InquiryStatus.NEW), any()))
+            .thenReturn(List.of(inquiry(3L, 55), inquiry(4L, 55), inquiry(5L, 55)));
+
+        CursorPage<AdoptionInquiryResponseDto> first = service.getReviewQueue(1L, 7L, InquiryStatus.NEW, null, 2);
+        service.getReviewQueue(1L, 7L, InquiryStatus.NEW, first.getNextCursor(), 2);
+
+        assertThat(first.getItems()).extracting(AdoptionInquiryResponseDto::getId).containsExactly(3L, 4L);
+        verify(repository).findPetQueuePageAfter(eq(1L), eq(7L), eq(InquiryStatus.NEW), eq(55), eq(4L), any());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(repository.findShelterQueuePage(eq(1L), eq(InquiryStatus.NEW), any()))
+            .thenReturn(List.of(inquiry(10L, 40), inquiry(11L, null)));
+
+        CursorPage<AdoptionInquiryResponseDto> page = service.getReviewQueue(1L, null, InquiryStatus.NEW, null, 2);
+
+        assertThat(page.getHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getItems()).hasSize(2);
+    }
+
+    private static AdoptionInquiry inquiry(Long id, Integer fitScore) {
+        AdoptionInquiry inquiry = new AdoptionInquiry();
+        inquiry.setId(id);
+        inquiry.setFitScore(fitScore);
+        return inquiry;
+    }
+}
@@ -0,0 +1,155 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.auths.models.Role;
+import TechWiz.auths.models.ShelterProfile;
+import TechWiz.auths.models.User;
+import TechWiz.common.pagination.CursorPage;
+import TechWiz.shelter.dto.AdoptionInquiryResponseDto;
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.AdoptionInquiry.InquiryStatus;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.repositories.AdoptionInquiryRepository;
+
+/**
+ * Keyset paging of the review queue: fit score order, unscored inquiries ranking as 0, and no row
+ * skipped or repeated when a page boundary falls inside a run of equal scores. Runs against a
+ * scratch MySQL schema (created and dropped here) and is skipped when -Dtest.mysql.url is not
+ * set, see TechWiz.support.ExternalServices.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "test.mysql.url", matches = ".+")
+class AdoptionReviewQueueTest {
+
+    @DynamicPropertySource
+    static void mysql(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("test.mysql.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("test.mysql.user", "root"));
+        registry.add("spring.datasource.password", () -> System.getProperty("test.mysql.password", ""));
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AdoptionInquiryRepository adoptionInquiryRepository;
+
+    private AdoptionInquiryService service;
+    private ShelterProfile shelter;
+    private ShelterPet rex;
+    private ShelterPet bella;
+    private final List<AdoptionInquiry> queue = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new AdoptionInquiryService();
+        ReflectionTestUtils.setField(service, "adoptionInquiryRepository", adoptionInquiryRepository);
+        ReflectionTestUtils.setField(service, "petService", mock(ShelterPetService.class));
+
+        shelter = shelter(1);
+        rex = pet(shelter, "Rex");
+        bella = pet(shelter, "Bella");
+        // A run of equal scores longer than a page, and unscored rows around a real 0
+        Integer[] scores = { 80, 55, 55, 55, 55, 55, null, 0, null, 30, 55 };
+        for (int i = 0; i < scores.length; i++) {
+            queue.add(inquiry(i % 2 == 0 ? rex : bella, scores[i], InquiryStatus.NEW));
+        }
+        inquiry(rex, 99, InquiryStatus.IN_REVIEW);
+        ShelterProfile other = shelter(2);
+        inquiry(pet(other, "Max"), 99, InquiryStatus.NEW);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shelterQueueWalksEveryInquiryOnceInScoreOrder() {
+        for (int size = 1; size <= 4; size++) {
+            assertThat(walk(null, size)).as("page size " + size).containsExactlyElementsOf(expected(queue));
+        }
+    }
+
+    @Test
+    void petQueueWalksOnlyThatPetsInquiries() {
+        List<AdoptionInquiry> rexQueue = queue.stream().filter(inquiry -> inquiry.getPet() == rex).toList();
+
+        assertThat(walk(rex.getId(), 2)).containsExactlyElementsOf(expected(rexQueue));
+    }
+
+    private List<Long> walk(Long petId, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<AdoptionInquiryResponseDto> page = service.getReviewQueue(
+                shelter.getId(), petId, InquiryStatus.NEW, cursor, size);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(size);
+            page.getItems().forEach(dto -> ids.add(dto.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertThat(new HashSet<>(ids)).hasSameSizeAs(ids);
+        return ids;
+    }
+
+    private static List<Long> expected(List<AdoptionInquiry> inquiries) {
+        return inquiries.stream()
+            .sorted(Comparator.<AdoptionInquiry>comparingInt(inquiry -> inquiry.getFitScore() != null ? inquiry.getFitScore() : 0)
+                .reversed().thenComparing(AdoptionInquiry::getId))
+            .map(AdoptionInquiry::getId)
+            .toList();
+    }
+
+    private AdoptionInquiry inquiry(ShelterPet pet, Integer fitScore, InquiryStatus status) {
+        AdoptionInquiry inquiry = new AdoptionInquiry();
+        inquiry.setPet(pet);
+        inquiry.setShelterProfile(pet.getShelterProfile());
+        inquiry.setAdopterName("Adopter");
+        inquiry.setAdopterEmail("adopter@petcare.test");
+        inquiry.setAdopterPhone("0123456789");
+        inquiry.setMessage("Hello");
+        inquiry.setFitScore(fitScore);
+        inquiry.setStatus(status);
+        return entityManager.persist(inquiry);
+    }
+
+    private ShelterProfile shelter(int n) {
+        User user = new User("queue" + n + "@petcare.test", "x", "Shelter " + n, "0123456789", Role.SHELTER);
+        entityManager.persist(user);
+        ShelterProfile profile = new ShelterProfile();
+        profile.setUser(user);
+        profile.setShelterName("Shelter " + n);
+        profile.setAddress(n + " Main Street");
+        profile.setContactPersonName("Contact " + n);
+        return entityManager.persist(profile);
+    }
+
+    private ShelterPet pet(ShelterProfile owner, String name) {
+        ShelterPet pet = new ShelterPet();
+        pet.setShelterProfile(owner);
+        pet.setName(name);
+        pet.setType(ShelterPet.PetType.DOG);
+        pet.setBreed("Mixed");
+        pet.setAgeInMonths(12);
+        pet.setGender(ShelterPet.Gender.FEMALE);
+        pet.setSize(ShelterPet.Size.MEDIUM);
+        return entityManager.persist(pet);
+    }
+}
@@ -0,0 +1,490 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import TechWiz.auths.models.ShelterProfile;
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.AdoptionInquiry.InquiryStatus;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.models.ShelterPet.AdoptionStatus;
+import TechWiz.shelter.repositories.AdoptionInquiryRepository;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdoptionStateMachineTest {
+
+    private AdoptionInquiryRepository inquiryRepository;
+    private ShelterPetRepository petRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private AdoptionStateMachine stateMachine;
+
+    @BeforeEach
+    void setUp() {
+        inquiryRepository = mock(AdoptionInquiryRepository.class);
+        petRepository = mock(ShelterPetRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(inquiryRepository.save(any(AdoptionInquiry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        stateMachine = new AdoptionStateMachine();
+        ReflectionTestUtils.setField(stateMachine, "inquiryRepository", inquiryRepository);
+        ReflectionTestUtils.setField(stateMachine, "petRepository", petRepository);
+        ReflectionTestUtils.setField(stateMachine, "activityService", mock(ShelterActivityService.class));
+        ReflectionTestUtils.setField(stateMachine, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(stateMachine, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(stateMachine, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(stateMachine, "maxAttempts", 4);
+        ReflectionTestUtils.setField(stateMachine, "retryBackoffMs", 1L);
+        stateMachine.init();
+    }
+
+    @Test
+    void transitionTableMakesCompletedFinalAndReachableOnlyFromApproved() {
+        for (InquiryStatus from : InquiryStatus.values()) {
+            for (InquiryStatus to : InquiryStatus.values()) {
+                boolean expected;
+                if (from == to) {
+                    expected = true;
+                } else if (from == InquiryStatus.COMPLETED) {
+                    expected = false;
+                } else if (to == InquiryStatus.COMPLETED) {
+                    expected = from == InquiryStatus.APPROVED;
+                } else {
+                    expected = true;
+                }
+                assertThat(AdoptionStateMachine.canTransition(from, to)).as("%s -> %s", from, to).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void invalidTransitionIsRejectedWithoutSaving() {
+        AdoptionInquiry inquiry = inquiry(1L, InquiryStatus.NEW, pet(AdoptionStatus.AVAILABLE));
+        when(inquiryRepository.findById(1L)).thenReturn(Optional.of(inquiry));
+
+        assertThatThrownBy(() -> changeStatus(1L, InquiryStatus.COMPLETED))
+            .hasMessageContaining("Cannot change adoption inquiry from NEW to COMPLETED");
+        verify(inquiryRepository, never()).save(any());
+    }
+
+    @Test
+    void approvingHoldsThePet() {
+        ShelterPet pet = pet(AdoptionStatus.AVAILABLE);
+        when(inquiryRepository.findById(1L)).thenReturn(Optional.of(inquiry(1L, InquiryStatus.IN_REVIEW, pet)));
+        when(petRepository.findForTransitionById(pet.getId())).thenReturn(Optional.of(pet));
+
+        changeStatus(1L, InquiryStatus.APPROVED);
+
+        assertThat(pet.getAdoptionStatus()).isEqualTo(AdoptionStatus.PENDING);
+        verify(petRepository).save(pet);
+        verify(eventPublisher).publishEvent(any(PetChangedEvent.class));
+    }
+
+    @Test
+    void approvingAnAdoptedPetFails() {
+        ShelterPet pet = pet(AdoptionStatus.ADOPTED);
+        when(inquiryRepository.findById(1L)).thenReturn(Optional.of(inquiry(1L, InquiryStatus.NEW, pet)));
+        when(petRepository.findForTransitionById(pet.getId())).thenReturn(Optional.of(pet));
+
+        assertThatThrownBy(() -> changeStatus(1L, InquiryStatus.APPROVED)).hasMessageContaining("already been adopted");
+    }
+
+    @Test
+    void leavingApprovedReleasesThePetOnlyWhenNoOtherApprovalHoldsIt() {
+        ShelterPet pet = pet(AdoptionStatus.PENDING);
+        when(inquiryRepository.findById(1L)).thenReturn(Optional.of(inquiry(1L, InquiryStatus.APPROVED, pet)));
+        when(petRepository.findForTransitionById(pet.getId())).thenReturn(Optional.of(pet));
+        when(inquiryRepository.existsByPetIdAndStatusAndIdNot(pet.getId(), InquiryStatus.APPROVED, 1L)).thenReturn(true);
+
+        changeStatus(1L, InquiryStatus.REJECTED);
+        assertThat(pet.getAdoptionStatus()).isEqualTo(AdoptionStatus.PENDING);
+
+        when(inquiryRepository.findById(1L)).thenReturn(Optional.of(inquiry(1L, InquiryStatus.APPROVED, pet)));
+        when(inquiryRepository.existsByPetIdAndStatusAndIdNot(pet.getId(), InquiryStatus.APPROVED, 1L)).thenReturn(false);
+
+        changeStatus(1L, InquiryStatus.REJECTED);
+        assertThat(pet.getAdoptionStatus()).isEqualTo(AdoptionStatus.AVAILABLE);
+    }
+
+    @Test
+    void completingAdoptsThePetOnce() {
+        ShelterPet pet = pet(AdoptionStatus.PENDING);
+        when(inquiryRepository.findById(1L)).thenReturn(Optional.of(inquiry(1L, InquiryStatus.APPROVED, pet)));
+        when(petRepository.findForTransitionById(pet.getId())).thenReturn(Optional.of(pet));
+        when(inquiryRepository.existsByPetIdAndStatusAndIdNot(pet.getId(), InquiryStatus.COMPLETED, 1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> changeStatus(1L, InquiryStatus.COMPLETED)).hasMessageContaining("another inquiry");
+
+        when(inquiryRepository.existsByPetIdAndStatusAndIdNot(pet.getId(), InquiryStatus.COMPLETED, 1L)).thenReturn(false);
+        changeStatus(1L, InquiryStatus.COMPLETED);
+        assertThat(pet.getAdoptionStatus()).isEqualTo(AdoptionStatus.ADOPTED);
+    }
+
+    @Test
+    void optimisticConflictIsRetriedFromAFreshRead() {
+        when(inquiryRepository.findById(1L)).thenAnswer(invocation ->
+            Optional.of(inquiry(1L, InquiryStatus.NEW, pet(AdoptionStatus.AVAILABLE))));
+        when(inquiryRepository.save(any(AdoptionInquiry.class)))
+            .thenThrow(conflict(), conflict())
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        InquiryStatus result = changeStatus(1L, InquiryStatus.CONTACTED);
+
+        assertThat(result).isEqualTo(InquiryStatus.CONTACTED);
+        verify(inquiryRepository, times(3)).findById(1L);
+        assertThat(meterRegistry.counter("adoption.transition.conflicts").count()).isEqualTo(2.0);
+        assertThat(meterRegistry.counter("adoption.transition.retries.exhausted").count()).isZero();
+    }
+
+    @Test
+    void retriesStopAfterMaxAttempts() {
+        when(inquiryRepository.findById(1L)).thenAnswer(invocation ->
+            Optional.of(inquiry(1L, InquiryStatus.NEW, pet(AdoptionStatus.AVAILABLE))));
+        when(inquiryRepository.save(any(AdoptionInquiry.class))).thenThrow(conflict());
+
+        assertThatThrownBy(() -> changeStatus(1L, InquiryStatus.CONTACTED))
+            .hasMessageContaining("being changed by someone else");
+        verify(inquiryRepository, times(4)).save(any(AdoptionInquiry.class));
+        assertThat(meterRegistry.counter("adoption.transition.conflicts").count()).isEqualTo(4.0);
+        assertThat(meterRegistry.counter("adoption.transition.retries.exhausted").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        when(inquiryRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> changeStatus(1L, InquiryStatus.CONTACTED)).hasMessageContaining("not found");
+        verify(inquiryRepository, times(1)).findById(1L);
+    }
+
+    /**
+     * Threads race transitions on one inquiry against a store that rejects stale versions, as the
+     * @Version column does. Every call must land exactly once, however often it loses.
+     */
+    @Test
+    void concurrentTransitionsOnOneInquiryAllLand() throws Exception {
+        ReflectionTestUtils.setField(stateMachine, "maxAttempts", 10_000);
+        stateMachine.init();
+        VersionedInquiryStore store = new VersionedInquiryStore(pet(AdoptionStatus.AVAILABLE));
+        when(inquiryRepository.findById(1L)).thenAnswer(invocation -> Optional.of(store.read()));
+        when(inquiryRepository.save(any(AdoptionInquiry.class))).thenAnswer(invocation -> store.write(invocation.getArgument(0)));
+
+        int threads = 8;
+        int callsPerThread = 200;
+        List<InquiryStatus> statuses = List.copyOf(EnumSet.of(InquiryStatus.NEW, InquiryStatus.CONTACTED, InquiryStatus.IN_REVIEW));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < callsPerThread; i++) {
+                        changeStatus(1L, statuses.get(ThreadLocalRandom.current().nextInt(statuses.size())));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(store.commits.get()).isEqualTo(threads * callsPerThread);
+        assertThat(store.version()).isEqualTo(threads * callsPerThread);
+        assertThat(meterRegistry.counter("adoption.transition.conflicts").count()).isEqualTo(store.rejected.get());
+        assertThat(meterRegistry.counter("adoption.transition.retries.exhausted").count()).isZero();
+    }
+
+    /**
+     * Threads approve, reject and complete different inquiries of one pet. Transactions read a
+     * snapshot and are checked at commit, like REPEATABLE READ with the inquiry and pet @Version
+     * columns. After every commit the pet must be PENDING exactly when an inquiry is APPROVED, and
+     * ADOPTED once one (and only one) inquiry is COMPLETED.
+     */
+    @Test
+    void concurrentTransitionsOnInquiriesOfOnePetKeepThePetConsistent() throws Exception {
+        ReflectionTestUtils.setField(stateMachine, "maxAttempts", 10_000);
+        VersionedPetStore store = new VersionedPetStore(5);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            store.begin();
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> {
+            store.commit();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(invocation -> {
+            store.rollback();
+            return null;
+        }).when(transactionManager).rollback(any());
+        ReflectionTestUtils.setField(stateMachine, "transactionManager", transactionManager);
+        stateMachine.init();
+        when(inquiryRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(store.findInquiry(invocation.getArgument(0))));
+        when(inquiryRepository.save(any(AdoptionInquiry.class))).thenAnswer(invocation -> store.save(invocation.getArgument(0)));
+        when(inquiryRepository.existsByPetIdAndStatusAndIdNot(eq(10L), any(), anyLong()))
+            .thenAnswer(invocation -> store.exists(invocation.getArgument(1), invocation.getArgument(2)));
+        when(petRepository.findForTransitionById(10L)).thenAnswer(invocation -> Optional.of(store.lockPet()));
+
+        int threads = 8;
+        int callsPerThread = 300;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < callsPerThread; i++) {
+                        long inquiryId = 1 + random.nextInt(5);
+                        int roll = random.nextInt(100);
+                        // Completion is rare so approvals and rejections race for most of the run
+                        InquiryStatus status = roll < 45 ? InquiryStatus.APPROVED
+                            : roll < 90 ? InquiryStatus.REJECTED
+                            : roll < 98 ? InquiryStatus.IN_REVIEW
+                            : InquiryStatus.COMPLETED;
+                        try {
+                            changeStatus(inquiryId, status);
+                        } catch (RuntimeException e) {
+                            // Refused by the rules (e.g. completing twice), which is fine; losing a race is not
+                            assertThat(e.getMessage()).doesNotContain("someone else");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(store.violations).isEmpty();
+        assertThat(store.count(InquiryStatus.COMPLETED)).isLessThanOrEqualTo(1);
+        if (store.petStatus == AdoptionStatus.PENDING) {
+            assertThat(store.count(InquiryStatus.APPROVED)).isPositive();
+        }
+        assertThat(store.commits.get()).isPositive();
+        assertThat(meterRegistry.counter("adoption.transition.conflicts").count()).isEqualTo(store.rejected.get());
+        assertThat(meterRegistry.counter("adoption.transition.retries.exhausted").count()).isZero();
+    }
+
+    private InquiryStatus changeStatus(Long inquiryId, InquiryStatus status) {
+        return stateMachine.changeStatus(inquiryId, status, inquiry -> { }, AdoptionInquiry::getStatus);
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException(AdoptionInquiry.class, 1L);
+    }
+
+    private static ShelterPet pet(AdoptionStatus status) {
+        ShelterPet pet = new ShelterPet();
+        pet.setId(10L);
+        pet.setName("Biscuit");
+        pet.setAdoptionStatus(status);
+        return pet;
+    }
+
+    private static AdoptionInquiry inquiry(Long id, InquiryStatus status, ShelterPet pet) {
+        ShelterProfile shelter = new ShelterProfile();
+        shelter.setId(100L);
+        AdoptionInquiry inquiry = new AdoptionInquiry();
+        inquiry.setId(id);
+        inquiry.setStatus(status);
+        inquiry.setPet(pet);
+        inquiry.setShelterProfile(shelter);
+        return inquiry;
+    }
+
+    // Compare-and-set on the version, like an optimistic UPDATE ... WHERE version = ?
+    private static final class VersionedInquiryStore {
+
+        private final ShelterPet pet;
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+        private InquiryStatus status = InquiryStatus.NEW;
+        private long version;
+
+        VersionedInquiryStore(ShelterPet pet) {
+            this.pet = pet;
+        }
+
+        synchronized AdoptionInquiry read() {
+            AdoptionInquiry inquiry = inquiry(1L, status, pet);
+            inquiry.setVersion(version);
+            return inquiry;
+        }
+
+        AdoptionInquiry write(AdoptionInquiry inquiry) {
+            // Widen the window between read and write so threads actually interleave
+            Thread.yield();
+            synchronized (this) {
+                if (inquiry.getVersion() != version) {
+                    rejected.incrementAndGet();
+                    throw conflict();
+                }
+                status = inquiry.getStatus();
+                version++;
+                commits.incrementAndGet();
+                return inquiry;
+            }
+        }
+
+        synchronized long version() {
+            return version;
+        }
+    }
+
+    /**
+     * One pet and its inquiries. Each transaction reads a snapshot taken when it begins and buffers
+     * its writes; commit fails if a written inquiry, or the pet read for a transition, has changed
+     * since, and bumps the pet's version otherwise (OPTIMISTIC_FORCE_INCREMENT).
+     */
+    private static final class VersionedPetStore {
+
+        private final Map<Long, InquiryStatus> statuses = new HashMap<>();
+        private final Map<Long, Long> versions = new HashMap<>();
+        private final ThreadLocal<Transaction> current = new ThreadLocal<>();
+        private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+        private AdoptionStatus petStatus = AdoptionStatus.AVAILABLE;
+        private long petVersion;
+
+        VersionedPetStore(int inquiries) {
+            for (long id = 1; id <= inquiries; id++) {
+                statuses.put(id, InquiryStatus.NEW);
+                versions.put(id, 0L);
+            }
+        }
+
+        private static final class Transaction {
+            private Map<Long, InquiryStatus> statuses;
+            private Map<Long, Long> versions;
+            private ShelterPet pet;
+            private long petVersion;
+            private boolean petLocked;
+            private final Map<Long, AdoptionInquiry> writes = new HashMap<>();
+        }
+
+        synchronized void begin() {
+            Transaction transaction = new Transaction();
+            transaction.statuses = new HashMap<>(statuses);
+            transaction.versions = new HashMap<>(versions);
+            transaction.pet = pet(petStatus);
+            transaction.petVersion = petVersion;
+            current.set(transaction);
+        }
+
+        AdoptionInquiry findInquiry(Long id) {
+            Transaction transaction = current.get();
+            AdoptionInquiry inquiry = inquiry(id, transaction.statuses.get(id), transaction.pet);
+            inquiry.setVersion(transaction.versions.get(id));
+            return inquiry;
+        }
+
+        ShelterPet lockPet() {
+            Transaction transaction = current.get();
+            transaction.petLocked = true;
+            return transaction.pet;
+        }
+
+        boolean exists(InquiryStatus status, Long exceptId) {
+            return current.get().statuses.entrySet().stream()
+                .anyMatch(entry -> !entry.getKey().equals(exceptId) && entry.getValue() == status);
+        }
+
+        AdoptionInquiry save(AdoptionInquiry inquiry) {
+            current.get().writes.put(inquiry.getId(), inquiry);
+            return inquiry;
+        }
+
+        void commit() {
+            Transaction transaction = current.get();
+            current.remove();
+            // Widen the window between snapshot and commit so transactions actually overlap
+            Thread.yield();
+            synchronized (this) {
+                boolean stale = transaction.petLocked && transaction.petVersion != petVersion;
+                for (AdoptionInquiry inquiry : transaction.writes.values()) {
+                    stale |= inquiry.getVersion() != versions.get(inquiry.getId());
+                }
+                if (stale) {
+                    rejected.incrementAndGet();
+                    throw conflict();
+                }
+                for (AdoptionInquiry inquiry : transaction.writes.values()) {
+                    statuses.put(inquiry.getId(), inquiry.getStatus());
+                    versions.merge(inquiry.getId(), 1L, Long::sum);
+                }
+                if (transaction.petLocked) {
+                    petStatus = transaction.pet.getAdoptionStatus();
+                    petVersion++;
+                }
+                commits.incrementAndGet();
+                checkInvariants();
+            }
+        }
+
+        void rollback() {
+            current.remove();
+        }
+
+        synchronized long count(InquiryStatus status) {
+            return statuses.values().stream().filter(s -> s == status).count();
+        }
+
+        private void checkInvariants() {
+            long approved = count(InquiryStatus.APPROVED);
+            long completed = count(InquiryStatus.COMPLETED);
+            if (completed > 1) {
+                violations.add(completed + " completed inquiries");
+            } else if (completed == 1 && petStatus != AdoptionStatus.ADOPTED) {
+                violations.add("completed inquiry but pet " + petStatus);
+            } else if (completed == 0 && (petStatus == AdoptionStatus.PENDING) != (approved > 0)) {
+                violations.add("pet " + petStatus + " with " + approved + " approved inquiries " + statuses);
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.auths.models.ShelterProfile;
+import TechWiz.shelter.dto.PetSearchCriteria;
+import TechWiz.shelter.dto.PetSearchResult;
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.models.ShelterPet.AdoptionStatus;
+import TechWiz.shelter.models.ShelterPet.PetType;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AvailablePetIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    // The pets table: what findById and the rebuild scan return
+    private final Map<Long, ShelterPet> table = new HashMap<>();
+    private ShelterPetRepository petRepository;
+    private AvailablePetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        petRepository = mock(ShelterPetRepository.class);
+        when(petRepository.findById(anyLong())).thenAnswer(invocation ->
+            Optional.ofNullable(table.get(invocation.<Long>getArgument(0))));
+        when(petRepository.findByAdoptionStatus(AdoptionStatus.AVAILABLE)).thenAnswer(invocation -> available());
+        index = new AvailablePetIndex(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "petRepository", petRepository);
+    }
+
+    @Test
+    void onlyAvailablePetsAreIndexed() {
+        put(pet(1L, PetType.DOG, "Beagle", 12, "50"));
+        ShelterPet adopted = put(pet(2L, PetType.DOG, "Beagle", 12, "50"));
+        adopted.setAdoptionStatus(AdoptionStatus.ADOPTED);
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(ids(new PetSearchCriteria())).containsExactly(1L);
+    }
+
+    @Test
+    void enumFlagAndBreedFiltersCombine() {
+        ShelterPet rex = put(pet(1L, PetType.DOG, "Golden Retriever", 12, "50"));
+        rex.setVaccinated(true);
+        rex.setGoodWithKids(true);
+        ShelterPet max = put(pet(2L, PetType.DOG, "Labrador Retriever", 24, "80"));
+        max.setVaccinated(false);
+        put(pet(3L, PetType.CAT, "Siamese", 6, "30")).setVaccinated(true);
+        index.rebuild();
+
+        PetSearchCriteria dogs = new PetSearchCriteria();
+        dogs.setType(PetType.DOG);
+        assertThat(ids(dogs)).containsExactlyInAnyOrder(1L, 2L);
+
+        dogs.setBreed(" retriever ");
+        dogs.setVaccinated(true);
+        assertThat(ids(dogs)).containsExactly(1L);
+
+        dogs.setVaccinated(false);
+        assertThat(ids(dogs)).containsExactly(2L);
+
+        PetSearchCriteria birds = new PetSearchCriteria();
+        birds.setType(PetType.BIRD);
+        assertThat(ids(birds)).isEmpty();
+    }
+
+    @Test
+    void ageAndFeeRangesAreInclusiveAndOpenEnded() {
+        put(pet(1L, PetType.DOG, "Beagle", 6, "20"));
+        put(pet(2L, PetType.DOG, "Beagle", 12, "50"));
+        put(pet(3L, PetType.DOG, "Beagle", 24, "80.00"));
+        index.rebuild();
+
+        PetSearchCriteria criteria = new PetSearchCriteria();
+        criteria.setMinAgeInMonths(12);
+        assertThat(ids(criteria)).containsExactlyInAnyOrder(2L, 3L);
+        criteria.setMaxAgeInMonths(12);
+        assertThat(ids(criteria)).containsExactly(2L);
+        criteria.setMinAgeInMonths(13);
+        assertThat(ids(criteria)).isEmpty();
+
+        PetSearchCriteria fees = new PetSearchCriteria();
+        fees.setMaxAdoptionFee(new BigDecimal("50"));
+        assertThat(ids(fees)).containsExactlyInAnyOrder(1L, 2L);
+        fees.setMinAdoptionFee(new BigDecimal("50.00"));
+        fees.setMaxAdoptionFee(new BigDecimal("80"));
+        assertThat(ids(fees)).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void facetsCountTheWholeMatchSetNotThePage() {
+        put(pet(1L, PetType.DOG, "Beagle", 6, "20")).setVaccinated(true);
+        put(pet(2L, PetType.DOG, "Beagle", 12, "50"));
+        put(pet(3L, PetType.CAT, "Siamese", 24, "80"));
+        index.rebuild();
+
+        PetSearchResult result = index.search(new PetSearchCriteria(), PageRequest.of(0, 1));
+
+        assertThat(result.getPetIds()).hasSize(1);
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getFacets().get("type")).containsEntry("DOG", 2L).containsEntry("CAT", 1L);
+        assertThat(result.getFacets().get("vaccinated")).containsEntry("true", 1L).containsEntry("false", 2L);
+    }
+
+    @Test
+    void pagesMatchAFullSortForEverySupportedOrder() {
+        Random random = new Random(7);
+        List<ShelterPet> pets = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            // Few distinct values, so ties and the id tie-break are exercised
+            ShelterPet pet = pet(id, PetType.values()[random.nextInt(3)], "Breed " + random.nextInt(5),
+                random.nextInt(10), String.valueOf(random.nextInt(4) * 25));
+            pet.setName("Pet " + random.nextInt(50));
+            pet.setCreatedAt(BASE.plusDays(random.nextInt(20)));
+            pets.add(put(pet));
+        }
+        index.rebuild();
+
+        Map<Sort, Comparator<ShelterPet>> orders = Map.of(
+            Sort.by(Sort.Direction.DESC, "createdAt"), Comparator.comparing(ShelterPet::getCreatedAt).reversed(),
+            Sort.by("ageInMonths").and(Sort.by(Sort.Direction.DESC, "adoptionFee")),
+                Comparator.comparing(ShelterPet::getAgeInMonths)
+                    .thenComparing(Comparator.comparing(ShelterPet::getAdoptionFee).reversed()),
+            Sort.by("name"), Comparator.comparing(ShelterPet::getName, String.CASE_INSENSITIVE_ORDER));
+        orders.forEach((sort, comparator) -> {
+            List<Long> expected = pets.stream()
+                .sorted(comparator.thenComparing(ShelterPet::getId)).map(ShelterPet::getId).toList();
+            for (int page = 0; page * 40 < 320; page++) {
+                PetSearchResult result = index.search(new PetSearchCriteria(), PageRequest.of(page, 40, sort));
+                int from = Math.min(page * 40, expected.size());
+                assertThat(result.getPetIds()).as(sort + " page " + page)
+                    .containsExactlyElementsOf(expected.subList(from, Math.min(from + 40, expected.size())));
+                assertThat(result.getTotalElements()).isEqualTo(300);
+            }
+        });
+    }
+
+    @Test
+    void removedSlotIsReusedAndLeavesNoStaleBits() {
+        put(pet(1L, PetType.DOG, "Beagle", 12, "50"));
+        put(pet(2L, PetType.CAT, "Siamese", 12, "50"));
+        index.rebuild();
+
+        table.get(1L).setAdoptionStatus(AdoptionStatus.ADOPTED);
+        index.onPetChanged(new PetChangedEvent(1L));
+        put(pet(3L, PetType.RABBIT, "Lop", 3, "10"));
+        index.onPetChanged(new PetChangedEvent(3L));
+
+        assertThat(slotCount()).isEqualTo(2);
+        PetSearchCriteria dogs = new PetSearchCriteria();
+        dogs.setType(PetType.DOG);
+        assertThat(ids(dogs)).isEmpty();
+        PetSearchCriteria beagles = new PetSearchCriteria();
+        beagles.setBreed("beagle");
+        assertThat(ids(beagles)).isEmpty();
+        PetSearchCriteria rabbits = new PetSearchCriteria();
+        rabbits.setType(PetType.RABBIT);
+        assertThat(ids(rabbits)).containsExactly(3L);
+        assertThat(ids(new PetSearchCriteria())).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void changeCommittedWhileTheRebuildScansIsReplayed() {
+        put(pet(1L, PetType.DOG, "Beagle", 12, "50"));
+        put(pet(2L, PetType.DOG, "Beagle", 12, "50"));
+        // The scan sees pet 1 as available, then pet 1 is adopted and its event arrives mid-rebuild
+        when(petRepository.findByAdoptionStatus(AdoptionStatus.AVAILABLE)).thenAnswer(invocation -> {
+            List<ShelterPet> snapshot = available();
+            table.get(1L).setAdoptionStatus(AdoptionStatus.ADOPTED);
+            index.onPetChanged(new PetChangedEvent(1L));
+            return snapshot;
+        });
+
+        index.rebuild();
+
+        assertThat(ids(new PetSearchCriteria())).containsExactly(2L);
+    }
+
+    @Test
+    void failedRebuildKeepsThePreviousIndex() {
+        put(pet(1L, PetType.DOG, "Beagle", 12, "50"));
+        index.rebuild();
+        when(petRepository.findByAdoptionStatus(AdoptionStatus.AVAILABLE)).thenThrow(new RuntimeException("down"));
+
+        index.rebuild();
+
+        assertThat(ids(new PetSearchCriteria())).containsExactly(1L);
+    }
+
+    private List<Long> ids(PetSearchCriteria criteria) {
+        return index.search(criteria, PageRequest.of(0, 100)).getPetIds();
+    }
+
+    private List<ShelterPet> available() {
+        return table.values().stream().filter(pet -> pet.getAdoptionStatus() == AdoptionStatus.AVAILABLE)
+            .map(AvailablePetIndexTest::copy).toList();
+    }
+
+    private int slotCount() {
+        Object bitmaps = ReflectionTestUtils.getField(index, "bitmaps");
+        return ((List<?>) ReflectionTestUtils.getField(bitmaps, "docs")).size();
+    }
+
+    private ShelterPet put(ShelterPet pet) {
+        table.put(pet.getId(), pet);
+        return pet;
+    }
+
+    private static ShelterPet pet(Long id, PetType type, String breed, int ageInMonths, String fee) {
+        ShelterProfile shelter = new ShelterProfile();
+        shelter.setId(1L);
+        ShelterPet pet = new ShelterPet();
+        pet.setId(id);
+        pet.setShelterProfile(shelter);
+        pet.setName("Pet " + id);
+        pet.setType(type);
+        pet.setBreed(breed);
+        pet.setGender(ShelterPet.Gender.FEMALE);
+        pet.setSize(ShelterPet.Size.MEDIUM);
+        pet.setAgeInMonths(ageInMonths);
+        pet.setAdoptionFee(new BigDecimal(fee));
+        pet.setCreatedAt(BASE.plusMinutes(id));
+        return pet;
+    }
+
+    // The scan returns its own entities, as a new persistence context would
+    private static ShelterPet copy(ShelterPet source) {
+        ShelterPet pet = pet(source.getId(), source.getType(), source.getBreed(), source.getAgeInMonths(),
+            source.getAdoptionFee().toPlainString());
+        pet.setName(source.getName());
+        pet.setVaccinated(source.getVaccinated());
+        pet.setGoodWithKids(source.getGoodWithKids());
+        pet.setCreatedAt(source.getCreatedAt());
+        return pet;
+    }
+}
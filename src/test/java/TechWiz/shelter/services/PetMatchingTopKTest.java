@@ -0,0 +1,102 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import TechWiz.shelter.services.PetMatchingService.TopK;
+
+class PetMatchingTopKTest {
+
+    private static final int ID_BITS = 40;
+
+    @Test
+    void keepsEverythingWhileUnderCapacity() {
+        TopK top = new TopK(5);
+        top.offer(3);
+        top.offer(1);
+        top.offer(2);
+
+        assertThat(top.toSortedDescending()).containsExactly(3, 2, 1);
+    }
+
+    @Test
+    void emptyHeapYieldsNoKeys() {
+        assertThat(new TopK(5).toSortedDescending()).isEmpty();
+    }
+
+    @Test
+    void keepsTheKLargestOfARandomStream() {
+        Random random = new Random(7);
+        long[] keys = random.longs(10_000, 0, 1L << 50).toArray();
+        TopK top = new TopK(50);
+        for (long key : keys) {
+            top.offer(key);
+        }
+
+        long[] expected = LongStream.of(keys).boxed().sorted((a, b) -> Long.compare(b, a))
+            .limit(50).mapToLong(Long::longValue).toArray();
+        assertThat(top.toSortedDescending()).containsExactly(expected);
+    }
+
+    @Test
+    void equalScoresAreBrokenByHigherPetId() {
+        TopK top = new TopK(2);
+        top.offer(key(80, 1));
+        top.offer(key(80, 3));
+        top.offer(key(80, 2));
+        top.offer(key(70, 99));
+
+        assertThat(top.toSortedDescending()).containsExactly(key(80, 3), key(80, 2));
+    }
+
+    @Test
+    void duplicateKeysAndKeysEqualToTheMinimumAreHandled() {
+        TopK top = new TopK(3);
+        for (int i = 0; i < 5; i++) {
+            top.offer(10);
+        }
+        top.offer(5);
+        top.offer(20);
+
+        assertThat(top.toSortedDescending()).containsExactly(20, 10, 10);
+    }
+
+    @Test
+    void capacityOfOneKeepsTheMaximum() {
+        TopK top = new TopK(1);
+        for (long key : new long[] { 4, 9, 2, 9, 7 }) {
+            top.offer(key);
+        }
+
+        assertThat(top.toSortedDescending()).containsExactly(9);
+    }
+
+    @Test
+    void mergingSliceHeapsEqualsOneHeapOverEverything() {
+        Random random = new Random(11);
+        TopK whole = new TopK(20);
+        TopK merged = new TopK(20);
+        for (int slice = 0; slice < 8; slice++) {
+            TopK part = new TopK(20);
+            for (int i = 0; i < 500; i++) {
+                long key = key(random.nextInt(101), slice * 500L + i);
+                part.offer(key);
+                whole.offer(key);
+            }
+            merged.offerAll(part);
+        }
+
+        assertThat(merged.toSortedDescending()).containsExactly(whole.toSortedDescending());
+        long[] sorted = merged.toSortedDescending();
+        assertThat(Arrays.stream(sorted).boxed().toList()).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    private static long key(int score, long petId) {
+        return ((long) score << ID_BITS) | petId;
+    }
+}
@@ -0,0 +1,133 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import TechWiz.shelter.events.PetChangedEvent;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PetViewCounterServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private RedisTemplate<String, Object> redisTemplate;
+    private HyperLogLogOperations<String, Object> hyperLogLog;
+    private ShelterPetRepository petRepository;
+    private PetViewCounterService counter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        redisTemplate = mock(RedisTemplate.class);
+        hyperLogLog = mock(HyperLogLogOperations.class);
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hyperLogLog);
+        petRepository = mock(ShelterPetRepository.class);
+        when(petRepository.existsById(1L)).thenReturn(true);
+
+        counter = new PetViewCounterService(mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(counter, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(counter, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(counter, "petRepository", petRepository);
+        ReflectionTestUtils.setField(counter, "flushBatchSize", 500);
+        ReflectionTestUtils.setField(counter, "uniqueViewersTtlDays", 30L);
+    }
+
+    @Test
+    void unknownPetIsNotCounted() {
+        assertThat(counter.recordView(404L, "ip:1")).isFalse();
+
+        counter.flush();
+
+        assertThat(pending()).isEmpty();
+        verifyNoInteractions(hyperLogLog, jdbcTemplate);
+    }
+
+    @Test
+    void knownPetIsCheckedOnceUntilItChanges() {
+        counter.recordView(1L, null);
+        counter.recordView(1L, null);
+        verify(petRepository, times(1)).existsById(1L);
+
+        counter.onPetChanged(new PetChangedEvent(1L));
+        counter.recordView(1L, null);
+        verify(petRepository, times(2)).existsById(1L);
+    }
+
+    @Test
+    void idleAdderIsDroppedAfterAFullInterval() {
+        counter.recordView(1L, null);
+
+        counter.flush();
+        assertThat(pending()).containsKey(1L);
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+
+        // No views since the last flush: the adder is retired, then discarded
+        counter.flush();
+        assertThat(pending()).isEmpty();
+        counter.flush();
+        assertThat(retired()).isEmpty();
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void viewLandingInARetiredAdderIsStillFlushed() {
+        counter.recordView(1L, null);
+        counter.flush();
+        LongAdder adder = pending().get(1L);
+        counter.flush();
+
+        // A recordView that fetched the adder before it was retired
+        adder.increment();
+        counter.flush();
+
+        verify(jdbcTemplate, times(4)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void uniqueViewerKeyExpiresOnlyWhenTheEstimateChanges() {
+        when(hyperLogLog.add("pet:viewers:1", "u:7")).thenReturn(1L, 0L);
+
+        counter.recordView(1L, "u:7");
+        counter.recordView(1L, "u:7");
+
+        verify(redisTemplate, times(1)).expire(eq("pet:viewers:1"), eq(Duration.ofDays(30)));
+    }
+
+    @Test
+    void viewWithoutViewerKeySkipsRedis() {
+        counter.recordView(1L, null);
+
+        verify(redisTemplate, never()).opsForHyperLogLog();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, LongAdder> pending() {
+        return (Map<Long, LongAdder>) ReflectionTestUtils.getField(counter, "pendingViews");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, LongAdder> retired() {
+        return (Map<Long, LongAdder>) ReflectionTestUtils.getField(counter, "retiredViews");
+    }
+}
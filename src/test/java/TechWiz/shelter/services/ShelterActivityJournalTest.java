@@ -0,0 +1,140 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.auths.configs.DatabaseMigration;
+import TechWiz.auths.models.Role;
+import TechWiz.auths.models.ShelterProfile;
+import TechWiz.auths.models.User;
+import TechWiz.shelter.models.ShelterActivity;
+import TechWiz.shelter.models.ShelterActivity.ActivityType;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.repositories.ShelterActivityRepository;
+
+/**
+ * The dashboard's top-N journal read and the seeding of journals for shelters that predate it.
+ * Runs against a scratch MySQL schema (created and dropped here) and is skipped when
+ * -Dtest.mysql.url is not set, see TechWiz.support.ExternalServices.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "test.mysql.url", matches = ".+")
+class ShelterActivityJournalTest {
+
+    @DynamicPropertySource
+    static void mysql(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("test.mysql.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("test.mysql.user", "root"));
+        registry.add("spring.datasource.password", () -> System.getProperty("test.mysql.password", ""));
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ShelterActivityRepository activityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void topNIsNewestFirstWithTiesBrokenByInsertOrder() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 7; i++) {
+            // Entries 3 and 4 share a timestamp
+            entry(1L, "entry " + i, now.minusMinutes(i == 4 ? 3 : i));
+        }
+        entry(2L, "other shelter", now.plusMinutes(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ShelterActivity> recent = activityRepository.findByShelterProfileIdOrderByCreatedAtDescIdDesc(
+            1L, PageRequest.of(0, 5));
+
+        assertThat(recent).hasSize(5);
+        assertThat(recent).allSatisfy(entry -> assertThat(entry.getShelterProfileId()).isEqualTo(1L));
+        for (int i = 1; i < recent.size(); i++) {
+            ShelterActivity newer = recent.get(i - 1);
+            ShelterActivity older = recent.get(i);
+            assertThat(newer.getCreatedAt()).isAfterOrEqualTo(older.getCreatedAt());
+            if (newer.getCreatedAt().equals(older.getCreatedAt())) {
+                assertThat(newer.getId()).isGreaterThan(older.getId());
+            }
+        }
+    }
+
+    @Test
+    void sheltersWithoutAJournalAreSeededFromTheirPetsOnce() {
+        ShelterProfile seeded = shelter(1);
+        pet(seeded, "Rex");
+        pet(seeded, "Bella");
+        ShelterProfile journalled = shelter(2);
+        pet(journalled, "Max");
+        entry(journalled.getId(), "already here", LocalDateTime.now());
+        entityManager.flush();
+
+        DatabaseMigration migration = new DatabaseMigration();
+        ReflectionTestUtils.setField(migration, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.invokeMethod(migration, "seedShelterActivities");
+        ReflectionTestUtils.invokeMethod(migration, "seedShelterActivities");
+        entityManager.clear();
+
+        List<ShelterActivity> feed = activityRepository.findByShelterProfileIdOrderByCreatedAtDescIdDesc(
+            seeded.getId(), PageRequest.of(0, 5));
+        assertThat(feed).extracting(ShelterActivity::getSubject)
+            .containsExactlyInAnyOrder("Rex (Mixed)", "Bella (Mixed)");
+        assertThat(feed).allSatisfy(entry -> assertThat(entry.getType()).isEqualTo(ActivityType.PET_ADDED));
+        assertThat(activityRepository.findByShelterProfileIdOrderByCreatedAtDescIdDesc(
+            journalled.getId(), PageRequest.of(0, 5)))
+            .extracting(ShelterActivity::getAction).containsExactly("already here");
+    }
+
+    private void entry(Long shelterProfileId, String action, LocalDateTime createdAt) {
+        ShelterActivity activity = new ShelterActivity();
+        activity.setShelterProfileId(shelterProfileId);
+        activity.setType(ActivityType.PET_UPDATED);
+        activity.setAction(action);
+        activity.setSubject("Pet");
+        activity.setCreatedAt(createdAt);
+        entityManager.persist(activity);
+    }
+
+    private ShelterProfile shelter(int n) {
+        User user = new User("journal" + n + "@petcare.test", "x", "Shelter " + n, "0123456789", Role.SHELTER);
+        entityManager.persist(user);
+        ShelterProfile shelter = new ShelterProfile();
+        shelter.setUser(user);
+        shelter.setShelterName("Shelter " + n);
+        shelter.setAddress(n + " Main Street");
+        shelter.setContactPersonName("Contact " + n);
+        return entityManager.persist(shelter);
+    }
+
+    private void pet(ShelterProfile shelter, String name) {
+        ShelterPet pet = new ShelterPet();
+        pet.setShelterProfile(shelter);
+        pet.setName(name);
+        pet.setType(ShelterPet.PetType.DOG);
+        pet.setBreed("Mixed");
+        pet.setAgeInMonths(12);
+        pet.setGender(ShelterPet.Gender.FEMALE);
+        pet.setSize(ShelterPet.Size.MEDIUM);
+        entityManager.persist(pet);
+    }
+}
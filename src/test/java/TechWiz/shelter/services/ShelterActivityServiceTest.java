@@ -0,0 +1,97 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.auths.models.ShelterProfile;
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.ShelterActivity;
+import TechWiz.shelter.models.ShelterActivity.ActivityType;
+import TechWiz.shelter.models.ShelterPet;
+import TechWiz.shelter.repositories.ShelterActivityRepository;
+
+class ShelterActivityServiceTest {
+
+    private final List<ShelterActivity> saved = new ArrayList<>();
+    private ShelterActivityRepository repository;
+    private ShelterActivityService service;
+    private ShelterPet pet;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ShelterActivityRepository.class);
+        when(repository.save(any(ShelterActivity.class))).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        service = new ShelterActivityService();
+        ReflectionTestUtils.setField(service, "activityRepository", repository);
+
+        ShelterProfile shelter = new ShelterProfile();
+        shelter.setId(3L);
+        pet = new ShelterPet();
+        pet.setId(10L);
+        pet.setName("Rex");
+        pet.setBreed("Beagle");
+        pet.setShelterProfile(shelter);
+    }
+
+    @Test
+    void petChangesAreJournalledAgainstTheShelter() {
+        service.recordPetAdded(pet);
+        pet.setAdoptionStatus(ShelterPet.AdoptionStatus.ADOPTED);
+        service.recordPetStatusChanged(pet);
+        pet.setAdoptionStatus(ShelterPet.AdoptionStatus.PENDING);
+        service.recordPetStatusChanged(pet);
+        service.recordPetRemoved(pet);
+
+        assertThat(saved).extracting(ShelterActivity::getType).containsExactly(ActivityType.PET_ADDED,
+            ActivityType.PET_STATUS_CHANGED, ActivityType.PET_STATUS_CHANGED, ActivityType.PET_REMOVED);
+        assertThat(saved).extracting(ShelterActivity::getAction).containsExactly("Added new pet",
+            "Confirmed adoption", "Updated status to PENDING", "Removed pet");
+        assertThat(saved).allSatisfy(entry -> {
+            assertThat(entry.getShelterProfileId()).isEqualTo(3L);
+            assertThat(entry.getPetId()).isEqualTo(10L);
+            assertThat(entry.getSubject()).isEqualTo("Rex (Beagle)");
+            assertThat(entry.getInquiryId()).isNull();
+        });
+    }
+
+    @Test
+    void inquiryEntriesCarryBothIdsAndFitTheColumns() {
+        AdoptionInquiry inquiry = new AdoptionInquiry();
+        inquiry.setId(20L);
+        inquiry.setPet(pet);
+        inquiry.setShelterProfile(pet.getShelterProfile());
+        inquiry.setAdopterName("A".repeat(150));
+        pet.setName("N".repeat(250));
+
+        service.recordInquiryReceived(inquiry);
+
+        ShelterActivity entry = saved.get(0);
+        assertThat(entry.getType()).isEqualTo(ActivityType.INQUIRY_RECEIVED);
+        assertThat(entry.getPetId()).isEqualTo(10L);
+        assertThat(entry.getInquiryId()).isEqualTo(20L);
+        assertThat(entry.getAction()).hasSize(100).startsWith("New adoption inquiry from A");
+        assertThat(entry.getSubject()).hasSize(200);
+    }
+
+    @Test
+    void recentActivitiesAreReadAsOneBoundedPage() {
+        service.getRecentActivities(3L, 5);
+
+        verify(repository).findByShelterProfileIdOrderByCreatedAtDescIdDesc(eq(3L), eq(PageRequest.of(0, 5)));
+    }
+}
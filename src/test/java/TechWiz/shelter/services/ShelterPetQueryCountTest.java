@@ -0,0 +1,177 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import TechWiz.auths.models.Role;
+import TechWiz.auths.models.ShelterProfile;
+import TechWiz.auths.models.User;
+import TechWiz.auths.services.ProfileLocationIndex;
+import TechWiz.common.search.SearchIndexService;
+import TechWiz.shelter.dto.PetResponseDto;
+import TechWiz.shelter.dto.PetSearchCriteria;
+import TechWiz.shelter.models.AdoptionInquiry;
+import TechWiz.shelter.models.ShelterPet;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Upper bound on SQL statements per pet page: rows, total count and the two inquiry aggregates,
+ * independent of page size. Runs against a scratch MySQL schema (created and dropped here) and
+ * is skipped when -Dtest.mysql.url is not set, see TechWiz.support.ExternalServices.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "test.mysql.url", matches = ".+")
+@Import(ShelterPetService.class)
+class ShelterPetQueryCountTest {
+
+    private static final int PETS_PER_SHELTER = 20;
+    private static final long MAX_STATEMENTS_PER_PAGE = 4;
+
+    @DynamicPropertySource
+    static void mysql(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("test.mysql.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("test.mysql.user", "root"));
+        registry.add("spring.datasource.password", () -> System.getProperty("test.mysql.password", ""));
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    @MockitoBean
+    private PetViewCounterService petViewCounterService;
+
+    @MockitoBean
+    private ShelterStatsService shelterStatsService;
+
+    @MockitoBean
+    private ShelterActivityService activityService;
+
+    @MockitoBean
+    private AvailablePetIndex availablePetIndex;
+
+    @MockitoBean
+    private ProfileLocationIndex profileLocationIndex;
+
+    @MockitoBean
+    private PetMatchingService petMatchingService;
+
+    @MockitoBean
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private ShelterPetService shelterPetService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long firstShelterId;
+
+    @BeforeEach
+    void seed() {
+        for (int s = 0; s < 3; s++) {
+            ShelterProfile shelter = shelter(s);
+            if (firstShelterId == null) {
+                firstShelterId = shelter.getId();
+            }
+            for (int p = 0; p < PETS_PER_SHELTER; p++) {
+                ShelterPet pet = pet(shelter, s + "-" + p);
+                // A few inquiries per pet so the counts have something to aggregate
+                for (int i = 0; i < p % 3; i++) {
+                    inquiry(pet, i == 0 ? AdoptionInquiry.InquiryStatus.NEW : AdoptionInquiry.InquiryStatus.IN_REVIEW);
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shelterPageUsesAFixedNumberOfStatements() {
+        Statistics statistics = statistics();
+
+        Page<PetResponseDto> page = shelterPetService.getPetsByShelterId(
+            firstShelterId, null, null, null, null, null, null, null, PageRequest.of(0, PETS_PER_SHELTER));
+
+        assertThat(page.getContent()).hasSize(PETS_PER_SHELTER);
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto.getShelter().getShelterName()).isNotNull());
+        assertThat(page.getContent().stream().mapToLong(PetResponseDto::getTotalInquiries).sum()).isPositive();
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    void adoptablePageAcrossSheltersUsesAFixedNumberOfStatements() {
+        Statistics statistics = statistics();
+
+        Page<PetResponseDto> page = shelterPetService.getAvailablePetsForAdoption(
+            new PetSearchCriteria(), PageRequest.of(0, 50, Sort.by("createdAt").descending())).getPage();
+
+        assertThat(page.getContent()).hasSize(50);
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto.getShelter().getImageUrl()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private ShelterProfile shelter(int n) {
+        User user = new User("shelter" + n + "@petcare.test", "x", "Shelter " + n, "0123456789", Role.SHELTER);
+        user.setProfileImageUrl("https://img.petcare.test/shelter" + n + ".png");
+        entityManager.persist(user);
+
+        ShelterProfile shelter = new ShelterProfile();
+        shelter.setUser(user);
+        shelter.setShelterName("Shelter " + n);
+        shelter.setAddress(n + " Main Street");
+        shelter.setContactPersonName("Contact " + n);
+        return entityManager.persist(shelter);
+    }
+
+    private ShelterPet pet(ShelterProfile shelter, String name) {
+        ShelterPet pet = new ShelterPet();
+        pet.setShelterProfile(shelter);
+        pet.setName("Pet " + name);
+        pet.setType(ShelterPet.PetType.DOG);
+        pet.setBreed("Mixed");
+        pet.setAgeInMonths(12);
+        pet.setGender(ShelterPet.Gender.FEMALE);
+        pet.setSize(ShelterPet.Size.MEDIUM);
+        pet.setAdoptionFee(new BigDecimal("50.00"));
+        return entityManager.persist(pet);
+    }
+
+    private void inquiry(ShelterPet pet, AdoptionInquiry.InquiryStatus status) {
+        AdoptionInquiry inquiry = new AdoptionInquiry();
+        inquiry.setPet(pet);
+        inquiry.setShelterProfile(pet.getShelterProfile());
+        inquiry.setAdopterName("Adopter");
+        inquiry.setAdopterEmail("adopter@petcare.test");
+        inquiry.setAdopterPhone("0123456789");
+        inquiry.setMessage("Hello");
+        inquiry.setStatus(status);
+        entityManager.persist(inquiry);
+    }
+}
@@ -0,0 +1,87 @@
+package TechWiz.shelter.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import TechWiz.shelter.dto.ShelterStatsDto;
+import TechWiz.shelter.events.ShelterStatsChangedEvent;
+import TechWiz.shelter.models.AdoptionInquiry.InquiryStatus;
+import TechWiz.shelter.models.ShelterPet.AdoptionStatus;
+import TechWiz.shelter.repositories.AdoptionInquiryRepository;
+import TechWiz.shelter.repositories.ShelterPetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ShelterStatsServiceTest {
+
+    private ShelterPetRepository petRepository;
+    private AdoptionInquiryRepository inquiryRepository;
+    private ShelterStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        petRepository = mock(ShelterPetRepository.class);
+        inquiryRepository = mock(AdoptionInquiryRepository.class);
+        when(petRepository.countByShelterProfileIdGroupByAdoptionStatus(1L)).thenReturn(rows(
+            new Object[] {AdoptionStatus.AVAILABLE, 3L}, new Object[] {AdoptionStatus.ADOPTED, 2L}));
+        when(inquiryRepository.countByShelterProfileIdGroupByStatus(1L)).thenReturn(rows(
+            new Object[] {InquiryStatus.NEW, 4L}));
+
+        service = new ShelterStatsService();
+        ReflectionTestUtils.setField(service, "petRepository", petRepository);
+        ReflectionTestUtils.setField(service, "adoptionInquiryRepository", inquiryRepository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "maxEntries", 100);
+        ReflectionTestUtils.setField(service, "ttlSeconds", 300L);
+        service.init();
+    }
+
+    @Test
+    void histogramsListEveryStatusWithMissingOnesAsZero() {
+        ShelterStatsDto stats = service.getStats(1L);
+
+        assertThat(stats.getTotalPets()).isEqualTo(5);
+        assertThat(stats.getPetCount(AdoptionStatus.AVAILABLE)).isEqualTo(3);
+        assertThat(stats.getPetCount(AdoptionStatus.PENDING)).isZero();
+        assertThat(stats.getPetsByStatus()).hasSize(AdoptionStatus.values().length);
+        assertThat(stats.getTotalInquiries()).isEqualTo(4);
+        assertThat(stats.getInquiriesByStatus()).hasSize(InquiryStatus.values().length);
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        service.getStats(1L);
+        service.getStats(1L);
+
+        verify(petRepository, times(1)).countByShelterProfileIdGroupByAdoptionStatus(1L);
+        verify(inquiryRepository, times(1)).countByShelterProfileIdGroupByStatus(1L);
+    }
+
+    @Test
+    void statsChangedEventDropsOnlyThatShelter() {
+        service.getStats(1L);
+        service.getStats(2L);
+        when(petRepository.countByShelterProfileIdGroupByAdoptionStatus(1L)).thenReturn(rows(
+            new Object[] {AdoptionStatus.AVAILABLE, 2L}, new Object[] {AdoptionStatus.ADOPTED, 3L}));
+
+        service.onStatsChanged(new ShelterStatsChangedEvent(1L));
+
+        assertThat(service.getStats(1L).getPetCount(AdoptionStatus.ADOPTED)).isEqualTo(3);
+        service.getStats(2L);
+        verify(petRepository, times(2)).countByShelterProfileIdGroupByAdoptionStatus(1L);
+        verify(petRepository, times(1)).countByShelterProfileIdGroupByAdoptionStatus(2L);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -0,0 +1,72 @@
+package TechWiz.support;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Connections for tests that need a real MySQL or Redis. Each test using one is skipped, not
+ * failed, when the service is not configured or does not answer.
+ *
+ * MySQL: -Dtest.mysql.url=jdbc:mysql://localhost:3306/scratch -Dtest.mysql.user=... -Dtest.mysql.password=...
+ * Redis: -Dtest.redis.host (default localhost), -Dtest.redis.port (6379), -Dtest.redis.database (15).
+ * Tests flush the Redis database they are given, so point them at a scratch one.
+ */
+public final class ExternalServices {
+
+    private ExternalServices() {
+    }
+
+    public static DataSource mysqlOrSkip() {
+        String url = System.getProperty("test.mysql.url");
+        assumeTrue(url != null && !url.isBlank(), "MySQL not configured, set -Dtest.mysql.url");
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+            System.getProperty("test.mysql.user", "root"), System.getProperty("test.mysql.password", ""));
+        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        return dataSource;
+    }
+
+    public static LettuceConnectionFactory redisOrSkip() {
+        RedisStandaloneConfiguration server = new RedisStandaloneConfiguration(
+            System.getProperty("test.redis.host", "localhost"),
+            Integer.getInteger("test.redis.port", 6379));
+        server.setDatabase(Integer.getInteger("test.redis.database", 15));
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(server,
+            LettuceClientConfiguration.builder().commandTimeout(Duration.ofSeconds(5)).build());
+        try {
+            factory.afterPropertiesSet();
+            factory.start();
+            factory.getConnection().ping();
+        } catch (Exception e) {
+            factory.destroy();
+            assumeTrue(false, "Redis not reachable at " + server.getHostName() + ":" + server.getPort());
+        }
+        return factory;
+    }
+
+    // Serialized the same way as RedisConfig's template
+    public static RedisTemplate<String, Object> redisTemplate(LettuceConnectionFactory factory) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(factory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    public static void flush(LettuceConnectionFactory factory) {
+        factory.getConnection().serverCommands().flushDb();
+    }
+}